@@ -2,6 +2,10 @@ desc users;
 desc group_data;
 desc group_membership;
 desc file_data;
+desc file_chunks;
+desc file_data_chunks;
 desc pages;
 desc file_revisions;
-desc comments;
\ No newline at end of file
+desc comments;
+desc revision_blame;
+desc schema_migrations;
\ No newline at end of file
@@ -1,4 +1,5 @@
 -- create tables
+-- 이미 만든 DB는 ConnectionManager.connect에서 SchemaMigrator가 최신 스키마로 바꾼다 (schema_migrations에 버전 기록)
 
 create table users (
     user_id serial primary key,
@@ -20,22 +21,54 @@ create table group_membership (
     group_id bigint unsigned not null references group_data(group_id) on delete cascade,
     user_id bigint unsigned not null references users(user_id) on delete cascade,
     user_role varchar(50),
-    joined_at timestamp default current_timestamp not null
+    joined_at timestamp default current_timestamp not null,
+    key idx_group_membership_user (user_id, group_id, user_role), -- 사용자의 그룹 목록과 가입 여부를 index만으로 조회
+    key idx_group_membership_group (group_id) -- 그룹 삭제 시 membership 삭제
 );
 
 create table file_data (
     actual_data_id serial primary key,
-    content blob,
-    checksum varchar(64),
+    content longblob, -- 큰 파일도 저장할 수 있도록 longblob (blob은 64KB 제한)
+    checksum varchar(64), -- 저장 형태와 관계없이 항상 전체 내용의 SHA-256
+    storage_type varchar(10) default 'FULL' not null, -- FULL: 전체 내용 (keyframe), DELTA: base_data_id에 대한 delta, CHUNKED: file_data_chunks의 chunk 목록
+    base_data_id bigint unsigned, -- ALTER TABLE에서 FK 추가 예정
+    chain_depth int default 0 not null, -- keyframe으로부터의 delta 체인 길이
+    content_size bigint, -- 복원된 전체 내용의 크기
+    blob_location varchar(64), -- 내용을 BlobStore(pack 파일)에 저장한 경우의 위치, 이때 content는 NULL
+    created_at timestamp default current_timestamp not null,
+    unique key uq_file_data_checksum (checksum) -- 같은 내용은 하나의 행만 저장 (content-addressed)
+);
+
+-- 내용 기반으로 자른 chunk, chunk_hash(SHA-256)로 식별하며 여러 file_data가 공유
+create table file_chunks (
+    chunk_hash varchar(64) primary key,
+    content mediumblob, -- blob_location이 있으면 NULL
+    chunk_size int not null,
+    blob_location varchar(64), -- 내용을 BlobStore(pack 파일)에 저장한 경우의 위치
     created_at timestamp default current_timestamp not null
 );
 
+-- CHUNKED file_data의 chunk 순서 목록 (manifest)
+create table file_data_chunks (
+    actual_data_id bigint unsigned not null,
+    chunk_index int not null,
+    chunk_hash varchar(64) not null,
+    chunk_offset bigint not null,
+    chunk_size int not null,
+    primary key (actual_data_id, chunk_index),
+    key idx_file_data_chunks_hash (chunk_hash),
+    key idx_file_data_chunks_offset (actual_data_id, chunk_offset), -- 범위 읽기 시 구간에 걸친 chunk만 조회
+    foreign key (actual_data_id) references file_data (actual_data_id) on delete cascade,
+    foreign key (chunk_hash) references file_chunks (chunk_hash)
+);
+
 create table pages (
     page_id serial primary key,
     group_id bigint unsigned not null references group_data(group_id) on delete cascade,
     page_name varchar(255) not null,
     created_at timestamp default current_timestamp not null,
-    latest_revision_id bigint unsigned -- ALTER TABLE에서 FK 추가 예정
+    latest_revision_id bigint unsigned, -- ALTER TABLE에서 FK 추가 예정
+    key idx_pages_group (group_id, page_id, latest_revision_id) -- 그룹의 페이지 목록과 최신 revision join
 );
 
 create table comments (
@@ -44,7 +77,8 @@ create table comments (
     commented_by_user_id bigint unsigned not null references users(user_id) on delete set null,
     commented_by_user_name varchar(255) not null references users(user_name) on delete set null,
     comment_data text,
-    created_at timestamp default current_timestamp not null
+    created_at timestamp default current_timestamp not null,
+    key idx_comments_page_created (page_id, created_at) -- 페이지의 댓글 목록 (작성 순)
 );
 
 create table file_revisions (
@@ -54,7 +88,19 @@ create table file_revisions (
     committed_by_user_id bigint unsigned not null references users(user_id) on delete set null,
     parent_revision_id bigint unsigned, -- ALTER TABLE에서 FK 추가 예정
     commit_message text,
-    created_at timestamp default current_timestamp not null
+    created_at timestamp default current_timestamp not null,
+    key idx_file_revisions_page_revision (page_id, revision_id), -- 페이지별 revision 그래프 조회 (revision_id 순)
+    key idx_file_revisions_page_created (page_id, created_at, revision_id), -- 페이지별 기록 목록의 정렬과 keyset pagination
+    key idx_file_revisions_data (actual_data_id) -- file_data 삭제 전 참조 확인
+);
+
+-- revision마다 각 줄을 마지막으로 바꾼 revision (blame), 부모의 결과에 diff만 반영하여 계산
+create table revision_blame (
+    revision_id bigint unsigned primary key,
+    line_count int not null,
+    blame mediumblob not null, -- (연속된 줄 수, revision_id) 쌍의 varint 목록
+    created_at timestamp default current_timestamp not null,
+    foreign key (revision_id) references file_revisions (revision_id) on delete cascade
 );
 
 -- alter tables
@@ -72,4 +118,9 @@ foreign key (page_id) references pages (page_id) on delete cascade;
 -- file_revisions 테이블에 parent_revision_id (자체 참조) 외래 키 추가
 alter table file_revisions
 add constraint fk_revisions_parent_revision
-foreign key (parent_revision_id) references file_revisions (revision_id) on delete set null;
\ No newline at end of file
+foreign key (parent_revision_id) references file_revisions (revision_id) on delete set null;
+
+-- file_data 테이블에 base_data_id (자체 참조) 외래 키 추가, delta가 남아 있는 base는 삭제할 수 없음
+alter table file_data
+add constraint fk_file_data_base
+foreign key (base_data_id) references file_data (actual_data_id);
\ No newline at end of file
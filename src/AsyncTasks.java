@@ -0,0 +1,44 @@
+package teamproject;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * manager의 비동기 메소드 (...Async)에서 사용
+ * 동기 메소드를 executor에서 실행하고, SQLException은 CompletionException으로 감싸 future를 실패시킨다
+ * 오류를 직접 처리하고 -1, null 등을 반환하는 동기 메소드는 그 반환값이 그대로 future의 결과가 된다
+ */
+final class AsyncTasks {
+
+    @FunctionalInterface
+    interface SqlSupplier<T> {
+        T get() throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface SqlRunnable {
+        void run() throws SQLException;
+    }
+
+    private AsyncTasks() {}
+
+    static <T> CompletableFuture<T> supply(Executor executor, SqlSupplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.get();
+            }
+            catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    static CompletableFuture<Void> run(Executor executor, SqlRunnable task) {
+        return supply(executor, () -> {
+            task.run();
+            return null;
+        });
+    }
+}
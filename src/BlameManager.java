@@ -0,0 +1,98 @@
+package teamproject;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.*;
+import java.util.Arrays;
+
+/**
+ * revision_blame 테이블 접근
+ * 줄마다 revision_id를 저장하는 대신, 같은 revision이 이어지는 줄을 (줄 수, revision_id) 쌍으로 묶어 varint로 저장한다
+ */
+public class BlameManager {
+
+    // 실행 계획을 SchemaMigrator.verifyQueryPlans에서 EXPLAIN으로 확인하는 쿼리
+    static final String BLAME_SQL = "SELECT line_count, blame " +
+            "FROM revision_blame " +
+            "WHERE revision_id = ?";
+
+    BlameManager() {}
+
+    /**
+     * revision의 저장된 blame을 반환
+     * @param revisionId 조회할 revision_id
+     * @return 줄마다 그 줄을 마지막으로 바꾼 revision_id, 저장된 결과가 없으면 null
+     * @throws SQLException 예외 발생 시, 호출한 PageManager에서 처리
+     */
+    public long[] getBlame(Connection conn, long revisionId) throws SQLException {
+
+        try (PreparedStatement pstmt = conn.prepareStatement(BLAME_SQL)) {
+
+            pstmt.setLong(1, revisionId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return decode(rs.getBytes("blame"), rs.getInt("line_count"));
+            }
+        }
+    }
+
+    /**
+     * revision의 blame을 저장 (같은 revision의 결과는 항상 같으므로, 이미 있으면 무시)
+     * @param revisionId 저장할 revision_id
+     * @param lineRevisionIds 줄마다 그 줄을 마지막으로 바꾼 revision_id
+     * @throws SQLException 예외 발생 시, 호출한 PageManager에서 처리
+     */
+    public void insertBlame(Connection conn, long revisionId, long[] lineRevisionIds) throws SQLException {
+
+        String sql = "INSERT IGNORE INTO revision_blame (revision_id, line_count, blame) " +
+                "VALUES (?, ?, ?)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setLong(1, revisionId);
+            pstmt.setInt(2, lineRevisionIds.length);
+            pstmt.setBytes(3, encode(lineRevisionIds));
+
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static byte[] encode(long[] lineRevisionIds) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int runStart = 0;
+        for (int i = 1; i <= lineRevisionIds.length; i++) {
+            if (i == lineRevisionIds.length || lineRevisionIds[i] != lineRevisionIds[runStart]) {
+                DeltaCodec.writeVarint(out, i - runStart);
+                DeltaCodec.writeVarint(out, lineRevisionIds[runStart]);
+                runStart = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static long[] decode(byte[] blame, int lineCount) throws SQLException {
+        long[] lineRevisionIds = new long[lineCount];
+        int[] cursor = { 0 };
+        int line = 0;
+        try {
+            while (cursor[0] < blame.length) {
+                int runLength = (int) DeltaCodec.readVarint(blame, cursor);
+                long revisionId = DeltaCodec.readVarint(blame, cursor);
+                if (runLength > lineCount - line) {
+                    throw new SQLException("Corrupted blame: more lines than line_count " + lineCount);
+                }
+                Arrays.fill(lineRevisionIds, line, line + runLength, revisionId);
+                line += runLength;
+            }
+        }
+        catch (IllegalArgumentException e) {
+            throw new SQLException("Corrupted blame: " + e.getMessage(), e);
+        }
+        if (line != lineCount) {
+            throw new SQLException("Corrupted blame: expected " + lineCount + " lines but found " + line);
+        }
+        return lineRevisionIds;
+    }
+}
@@ -0,0 +1,15 @@
+package teamproject;
+
+/**
+ * blame 결과의 한 구간 (연속된 줄을 같은 revision이 마지막으로 바꿈)
+ * @param startLine 구간의 첫 줄 (0부터)
+ * @param lineCount 구간의 줄 수
+ * @param revisionId 이 줄들을 마지막으로 바꾼 revision_id
+ * @param committedByUserId 그 revision을 생성한 user_id
+ */
+public record BlameRange(int startLine,
+                         int lineCount,
+                         long revisionId,
+                         long committedByUserId) {
+
+}
@@ -0,0 +1,127 @@
+package teamproject;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * revision의 각 줄을 마지막으로 바꾼 revision과 작성자를 내용과 함께 보여주는 표 모델 (열: revision, 작성자, 줄 번호, 내용)
+ * 구간 (BlameRange)마다 시작 줄만 저장해 두고 줄 -> 구간을 이진 탐색으로 찾으며, revision과 작성자는 구간의 첫 줄에만 표시한다
+ * 줄 내용은 TextPreview에서 JTable이 그리는 행에 대해서만 읽고, 줄 블록을 읽어 오면 그 행들을 다시 그린다
+ */
+final class BlameTableModel extends AbstractTableModel implements Closeable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int REVISION_COLUMN = 0;
+    static final int AUTHOR_COLUMN = 1;
+    static final int LINE_COLUMN = 2;
+    static final int TEXT_COLUMN = 3;
+
+    private final transient List<BlameRange> ranges;
+    private final transient Map<Long, String> authorNames;
+    private final transient TextPreview preview;
+    private final String[] columnNames;
+    // rangeStarts[r] = r번째 구간의 첫 줄
+    private final int[] rangeStarts;
+
+    /**
+     * @param authorNames user_id -> 사용자 이름 (없는 사용자는 표시하지 않음)
+     */
+    BlameTableModel(long revisionId, List<BlameRange> ranges, Map<Long, String> authorNames, TextPreview preview) {
+        this.ranges = ranges;
+        this.authorNames = authorNames;
+        this.preview = preview;
+        this.columnNames = new String[] { "rev", "작성자", "", "rev " + revisionId };
+
+        rangeStarts = new int[ranges.size()];
+        for (int r = 0; r < ranges.size(); r++) {
+            rangeStarts[r] = ranges.get(r).startLine();
+        }
+
+        preview.addListDataListener(new ListDataListener() {
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                fireTableRowsUpdated(e.getIndex0(), e.getIndex1());
+            }
+
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+            }
+        });
+    }
+
+    @Override
+    public int getRowCount() {
+        return preview.getSize();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case REVISION_COLUMN: {
+                int r = rangeAt(row);
+                return (r >= 0 && rangeStarts[r] == row) ? String.valueOf(ranges.get(r).revisionId()) : "";
+            }
+            case AUTHOR_COLUMN: {
+                int r = rangeAt(row);
+                return (r >= 0 && rangeStarts[r] == row) ? authorNames.getOrDefault(ranges.get(r).committedByUserId(), "") : "";
+            }
+            case LINE_COLUMN:
+                return String.valueOf(row + 1);
+            default:
+                return preview.getLine(row);
+        }
+    }
+
+    /**
+     * 행이 속한 구간의 번호 (렌더러에서 구간마다 배경색을 번갈아 칠할 때 사용), 구간이 없으면 -1
+     */
+    int rangeAt(int row) {
+        int low = 0;
+        int high = rangeStarts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (rangeStarts[mid] <= row) {
+                low = mid + 1;
+            }
+            else {
+                high = mid - 1;
+            }
+        }
+        if (high < 0 || row >= rangeStarts[high] + ranges.get(high).lineCount()) {
+            return -1;
+        }
+        return high;
+    }
+
+    int getRangeCount() {
+        return ranges.size();
+    }
+
+    /**
+     * 미리보기가 읽어 둔 블록을 버림
+     */
+    @Override
+    public void close() {
+        preview.close();
+    }
+}
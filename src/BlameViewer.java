@@ -0,0 +1,104 @@
+package teamproject;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableColumn;
+import java.awt.*;
+
+/**
+ * revision의 각 줄을 마지막으로 바꾼 revision과 작성자 (blame)를 보여주는 창
+ * blame 계산과 내용 불러오기는 UiTasks로 EDT가 아닌 스레드에서 하고, JTable은 화면에 보이는 행만 그린다
+ */
+public class BlameViewer extends JFrame {
+
+	private static final long serialVersionUID = 1L;
+	private static final Color ALTERNATE_COLOR = new Color(240, 240, 248);
+
+	private final JTable blameTable;
+	private final JLabel statusLabel;
+	private BlameTableModel blameModel;
+	private final UiTasks tasks = new UiTasks(this);
+
+	public BlameViewer(RevisionController revCon, long revisionId) {
+		setTitle("Revision blame | rev " + revisionId);
+		setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+		setSize(1000, 700);
+		setLayout(new BorderLayout());
+
+		statusLabel = new JLabel("계산하는 중...");
+		statusLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+		add(statusLabel, BorderLayout.NORTH);
+
+		blameTable = new JTable();
+		blameTable.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+		blameTable.setRowHeight(blameTable.getFontMetrics(blameTable.getFont()).getHeight() + 2);
+		blameTable.setShowGrid(false);
+		blameTable.setIntercellSpacing(new Dimension(0, 0));
+		blameTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		blameTable.setDefaultRenderer(Object.class, new BlameCellRenderer());
+		add(new JScrollPane(blameTable), BorderLayout.CENTER);
+		add(tasks.getStatusBar(), BorderLayout.SOUTH);  // 작업 중에만 보이는 상태 표시줄
+
+		setLocationRelativeTo(null);
+		setVisible(true);
+
+		tasks.run("blame 계산", () -> revCon.showRevisionBlame_con(revisionId), model -> {
+			if (model == null) {
+				statusLabel.setText("blame 결과를 불러오지 못했습니다.");
+			}
+			else {
+				showBlame(model);
+			}
+		});
+	}
+
+	private void showBlame(BlameTableModel model) {
+		blameModel = model;
+		blameTable.setModel(model);
+
+		int charWidth = blameTable.getFontMetrics(blameTable.getFont()).charWidth('0');
+		int lineNumberWidth = charWidth * Math.max(4, String.valueOf(model.getRowCount()).length()) + 10;
+		fixWidth(BlameTableModel.REVISION_COLUMN, charWidth * 8 + 10);
+		fixWidth(BlameTableModel.AUTHOR_COLUMN, charWidth * 14 + 10);
+		fixWidth(BlameTableModel.LINE_COLUMN, lineNumberWidth);
+
+		statusLabel.setText(String.format("%d줄 | 구간 %d개", model.getRowCount(), model.getRangeCount()));
+	}
+
+	private void fixWidth(int column, int width) {
+		TableColumn tableColumn = blameTable.getColumnModel().getColumn(column);
+		tableColumn.setMinWidth(width);
+		tableColumn.setMaxWidth(width);
+	}
+
+	@Override
+	public void dispose() {
+		// 창을 닫으면 진행 중인 계산을 취소하고 읽어 둔 내용을 버림
+		tasks.cancelAll();
+		if (blameModel != null) {
+			blameModel.close();
+			blameModel = null;
+		}
+		super.dispose();
+	}
+
+	/**
+	 * 같은 revision이 바꾼 구간마다 배경색을 번갈아 칠해 구간의 경계를 보여줌
+	 */
+	private static class BlameCellRenderer extends DefaultTableCellRenderer {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+				boolean hasFocus, int row, int column) {
+			Component component = super.getTableCellRendererComponent(table, value, isSelected, false, row, column);
+			if (isSelected || !(table.getModel() instanceof BlameTableModel model)) {
+				return component;
+			}
+			int range = model.rangeAt(row);
+			component.setBackground((range >= 0 && range % 2 == 1) ? ALTERNATE_COLOR : table.getBackground());
+			return component;
+		}
+	}
+}
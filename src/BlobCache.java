@@ -0,0 +1,380 @@
+package teamproject;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * revision 내용을 로컬 디스크에 보관하는 캐시
+ * 파일 이름은 "actual_data_id-checksum.blob"이며, 한 번 저장된 file_data는 바뀌지 않으므로 무효화는 필요 없고
+ * 전체 크기가 maxBytes를 넘으면 가장 오래 쓰지 않은 항목부터 삭제(LRU)한다
+ * 캐시 적중 시 memory-mapped 파일로 읽고, 매번 file_data.checksum과 비교하여 손상된 항목은 버린다
+ */
+final class BlobCache {
+
+    private static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+    private static final String ENTRY_SUFFIX = ".blob";
+    private static final String TEMP_SUFFIX = ".tmp";
+    // 한 번에 매핑할 최대 크기 (2GB 이상의 파일은 나누어 매핑)
+    private static final long MAP_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    private static BlobCache defaultCache;
+    private static boolean defaultCacheFailed = false;
+
+    private final Path directory;
+    private final long maxBytes;
+    // 파일 이름 -> 크기, 접근 순서로 정렬 (가장 앞이 가장 오래 쓰지 않은 항목)
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+
+    /**
+     * 사용자 캐시 디렉토리의 공용 캐시를 반환
+     * @return 공용 BlobCache, 디렉토리를 만들 수 없으면 null (캐시 없이 동작)
+     */
+    static synchronized BlobCache getDefault() {
+        if (defaultCache == null && !defaultCacheFailed) {
+            try {
+                defaultCache = new BlobCache(defaultDirectory(), DEFAULT_MAX_BYTES);
+            }
+            catch (IOException e) {
+                System.err.println("Blob Cache: Error initializing cache directory, caching disabled: " + e.getMessage());
+                defaultCacheFailed = true;
+            }
+        }
+        return defaultCache;
+    }
+
+    /**
+     * Windows는 %LOCALAPPDATA%, 그 외에는 $XDG_CACHE_HOME 또는 ~/.cache 아래의 sharing-cloud/blobs
+     */
+    private static Path defaultDirectory() {
+        String base = System.getenv("LOCALAPPDATA");
+        if (base == null || base.isBlank()) {
+            base = System.getenv("XDG_CACHE_HOME");
+        }
+        if (base == null || base.isBlank()) {
+            base = Paths.get(System.getProperty("user.home"), ".cache").toString();
+        }
+        return Paths.get(base, "sharing-cloud", "blobs");
+    }
+
+    BlobCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        loadIndex();
+    }
+
+    /**
+     * 디렉토리에 남아 있는 항목을 마지막 수정 시각 순으로 LRU 목록에 등록하고, 쓰다 만 임시 파일은 삭제
+     */
+    private void loadIndex() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                }
+                else if (name.endsWith(ENTRY_SUFFIX)) {
+                    files.add(file);
+                }
+            }
+        }
+
+        files.sort(Comparator.comparing(file -> {
+            try {
+                return Files.getLastModifiedTime(file);
+            }
+            catch (IOException e) {
+                return FileTime.fromMillis(0);
+            }
+        }));
+
+        synchronized (this) {
+            for (Path file : files) {
+                register(file.getFileName().toString(), Files.size(file));
+            }
+        }
+    }
+
+    /**
+     * 캐시된 내용을 byte 배열로 반환 (미리보기 등 메모리로 필요한 경우)
+     * @return 캐시된 내용, 없거나 checksum이 맞지 않으면 null
+     */
+    byte[] read(long actualDataId, String checksum) {
+        String name = entryName(actualDataId, checksum);
+        if (!touch(name)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(directory.resolve(name), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE - 8) {
+                return null;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (!checksum.equals(digest(mapped.duplicate()))) {
+                System.err.println("Blob Cache: Corrupt entry " + name + ", discarding.");
+                remove(name);
+                return null;
+            }
+            byte[] content = new byte[(int) size];
+            mapped.get(content);
+            return content;
+        }
+        catch (IOException e) {
+            remove(name);
+            return null;
+        }
+    }
+
+    /**
+     * 캐시된 내용을 channel에 기록 (다운로드용), 기록하기 전에 전체 checksum을 먼저 검사한다
+     * @return 기록한 바이트 수, 캐시에 없거나 checksum이 맞지 않으면 -1 (이 경우 out에는 아무것도 기록하지 않음)
+     * @throws IOException out에 기록하는 중 오류 발생 시
+     */
+    long copyTo(long actualDataId, String checksum, WritableByteChannel out) throws IOException {
+        String name = entryName(actualDataId, checksum);
+        if (!touch(name)) {
+            return -1;
+        }
+
+        List<MappedByteBuffer> segments = new ArrayList<>();
+        long size;
+        try (FileChannel channel = FileChannel.open(directory.resolve(name), StandardOpenOption.READ)) {
+            size = channel.size();
+            for (long position = 0; position < size; position += MAP_SEGMENT_SIZE) {
+                segments.add(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_SEGMENT_SIZE, size - position)));
+            }
+        }
+        catch (IOException e) {
+            remove(name);
+            return -1;
+        }
+
+        MessageDigest digest = FileDataManager.newSha256Digest();
+        for (MappedByteBuffer segment : segments) {
+            digest.update(segment.duplicate());
+        }
+        if (!checksum.equals(FileDataManager.toHexString(digest.digest()))) {
+            System.err.println("Blob Cache: Corrupt entry " + name + ", discarding.");
+            remove(name);
+            return -1;
+        }
+
+        for (MappedByteBuffer segment : segments) {
+            while (segment.hasRemaining()) {
+                out.write(segment);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 메모리에 있는 내용을 캐시에 저장
+     */
+    void put(long actualDataId, String checksum, byte[] content) {
+        PendingEntry pending = begin(actualDataId, checksum, content.length);
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.write(ByteBuffer.wrap(content));
+            pending.commit();
+        }
+        catch (IOException e) {
+            pending.abort();
+        }
+    }
+
+    /**
+     * 스트리밍 다운로드와 동시에 캐시에 저장하기 위한 항목을 시작
+     * 반환된 PendingEntry의 tee로 감싼 channel에 기록한 뒤, 성공하면 commit, 실패하면 abort를 호출한다
+     * @param expectedSize 저장할 내용의 크기
+     * @return 저장할 항목, 캐시에 담기에 너무 크거나 이미 있으면 null
+     */
+    PendingEntry begin(long actualDataId, String checksum, long expectedSize) {
+        if (checksum == null || expectedSize > maxBytes / 4) {
+            return null;
+        }
+        String name = entryName(actualDataId, checksum);
+        synchronized (this) {
+            if (entries.containsKey(name)) {
+                return null;
+            }
+        }
+        try {
+            return new PendingEntry(name, checksum);
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String entryName(long actualDataId, String checksum) {
+        return actualDataId + "-" + checksum + ENTRY_SUFFIX;
+    }
+
+    private static String digest(ByteBuffer content) {
+        MessageDigest digest = FileDataManager.newSha256Digest();
+        digest.update(content);
+        return FileDataManager.toHexString(digest.digest());
+    }
+
+    private synchronized boolean touch(String name) {
+        return entries.get(name) != null;
+    }
+
+    private synchronized void register(String name, long size) {
+        Long previous = entries.put(name, size);
+        if (previous != null) {
+            totalBytes -= previous;
+        }
+        totalBytes += size;
+        evict(name);
+    }
+
+    private synchronized void remove(String name) {
+        Long size = entries.remove(name);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        deleteQuietly(directory.resolve(name));
+    }
+
+    /**
+     * 전체 크기가 maxBytes 이하가 될 때까지 가장 오래 쓰지 않은 항목부터 삭제 (방금 추가한 항목은 제외)
+     */
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            deleteQuietly(directory.resolve(eldest.getKey()));
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            // 다른 곳에서 매핑 중인 파일은 (Windows) 삭제되지 않을 수 있음, 다음 실행 때 다시 정리됨
+            System.err.println("Blob Cache: Could not delete " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * 임시 파일에 기록하면서 SHA-256을 계산하고, commit 시 checksum이 맞을 때만 캐시 항목으로 옮긴다
+     */
+    final class PendingEntry {
+        private final String name;
+        private final String checksum;
+        private final Path tempFile;
+        private final FileChannel channel;
+        private final MessageDigest digest = FileDataManager.newSha256Digest();
+        private long size = 0;
+        // 예상보다 커져 캐시에 담지 않기로 한 경우 (out에는 계속 기록)
+        private boolean overflowed = false;
+
+        private PendingEntry(String name, String checksum) throws IOException {
+            this.name = name;
+            this.checksum = checksum;
+            this.tempFile = Files.createTempFile(directory, "entry-", TEMP_SUFFIX);
+            this.channel = FileChannel.open(tempFile, StandardOpenOption.WRITE);
+        }
+
+        private void write(ByteBuffer content) throws IOException {
+            if (overflowed) {
+                return;
+            }
+            if (size + content.remaining() > maxBytes / 4) {
+                overflowed = true;
+                return;
+            }
+            ByteBuffer forDigest = content.duplicate();
+            while (content.hasRemaining()) {
+                size += channel.write(content);
+            }
+            digest.update(forDigest);
+        }
+
+        /**
+         * out에 기록되는 내용을 캐시 임시 파일에도 함께 기록하는 channel
+         */
+        WritableByteChannel tee(WritableByteChannel out) {
+            return new WritableByteChannel() {
+                @Override
+                public int write(ByteBuffer src) throws IOException {
+                    ByteBuffer forCache = src.duplicate();
+                    int written = out.write(src);
+                    forCache.limit(forCache.position() + written);
+                    PendingEntry.this.write(forCache);
+                    return written;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return out.isOpen();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    out.close();
+                }
+            };
+        }
+
+        void commit() {
+            try {
+                channel.close();
+                if (overflowed) {
+                    deleteQuietly(tempFile);
+                    return;
+                }
+                if (!checksum.equals(FileDataManager.toHexString(digest.digest()))) {
+                    System.err.println("Blob Cache: Checksum mismatch while caching " + name + ", skipping.");
+                    deleteQuietly(tempFile);
+                    return;
+                }
+                Files.move(tempFile, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                register(name, size);
+            }
+            catch (IOException e) {
+                System.err.println("Blob Cache: Error caching " + name + ": " + e.getMessage());
+                deleteQuietly(tempFile);
+            }
+        }
+
+        void abort() {
+            try {
+                channel.close();
+            }
+            catch (IOException e) {
+                // 임시 파일은 아래에서 삭제
+            }
+            deleteQuietly(tempFile);
+        }
+    }
+}
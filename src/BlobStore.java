@@ -0,0 +1,66 @@
+package teamproject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * file_data와 file_chunks의 실제 바이트를 DB 밖에 저장하는 저장소
+ * put이 돌려준 location 문자열을 DB의 blob_location 컬럼에 저장하고, 읽을 때는 그 location으로 get 한다
+ * 저장된 내용은 바뀌지 않으며(immutable) 같은 내용은 같은 location을 돌려줄 수 있으므로, 개별 삭제 대신 저장소 쪽에서 정리한다
+ * S3 같은 object storage도 같은 key 기반 인터페이스로 구현할 수 있다 (현재 구현은 로컬 디렉토리의 PackFileBlobStore)
+ */
+public interface BlobStore extends Closeable {
+
+    /**
+     * 내용을 저장하고 위치를 반환
+     * 반환된 시점에는 내용이 영구 저장소에 기록되어 있어야 한다 (그 뒤에 DB 트랜잭션이 커밋되므로)
+     * @param content 저장할 내용
+     * @return blob_location 컬럼에 저장할 위치
+     * @throws IOException 저장 중 오류 발생 시
+     */
+    String put(byte[] content) throws IOException;
+
+    /**
+     * 여러 내용을 한 번에 저장 (chunk batch 등), 구현에 따라 한 번의 쓰기/동기화로 처리한다
+     * @param contents 저장할 내용 목록
+     * @return contents와 같은 순서의 위치 목록
+     * @throws IOException 저장 중 오류 발생 시
+     */
+    default List<String> putAll(List<byte[]> contents) throws IOException {
+        List<String> locations = new ArrayList<>(contents.size());
+        for (byte[] content : contents) {
+            locations.add(put(content));
+        }
+        return locations;
+    }
+
+    /**
+     * 저장된 내용을 반환
+     * @param location put이 반환한 위치
+     * @return 저장된 내용
+     * @throws IOException 위치가 잘못되었거나 읽기 오류 발생 시
+     */
+    byte[] get(String location) throws IOException;
+
+    /**
+     * 저장된 내용 중 일부 구간만 반환
+     * @param location put이 반환한 위치
+     * @param offset 시작 위치 (0부터)
+     * @param length 읽을 최대 바이트 수
+     * @return 구간의 내용, 내용의 끝을 넘는 부분은 잘려서 length보다 짧을 수 있음
+     * @throws IOException 위치가 잘못되었거나 읽기 오류 발생 시
+     */
+    byte[] getRange(String location, long offset, int length) throws IOException;
+
+    /**
+     * 저장된 내용을 channel에 기록 (다운로드용)
+     * @param location put이 반환한 위치
+     * @param out 내용을 기록할 channel (닫는 것은 호출한 쪽의 책임)
+     * @return 기록한 바이트 수
+     * @throws IOException 위치가 잘못되었거나 읽기/기록 오류 발생 시
+     */
+    long writeTo(String location, WritableByteChannel out) throws IOException;
+}
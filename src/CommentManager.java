@@ -7,10 +7,39 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class CommentManager {
 
-    public CommentManager() { }
+    // 실행 계획을 SchemaMigrator.verifyQueryPlans에서 EXPLAIN으로 확인하는 쿼리
+    static final String COMMENT_OWNER_SQL = "SELECT commented_by_user_id " +
+            "FROM comments " +
+            "WHERE comment_id = ?";
+    static final String DELETE_COMMENT_SQL = "DELETE FROM comments " +
+            "WHERE comment_id = ? AND commented_by_user_id = ?";
+    // 댓글 정보와 함께 사용자 이름(username)을 가져오기 위해 COALESCE와 LEFT JOIN 사용
+    static final String COMMENTS_SQL = "SELECT c.comment_id, c.page_id, c.commented_by_user_id, COALESCE(u.user_name, '탈퇴한 사용자') as commented_by_user_name, c.comment_data, c.created_at " +
+            "FROM comments c " +
+            "LEFT JOIN users u ON c.commented_by_user_id = u.user_id " +
+            "WHERE c.page_id = ? ORDER BY c.created_at ASC";
+    static final String DELETE_PAGE_COMMENTS_SQL = "DELETE FROM comments WHERE page_id = ?";
+
+    // 비동기 메소드에서만 사용, 트랜잭션 안에서 Connection을 받아 쓰는 용도로 만들었으면 null
+    private final Repository repository;
+
+    public CommentManager() {
+        this.repository = null;
+    }
+
+    /**
+     * 비동기 메소드 (...Async)를 사용할 때, 댓글을 저장할 저장소와 함께 생성
+     */
+    public CommentManager(Repository repository) {
+        if (repository == null) {
+            throw new IllegalArgumentException("Repository cannot be null.");
+        }
+        this.repository = repository;
+    }
 
     /**
      * 새 댓글 추가
@@ -74,14 +103,10 @@ public class CommentManager {
      * @throws SQLException SQL 오류 발생 시
      */
     public int deleteComment(Connection conn, long commentId, long userId) throws SQLException {
-        String sql = "SELECT commented_by_user_id " +
-                "FROM comments " +
-                "WHERE comment_id = ?";
-
         ResultSet rs = null;
         long commentedByUserId;
 
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(COMMENT_OWNER_SQL)) {
             pstmt.setLong(1, commentId);
             rs = pstmt.executeQuery();
 
@@ -94,10 +119,7 @@ public class CommentManager {
         }
 
         if (userId == commentedByUserId) {
-            sql = "DELETE FROM comments " +
-                    "WHERE comment_id = ? AND commented_by_user_id = ?";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement pstmt = conn.prepareStatement(DELETE_COMMENT_SQL)) {
                 pstmt.setLong(1, commentId);
                 pstmt.setLong(2, userId);
                 return pstmt.executeUpdate();
@@ -120,13 +142,7 @@ public class CommentManager {
     public List<Comment> getComments(Connection conn, long pageId) throws SQLException {
         List<Comment> comments = new ArrayList<>();
 
-        // 댓글 정보와 함께 사용자 이름(username)을 가져오기 위해 COALESCE와 LEFT JOIN 사용
-        String sql = "SELECT c.comment_id, c.page_id, c.commented_by_user_id, COALESCE(u.user_name, '탈퇴한 사용자') as commented_by_user_name, c.comment_data, c.created_at " +
-                "FROM comments c " +
-                "LEFT JOIN users u ON c.commented_by_user_id = u.user_id " +
-                "WHERE c.page_id = ? ORDER BY c.created_at ASC";
-
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(COMMENTS_SQL)) {
             pstmt.setLong(1, pageId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -150,9 +166,7 @@ public class CommentManager {
      * @param pageId
      */
     public void deleteAllComments(Connection conn, long pageId) {
-    	String sql = "DELETE FROM comments WHERE page_id = ?";
-
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(DELETE_PAGE_COMMENTS_SQL)) {
             pstmt.setLong(1, pageId);
             pstmt.executeUpdate();
         } catch(SQLException e) {
@@ -160,4 +174,34 @@ public class CommentManager {
         	System.out.println("댓글 삭제 실패");
         }
     }
-}
\ No newline at end of file
+
+    // --- 비동기 작업 메소드 ---
+    // 저장소의 executor에서 각자 connection을 빌려 실행하며, SQLException은 future의 실패 (CompletionException)로 전달된다
+
+    public CompletableFuture<Void> insertCommentAsync(long pageId, long userId, String commentContent) {
+        CommentRepository comments = requireRepository().comments();
+        return AsyncTasks.run(repository.executor(), () -> comments.insertComment(pageId, userId, commentContent));
+    }
+
+    public CompletableFuture<Integer> deleteCommentAsync(long commentId, long userId) {
+        CommentRepository comments = requireRepository().comments();
+        return AsyncTasks.supply(repository.executor(), () -> comments.deleteComment(commentId, userId));
+    }
+
+    public CompletableFuture<List<Comment>> getCommentsAsync(long pageId) {
+        CommentRepository comments = requireRepository().comments();
+        return AsyncTasks.supply(repository.executor(), () -> comments.findComments(pageId));
+    }
+
+    public CompletableFuture<Void> deleteAllCommentsAsync(long pageId) {
+        CommentRepository comments = requireRepository().comments();
+        return AsyncTasks.run(repository.executor(), () -> comments.deleteAllComments(pageId));
+    }
+
+    private Repository requireRepository() {
+        if (repository == null) {
+            throw new IllegalStateException("CommentManager was created without a Repository.");
+        }
+        return repository;
+    }
+}
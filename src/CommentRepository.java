@@ -0,0 +1,29 @@
+package teamproject;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * comments 저장소
+ */
+public interface CommentRepository {
+
+    /**
+     * @throws SQLException 사용자가 없거나 저장 실패 시
+     */
+    void insertComment(long pageId, long userId, String commentContent) throws SQLException;
+
+    /**
+     * 작성자 본인만 삭제할 수 있음
+     * @return 삭제된 댓글 수, 작성자가 아니면 0
+     * @throws SQLException 댓글이 없을 때
+     */
+    int deleteComment(long commentId, long userId) throws SQLException;
+
+    /**
+     * @return 작성 순서의 댓글 목록, 탈퇴한 사용자의 이름은 "탈퇴한 사용자"
+     */
+    List<Comment> findComments(long pageId) throws SQLException;
+
+    void deleteAllComments(long pageId) throws SQLException;
+}
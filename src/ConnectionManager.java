@@ -5,14 +5,37 @@ import com.zaxxer.hikari.HikariDataSource;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ConnectionManager {
 
     private HikariDataSource dataSource;
+    // 읽기 전용 경로가 사용하는 replica pool, db.replica.url이 없거나 열 수 없으면 null (primary에서 읽음)
+    private HikariDataSource readDataSource;
+    // primary에 쓴 뒤 이 시간 동안은 읽기도 primary에서 (replica 지연으로 방금 쓴 내용이 안 보이지 않도록), 0이면 사용 안 함
+    private long readYourWritesMillis;
+    private volatile long pinnedUntilNanos;
     private Properties dbProperties;
+    // blob.backend=pack일 때만 생성, mysql(기본값)이면 null
+    private BlobStore blobStore;
+    // metrics.enabled=true(기본값)일 때만 생성, 빌려주는 connection의 SQL 실행 시간과 pool 상태를 기록
+    private QueryMetrics queryMetrics;
+    // 비동기 manager API (...Async)가 DB 작업을 실행하는 스레드, connect()에서 생성
+    private ThreadPoolExecutor executor;
+    // CHUNKED 내용을 읽을 때 chunk를 미리 가져오는 스레드, 모든 다운로드가 공유하며 스레드마다 connection을 하나씩 빌린다
+    private ThreadPoolExecutor chunkFetchExecutor;
+    // primary pool 중 chunk 미리 가져오기에 쓸 수 있는 비율 (1/4), 나머지는 다운로드를 호출한 쪽과 다른 작업이 사용
+    private static final int CHUNK_FETCH_POOL_SHARE = 4;
+    // manager들이 사용하는 저장소, connect()에서 repository.engine에 따라 생성 (jdbc면 JdbcRepository, memory면 InMemoryRepository)
+    private Repository repository;
 
     public ConnectionManager() {
         dbProperties = new Properties();
@@ -32,18 +55,25 @@ public class ConnectionManager {
     /**
      * 데이터베이스 연결 풀을 초기화하고 ConnectionManager 내부에 설정
      * 애플리케이션 시작 시 한 번만 호출
+     * repository.engine=memory이면 pool을 만들지 않고 InMemoryRepository만 연다 (한 사용자가 로컬에서 쓰는 모드)
      *
      * @throws SQLException 풀 초기화 중 오류 발생 시
      */
     public void connect() throws SQLException {
-        if (dataSource != null && !dataSource.isClosed()) {
-            System.out.println("Database connection pool is already initialized.");
+        if (repository != null || (dataSource != null && !dataSource.isClosed())) {
+            System.out.println("Repository is already initialized.");
+            return;
+        }
+        if (!usesDatabase()) {
+            openLocalRepository();
             return;
         }
 
         System.out.println("Attempting to initialize database connection pool...");
         try {
-            HikariConfig config = getHikariConfig();
+            queryMetrics = Boolean.parseBoolean(dbProperties.getProperty("metrics.enabled", "true")) ? new QueryMetrics() : null;
+            HikariConfig config = getHikariConfig(dbProperties.getProperty("db.url"),
+                    dbProperties.getProperty("db.username"), dbProperties.getProperty("db.password"), "teamproject");
 
             dataSource = new HikariDataSource(config);
             System.out.println("Database connection pool initialized successfully.");
@@ -53,6 +83,16 @@ public class ConnectionManager {
                 System.out.println("Initial connection test successful!");
             }
 
+            migrateSchema();
+
+            readDataSource = openReadDataSource();
+
+            blobStore = openBlobStore();
+            startMetrics();
+            executor = newExecutor(dataSource.getMaximumPoolSize() + ((readDataSource != null) ? readDataSource.getMaximumPoolSize() : 0), "teamproject-db-");
+            chunkFetchExecutor = newExecutor(Math.max(1, dataSource.getMaximumPoolSize() / CHUNK_FETCH_POOL_SHARE), "teamproject-chunk-fetch-");
+            repository = new JdbcRepository(this);
+
         } catch (SQLException e) {
             System.err.println("!!! CRITICAL ERROR: Failed to initialize database connection pool !!!");
             e.printStackTrace();
@@ -60,17 +100,161 @@ public class ConnectionManager {
         }
     }
 
-    private HikariConfig getHikariConfig() {
+    /**
+     * MySQL 없이 InMemoryRepository를 열고, 미리보기 등이 쓰는 executor를 CPU 수만큼 만든다
+     */
+    private void openLocalRepository() throws SQLException {
+        try {
+            repository = openRepository();
+        }
+        catch (IOException e) {
+            System.err.println("!!! CRITICAL ERROR: Failed to open repository !!!");
+            throw new SQLException("Error opening repository.engine=" + getRepositoryEngine() + ": " + e.getMessage(), e);
+        }
+        executor = newExecutor(Runtime.getRuntime().availableProcessors(), "teamproject-local-");
+    }
+
+    /**
+     * 스레드 수가 고정된 executor
+     * 비동기 manager API용은 pool에서 동시에 빌릴 수 있는 connection 수 (primary + replica)만큼 만든다
+     * 더 많은 스레드는 connection을 기다리기만 하므로, 나머지 작업은 queue에서 기다린다 (connectionTimeout 오류 대신)
+     * daemon 스레드이고 쓰지 않으면 정리되므로 애플리케이션 종료를 막지 않는다
+     */
+    private static ThreadPoolExecutor newExecutor(int threads, String threadNamePrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, threadNamePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * 스키마를 최신 버전으로 migration (db.migration.enabled, 기본값 true)
+     * 이어서 manager 쿼리의 실행 계획을 확인한다 (db.migration.verifyPlans)
+     * warn (기본값): 전체 scan이 있으면 목록을 출력, fail: 전체 scan이 있으면 시작하지 않음, off: 확인하지 않음
+     * metrics에 기록되지 않도록 pool의 connection을 그대로 사용
+     */
+    private void migrateSchema() throws SQLException {
+        if (!Boolean.parseBoolean(dbProperties.getProperty("db.migration.enabled", "true"))) {
+            return;
+        }
+        SchemaMigrator migrator = new SchemaMigrator();
+        try (Connection conn = dataSource.getConnection()) {
+            migrator.migrate(conn);
+
+            String verifyPlans = dbProperties.getProperty("db.migration.verifyPlans", "warn");
+            if ("fail".equalsIgnoreCase(verifyPlans)) {
+                migrator.verifyQueryPlans(conn);
+            }
+            else if (!"off".equalsIgnoreCase(verifyPlans)) {
+                for (String fullScan : migrator.findFullScans(conn)) {
+                    System.err.println("Schema Migrator: Full scan in query plan: " + fullScan);
+                }
+            }
+        }
+    }
+
+    /**
+     * db.replica.url이 있으면 읽기 전용 pool을 연다 (username, password는 db.replica.*가 없으면 primary와 같음)
+     * 설정이 없거나 replica에 연결할 수 없으면 null을 반환하고, 모든 읽기는 primary pool에서 처리한다 (단일 인스턴스)
+     */
+    private HikariDataSource openReadDataSource() {
+        String url = dbProperties.getProperty("db.replica.url");
+        if (url == null || url.isBlank()) {
+            System.out.println("No db.replica.url configured, reads use the primary pool.");
+            return null;
+        }
+        readYourWritesMillis = Long.parseLong(dbProperties.getProperty("db.replica.readYourWritesMillis", "5000"));
+        pinnedUntilNanos = System.nanoTime();
+
+        HikariConfig config = getHikariConfig(url,
+                dbProperties.getProperty("db.replica.username", dbProperties.getProperty("db.username")),
+                dbProperties.getProperty("db.replica.password", dbProperties.getProperty("db.password")),
+                "teamproject-read");
+        config.setReadOnly(true);
+        config.setMaximumPoolSize(Integer.parseInt(dbProperties.getProperty("hikari.read.maximumPoolSize",
+                String.valueOf(config.getMaximumPoolSize()))));
+        config.setMinimumIdle(Math.min(config.getMinimumIdle(), config.getMaximumPoolSize()));
+        try {
+            HikariDataSource replica = new HikariDataSource(config);
+            System.out.println("Read replica pool initialized at " + url);
+            return replica;
+        }
+        catch (RuntimeException e) {
+            // HikariPool.PoolInitializationException: replica 없이도 애플리케이션은 동작해야 함
+            System.err.println("Error initializing read replica pool, reads use the primary pool: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * blob.backend 설정에 따라 파일 내용을 저장할 BlobStore를 연다
+     * mysql(기본값): file_data / file_chunks의 BLOB 컬럼에 저장 (null 반환)
+     * pack: blob.pack.directory 아래의 append-only pack 파일에 저장하고 DB에는 위치만 저장
+     *       여러 사용자가 함께 쓰려면 이 디렉토리는 모든 클라이언트가 접근할 수 있는 공유 경로여야 한다
+     */
+    private BlobStore openBlobStore() throws SQLException {
+        String backend = dbProperties.getProperty("blob.backend", "mysql");
+        if ("mysql".equalsIgnoreCase(backend)) {
+            return null;
+        }
+        if (!"pack".equalsIgnoreCase(backend)) {
+            throw new SQLException("Unknown blob.backend: " + backend);
+        }
+
+        String directory = dbProperties.getProperty("blob.pack.directory");
+        if (directory == null || directory.isBlank()) {
+            throw new SQLException("blob.pack.directory is required when blob.backend=pack");
+        }
+        try {
+            System.out.println("Using pack file blob store at " + directory);
+            return new PackFileBlobStore(Paths.get(directory));
+        }
+        catch (IOException e) {
+            throw new SQLException("Error opening blob store at " + directory + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 설정에 따라 QueryMetrics를 JMX (metrics.jmx, 기본값 true)와 로컬 HTTP endpoint (metrics.http.port, 기본값 0 = 사용 안 함)로 공개
+     * endpoint를 열 수 없어도 애플리케이션은 계속 실행한다
+     */
+    private void startMetrics() {
+        if (queryMetrics == null) {
+            return;
+        }
+        if (Boolean.parseBoolean(dbProperties.getProperty("metrics.jmx", "true"))) {
+            queryMetrics.registerMBean();
+        }
+        int port = Integer.parseInt(dbProperties.getProperty("metrics.http.port", "0"));
+        if (port > 0) {
+            try {
+                queryMetrics.startHttpEndpoint(port);
+            }
+            catch (IOException e) {
+                System.err.println("Error starting query metrics endpoint on port " + port + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private HikariConfig getHikariConfig(String url, String username, String password, String poolName) {
         HikariConfig config = new HikariConfig();
 
         // properties 파일에서 값 가져오기
-        config.setJdbcUrl(dbProperties.getProperty("db.url"));
-        config.setUsername(dbProperties.getProperty("db.username"));
-        config.setPassword(dbProperties.getProperty("db.password"));
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
 
         config.addDataSourceProperty("cachePrepStmts", dbProperties.getProperty("hikari.cachePrepStmts", "true"));
         config.addDataSourceProperty("prepStmtCacheSize", dbProperties.getProperty("hikari.prepStmtCacheSize", "250"));
         config.addDataSourceProperty("prepStmtCacheSqlLimit", dbProperties.getProperty("hikari.prepStmtCacheSqlLimit", "2048"));
+        // 서버 측 PreparedStatement를 사용해야 setBinaryStream 내용이 한 번에 버퍼링되지 않고 나누어 전송된다
+        config.addDataSourceProperty("useServerPrepStmts", dbProperties.getProperty("hikari.useServerPrepStmts", "true"));
+        // addBatch로 모은 INSERT를 여러 행의 INSERT 한 번으로 보내도록 (bulk import의 왕복 횟수 감소)
+        config.addDataSourceProperty("rewriteBatchedStatements", dbProperties.getProperty("hikari.rewriteBatchedStatements", "true"));
         config.setMaximumPoolSize(Integer.parseInt(dbProperties.getProperty("hikari.maximumPoolSize", "10")));
         config.setMinimumIdle(Integer.parseInt(dbProperties.getProperty("hikari.minimumIdle", "5")));
         config.setIdleTimeout(Long.parseLong(dbProperties.getProperty("hikari.idleTimeout", "60000")));
@@ -78,35 +262,207 @@ public class ConnectionManager {
         config.setConnectionTimeout(Long.parseLong(dbProperties.getProperty("hikari.connectionTimeout", "30000")));
         config.setLeakDetectionThreshold(Long.parseLong(dbProperties.getProperty("hikari.leakDetectionThreshold", "2000")));
 
+        config.setPoolName(poolName);
+        if (queryMetrics != null) {
+            // pool 상태와 connection 대기 시간을 QueryMetrics로 받고, HikariCP의 pool MBean도 JMX에 등록
+            config.setMetricsTrackerFactory(queryMetrics);
+            config.setRegisterMbeans(Boolean.parseBoolean(dbProperties.getProperty("metrics.jmx", "true")));
+        }
+
         return config;
     }
 
     /**
      * 커넥션 풀에서 Connection 객체를 빌려온다
      * Connection 사용 후 반드시 close()하여 풀에 반납해야 한다
+     * metrics가 켜져 있으면 SQL 실행 시간을 기록하도록 감싼 Connection을 반환한다
      *
      * @return Connection 객체
      * @throws SQLException 연결을 빌려오는 중 발생한 오류
      */
     public Connection getConnection() throws SQLException {
         if (dataSource == null || dataSource.isClosed()) {
+            if (!usesDatabase()) {
+                throw new SQLException("No database connection with repository.engine=" + getRepositoryEngine() + ".");
+            }
             System.err.println("Connection pool is not initialized or is closed. Call connect() first.");
             throw new SQLException("Connection pool not available.");
         }
 
-        return dataSource.getConnection();
+        Connection conn = dataSource.getConnection();
+        if (queryMetrics != null) {
+            conn = queryMetrics.instrument(conn);
+        }
+        if (readDataSource != null && readYourWritesMillis > 0) {
+            conn = WriteTrackingConnection.wrap(conn, this::pinReadsToPrimary);
+        }
+        return conn;
+    }
+
+    /**
+     * 읽기 전용 작업 (목록, 댓글, 미리보기 등)에 쓸 Connection을 빌려온다
+     * replica가 설정되어 있으면 replica pool에서, 아니면 getConnection과 같이 primary pool에서 빌려온다
+     * 이 ConnectionManager로 primary에 쓴 뒤 db.replica.readYourWritesMillis 동안은 primary에서 빌려오고,
+     * replica에서 빌려오지 못하면 primary로 대신한다
+     * 이 Connection으로 쓰기를 하면 안 된다 (read-only)
+     *
+     * @return Connection 객체
+     * @throws SQLException 연결을 빌려오는 중 발생한 오류
+     */
+    public Connection getReadConnection() throws SQLException {
+        if (readDataSource == null || readDataSource.isClosed() || System.nanoTime() - pinnedUntilNanos < 0) {
+            return getConnection();
+        }
+
+        Connection conn;
+        try {
+            conn = readDataSource.getConnection();
+        }
+        catch (SQLException e) {
+            System.err.println("Error borrowing read replica connection, using the primary pool: " + e.getMessage());
+            return getConnection();
+        }
+        return (queryMetrics != null) ? queryMetrics.instrument(conn) : conn;
+    }
+
+    /**
+     * 지금부터 readYourWritesMillis 동안 getReadConnection이 primary를 사용하도록 함
+     */
+    private void pinReadsToPrimary() {
+        pinnedUntilNanos = System.nanoTime() + readYourWritesMillis * 1_000_000L;
+    }
+
+    /**
+     * SQL 실행 시간과 pool 상태
+     * @return connect()에서 만든 QueryMetrics, metrics.enabled=false이면 null
+     */
+    public QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
+    /**
+     * DB 작업을 비동기로 실행할 executor (PageManager, GroupManager 등의 ...Async 메소드에서 사용)
+     * @return connect()에서 만든 executor
+     * @throws IllegalStateException connect() 전이거나 close() 후
+     */
+    public ExecutorService getExecutor() {
+        if (executor == null || executor.isShutdown()) {
+            throw new IllegalStateException("Executor not available. Call connect() first.");
+        }
+        return executor;
+    }
+
+    /**
+     * chunk를 미리 가져오는 공유 executor (FileDataManager)
+     * 스레드 수가 primary pool 크기의 1/CHUNK_FETCH_POOL_SHARE이므로, 동시에 내려받는 파일 수와 관계없이
+     * 미리 가져오기로 더 빌리는 connection은 그 수를 넘지 않는다
+     * @return connect()에서 만든 executor, connect() 전이거나 close() 후이면 null (호출한 쪽의 connection으로 순서대로 가져옴)
+     */
+    ExecutorService getChunkFetchExecutor() {
+        return (chunkFetchExecutor != null && !chunkFetchExecutor.isShutdown()) ? chunkFetchExecutor : null;
     }
 
     /**
-     * 커넥션 풀을 종료
+     * 파일 내용을 저장할 외부 BlobStore를 반환
+     * @return connect()에서 연 BlobStore, 내용을 MySQL BLOB 컬럼에 저장하는 설정이면 null
+     */
+    public BlobStore getBlobStore() {
+        return blobStore;
+    }
+
+    /**
+     * @return repository.engine 설정 값 (jdbc 또는 memory, 기본값 jdbc)
+     */
+    public String getRepositoryEngine() {
+        return dbProperties.getProperty("repository.engine", "jdbc");
+    }
+
+    /**
+     * delta / chunk 저장, merge, blame, export, 폴더 가져오기처럼 MySQL 저장 형식이 필요한 기능을 쓸 수 있는지
+     * @return repository.engine이 jdbc이면 true
+     */
+    public boolean usesDatabase() {
+        return "jdbc".equalsIgnoreCase(getRepositoryEngine());
+    }
+
+    /**
+     * manager들이 사용할 저장소 (connect()에서 연 것을 close()까지 공유)
+     * @return jdbc면 JdbcRepository, memory면 InMemoryRepository
+     * @throws IllegalStateException connect() 전이거나 close() 후
+     */
+    public Repository getRepository() {
+        if (repository == null) {
+            throw new IllegalStateException("Repository not available. Call connect() first.");
+        }
+        return repository;
+    }
+
+    /**
+     * repository.engine=memory의 저장소를 연다
+     * repository.memory.journal이 있으면 그 파일을 재생하여 복원하고 이후의 쓰기를 기록 (없으면 메모리만)
+     * @throws IOException 설정 값을 알 수 없거나 journal 파일을 열 수 없을 때
+     */
+    private Repository openRepository() throws IOException {
+        String engine = getRepositoryEngine();
+        if (!"memory".equalsIgnoreCase(engine)) {
+            throw new IOException("Unknown repository.engine: " + engine);
+        }
+
+        String journal = dbProperties.getProperty("repository.memory.journal");
+        if (journal == null || journal.isBlank()) {
+            System.out.println("Using in-memory repository without journal");
+            return new InMemoryRepository();
+        }
+        System.out.println("Using in-memory repository with journal " + journal);
+        return InMemoryRepository.open(Paths.get(journal));
+    }
+
+    /**
+     * 커넥션 풀과 저장소를 종료
      * 애플리케이션 종료 시 호출해야 한다
      */
     public void close() {
+        if (repository != null) {
+            if (!usesDatabase() && executor != null) {
+                // journal에 쓰는 중인 스레드를 interrupt하면 FileChannel이 닫히므로 shutdownNow 대신 shutdown
+                executor.shutdown();
+            }
+            try {
+                repository.close();
+            }
+            catch (IOException e) {
+                System.err.println("Error closing repository: " + e.getMessage());
+            }
+            repository = null;
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             System.out.println("Closing database connection pool...");
+            if (executor != null) {
+                // pool이 닫히면 기다리는 작업은 어차피 실패하므로 취소
+                executor.shutdownNow();
+            }
+            if (chunkFetchExecutor != null) {
+                chunkFetchExecutor.shutdownNow();
+            }
             dataSource.close();
             System.out.println("Database connection pool closed successfully.");
-        } else {
+            if (readDataSource != null) {
+                readDataSource.close();
+                readDataSource = null;
+            }
+            if (queryMetrics != null) {
+                queryMetrics.close();
+            }
+            if (blobStore != null) {
+                try {
+                    blobStore.close();
+                }
+                catch (IOException e) {
+                    System.err.println("Error closing blob store: " + e.getMessage());
+                }
+                blobStore = null;
+            }
+        } else if (usesDatabase()) {
             System.out.println("Database connection pool is already closed or not initialized.");
         }
     }
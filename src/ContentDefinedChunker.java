@@ -0,0 +1,84 @@
+package teamproject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 스트림을 내용 기반(content-defined)으로 자르는 클래스
+ * Gear rolling hash의 상위 비트가 모두 0이 되는 위치에서 자르므로, 파일 중간이 조금 바뀌어도 바뀐 부분 주변의 chunk만 달라진다
+ * chunk 크기는 MIN_CHUNK_SIZE ~ MAX_CHUNK_SIZE이며 평균은 약 8KB, 메모리는 MAX_CHUNK_SIZE 버퍼 하나만 사용한다
+ */
+final class ContentDefinedChunker {
+
+    static final int MIN_CHUNK_SIZE = 2 * 1024;
+    static final int MAX_CHUNK_SIZE = 64 * 1024;
+
+    // 상위 13비트 검사 -> 평균 2^13 = 8KB마다 경계 (Gear hash는 상위 비트일수록 더 긴 구간의 영향을 받음)
+    private static final long BOUNDARY_MASK = ((1L << 13) - 1) << 51;
+
+    // chunk 경계가 저장된 데이터와 항상 같도록 고정된 seed로 만든 테이블 (절대 바꾸지 말 것)
+    private static final long[] GEAR = new long[256];
+
+    static {
+        Random random = new Random(0x5EED_C0DEL);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[MAX_CHUNK_SIZE];
+    private int filled = 0;
+    private boolean endOfStream = false;
+
+    ContentDefinedChunker(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * 다음 chunk를 반환
+     * @return 다음 chunk의 내용, 스트림이 끝났으면 null
+     * @throws IOException 스트림 읽기 오류
+     */
+    byte[] nextChunk() throws IOException {
+        fill();
+        if (filled == 0) {
+            return null;
+        }
+
+        int cut = findCutPoint();
+        byte[] chunk = Arrays.copyOf(buffer, cut);
+        System.arraycopy(buffer, cut, buffer, 0, filled - cut);
+        filled -= cut;
+        return chunk;
+    }
+
+    private void fill() throws IOException {
+        while (!endOfStream && filled < buffer.length) {
+            int read = in.read(buffer, filled, buffer.length - filled);
+            if (read == -1) {
+                endOfStream = true;
+            }
+            else {
+                filled += read;
+            }
+        }
+    }
+
+    private int findCutPoint() {
+        if (filled <= MIN_CHUNK_SIZE) {
+            return filled;
+        }
+
+        long fingerprint = 0;
+        for (int i = MIN_CHUNK_SIZE; i < filled; i++) {
+            fingerprint = (fingerprint << 1) + GEAR[buffer[i] & 0xff];
+            if ((fingerprint & BOUNDARY_MASK) == 0) {
+                return i + 1;
+            }
+        }
+        return filled;
+    }
+}
@@ -0,0 +1,223 @@
+package teamproject;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * 두 파일 내용 사이의 바이너리 delta를 만들고 적용하는 클래스
+ * base를 BLOCK_SIZE 단위로 인덱싱한 뒤, target을 rolling hash로 훑으며 일치하는 구간은 COPY, 나머지는 INSERT로 기록한다
+ * 형식: [base 길이][target 길이] 뒤에 (OP_COPY, offset, length) 또는 (OP_INSERT, length, bytes)가 반복 (숫자는 모두 varint)
+ */
+final class DeltaCodec {
+
+    private static final int BLOCK_SIZE = 16;
+    private static final int HASH_MULTIPLIER = 0x01000193;
+
+    private static final int OP_COPY = 1;
+    private static final int OP_INSERT = 2;
+
+    private DeltaCodec() {}
+
+    /**
+     * base를 target으로 바꾸는 delta를 생성
+     * @param base 부모 revision의 내용
+     * @param target 새 revision의 내용
+     * @return delta 바이트 배열
+     */
+    static byte[] encode(byte[] base, byte[] target) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(32, target.length / 8));
+        writeVarint(out, base.length);
+        writeVarint(out, target.length);
+
+        if (base.length < BLOCK_SIZE || target.length < BLOCK_SIZE) {
+            writeInsert(out, target, 0, target.length);
+            return out.toByteArray();
+        }
+
+        // base의 블록 해시 -> 블록 시작 위치 (open addressing, 같은 해시는 처음 나온 블록만 기억)
+        int blockCount = base.length / BLOCK_SIZE;
+        int tableSize = Integer.highestOneBit(blockCount * 2 - 1) << 1;
+        int mask = tableSize - 1;
+        int[] tableHashes = new int[tableSize];
+        int[] tableOffsets = new int[tableSize];
+        Arrays.fill(tableOffsets, -1);
+
+        for (int offset = 0; offset + BLOCK_SIZE <= base.length; offset += BLOCK_SIZE) {
+            int hash = hashBlock(base, offset);
+            int slot = mix(hash) & mask;
+            while (tableOffsets[slot] != -1 && tableHashes[slot] != hash) {
+                slot = (slot + 1) & mask;
+            }
+            if (tableOffsets[slot] == -1) {
+                tableHashes[slot] = hash;
+                tableOffsets[slot] = offset;
+            }
+        }
+
+        int highPower = 1;
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            highPower *= HASH_MULTIPLIER;
+        }
+
+        int position = 0;
+        int pendingStart = 0;
+        int hash = hashBlock(target, 0);
+
+        while (position + BLOCK_SIZE <= target.length) {
+            int candidate = lookup(tableHashes, tableOffsets, mask, hash);
+
+            if (candidate != -1 && regionEquals(base, candidate, target, position, BLOCK_SIZE)) {
+                // 일치 구간을 앞뒤로 최대한 늘린다 (앞쪽은 아직 기록하지 않은 INSERT 구간까지만)
+                int targetStart = position;
+                int baseStart = candidate;
+                while (targetStart > pendingStart && baseStart > 0 && target[targetStart - 1] == base[baseStart - 1]) {
+                    targetStart--;
+                    baseStart--;
+                }
+                int targetEnd = position + BLOCK_SIZE;
+                int baseEnd = candidate + BLOCK_SIZE;
+                while (targetEnd < target.length && baseEnd < base.length && target[targetEnd] == base[baseEnd]) {
+                    targetEnd++;
+                    baseEnd++;
+                }
+
+                writeInsert(out, target, pendingStart, targetStart - pendingStart);
+                writeCopy(out, baseStart, targetEnd - targetStart);
+
+                position = targetEnd;
+                pendingStart = targetEnd;
+                if (position + BLOCK_SIZE <= target.length) {
+                    hash = hashBlock(target, position);
+                }
+                continue;
+            }
+
+            if (position + BLOCK_SIZE < target.length) {
+                hash = (hash - (target[position] & 0xff) * highPower) * HASH_MULTIPLIER + (target[position + BLOCK_SIZE] & 0xff);
+            }
+            position++;
+        }
+
+        writeInsert(out, target, pendingStart, target.length - pendingStart);
+        return out.toByteArray();
+    }
+
+    /**
+     * base에 delta를 적용하여 원래 내용을 복원
+     * @param base delta를 만들 때 사용한 부모 내용
+     * @param delta encode로 만든 delta
+     * @return 복원된 내용
+     * @throws IllegalArgumentException delta가 손상되었거나 다른 base로 만들어진 경우
+     */
+    static byte[] decode(byte[] base, byte[] delta) {
+        int[] cursor = {0};
+        long baseLength = readVarint(delta, cursor);
+        long targetLength = readVarint(delta, cursor);
+
+        if (baseLength != base.length) {
+            throw new IllegalArgumentException("Delta base length mismatch: expected " + baseLength + ", got " + base.length);
+        }
+        if (targetLength > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Delta target too large: " + targetLength);
+        }
+
+        byte[] target = new byte[(int) targetLength];
+        int written = 0;
+
+        while (cursor[0] < delta.length) {
+            int op = delta[cursor[0]++];
+            if (op == OP_COPY) {
+                long offset = readVarint(delta, cursor);
+                long length = readVarint(delta, cursor);
+                if (offset + length > base.length || written + length > target.length) {
+                    throw new IllegalArgumentException("Delta copy out of range at " + cursor[0]);
+                }
+                System.arraycopy(base, (int) offset, target, written, (int) length);
+                written += (int) length;
+            }
+            else if (op == OP_INSERT) {
+                long length = readVarint(delta, cursor);
+                if (cursor[0] + length > delta.length || written + length > target.length) {
+                    throw new IllegalArgumentException("Delta insert out of range at " + cursor[0]);
+                }
+                System.arraycopy(delta, cursor[0], target, written, (int) length);
+                cursor[0] += (int) length;
+                written += (int) length;
+            }
+            else {
+                throw new IllegalArgumentException("Unknown delta op " + op + " at " + (cursor[0] - 1));
+            }
+        }
+
+        if (written != target.length) {
+            throw new IllegalArgumentException("Delta produced " + written + " bytes, expected " + target.length);
+        }
+        return target;
+    }
+
+    private static int lookup(int[] tableHashes, int[] tableOffsets, int mask, int hash) {
+        int slot = mix(hash) & mask;
+        while (tableOffsets[slot] != -1) {
+            if (tableHashes[slot] == hash) {
+                return tableOffsets[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int hashBlock(byte[] data, int offset) {
+        int hash = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            hash = hash * HASH_MULTIPLIER + (data[offset + i] & 0xff);
+        }
+        return hash;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean regionEquals(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        return Arrays.equals(a, aOffset, aOffset + length, b, bOffset, bOffset + length);
+    }
+
+    private static void writeCopy(ByteArrayOutputStream out, int offset, int length) {
+        out.write(OP_COPY);
+        writeVarint(out, offset);
+        writeVarint(out, length);
+    }
+
+    private static void writeInsert(ByteArrayOutputStream out, byte[] data, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        out.write(OP_INSERT);
+        writeVarint(out, length);
+        out.write(data, offset, length);
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarint(byte[] data, int[] cursor) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            if (cursor[0] >= data.length || shift > 63) {
+                throw new IllegalArgumentException("Truncated varint");
+            }
+            int b = data[cursor[0]++] & 0xff;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package teamproject;
+
+/**
+ * 두 내용 사이의 변경 구간 하나 (줄 번호는 0부터)
+ * oldCount가 0이면 줄 추가, newCount가 0이면 줄 삭제, 둘 다 0보다 크면 줄 변경
+ * @param oldStart 이전 내용에서 변경이 시작되는 줄
+ * @param oldCount 이전 내용에서 바뀐 줄 수
+ * @param newStart 새 내용에서 변경이 시작되는 줄
+ * @param newCount 새 내용에서 바뀐 줄 수
+ */
+public record DiffHunk(int oldStart,
+                       int oldCount,
+                       int newStart,
+                       int newCount) {
+
+}
@@ -0,0 +1,149 @@
+package teamproject;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableColumn;
+import java.awt.*;
+
+/**
+ * 두 revision의 차이를 좌우로 나란히 보여주는 창
+ * diff 계산과 내용 불러오기는 UiTasks로 EDT가 아닌 스레드에서 하고, JTable은 화면에 보이는 행만 그린다
+ */
+public class DiffViewer extends JFrame {
+
+	private static final long serialVersionUID = 1L;
+	private static final Color REMOVED_COLOR = new Color(255, 220, 220);
+	private static final Color ADDED_COLOR = new Color(220, 255, 220);
+	private static final Color EMPTY_COLOR = new Color(235, 235, 235);
+
+	private final JTable diffTable;
+	private final JLabel statusLabel;
+	private SideBySideDiffModel diffModel;
+	private final UiTasks tasks = new UiTasks(this);
+
+	public DiffViewer(RevisionController revCon, long oldRevisionId, long newRevisionId) {
+		setTitle("Revision 비교 | rev " + oldRevisionId + " → rev " + newRevisionId);
+		setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+		setSize(1200, 700);
+		setLayout(new BorderLayout());
+
+		JPanel topPanel = new JPanel(new BorderLayout());
+		statusLabel = new JLabel("비교하는 중...");
+		statusLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+		JPanel navPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 2));
+		JButton previousButton = new JButton("▲ 이전 변경");
+		JButton nextButton = new JButton("▼ 다음 변경");
+		previousButton.addActionListener(e -> moveToChange(false));
+		nextButton.addActionListener(e -> moveToChange(true));
+		navPanel.add(previousButton);
+		navPanel.add(nextButton);
+		topPanel.add(statusLabel, BorderLayout.CENTER);
+		topPanel.add(navPanel, BorderLayout.EAST);
+		add(topPanel, BorderLayout.NORTH);
+
+		diffTable = new JTable();
+		diffTable.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+		diffTable.setRowHeight(diffTable.getFontMetrics(diffTable.getFont()).getHeight() + 2);
+		diffTable.setShowGrid(false);
+		diffTable.setIntercellSpacing(new Dimension(0, 0));
+		diffTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		diffTable.setDefaultRenderer(Object.class, new DiffCellRenderer());
+		add(new JScrollPane(diffTable), BorderLayout.CENTER);
+		add(tasks.getStatusBar(), BorderLayout.SOUTH);  // 작업 중에만 보이는 상태 표시줄
+
+		setLocationRelativeTo(null);
+		setVisible(true);
+
+		tasks.run("리비젼 비교", () -> revCon.showRevisionDiff_con(oldRevisionId, newRevisionId), model -> {
+			if (model == null) {
+				statusLabel.setText("비교 결과를 불러오지 못했습니다.");
+			}
+			else {
+				showDiff(model);
+			}
+		}, previousButton, nextButton);
+	}
+
+	private void showDiff(SideBySideDiffModel model) {
+		diffModel = model;
+		diffTable.setModel(model);
+
+		int charWidth = diffTable.getFontMetrics(diffTable.getFont()).charWidth('0');
+		int lineNumberWidth = charWidth * Math.max(4, String.valueOf(model.getRowCount()).length()) + 10;
+		for (int column : new int[] { SideBySideDiffModel.OLD_LINE_COLUMN, SideBySideDiffModel.NEW_LINE_COLUMN }) {
+			TableColumn tableColumn = diffTable.getColumnModel().getColumn(column);
+			tableColumn.setMinWidth(lineNumberWidth);
+			tableColumn.setMaxWidth(lineNumberWidth);
+		}
+
+		RevisionDiff diff = model.getDiff();
+		if (diff.hunks().isEmpty()) {
+			statusLabel.setText("두 리비젼의 내용이 같습니다. (" + diff.newLineCount() + "줄)");
+		}
+		else {
+			statusLabel.setText(String.format("변경 %d곳 | +%d줄 -%d줄", diff.hunks().size(), diff.addedLines(), diff.removedLines()));
+			moveToChange(true);
+		}
+	}
+
+	/**
+	 * 선택한 행 기준으로 다음/이전 변경 구간으로 이동
+	 */
+	private void moveToChange(boolean forward) {
+		if (diffModel == null) {
+			return;
+		}
+		int current = diffTable.getSelectedRow();
+		int row = forward ? diffModel.nextChangeRow(current) : diffModel.previousChangeRow(Math.max(current, 0));
+		if (row < 0) {
+			Toolkit.getDefaultToolkit().beep();
+			return;
+		}
+		diffTable.setRowSelectionInterval(row, row);
+		diffTable.scrollRectToVisible(diffTable.getCellRect(row, 0, true));
+	}
+
+	@Override
+	public void dispose() {
+		// 창을 닫으면 진행 중인 비교를 취소하고 불러온 내용을 버림
+		tasks.cancelAll();
+		if (diffModel != null) {
+			diffModel.close();
+			diffModel = null;
+		}
+		super.dispose();
+	}
+
+	/**
+	 * 삭제된 줄은 빨간색, 추가된 줄은 초록색, 반대편에 줄이 없는 칸은 회색으로 표시
+	 */
+	private static class DiffCellRenderer extends DefaultTableCellRenderer {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+				boolean hasFocus, int row, int column) {
+			Component component = super.getTableCellRendererComponent(table, value, isSelected, false, row, column);
+			if (isSelected || !(table.getModel() instanceof SideBySideDiffModel model)) {
+				return component;
+			}
+
+			boolean oldSide = column <= SideBySideDiffModel.OLD_TEXT_COLUMN;
+			switch (model.getRowType(row)) {
+				case CHANGED:
+					component.setBackground(oldSide ? REMOVED_COLOR : ADDED_COLOR);
+					break;
+				case REMOVED:
+					component.setBackground(oldSide ? REMOVED_COLOR : EMPTY_COLOR);
+					break;
+				case ADDED:
+					component.setBackground(oldSide ? EMPTY_COLOR : ADDED_COLOR);
+					break;
+				default:
+					component.setBackground(table.getBackground());
+			}
+			return component;
+		}
+	}
+}
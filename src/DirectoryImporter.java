@@ -0,0 +1,235 @@
+package teamproject;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 폴더 아래의 파일들을 페이지로 가져오기 (PageManager.importDirectory에서 사용)
+ * 1. 폴더를 탐색하여 확장자 조건에 맞는 파일을 모은다 (숨김 폴더 .git 등은 제외)
+ * 2. 파일을 묶음(batchBytes 또는 MAX_BATCH_FILES)으로 나누어, 묶음 안의 파일을 work-stealing pool에서 읽고 SHA-256을 계산한다
+ * 3. 그룹에 이름과 내용이 같은 페이지가 이미 있는 파일은 건너뛰고, 나머지를 PageManager.makeImportedPages로 한 번의 트랜잭션에 저장한다
+ * 다음 묶음을 읽고 계산하는 동안 현재 묶음을 저장하므로 디스크와 DB가 동시에 일하고, 힙에는 두 묶음의 내용만 올라간다
+ * 묶음마다 따로 커밋되므로 중간에 실패해도 앞의 묶음은 남으며, 다시 가져오면 이미 저장된 파일은 건너뛴다
+ */
+final class DirectoryImporter {
+
+    // 한 묶음에 넣을 최대 파일 수 (내용 크기와 별개로 한 번의 batch에 보낼 행 수 제한)
+    private static final int MAX_BATCH_FILES = 1000;
+    // 큰 파일의 체크섬을 계산할 때 사용하는 버퍼 크기
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final PageManager pageManager;
+    private final long batchBytes;
+
+    /**
+     * @param batchBytes 한 묶음에 미리 읽어 둘 최대 내용 크기
+     */
+    DirectoryImporter(PageManager pageManager, long batchBytes) {
+        this.pageManager = pageManager;
+        this.batchBytes = batchBytes;
+    }
+
+    /**
+     * root 아래의 파일들을 페이지로 가져옴
+     * @param root 가져올 폴더
+     * @param extensions 가져올 확장자 (점 없이, 대소문자 무시), 비어 있으면 모든 파일
+     * @param existingPages 그룹에 이미 있는 페이지의 importKey(페이지 이름, 체크섬) (같은 키의 파일은 건너뜀), 가져온 파일의 키가 추가됨
+     *                      (내용이 같아도 페이지 이름이 다르면 각각 가져온다)
+     * @param commitMessage 모든 페이지의 첫 revision에 공통인 commit message
+     * @param listener 묶음 하나를 저장할 때마다 진행 상황을 받을 콜백, 필요 없으면 null
+     * @return 최종 진행 상황, 묶음 저장에 실패하면 null
+     * @throws IOException 폴더 탐색 중 오류 발생 시
+     */
+    ImportProgress run(Path root, Set<String> extensions, Set<String> existingPages,
+                       String commitMessage, Consumer<ImportProgress> listener) throws IOException {
+        long startNanos = System.nanoTime();
+        List<ImportFile> files = collectFiles(root, extensions);
+        List<List<ImportFile>> batches = splitBatches(files);
+
+        int processed = 0;
+        int created = 0;
+        int skipped = 0;
+        int failed = 0;
+        long bytesRead = 0;
+        ImportProgress progress = new ImportProgress(files.size(), 0, 0, 0, 0, 0, 0);
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<ImportFile>> next = batches.isEmpty() ? null : submitBatch(pool, batches.get(0));
+            for (int b = 0; b < batches.size(); b++) {
+                List<Future<ImportFile>> current = next;
+                // 현재 묶음을 저장하는 동안 다음 묶음을 미리 읽고 계산
+                next = (b + 1 < batches.size()) ? submitBatch(pool, batches.get(b + 1)) : null;
+
+                List<ImportFile> toCreate = new ArrayList<>();
+                for (int i = 0; i < current.size(); i++) {
+                    ImportFile file;
+                    try {
+                        file = current.get(i).get();
+                    }
+                    catch (ExecutionException e) {
+                        System.err.println("Directory Importer: Skipping unreadable file " + batches.get(b).get(i).path() + ": " + e.getCause().getMessage());
+                        failed++;
+                        continue;
+                    }
+                    bytesRead += file.size();
+                    if (!existingPages.add(importKey(file.pageName(), file.checksum()))) {
+                        skipped++;
+                    }
+                    else {
+                        toCreate.add(file);
+                    }
+                }
+
+                if (!toCreate.isEmpty()) {
+                    List<Long> pageIds = pageManager.makeImportedPages(toCreate, commitMessage);
+                    if (pageIds == null) {
+                        return null;
+                    }
+                    created += pageIds.size();
+                }
+                processed += current.size();
+
+                progress = new ImportProgress(files.size(), processed, created, skipped, failed, bytesRead,
+                        (System.nanoTime() - startNanos) / 1_000_000);
+                if (listener != null) {
+                    listener.accept(progress);
+                }
+            }
+            return progress;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Directory import interrupted.", e);
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 이미 가져온 페이지인지 확인하는 키 (페이지 이름에 없는 '\0'으로 이름과 체크섬을 구분)
+     */
+    static String importKey(String pageName, String checksum) {
+        return pageName + '\0' + checksum;
+    }
+
+    /**
+     * root 아래의 확장자 조건에 맞는 일반 파일을 경로 순으로 모음
+     * 페이지 이름은 root 기준 상대 경로 ('/' 구분), 255자를 넘으면 파일 이름
+     */
+    private static List<ImportFile> collectFiles(Path root, Set<String> extensions) throws IOException {
+        Set<String> suffixes = extensions.stream()
+                .map(extension -> "." + extension.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        List<ImportFile> files = new ArrayList<>();
+
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                // .git, .idea 등 숨김 폴더는 가져오지 않음
+                if (!dir.equals(root) && dir.getFileName().toString().startsWith(".")) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String fileName = file.getFileName().toString();
+                String lowerName = fileName.toLowerCase(Locale.ROOT);
+                if (attrs.isRegularFile() && (suffixes.isEmpty() || suffixes.stream().anyMatch(lowerName::endsWith))) {
+                    String pageName = root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+                    if (pageName.length() > 255) {
+                        pageName = fileName;
+                    }
+                    files.add(new ImportFile(file, pageName, attrs.size(), null, null));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                System.err.println("Directory Importer: Skipping " + file + ": " + e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        files.sort(Comparator.comparing(ImportFile::pageName));
+        return files;
+    }
+
+    /**
+     * 미리 읽을 내용이 batchBytes, 파일 수가 MAX_BATCH_FILES를 넘지 않도록 나눔 (최소 한 개)
+     * 큰 파일은 스트리밍으로 저장되어 미리 읽지 않으므로 내용 크기에 포함하지 않는다
+     */
+    private List<List<ImportFile>> splitBatches(List<ImportFile> files) {
+        List<List<ImportFile>> batches = new ArrayList<>();
+        List<ImportFile> batch = new ArrayList<>();
+        long bytes = 0;
+        for (ImportFile file : files) {
+            long preloadBytes = (file.size() <= FileDataManager.DELTA_MAX_FILE_SIZE) ? file.size() : 0;
+            if (!batch.isEmpty() && (batch.size() >= MAX_BATCH_FILES || bytes + preloadBytes > batchBytes)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                bytes = 0;
+            }
+            batch.add(file);
+            bytes += preloadBytes;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static List<Future<ImportFile>> submitBatch(ForkJoinPool pool, List<ImportFile> batch) {
+        List<Future<ImportFile>> futures = new ArrayList<>(batch.size());
+        for (ImportFile file : batch) {
+            futures.add(pool.submit(() -> hash(file)));
+        }
+        return futures;
+    }
+
+    /**
+     * 파일을 읽고 SHA-256을 계산
+     * DELTA_MAX_FILE_SIZE 이하의 파일은 내용을 함께 돌려주어 저장할 때 다시 읽지 않고,
+     * 큰 파일은 고정 크기 버퍼로 체크섬만 계산한다 (저장은 스트리밍)
+     */
+    private static ImportFile hash(ImportFile file) throws IOException {
+        if (file.size() <= FileDataManager.DELTA_MAX_FILE_SIZE) {
+            byte[] content = Files.readAllBytes(file.path());
+            String checksum = FileDataManager.toHexString(FileDataManager.newSha256Digest().digest(content));
+            return new ImportFile(file.path(), file.pageName(), content.length, content, checksum);
+        }
+
+        MessageDigest digest = FileDataManager.newSha256Digest();
+        long size = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file.path()))) {
+            byte[] buffer = new byte[HASH_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                size += read;
+            }
+        }
+        return new ImportFile(file.path(), file.pageName(), size, null, FileDataManager.toHexString(digest.digest()));
+    }
+}
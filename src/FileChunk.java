@@ -0,0 +1,8 @@
+package teamproject;
+
+public record FileChunk(long actualDataId,
+                        int chunkIndex,
+                        String chunkHash,
+                        long chunkOffset,
+                        int chunkSize) {
+}
\ No newline at end of file
@@ -0,0 +1,299 @@
+package teamproject;
+
+import java.io.IOException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * file_chunks (chunk_hash로 식별되는 chunk 내용)와 file_data_chunks (file_data별 chunk 순서 목록, manifest) 테이블을 다루는 클래스
+ * 같은 chunk는 revision, 페이지와 관계없이 한 번만 저장된다
+ */
+public class FileChunkManager {
+
+    private static final int MAX_IN_LIST_SIZE = 500;
+
+    // 실행 계획을 SchemaMigrator.verifyQueryPlans에서 EXPLAIN으로 확인하는 쿼리
+    static final String MANIFEST_SQL = "SELECT chunk_index, chunk_hash, chunk_offset, chunk_size " +
+            "FROM file_data_chunks " +
+            "WHERE actual_data_id = ? " +
+            "ORDER BY chunk_index";
+    // chunk_offset의 하한 (구간 시작 - MAX_CHUNK_SIZE)이 있어야 (actual_data_id, chunk_offset) 인덱스에서 구간 근처만 읽는다
+    static final String MANIFEST_RANGE_SQL = "SELECT chunk_index, chunk_hash, chunk_offset, chunk_size " +
+            "FROM file_data_chunks " +
+            "WHERE actual_data_id = ? AND chunk_offset > ? AND chunk_offset < ? AND chunk_offset + chunk_size > ? " +
+            "ORDER BY chunk_index";
+    static final String CHUNK_CONTENT_SQL = "SELECT content, blob_location " +
+            "FROM file_chunks " +
+            "WHERE chunk_hash = ?";
+    static final String DELETE_MANIFEST_SQL = "DELETE FROM file_data_chunks " +
+            "WHERE actual_data_id = ?";
+
+    // null이면 chunk 내용을 file_chunks.content에, 아니면 BlobStore에 저장하고 blob_location에 위치만 저장
+    private final BlobStore blobStore;
+
+    FileChunkManager(BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    /**
+     * 주어진 chunk_hash 중 이미 file_chunks에 저장된 것들을 반환
+     * @param chunkHashes 검사할 chunk_hash 목록
+     * @return 이미 존재하는 chunk_hash 집합
+     * @throws SQLException SQL 오류 발생 시
+     */
+    public Set<String> findExistingChunks(Connection conn, Collection<String> chunkHashes) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        if (chunkHashes.isEmpty()) {
+            return existing;
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(existingChunksSql(chunkHashes.size()))) {
+            int index = 1;
+            for (String chunkHash : chunkHashes) {
+                pstmt.setString(index++, chunkHash);
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString("chunk_hash"));
+                }
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * chunk 내용을 file_chunks에 한 번의 batch로 저장
+     * 다른 업로드가 같은 chunk를 먼저 저장했을 수 있으므로 INSERT IGNORE를 사용한다
+     * BlobStore가 있으면 내용은 BlobStore에 한 번에 저장하고 DB에는 위치만 기록한다
+     * @param chunkHashes 저장할 chunk의 hash (contents와 같은 순서)
+     * @param contents 저장할 chunk 내용
+     * @throws SQLException 오류 발생 시 롤백을 유도할 Exception
+     */
+    public void insertChunks(Connection conn, List<String> chunkHashes, List<byte[]> contents) throws SQLException {
+        if (chunkHashes.isEmpty()) {
+            return;
+        }
+
+        List<String> locations = null;
+        if (blobStore != null) {
+            try {
+                locations = blobStore.putAll(contents);
+            }
+            catch (IOException e) {
+                throw new SQLException("Error storing chunks in blob store: " + e.getMessage(), e);
+            }
+        }
+
+        String sql = "INSERT IGNORE INTO file_chunks " +
+                "(chunk_hash, content, chunk_size, blob_location) " +
+                "VALUES (?, ?, ?, ?)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < chunkHashes.size(); i++) {
+                pstmt.setString(1, chunkHashes.get(i));
+                if (locations == null) {
+                    pstmt.setBytes(2, contents.get(i));
+                    pstmt.setNull(4, Types.VARCHAR);
+                }
+                else {
+                    pstmt.setNull(2, Types.BLOB);
+                    pstmt.setString(4, locations.get(i));
+                }
+                pstmt.setInt(3, contents.get(i).length);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * file_data의 manifest에 chunk 목록을 한 번의 batch로 추가
+     * @param chunks 추가할 manifest 항목
+     * @throws SQLException 오류 발생 시 롤백을 유도할 Exception
+     */
+    public void insertManifest(Connection conn, List<FileChunk> chunks) throws SQLException {
+        if (chunks.isEmpty()) {
+            return;
+        }
+
+        String sql = "INSERT INTO file_data_chunks " +
+                "(actual_data_id, chunk_index, chunk_hash, chunk_offset, chunk_size) " +
+                "VALUES (?, ?, ?, ?, ?)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (FileChunk chunk : chunks) {
+                pstmt.setLong(1, chunk.actualDataId());
+                pstmt.setInt(2, chunk.chunkIndex());
+                pstmt.setString(3, chunk.chunkHash());
+                pstmt.setLong(4, chunk.chunkOffset());
+                pstmt.setInt(5, chunk.chunkSize());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * file_data의 chunk 목록을 순서대로 반환
+     * @param actualDataId 조회할 file_data의 actual_data_id
+     * @return chunk_index 순으로 정렬된 FileChunk 목록
+     * @throws SQLException SQL 오류 발생 시
+     */
+    public List<FileChunk> getManifest(Connection conn, long actualDataId) throws SQLException {
+        List<FileChunk> manifest = new ArrayList<>();
+
+        try (PreparedStatement pstmt = conn.prepareStatement(MANIFEST_SQL)) {
+            pstmt.setLong(1, actualDataId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    manifest.add(new FileChunk(
+                            actualDataId,
+                            rs.getInt("chunk_index"),
+                            rs.getString("chunk_hash"),
+                            rs.getLong("chunk_offset"),
+                            rs.getInt("chunk_size")));
+                }
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * file_data의 chunk 중 [fromOffset, toOffset) 구간과 겹치는 것만 순서대로 반환 (범위 읽기용)
+     * @param actualDataId 조회할 file_data의 actual_data_id
+     * @param fromOffset 구간 시작 위치
+     * @param toOffset 구간 끝 위치 (포함하지 않음)
+     * @return chunk_index 순으로 정렬된 FileChunk 목록
+     * @throws SQLException SQL 오류 발생 시
+     */
+    public List<FileChunk> getManifestRange(Connection conn, long actualDataId, long fromOffset, long toOffset) throws SQLException {
+        List<FileChunk> manifest = new ArrayList<>();
+
+        try (PreparedStatement pstmt = conn.prepareStatement(MANIFEST_RANGE_SQL)) {
+            pstmt.setLong(1, actualDataId);
+            // 구간과 겹치는 chunk는 fromOffset - MAX_CHUNK_SIZE 이후에 시작한다
+            pstmt.setLong(2, fromOffset - ContentDefinedChunker.MAX_CHUNK_SIZE);
+            pstmt.setLong(3, toOffset);
+            pstmt.setLong(4, fromOffset);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    manifest.add(new FileChunk(
+                            actualDataId,
+                            rs.getInt("chunk_index"),
+                            rs.getString("chunk_hash"),
+                            rs.getLong("chunk_offset"),
+                            rs.getInt("chunk_size")));
+                }
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * chunk 하나의 내용을 반환
+     * @param chunkHash 조회할 chunk_hash
+     * @return chunk 내용, 없으면 null
+     * @throws SQLException SQL 오류 발생 시
+     */
+    public byte[] getChunkContent(Connection conn, String chunkHash) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(CHUNK_CONTENT_SQL)) {
+            pstmt.setString(1, chunkHash);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    String location = rs.getString("blob_location");
+                    return location == null ? rs.getBytes("content") : readBlob(location);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * file_data의 manifest를 삭제하고, 그 file_data가 쓰던 chunk_hash 목록을 반환
+     * 반환된 목록은 deleteUnreferencedChunks에 넘겨 더 이상 쓰이지 않는 chunk를 정리한다
+     * @param actualDataId manifest를 삭제할 file_data의 actual_data_id
+     * @return 삭제한 manifest가 참조하던 chunk_hash 목록 (중복 제거)
+     * @throws SQLException 오류 발생 시 롤백을 유도할 Exception
+     */
+    public Set<String> deleteManifest(Connection conn, long actualDataId) throws SQLException {
+        Set<String> chunkHashes = new LinkedHashSet<>();
+        for (FileChunk chunk : getManifest(conn, actualDataId)) {
+            chunkHashes.add(chunk.chunkHash());
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(DELETE_MANIFEST_SQL)) {
+            pstmt.setLong(1, actualDataId);
+            pstmt.executeUpdate();
+        }
+        return chunkHashes;
+    }
+
+    /**
+     * 주어진 chunk 중 어떤 manifest도 참조하지 않는 chunk를 삭제
+     * @param chunkHashes 삭제 후보 chunk_hash 목록
+     * @return 삭제된 chunk의 수
+     * @throws SQLException 오류 발생 시 롤백을 유도할 Exception
+     */
+    public int deleteUnreferencedChunks(Connection conn, Collection<String> chunkHashes) throws SQLException {
+        List<String> candidates = new ArrayList<>(chunkHashes);
+        int deletedRows = 0;
+
+        // 큰 파일은 chunk가 매우 많으므로 IN 목록을 나누어 실행
+        for (int from = 0; from < candidates.size(); from += MAX_IN_LIST_SIZE) {
+            List<String> batch = candidates.subList(from, Math.min(from + MAX_IN_LIST_SIZE, candidates.size()));
+
+            try (PreparedStatement pstmt = conn.prepareStatement(deleteUnreferencedChunksSql(batch.size()))) {
+                int index = 1;
+                for (String chunkHash : batch) {
+                    pstmt.setString(index++, chunkHash);
+                }
+                deletedRows += pstmt.executeUpdate();
+            }
+        }
+        return deletedRows;
+    }
+
+    private byte[] readBlob(String location) throws SQLException {
+        if (blobStore == null) {
+            throw new SQLException("Chunk is stored at " + location + " but no blob store is configured.");
+        }
+        try {
+            return blobStore.get(location);
+        }
+        catch (IOException e) {
+            throw new SQLException("Error reading chunk from blob store: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * findExistingChunks의 쿼리 (chunk_hash count개)
+     */
+    static String existingChunksSql(int count) {
+        return "SELECT chunk_hash " +
+                "FROM file_chunks " +
+                "WHERE chunk_hash IN (" + placeholders(count) + ")";
+    }
+
+    /**
+     * deleteUnreferencedChunks의 쿼리 (chunk_hash count개)
+     */
+    static String deleteUnreferencedChunksSql(int count) {
+        return "DELETE FROM file_chunks " +
+                "WHERE chunk_hash IN (" + placeholders(count) + ") " +
+                "AND NOT EXISTS (SELECT 1 FROM file_data_chunks m WHERE m.chunk_hash = file_chunks.chunk_hash)";
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
\ No newline at end of file
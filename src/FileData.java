@@ -3,8 +3,8 @@ package teamproject;
 import java.sql.Timestamp;
 
 public record FileData(long actualDataId,
-                       long revisionId,
-                       byte[] content,
                        String checkSum,
+                       String storageType,
+                       long contentSize,
                        Timestamp createdAt) {
-}
\ No newline at end of file
+}
@@ -1,51 +1,1001 @@
 package teamproject;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class FileDataManager {
 
-    public FileDataManager() {}
+    // file_data.storage_type 값
+    static final String STORAGE_FULL = "FULL";      // content에 파일 전체를 저장 (keyframe)
+    static final String STORAGE_DELTA = "DELTA";    // content에 base_data_id 내용에 대한 delta를 저장
+    static final String STORAGE_CHUNKED = "CHUNKED"; // content는 비어 있고, file_data_chunks의 chunk 목록으로 저장
 
+    // base로부터 이어지는 delta가 이 길이에 도달하면 다음 revision은 전체 내용(keyframe)으로 저장
+    private static final int KEYFRAME_INTERVAL = 16;
+    // delta가 원본 크기의 이 비율보다 크면 delta의 이점이 없으므로 keyframe으로 저장
+    private static final double MAX_DELTA_RATIO = 0.5;
+    // 이 크기 이하의 파일만 메모리에 올려 delta로 저장하고, 더 큰 파일은 스트리밍으로 chunk 단위 저장
+    static final long DELTA_MAX_FILE_SIZE = 4L * 1024 * 1024;
+    // 스트리밍 다운로드 시 사용하는 고정 크기 버퍼
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    // 업로드 시 한 번에 존재 여부를 확인하고 batch로 저장할 chunk 수
+    private static final int CHUNK_BATCH_SIZE = 16;
+    // 다운로드 시 미리 요청해 둘 최대 chunk 수 (메모리 = CHUNK_FETCH_WINDOW * 최대 chunk 크기)
+    // 동시에 가져오는 수는 ConnectionManager의 공유 chunk fetch executor 스레드 수로 제한됨
+    private static final int CHUNK_FETCH_WINDOW = 16;
+    // checksum IN (...) 조회 한 번에 넣을 최대 개수
+    private static final int CHECKSUM_LOOKUP_BATCH = 500;
+
+    // 실행 계획을 SchemaMigrator.verifyQueryPlans에서 EXPLAIN으로 확인하는 쿼리
+    static final String FILE_DATA_ID_BY_CHECKSUM_SQL = "SELECT actual_data_id " +
+            "FROM file_data " +
+            "WHERE checksum = ?";
+    static final String LOAD_CONTENT_SQL = "SELECT content, storage_type, base_data_id, blob_location " +
+            "FROM file_data " +
+            "WHERE actual_data_id = ?";
+    static final String STREAM_CONTENT_SQL = "SELECT storage_type, blob_location, content " +
+            "FROM file_data " +
+            "WHERE actual_data_id = ?";
+    static final String DELTA_BASE_SQL = "SELECT chain_depth, storage_type, COALESCE(content_size, LENGTH(content)) AS content_size " +
+            "FROM file_data " +
+            "WHERE actual_data_id = ?";
+    static final String BASE_DATA_ID_SQL = "SELECT base_data_id " +
+            "FROM file_data " +
+            "WHERE actual_data_id = ?";
+    static final String IS_REFERENCED_SQL = "SELECT EXISTS (SELECT 1 FROM file_revisions WHERE actual_data_id = ?) " +
+            "OR EXISTS (SELECT 1 FROM file_data WHERE base_data_id = ?)";
+    // content_size가 없는 예전 행은 LENGTH로 대신함 (BLOB 길이는 행에 기록되어 있어 내용을 읽지 않음)
+    static final String FILE_DATA_SQL = "SELECT actual_data_id, checksum, storage_type, COALESCE(content_size, LENGTH(content)) AS content_size, created_at " +
+            "FROM file_data " +
+            "WHERE actual_data_id = ?";
+    // SUBSTRING의 위치는 1부터 시작, content가 NULL인 행(CHUNKED, BlobStore)은 NULL
+    static final String READ_RANGE_SQL = "SELECT storage_type, blob_location, SUBSTRING(content, ?, ?) AS content_range " +
+            "FROM file_data " +
+            "WHERE actual_data_id = ?";
+
+    private final ConnectionManager connectionManager;
+    private final FileChunkManager fileChunkManager;
+    // 내용을 DB 밖에 저장하는 BlobStore, null이면 content 컬럼에 저장
+    private final BlobStore blobStore;
+    // 로컬 디스크 캐시, 캐시 디렉토리를 쓸 수 없으면 null
+    private final BlobCache blobCache;
+
+    public FileDataManager() {
+        this(null);
+    }
+
+    /**
+     * @param connectionManager chunk를 병렬로 가져올 때 추가 connection을 빌려올 ConnectionManager, null이면 순차적으로 가져옴
+     */
+    public FileDataManager(ConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+        this.blobStore = (connectionManager != null) ? connectionManager.getBlobStore() : null;
+        this.fileChunkManager = new FileChunkManager(blobStore);
+        this.blobCache = BlobCache.getDefault();
+    }
+
+    /**
+     * file_data 테이블에 실제 파일 데이터를 저장하고 actual_data_id를 반환
+     * 같은 checksum의 데이터가 이미 저장되어 있으면 내용을 다시 보내지 않고 기존 actual_data_id를 반환한다
+     * 조회와 삽입 사이에 다른 사용자가 같은 내용을 올린 경우에는 checksum의 UNIQUE 인덱스와
+     * ON DUPLICATE KEY UPDATE ... LAST_INSERT_ID(actual_data_id)로 기존 행의 ID를 돌려받는다
+     * @param content 파일 내용
+     * @param checksum content의 SHA-256 체크섬
+     * @return 새로 삽입되었거나 이미 존재하던 file_data의 actual_data_id
+     * @throws SQLException 오류 발생 시 롤백을 유도할 Exception
+     */
     public long insertFileData(Connection conn, byte[] content, String checksum) throws SQLException {
+        return insertFileData(conn, content, checksum, 0);
+    }
+
+    /**
+     * 부모 revision의 file_data(baseDataId)에 대한 delta로 파일 데이터를 저장
+     * 1. 같은 checksum의 데이터가 이미 있으면 그대로 재사용한다
+     * 2. base가 CHUNKED이거나 DELTA_MAX_FILE_SIZE보다 크거나, base의 delta 체인 길이가 KEYFRAME_INTERVAL에 도달했거나,
+     *    delta가 원본의 MAX_DELTA_RATIO보다 크면 전체 내용(keyframe)으로 저장한다
+     * 3. 그 외에는 base 내용을 복원하여 delta를 계산하고 DELTA 행으로 저장한다
+     * checksum은 저장 형태와 관계없이 항상 전체 내용의 SHA-256이다
+     * BlobStore가 설정되어 있으면 저장할 내용(전체 또는 delta)은 BlobStore에 쓰고, content 대신 blob_location에 위치를 기록한다
+     * @param content 파일 내용
+     * @param checksum content의 SHA-256 체크섬
+     * @param baseDataId 부모 revision의 actual_data_id, 없으면 0 (keyframe으로 저장)
+     * @return 새로 삽입되었거나 이미 존재하던 file_data의 actual_data_id
+     * @throws SQLException 오류 발생 시 롤백을 유도할 Exception
+     */
+    public long insertFileData(Connection conn, byte[] content, String checksum, long baseDataId) throws SQLException {
+        if (checksum == null) {
+            throw new SQLException("Inserting file_data failed, checksum is required.");
+        }
+
+        long existingId = findFileDataIdByChecksum(conn, checksum);
+        if (existingId != -1) {
+            return existingId;
+        }
+
+        String storageType = STORAGE_FULL;
+        byte[] storedContent = content;
+        Long storedBaseId = null;
+        int chainDepth = 0;
+
+        if (baseDataId > 0) {
+            int baseDepth = getDeltaBaseDepth(conn, baseDataId);
+            if (baseDepth != -1 && baseDepth + 1 < KEYFRAME_INTERVAL) {
+                byte[] delta = DeltaCodec.encode(readContent(conn, baseDataId), content);
+                if (delta.length < content.length * MAX_DELTA_RATIO) {
+                    storageType = STORAGE_DELTA;
+                    storedContent = delta;
+                    storedBaseId = baseDataId;
+                    chainDepth = baseDepth + 1;
+                }
+            }
+        }
+
+        String blobLocation = null;
+        if (blobStore != null) {
+            try {
+                blobLocation = blobStore.put(storedContent);
+            }
+            catch (IOException e) {
+                throw new SQLException("Error storing file_data in blob store: " + e.getMessage(), e);
+            }
+        }
+
         String sql = "INSERT INTO file_data " +
-                "(content, checksum) " +
-                "VALUES (?, ?)";
+                "(content, checksum, storage_type, base_data_id, chain_depth, content_size, blob_location) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE actual_data_id = LAST_INSERT_ID(actual_data_id)";
 
         try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
-            pstmt.setBytes(1, content);
+            if (blobLocation == null) {
+                pstmt.setBytes(1, storedContent);
+            }
+            else {
+                pstmt.setNull(1, Types.BLOB);
+            }
             pstmt.setString(2, checksum);
+            pstmt.setString(3, storageType);
+            if (storedBaseId == null) {
+                pstmt.setNull(4, Types.BIGINT);
+            }
+            else {
+                pstmt.setLong(4, storedBaseId);
+            }
+            pstmt.setInt(5, chainDepth);
+            pstmt.setLong(6, content.length);
+            pstmt.setString(7, blobLocation);
 
-            int affectedRows = pstmt.executeUpdate();
+            // 새 행이면 1, 기존 행을 재사용하면 0 (값이 바뀌지 않으므로) 이 반환된다
+            pstmt.executeUpdate();
 
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        return generatedKeys.getLong(1);
-                    }
-                    else {
-                        throw new SQLException("Inserting file_data failed, no ID obtained.");
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    return generatedKeys.getLong(1);
+                }
+            }
+        }
+
+        // 드라이버가 키를 돌려주지 않은 경우 checksum으로 다시 조회
+        existingId = findFileDataIdByChecksum(conn, checksum);
+        if (existingId == -1) {
+            throw new SQLException("Inserting file_data failed, no ID obtained.");
+        }
+        return existingId;
+    }
+
+    /**
+     * 여러 파일의 내용을 한 번의 batch로 file_data에 전체 내용(FULL)으로 저장 (bulk import용)
+     * 1. 이미 있는 checksum은 IN 조회로 한 번에 찾아 다시 보내지 않는다
+     * 2. 없는 내용만 addBatch로 모아 executeBatch 한다 (rewriteBatchedStatements로 여러 행의 INSERT 한 번으로 전송)
+     *    BlobStore가 설정되어 있으면 내용은 putAll로 한 번에 저장하고 blob_location만 기록한다
+     * 3. 같은 내용을 동시에 올린 경우에도 실패하지 않도록 중복 행은 무시하고, 마지막에 checksum으로 ID를 다시 조회한다
+     * 호출하는 쪽에서 트랜잭션으로 묶어야 한다
+     * @param contents 파일 내용 목록 (각각 DELTA_MAX_FILE_SIZE 이하 권장)
+     * @param checksums contents와 같은 순서의 SHA-256 체크섬
+     * @return checksum -> actual_data_id
+     * @throws SQLException 오류 발생 시 롤백을 유도할 Exception
+     */
+    public Map<String, Long> insertFileDataBatch(Connection conn, List<byte[]> contents, List<String> checksums) throws SQLException {
+        if (contents.size() != checksums.size()) {
+            throw new SQLException("Inserting file_data batch failed, contents and checksums differ in size.");
+        }
+
+        Map<String, Long> ids = findFileDataIdsByChecksums(conn, checksums);
+
+        // 아직 없는 내용만 (같은 batch 안의 중복도 한 번만)
+        Map<String, byte[]> missing = new LinkedHashMap<>();
+        for (int i = 0; i < contents.size(); i++) {
+            if (!ids.containsKey(checksums.get(i))) {
+                missing.putIfAbsent(checksums.get(i), contents.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return ids;
+        }
+
+        // BlobStore에는 INSERT보다 먼저 기록되므로, 트랜잭션이 롤백되면 DB가 참조하지 않는 내용이 pack에 남는다
+        // 같은 내용은 같은 location을 돌려받아 이미 커밋된 행이나 다른 트랜잭션과 공유될 수 있으므로 여기서 지우지 않는다
+        // (다시 올리면 남은 내용을 재사용하며, 참조되지 않는 내용은 저장소 쪽의 정리 작업으로 회수)
+        List<String> blobLocations = null;
+        if (blobStore != null) {
+            try {
+                blobLocations = blobStore.putAll(new ArrayList<>(missing.values()));
+            }
+            catch (IOException e) {
+                throw new SQLException("Error storing file_data in blob store: " + e.getMessage(), e);
+            }
+        }
+
+        String sql = "INSERT INTO file_data " +
+                "(content, checksum, storage_type, chain_depth, content_size, blob_location) " +
+                "VALUES (?, ?, ?, 0, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE actual_data_id = actual_data_id";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 0;
+            for (Map.Entry<String, byte[]> entry : missing.entrySet()) {
+                String blobLocation = (blobLocations != null) ? blobLocations.get(index++) : null;
+                if (blobLocation == null) {
+                    pstmt.setBytes(1, entry.getValue());
+                }
+                else {
+                    pstmt.setNull(1, Types.BLOB);
+                }
+                pstmt.setString(2, entry.getKey());
+                pstmt.setString(3, STORAGE_FULL);
+                pstmt.setLong(4, entry.getValue().length);
+                pstmt.setString(5, blobLocation);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+
+        // 여러 행 INSERT의 generated key는 중복 행이 섞이면 순서를 믿을 수 없으므로 checksum으로 다시 조회
+        Map<String, Long> inserted = findFileDataIdsByChecksums(conn, missing.keySet());
+        if (inserted.size() != missing.size()) {
+            throw new SQLException("Inserting file_data batch failed, " + (missing.size() - inserted.size()) + " rows not found after insert.");
+        }
+        ids.putAll(inserted);
+        return ids;
+    }
+
+    /**
+     * 여러 checksum의 file_data를 한 번에 검색 (CHECKSUM_LOOKUP_BATCH개씩 IN 조회)
+     * @param checksums 검색할 SHA-256 체크섬 목록
+     * @return 존재하는 것만 checksum -> actual_data_id
+     * @throws SQLException SQL 오류 발생 시
+     */
+    public Map<String, Long> findFileDataIdsByChecksums(Connection conn, Collection<String> checksums) throws SQLException {
+        Map<String, Long> ids = new HashMap<>();
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(checksums));
+
+        for (int from = 0; from < distinct.size(); from += CHECKSUM_LOOKUP_BATCH) {
+            List<String> part = distinct.subList(from, Math.min(from + CHECKSUM_LOOKUP_BATCH, distinct.size()));
+            try (PreparedStatement pstmt = conn.prepareStatement(fileDataIdsByChecksumsSql(part.size()))) {
+                for (int i = 0; i < part.size(); i++) {
+                    pstmt.setString(i + 1, part.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids.put(rs.getString("checksum"), rs.getLong("actual_data_id"));
                     }
                 }
             }
-            else {
+        }
+        return ids;
+    }
+
+    /**
+     * findFileDataIdsByChecksums의 쿼리 (checksum count개)
+     */
+    static String fileDataIdsByChecksumsSql(int count) {
+        return "SELECT actual_data_id, checksum " +
+                "FROM file_data " +
+                "WHERE checksum IN (" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+
+    /**
+     * 파일 내용을 스트림으로 읽으면서 내용 기반 chunk 단위로 file_data에 저장 (전체 내용을 메모리에 올리지 않음)
+     * 1. content 없이 CHUNKED 행을 삽입한다
+     * 2. ContentDefinedChunker로 자른 chunk를 CHUNK_BATCH_SIZE개씩 모아, file_chunks에 없는 chunk만 전송하고 manifest를 기록한다
+     *    파일 일부만 바뀐 경우 바뀐 부분의 chunk만 새로 저장되며, 같은 chunk는 revision, 페이지와 관계없이 공유된다
+     * 3. 지나가는 바이트로 계산한 파일 전체의 SHA-256이 이미 있으면 방금 삽입한 행을 지우고 기존 actual_data_id를 반환한다
+     * 4. 없으면 계산한 checksum을 기록한다 (동시에 같은 내용이 올라와 UNIQUE 충돌이 나면 3과 같이 처리)
+     * 호출하는 쪽에서 트랜잭션으로 묶어야 한다
+     * @param content 파일 내용 스트림 (닫는 것은 호출한 쪽의 책임)
+     * @param length 스트림의 예상 바이트 수
+     * @return 새로 삽입되었거나 이미 존재하던 file_data의 actual_data_id
+     * @throws SQLException 오류 발생 시 롤백을 유도할 Exception
+     * @throws IOException 스트림 읽기 오류
+     */
+    public long insertFileData(Connection conn, InputStream content, long length) throws SQLException, IOException {
+        MessageDigest fileDigest = newSha256Digest();
+        ContentDefinedChunker chunker = new ContentDefinedChunker(new DigestInputStream(content, fileDigest));
+
+        String insertSql = "INSERT INTO file_data " +
+                "(content, checksum, storage_type, content_size) " +
+                "VALUES (NULL, NULL, ?, ?)";
+        long insertedId;
+
+        try (PreparedStatement pstmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+
+            pstmt.setString(1, STORAGE_CHUNKED);
+            pstmt.setLong(2, length);
+
+            if (pstmt.executeUpdate() == 0) {
                 throw new SQLException("Inserting file_data failed, no rows affected.");
             }
+
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    insertedId = generatedKeys.getLong(1);
+                }
+                else {
+                    throw new SQLException("Inserting file_data failed, no ID obtained.");
+                }
+            }
+        }
+
+        List<String> pendingHashes = new ArrayList<>(CHUNK_BATCH_SIZE);
+        List<byte[]> pendingContents = new ArrayList<>(CHUNK_BATCH_SIZE);
+        List<FileChunk> pendingManifest = new ArrayList<>(CHUNK_BATCH_SIZE);
+        int chunkIndex = 0;
+        long offset = 0;
+        byte[] chunk;
+
+        while ((chunk = chunker.nextChunk()) != null) {
+            String chunkHash = toHexString(newSha256Digest().digest(chunk));
+            pendingHashes.add(chunkHash);
+            pendingContents.add(chunk);
+            pendingManifest.add(new FileChunk(insertedId, chunkIndex++, chunkHash, offset, chunk.length));
+            offset += chunk.length;
+
+            if (pendingHashes.size() == CHUNK_BATCH_SIZE) {
+                flushChunks(conn, pendingHashes, pendingContents, pendingManifest);
+            }
+        }
+        flushChunks(conn, pendingHashes, pendingContents, pendingManifest);
+
+        String checksum = toHexString(fileDigest.digest());
+
+        long existingId = findFileDataIdByChecksum(conn, checksum);
+        if (existingId != -1) {
+            deleteFileData(conn, insertedId);
+            return existingId;
+        }
+
+        String updateSql = "UPDATE file_data " +
+                "SET checksum = ?, content_size = ? " +
+                "WHERE actual_data_id = ?";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+            pstmt.setString(1, checksum);
+            pstmt.setLong(2, offset);
+            pstmt.setLong(3, insertedId);
+            pstmt.executeUpdate();
+            return insertedId;
+        }
+        catch (SQLIntegrityConstraintViolationException e) {
+            // 다른 트랜잭션이 같은 내용을 먼저 기록한 경우
+            deleteFileData(conn, insertedId);
+            existingId = findFileDataIdByChecksum(conn, checksum);
+            if (existingId == -1) {
+                throw e;
+            }
+            return existingId;
+        }
+    }
+
+    /**
+     * 모아 둔 chunk 중 file_chunks에 없는 것만 저장하고 manifest를 기록한 뒤 목록을 비움
+     */
+    private void flushChunks(Connection conn, List<String> pendingHashes, List<byte[]> pendingContents,
+                             List<FileChunk> pendingManifest) throws SQLException {
+        if (pendingHashes.isEmpty()) {
+            return;
+        }
+
+        Set<String> existing = fileChunkManager.findExistingChunks(conn, pendingHashes);
+        List<String> missingHashes = new ArrayList<>();
+        List<byte[]> missingContents = new ArrayList<>();
+        for (int i = 0; i < pendingHashes.size(); i++) {
+            if (!existing.contains(pendingHashes.get(i))) {
+                missingHashes.add(pendingHashes.get(i));
+                missingContents.add(pendingContents.get(i));
+            }
+        }
+
+        fileChunkManager.insertChunks(conn, missingHashes, missingContents);
+        fileChunkManager.insertManifest(conn, pendingManifest);
+
+        pendingHashes.clear();
+        pendingContents.clear();
+        pendingManifest.clear();
+    }
+
+    /**
+     * SHA-256 MessageDigest 생성
+     */
+    static MessageDigest newSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not found.", e);
+        }
+    }
+
+    /**
+     * 해시 값을 checksum 컬럼에 저장하는 16진수 문자열로 변환
+     */
+    static String toHexString(byte[] hash) {
+        StringBuilder hexString = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) {
+                hexString.append('0');
+            }
+            hexString.append(hex);
+        }
+        return hexString.toString();
+    }
+
+    /**
+     * checksum이 같은 file_data를 검색
+     * @param checksum 검색할 SHA-256 체크섬
+     * @return 해당 file_data의 actual_data_id, 없으면 -1
+     * @throws SQLException SQL 오류 발생 시
+     */
+    public long findFileDataIdByChecksum(Connection conn, String checksum) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(FILE_DATA_ID_BY_CHECKSUM_SQL)) {
+            pstmt.setString(1, checksum);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong("actual_data_id");
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * file_data의 전체 내용을 복원하여 반환
+     * DELTA 행이면 base_data_id를 따라 keyframe(FULL 또는 CHUNKED)까지 올라간 뒤, delta를 역순으로 적용한다
+     * 체인 길이는 KEYFRAME_INTERVAL 이하로 유지되므로 최대 KEYFRAME_INTERVAL 번의 조회로 끝난다
+     * 복원한 내용은 로컬 캐시에 저장되고, 이후에는 checksum만 조회한 뒤 캐시에서 읽는다
+     * @param fileDataId 복원할 actual_data_id
+     * @return 파일 전체 내용, 해당 file_data가 없으면 null
+     * @throws SQLException SQL 오류 또는 delta 체인이 손상된 경우
+     */
+    public byte[] readContent(Connection conn, long fileDataId) throws SQLException {
+        FileData cacheKey = getCacheKey(conn, fileDataId);
+        if (cacheKey != null) {
+            byte[] cached = blobCache.read(fileDataId, cacheKey.checkSum());
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        byte[] content = loadContent(conn, fileDataId);
+        if (content != null && cacheKey != null) {
+            blobCache.put(fileDataId, cacheKey.checkSum(), content);
+        }
+        return content;
+    }
+
+    /**
+     * 캐시를 거치지 않고 DB에서 file_data의 전체 내용을 복원
+     */
+    private byte[] loadContent(Connection conn, long fileDataId) throws SQLException {
+        Deque<byte[]> deltas = new ArrayDeque<>();
+        long currentId = fileDataId;
+
+        try (PreparedStatement pstmt = conn.prepareStatement(LOAD_CONTENT_SQL)) {
+            while (true) {
+                pstmt.setLong(1, currentId);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        if (currentId == fileDataId) {
+                            return null;
+                        }
+                        throw new SQLException("Delta chain of file_data " + fileDataId + " is broken at " + currentId);
+                    }
+
+                    String blobLocation = rs.getString("blob_location");
+                    byte[] content = (blobLocation == null) ? rs.getBytes("content") : readBlob(blobLocation);
+                    String storageType = rs.getString("storage_type");
+                    if (STORAGE_CHUNKED.equals(storageType)) {
+                        return applyDeltas(readChunkedContent(conn, currentId), deltas, fileDataId);
+                    }
+                    if (!STORAGE_DELTA.equals(storageType)) {
+                        return applyDeltas(content, deltas, fileDataId);
+                    }
+
+                    if (deltas.size() > KEYFRAME_INTERVAL) {
+                        throw new SQLException("Delta chain of file_data " + fileDataId + " is longer than " + KEYFRAME_INTERVAL);
+                    }
+                    deltas.push(content);
+                    currentId = rs.getLong("base_data_id");
+                }
+            }
+        }
+    }
+
+    /**
+     * file_data의 전체 내용을 channel에 기록 (다운로드용)
+     * FULL 행은 스트리밍 ResultSet의 getBinaryStream을 고정 크기 버퍼로 복사하므로 파일 크기와 관계없이 메모리 사용량이 일정하다
+     * (BlobStore에 저장된 FULL 행은 BlobStore에서 바로 기록한다)
+     * CHUNKED 행은 chunk를 병렬로 가져오면서 순서대로 기록한다
+     * DELTA 행은 DELTA_MAX_FILE_SIZE 이하의 파일이므로 readContent로 복원한 뒤 기록한다
+     * 로컬 캐시에 있으면 DB를 거치지 않고 캐시 파일에서 기록하며, 없으면 기록하는 동안 캐시에도 함께 저장한다
+     * @param fileDataId 기록할 actual_data_id
+     * @param out 내용을 기록할 channel (닫는 것은 호출한 쪽의 책임)
+     * @return 기록한 바이트 수, 해당 file_data가 없으면 -1
+     * @throws SQLException SQL 오류 발생 시
+     * @throws IOException channel 기록 중 오류 발생 시
+     */
+    public long writeContentTo(Connection conn, long fileDataId, WritableByteChannel out) throws SQLException, IOException {
+        FileData cacheKey = getCacheKey(conn, fileDataId);
+        if (cacheKey == null) {
+            return streamContentTo(conn, fileDataId, out);
+        }
+
+        long cachedSize = blobCache.copyTo(fileDataId, cacheKey.checkSum(), out);
+        if (cachedSize != -1) {
+            return cachedSize;
+        }
+
+        BlobCache.PendingEntry pending = blobCache.begin(fileDataId, cacheKey.checkSum(), cacheKey.contentSize());
+        if (pending == null) {
+            return streamContentTo(conn, fileDataId, out);
+        }
+
+        long written;
+        try {
+            written = streamContentTo(conn, fileDataId, pending.tee(out));
+        }
+        catch (SQLException | IOException | RuntimeException e) {
+            pending.abort();
+            throw e;
+        }
+        pending.commit();
+        return written;
+    }
+
+    /**
+     * 캐시를 거치지 않고 DB에서 file_data의 전체 내용을 channel에 기록
+     */
+    private long streamContentTo(Connection conn, long fileDataId, WritableByteChannel out) throws SQLException, IOException {
+        String storageType;
+
+        // 드라이버가 BLOB 전체를 미리 읽지 않도록 전방향, 읽기 전용 + Integer.MIN_VALUE fetch size (MySQL 스트리밍 결과)
+        try (PreparedStatement pstmt = conn.prepareStatement(STREAM_CONTENT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(Integer.MIN_VALUE);
+            pstmt.setLong(1, fileDataId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return -1;
+                }
+
+                storageType = rs.getString("storage_type");
+                String blobLocation = rs.getString("blob_location");
+                if (STORAGE_FULL.equals(storageType) && blobLocation != null) {
+                    return writeBlob(blobLocation, out);
+                }
+                if (STORAGE_FULL.equals(storageType)) {
+                    long written = 0;
+                    try (InputStream in = rs.getBinaryStream("content")) {
+                        if (in == null) {
+                            return 0;
+                        }
+                        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                        int read;
+                        while ((read = in.read(buffer)) != -1) {
+                            ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                            while (chunk.hasRemaining()) {
+                                out.write(chunk);
+                            }
+                            written += read;
+                        }
+                    }
+                    return written;
+                }
+            }
+        }
+
+        // 스트리밍 ResultSet이 닫힌 뒤에야 같은 연결로 다른 쿼리를 실행할 수 있다
+        if (STORAGE_CHUNKED.equals(storageType)) {
+            return writeChunks(conn, fileChunkManager.getManifest(conn, fileDataId), out);
+        }
+
+        return writeFully(out, loadContent(conn, fileDataId));
+    }
+
+    /**
+     * 로컬 캐시의 key로 쓸 메타데이터를 조회 (content는 읽지 않음)
+     * @return 캐시를 쓸 수 없거나, file_data가 없거나, 아직 checksum이 기록되지 않은 행이면 null
+     */
+    private FileData getCacheKey(Connection conn, long fileDataId) throws SQLException {
+        if (blobCache == null) {
+            return null;
+        }
+        FileData fileData = getFileData(conn, fileDataId);
+        return (fileData != null && fileData.checkSum() != null) ? fileData : null;
+    }
+
+    /**
+     * CHUNKED file_data의 전체 내용을 메모리로 읽음 (delta의 base 등 전체 내용이 필요한 경우에만 사용)
+     */
+    private byte[] readChunkedContent(Connection conn, long fileDataId) throws SQLException {
+        List<FileChunk> manifest = fileChunkManager.getManifest(conn, fileDataId);
+        long totalSize = 0;
+        for (FileChunk chunk : manifest) {
+            totalSize += chunk.chunkSize();
+        }
+        if (totalSize > Integer.MAX_VALUE - 8) {
+            throw new SQLException("file_data " + fileDataId + " is too large to load into memory (" + totalSize + " bytes).");
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) totalSize);
+        try {
+            writeChunks(conn, manifest, Channels.newChannel(out));
+        }
+        catch (IOException e) {
+            throw new SQLException("Error reading chunks of file_data " + fileDataId + ": " + e.getMessage(), e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * manifest 순서대로 chunk를 가져와 channel에 기록
+     * connectionManager가 있으면 공유 chunk fetch executor에 최대 CHUNK_FETCH_WINDOW개의 chunk를 미리 요청한다
+     * executor 스레드가 아직 시작하지 않은 chunk는 기다리지 않고 conn으로 직접 가져오므로,
+     * pool이 바쁘거나 다른 다운로드가 executor를 쓰고 있으면 conn 하나로 순차적으로 가져오는 것과 같아진다
+     * 가져온 chunk는 chunk_hash로 무결성을 검사한다
+     * @return 기록한 바이트 수
+     */
+    private long writeChunks(Connection conn, List<FileChunk> manifest, WritableByteChannel out) throws SQLException, IOException {
+        long written = 0;
+
+        ExecutorService executor = (connectionManager != null) ? connectionManager.getChunkFetchExecutor() : null;
+        if (executor == null || manifest.size() <= 1) {
+            for (FileChunk chunk : manifest) {
+                written += writeFully(out, fetchChunk(conn, chunk));
+            }
+            return written;
+        }
+
+        Deque<ChunkFetch> window = new ArrayDeque<>();
+        try {
+            int nextToFetch = 0;
+            while (nextToFetch < manifest.size() && window.size() < CHUNK_FETCH_WINDOW) {
+                window.add(new ChunkFetch(executor, manifest.get(nextToFetch++)));
+            }
+
+            while (!window.isEmpty()) {
+                ChunkFetch fetch = window.poll();
+                byte[] content = fetch.claim() ? fetchChunk(conn, fetch.chunk) : fetch.future.get();
+                if (nextToFetch < manifest.size()) {
+                    window.add(new ChunkFetch(executor, manifest.get(nextToFetch++)));
+                }
+                written += writeFully(out, content);
+            }
+            return written;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Chunk download interrupted.", e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException("Error fetching chunk: " + cause.getMessage(), cause);
+        }
+        finally {
+            // 실패하거나 중단된 경우, 아직 시작하지 않은 요청은 connection을 빌리지 않고 끝나도록
+            for (ChunkFetch fetch : window) {
+                fetch.claim();
+            }
         }
     }
 
+    /**
+     * 공유 executor에 요청한 chunk 하나
+     * executor 스레드와 다운로드를 호출한 쪽 중 먼저 claim한 쪽이 가져온다 (executor 스레드는 그때 connection을 빌림)
+     */
+    private final class ChunkFetch {
+        private final FileChunk chunk;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final Future<byte[]> future;
+
+        ChunkFetch(ExecutorService executor, FileChunk chunk) {
+            this.chunk = chunk;
+            this.future = executor.submit(() -> {
+                if (!claim()) {
+                    return null;
+                }
+                try (Connection conn = connectionManager.getConnection()) {
+                    return fetchChunk(conn, chunk);
+                }
+            });
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    private byte[] fetchChunk(Connection conn, FileChunk chunk) throws SQLException {
+        return verifyChunk(chunk, fileChunkManager.getChunkContent(conn, chunk.chunkHash()));
+    }
+
+    private byte[] verifyChunk(FileChunk chunk, byte[] content) throws SQLException {
+        if (content == null) {
+            throw new SQLException("Chunk " + chunk.chunkHash() + " of file_data " + chunk.actualDataId() + " is missing.");
+        }
+        if (content.length != chunk.chunkSize() || !chunk.chunkHash().equals(toHexString(newSha256Digest().digest(content)))) {
+            throw new SQLException("Chunk " + chunk.chunkHash() + " of file_data " + chunk.actualDataId() + " is corrupt.");
+        }
+        return content;
+    }
+
+    private byte[] readBlob(String blobLocation) throws SQLException {
+        if (blobStore == null) {
+            throw new SQLException("file_data is stored at " + blobLocation + " but no blob store is configured.");
+        }
+        try {
+            return blobStore.get(blobLocation);
+        }
+        catch (IOException e) {
+            throw new SQLException("Error reading file_data from blob store: " + e.getMessage(), e);
+        }
+    }
+
+    private long writeBlob(String blobLocation, WritableByteChannel out) throws SQLException, IOException {
+        if (blobStore == null) {
+            throw new SQLException("file_data is stored at " + blobLocation + " but no blob store is configured.");
+        }
+        return blobStore.writeTo(blobLocation, out);
+    }
+
+    private static int writeFully(WritableByteChannel out, byte[] content) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        return content.length;
+    }
+
+    private byte[] applyDeltas(byte[] keyframe, Deque<byte[]> deltas, long fileDataId) throws SQLException {
+        byte[] content = keyframe;
+        try {
+            while (!deltas.isEmpty()) {
+                content = DeltaCodec.decode(content, deltas.pop());
+            }
+        }
+        catch (IllegalArgumentException e) {
+            throw new SQLException("Corrupt delta in chain of file_data " + fileDataId + ": " + e.getMessage(), e);
+        }
+        return content;
+    }
+
+    /**
+     * delta의 base로 쓸 file_data의 delta 체인 길이 (keyframe이면 0)
+     * CHUNKED이거나 DELTA_MAX_FILE_SIZE보다 큰 내용은 delta를 계산하려면 전체를 메모리에 올려야 하므로 base로 쓰지 않는다
+     * @return chain_depth, 해당 file_data가 없거나 base로 쓰지 않으면 -1
+     */
+    private int getDeltaBaseDepth(Connection conn, long fileDataId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(DELTA_BASE_SQL)) {
+            pstmt.setLong(1, fileDataId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next() && !STORAGE_CHUNKED.equals(rs.getString("storage_type"))
+                        && rs.getLong("content_size") <= DELTA_MAX_FILE_SIZE) {
+                    return rs.getInt("chain_depth");
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 더 이상 어떤 revision도, 어떤 delta도 참조하지 않는 경우에만 file_data를 삭제
+     * 같은 내용을 여러 revision이 공유하므로, revision을 삭제한 뒤에는 deleteFileData 대신 이 메소드를 호출할 것
+     * 삭제한 행이 DELTA였다면 그 base도 참조가 없어졌을 수 있으므로 체인을 따라 올라가며 같은 검사를 반복한다
+     * @param fileDataId 삭제할 actual_data_id
+     * @return 삭제된 행의 수 (아직 참조 중이면 0)
+     * @throws SQLException 오류 발생 시 롤백을 유도할 Exception
+     */
+    public int deleteFileDataIfUnreferenced(Connection conn, long fileDataId) throws SQLException {
+        int deletedRows = 0;
+        long currentId = fileDataId;
+
+        while (currentId > 0 && !isReferenced(conn, currentId)) {
+            long baseId = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(BASE_DATA_ID_SQL)) {
+                pstmt.setLong(1, currentId);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        baseId = rs.getLong("base_data_id");
+                    }
+                }
+            }
+
+            deletedRows += deleteFileData(conn, currentId);
+            currentId = baseId;
+        }
+        return deletedRows;
+    }
+
+    /**
+     * file_revisions 또는 다른 file_data(delta의 base)가 해당 file_data를 참조하는지 검사
+     */
+    private boolean isReferenced(Connection conn, long fileDataId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(IS_REFERENCED_SQL)) {
+            pstmt.setLong(1, fileDataId);
+            pstmt.setLong(2, fileDataId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * file_data 행을 삭제 (CHUNKED이면 manifest와, 다른 file_data가 쓰지 않는 chunk도 함께 삭제)
+     * @param fileDataId 삭제할 actual_data_id
+     * @return 삭제된 file_data 행의 수
+     * @throws SQLException 오류 발생 시 롤백을 유도할 Exception
+     */
     public int deleteFileData(Connection conn, long fileDataId) throws SQLException {
+        Set<String> chunkHashes = fileChunkManager.deleteManifest(conn, fileDataId);
+
         String sql = "DELETE FROM file_data " +
                 "WHERE actual_data_id = ?";
 
+        int deletedRows;
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setLong(1, fileDataId);
-            return pstmt.executeUpdate();
+            deletedRows = pstmt.executeUpdate();
+        }
+
+        fileChunkManager.deleteUnreferencedChunks(conn, chunkHashes);
+        return deletedRows;
+    }
+
+    /**
+     * file_data의 메타데이터(크기, checksum, 저장 형태)만 조회 (content는 읽지 않음)
+     * @param fileDataId 조회할 actual_data_id
+     * @return FileData, 없으면 null
+     * @throws SQLException SQL 오류 발생 시
+     */
+    public FileData getFileData(Connection conn, long fileDataId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(FILE_DATA_SQL)) {
+            pstmt.setLong(1, fileDataId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new FileData(
+                            rs.getLong("actual_data_id"),
+                            rs.getString("checksum"),
+                            rs.getString("storage_type"),
+                            rs.getLong("content_size"),
+                            rs.getTimestamp("created_at"));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * file_data 내용 중 [offset, offset + length) 구간만 읽음 (미리보기, 앞부분 보기, 이어받기 등)
+     * FULL 행은 SUBSTRING으로 DB에서 잘라서 받고, BlobStore에 있으면 해당 구간만 읽는다
+     * CHUNKED 행은 chunk_offset으로 구간에 걸친 chunk만 가져온다
+     * DELTA 행은 DELTA_MAX_FILE_SIZE 이하이므로 readContent로 복원한 뒤 자른다
+     * @param fileDataId 읽을 actual_data_id
+     * @param offset 시작 위치 (0부터)
+     * @param length 읽을 최대 바이트 수
+     * @return 구간의 내용 (내용의 끝을 넘으면 length보다 짧음), 해당 file_data가 없으면 null
+     * @throws SQLException SQL 오류 발생 시
+     */
+    public byte[] readRange(Connection conn, long fileDataId, long offset, int length) throws SQLException {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Invalid range: offset=" + offset + ", length=" + length);
+        }
+
+        String storageType;
+        String blobLocation;
+        try (PreparedStatement pstmt = conn.prepareStatement(READ_RANGE_SQL)) {
+            pstmt.setLong(1, offset + 1);
+            pstmt.setInt(2, length);
+            pstmt.setLong(3, fileDataId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                storageType = rs.getString("storage_type");
+                blobLocation = rs.getString("blob_location");
+                if (STORAGE_FULL.equals(storageType) && blobLocation == null) {
+                    byte[] range = rs.getBytes("content_range");
+                    return (range != null) ? range : new byte[0];
+                }
+            }
+        }
+
+        if (STORAGE_FULL.equals(storageType)) {
+            if (blobStore == null) {
+                throw new SQLException("file_data is stored at " + blobLocation + " but no blob store is configured.");
+            }
+            try {
+                return blobStore.getRange(blobLocation, offset, length);
+            }
+            catch (IOException e) {
+                throw new SQLException("Error reading file_data from blob store: " + e.getMessage(), e);
+            }
+        }
+
+        if (STORAGE_CHUNKED.equals(storageType)) {
+            return readChunkedRange(conn, fileDataId, offset, length);
+        }
+
+        byte[] content = readContent(conn, fileDataId);
+        if (content == null || offset >= content.length) {
+            return (content == null) ? null : new byte[0];
         }
+        return Arrays.copyOfRange(content, (int) offset, (int) Math.min(content.length, offset + length));
     }
 
-    // TODO: 파일 조회 메소드
-    public void getFileData(Connection conn, long fileDataId) throws SQLException {
+    /**
+     * CHUNKED file_data에서 구간에 걸친 chunk만 가져와 구간을 잘라냄
+     */
+    private byte[] readChunkedRange(Connection conn, long fileDataId, long offset, int length) throws SQLException {
+        long end = offset + length;
+        List<FileChunk> chunks = fileChunkManager.getManifestRange(conn, fileDataId, offset, end);
+        if (chunks.isEmpty()) {
+            return new byte[0];
+        }
+
+        FileChunk last = chunks.get(chunks.size() - 1);
+        long rangeEnd = Math.min(end, last.chunkOffset() + last.chunkSize());
+        byte[] range = new byte[(int) (rangeEnd - offset)];
 
+        for (FileChunk chunk : chunks) {
+            byte[] content = fetchChunk(conn, chunk);
+            long from = Math.max(offset, chunk.chunkOffset());
+            long to = Math.min(rangeEnd, chunk.chunkOffset() + chunk.chunkSize());
+            System.arraycopy(content, (int) (from - chunk.chunkOffset()), range, (int) (from - offset), (int) (to - from));
+        }
+        return range;
     }
 }
\ No newline at end of file
@@ -4,26 +4,53 @@ import javax.swing.*;
 import java.awt.*;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class FileEditor extends JFrame {
     
 	private static final long serialVersionUID = 1L;
+	// 리비젼 목록을 한 번에 불러오는 개수 (최신 리비젼부터, 나머지는 '더 보기')
+	static final int REVISION_PAGE_SIZE = 50;
 	private JPanel revisionListPanel;
+	private boolean hasMoreRevisions;
     private JTextArea commentArea;
     private JTextField commentInput;
     private JButton sendButton;
-    private JTextArea filePreviewArea;
+    private JList<String> previewList;
+    private JLabel previewStatus;
+    private JTextField gotoLineInput;
+    private TextPreview currentPreview;
     private PageController pageCon;
     private RevisionController revCon;
     private Page page;
+    // blame과 병합은 MySQL 저장 형식이 필요하므로 repository.engine=jdbc일 때만 버튼을 표시
+    private final boolean usesDatabase;
+    // 댓글, 리비젼 목록, 미리보기, 업로드와 다운로드 같은 DB 작업은 EDT가 아닌 스레드에서 실행
+    private final UiTasks tasks = new UiTasks(this);
+    // 진행 중인 미리보기 불러오기, 다른 revision을 누르면 취소
+    private Future<TextPreview> previewTask;
+    // 마지막으로 요청한 미리보기 번호, 이보다 오래된 요청의 결과는 화면에 반영하지 않음 (EDT에서만 사용)
+    private long previewRequestSeq;
 
-    public FileEditor(List<Revision> revisions, PageController pageCon, RevisionController revCon,
-          ConnectionManager connectionManager, Page page, User user, Group group) {
+    /**
+     * @param revisions 최신 리비젼부터 한 화면 분량의 리비젼 목록
+     * @param comments 페이지의 댓글, 불러오지 못했으면 null
+     * @param latestPreview 최신 리비젼의 미리보기, 없으면 null (창을 닫거나 다른 미리보기를 열면 닫힘)
+     */
+    public FileEditor(List<Revision> revisions, List<Comment> comments, TextPreview latestPreview, PageController pageCon,
+          RevisionController revCon, ConnectionManager connectionManager, Page page, User user, Group group) {
        this.pageCon = pageCon;
        this.revCon = revCon;
        this.page = page;
+       this.usesDatabase = connectionManager.usesDatabase();
       
        	Color background = new Color(220, 220, 220);  // 배경 : 회색
        	
@@ -50,6 +77,7 @@ public class FileEditor extends JFrame {
         revisionListPanel.setLayout(new BoxLayout(revisionListPanel, BoxLayout.Y_AXIS));
         revisionListPanel.setBackground(background);
 
+        hasMoreRevisions = revisions.size() >= REVISION_PAGE_SIZE;
         updateRevDisplay(revisions);
 
         JScrollPane revScroll = new JScrollPane(revisionListPanel);
@@ -59,29 +87,31 @@ public class FileEditor extends JFrame {
         revScroll.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
         midPanel.add(revScroll, BorderLayout.CENTER);
 
-        List<Comment> commentList = pageCon.getAllComments_con(page.pageId());
         JPanel commentPanel = new JPanel(new BorderLayout());
         commentPanel.setBackground(background);
         commentArea = new JTextArea(5, 20);
         commentArea.setEditable(false);
         commentArea.setBorder(BorderFactory.createTitledBorder("댓글 Panel"));
         commentPanel.add(new JScrollPane(commentArea), BorderLayout.CENTER);
-        updateCommentDisplay(commentList);
 
         JPanel inputPanel = new JPanel(new BorderLayout());
         inputPanel.setBackground(background);
         commentInput = new JTextField();
         sendButton = new JButton("send");
-        AtomicReference<List<Comment>> commentListRef = new AtomicReference<>(commentList);
+        AtomicReference<List<Comment>> commentListRef = new AtomicReference<>(comments);
 
         changebtnColor(sendButton);
         sendButton.addActionListener(e -> {
             String newComment = commentInput.getText().trim();
             if (!newComment.isEmpty()) {
-                pageCon.insertComment_con(page.pageId(), newComment);
-                commentListRef.set(pageCon.getAllComments_con(page.pageId()));
-                updateCommentDisplay(commentListRef.get());
-                commentInput.setText("");
+                tasks.run("댓글 등록", () -> {
+                    pageCon.insertComment_con(page.pageId(), newComment);
+                    return pageCon.getAllComments_con(page.pageId());
+                }, updated -> {
+                    commentListRef.set(updated);
+                    updateCommentDisplay(commentListRef.get());
+                    commentInput.setText("");
+                }, sendButton, commentInput);
             }
         });
         inputPanel.add(commentInput, BorderLayout.CENTER);
@@ -91,18 +121,36 @@ public class FileEditor extends JFrame {
         midPanel.add(commentPanel, BorderLayout.SOUTH);
         centerPanel.add(midPanel);
 
-        // 파일 미리보기 Panel (우측)
-        filePreviewArea = new JTextArea();
-        filePreviewArea.setEditable(false);
-        JScrollPane previewScroll = new JScrollPane(filePreviewArea);
-        // previewScroll.setBackground(background);
-        previewScroll.setBorder(BorderFactory.createTitledBorder("파일 미리보기"));
-        centerPanel.add(previewScroll);
+        // 파일 미리보기 Panel (우측), 큰 파일도 화면에 보이는 줄만 디코딩해서 그림
+        JPanel previewPanel = new JPanel(new BorderLayout());
+        previewPanel.setBorder(BorderFactory.createTitledBorder("파일 미리보기"));
+
+        JPanel previewTopPanel = new JPanel(new BorderLayout());
+        previewStatus = new JLabel(" ");
+        previewStatus.setBorder(BorderFactory.createEmptyBorder(0, 5, 0, 5));
+        JPanel gotoLinePanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        gotoLineInput = new JTextField(6);
+        gotoLineInput.addActionListener(e -> goToLine());
+        gotoLinePanel.add(new JLabel("줄 이동"));
+        gotoLinePanel.add(gotoLineInput);
+        previewTopPanel.add(previewStatus, BorderLayout.CENTER);
+        previewTopPanel.add(gotoLinePanel, BorderLayout.EAST);
+
+        previewList = new JList<>();
+        previewList.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+        // 셀 크기를 고정해야 JList가 모든 줄을 측정하지 않고 보이는 줄만 그린다
+        previewList.setFixedCellHeight(previewList.getFontMetrics(previewList.getFont()).getHeight() + 2);
+        previewList.setFixedCellWidth(400);
+
+        previewPanel.add(previewTopPanel, BorderLayout.NORTH);
+        previewPanel.add(new JScrollPane(previewList), BorderLayout.CENTER);
+        centerPanel.add(previewPanel);
 
         //뒤로가기 버튼
         JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         bottomPanel.setPreferredSize(new Dimension(1000, 40));
         bottomPanel.setBackground(background);
+        bottomPanel.add(tasks.getStatusBar());  // 작업 중에만 보이는 상태 표시줄
         JButton backButton = new JButton("← 뒤로가기");
         changebtnColor(backButton);
         backButton.addActionListener(e -> {
@@ -112,11 +160,20 @@ public class FileEditor extends JFrame {
         bottomPanel.add(backButton);
         add(bottomPanel, BorderLayout.SOUTH);
 
+        // 댓글과 최신 리비젼의 미리보기는 PageEditor에서 리비젼 목록과 함께 불러옴
+        updateCommentDisplay(commentListRef.get());
+        if (latestPreview != null) {
+            showPreview(latestPreview, page.latestRevisionId());
+        }
+
         setLocationRelativeTo(null);
         setVisible(true);
     }
     private void updateRevDisplay(List<Revision> revisions) {
         revisionListPanel.removeAll();
+        // 목록의 첫 리비젼 (최신)과 그 조상들, 나머지는 갈라진 리비젼이므로 최신 리비젼에 병합할 수 있다
+        long latestRevisionId = revisions.isEmpty() ? 0 : revisions.get(0).revisionId();
+        Set<Long> latestAncestors = ancestorsOf(revisions);
         for (Revision rev : revisions) {
              JPanel revItemPanel = new JPanel(new BorderLayout());
              revItemPanel.setBorder(BorderFactory.createLineBorder(Color.GRAY, 1));
@@ -132,18 +189,60 @@ public class FileEditor extends JFrame {
              previewButton.setPreferredSize(new Dimension(30, 25));
              previewButton.setIcon(UIManager.getIcon("FileView.fileIcon"));
              changebtnColor(previewButton);
-             String viewContainer = revCon.showRevisionContent_con(rev.revisionId());
-             previewButton.addActionListener(e -> filePreviewArea.setText("미리보기 내용: \n" + viewContainer ));
+             previewButton.addActionListener(e -> loadPreview(rev.revisionId()));
 
              JButton downloadButton = new JButton();
              downloadButton.setPreferredSize(new Dimension(30, 25));
              downloadButton.setIcon(UIManager.getIcon("FileChooser.upFolderIcon"));
              changebtnColor(downloadButton);
              downloadButton.addActionListener(e -> {
-                revCon.downLoadRevision_con(this, rev.revisionId());
+                Callable<Boolean> download = revCon.prepareDownLoadRevision_con(rev.revisionId());
+                if (download == null) {
+                   return;
+                }
+                tasks.run("파일 다운로드", download, saved -> {
+                   if (!saved) {
+                      JOptionPane.showMessageDialog(this, "파일 저장 실패");
+                   }
+                }, downloadButton);
+             });
+
+             // 부모 리비젼과 비교
+             JButton diffButton = new JButton();
+             diffButton.setPreferredSize(new Dimension(30, 25));
+             diffButton.setIcon(UIManager.getIcon("FileChooser.detailsViewIcon"));
+             diffButton.setToolTipText("이전 리비젼과 비교");
+             changebtnColor(diffButton);
+             diffButton.addActionListener(e -> {
+                if (rev.parentRevisionId() == 0) {
+                   JOptionPane.showMessageDialog(this, "비교할 이전 리비젼이 없습니다.");
+                   return;
+                }
+                new DiffViewer(revCon, rev.parentRevisionId(), rev.revisionId());
              });
 
+             // 줄별로 마지막으로 바꾼 리비젼과 작성자
+             JButton blameButton = new JButton();
+             blameButton.setPreferredSize(new Dimension(30, 25));
+             blameButton.setIcon(UIManager.getIcon("FileChooser.listViewIcon"));
+             blameButton.setToolTipText("줄별 작성자 보기 (blame)");
+             changebtnColor(blameButton);
+             blameButton.addActionListener(e -> new BlameViewer(revCon, rev.revisionId()));
+
              buttonPanel.add(previewButton);
+             buttonPanel.add(diffButton);
+             if (usesDatabase) {
+                buttonPanel.add(blameButton);
+             }
+             if (usesDatabase && !latestAncestors.contains(rev.revisionId())) {
+                JButton mergeButton = new JButton();
+                mergeButton.setPreferredSize(new Dimension(30, 25));
+                mergeButton.setIcon(UIManager.getIcon("FileChooser.newFolderIcon"));
+                mergeButton.setToolTipText("최신 리비젼에 병합");
+                changebtnColor(mergeButton);
+                mergeButton.addActionListener(e -> mergeIntoLatest(latestRevisionId, rev.revisionId(), mergeButton));
+                buttonPanel.add(mergeButton);
+             }
              buttonPanel.add(downloadButton);
 
              revItemPanel.add(revLabel, BorderLayout.CENTER);
@@ -155,28 +254,193 @@ public class FileEditor extends JFrame {
             revisionListPanel.repaint();
          }
         //+ 버튼
-        AtomicReference<List<Revision>> revListRef = new AtomicReference<>(revisions);
-         
         JPanel plusButtonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         plusButtonPanel.setBackground(new Color(220, 220, 220));
+
+        // 더 보기 버튼: 마지막으로 불러온 리비젼보다 오래된 리비젼을 이어서 불러옴
+        if (hasMoreRevisions && !revisions.isEmpty()) {
+            JButton moreButton = new JButton("더 보기");
+            moreButton.setPreferredSize(new Dimension(90, 30));
+            changebtnColor(moreButton);
+            moreButton.addActionListener(e -> {
+               long lastRevisionId = revisions.get(revisions.size() - 1).revisionId();
+               tasks.run("리비젼 불러오기", () -> pageCon.getRevisionPage_con(page.pageId(), lastRevisionId, REVISION_PAGE_SIZE, true), older -> {
+                  if (older == null) {
+                     JOptionPane.showMessageDialog(this, "리비젼 목록을 불러오지 못했습니다.");
+                     return;
+                  }
+                  List<Revision> loaded = new ArrayList<>(revisions);
+                  loaded.addAll(older);
+                  hasMoreRevisions = older.size() >= REVISION_PAGE_SIZE;
+                  updateRevDisplay(loaded);
+               }, moreButton);
+            });
+            plusButtonPanel.add(moreButton);
+        }
+
         JButton addRevisionButton = new JButton("+");
         addRevisionButton.setPreferredSize(new Dimension(50, 30));
         changebtnColor(addRevisionButton);
         addRevisionButton.addActionListener(e -> {
-           revCon.insertRevNoparent(this);
-           revListRef.set(pageCon.getAllRevisions_con(page.pageId()));
-           updateRevDisplay(revListRef.get());
+           // 파일 선택과 커밋 메시지 입력은 여기서 받고, 업로드는 백그라운드에서
+           // 부모는 지금 화면에 보이는 최신 리비젼 (그 사이 다른 사용자가 올렸으면 충돌 안내)
+           Callable<Long> insertRevision = revCon.prepareInsertRevNoparent(this, latestRevisionId);
+           if (insertRevision == null) {
+              return;
+           }
+           tasks.run("리비젼 업로드", insertRevision, revisionId -> {
+              revCon.showInsertRevisionResult(this, revisionId);
+              reloadRevisions();
+           }, addRevisionButton);
         });
         plusButtonPanel.add(addRevisionButton);
         revisionListPanel.add(Box.createVerticalStrut(10));
         revisionListPanel.add(plusButtonPanel);
+        revisionListPanel.revalidate();
+        revisionListPanel.repaint();
     }
     
+    /**
+     * 최신 리비젼부터 한 화면 분량을 다시 불러와 목록을 갱신 (업로드, 병합 후)
+     */
+    private void reloadRevisions() {
+        tasks.run("리비젼 불러오기", () -> pageCon.getRevisionPage_con(page.pageId(), 0, REVISION_PAGE_SIZE, true), latest -> {
+            if (latest == null) {
+                return;
+            }
+            hasMoreRevisions = latest.size() >= REVISION_PAGE_SIZE;
+            updateRevDisplay(latest);
+        });
+    }
+
+    /**
+     * 갈라진 리비젼을 최신 리비젼에 3-way merge (확인을 받은 뒤 백그라운드에서 병합하고 결과를 알림)
+     */
+    private void mergeIntoLatest(long latestRevisionId, long revisionId, JButton mergeButton) {
+        int answer = JOptionPane.showConfirmDialog(this,
+                "rev " + revisionId + "을(를) 최신 리비젼 (rev " + latestRevisionId + ")에 병합할까요?\n양쪽이 다르게 고친 부분은 충돌 표시와 함께 저장됩니다.",
+                "리비젼 병합", JOptionPane.OK_CANCEL_OPTION);
+        if (answer != JOptionPane.OK_OPTION) {
+            return;
+        }
+        tasks.run("리비젼 병합", () -> revCon.mergeRevisions_con(latestRevisionId, revisionId), result -> {
+            if (revCon.showMergeResult(this, latestRevisionId, result)) {
+                reloadRevisions();
+            }
+        }, mergeButton);
+    }
+
+    /**
+     * 목록의 첫 리비젼 (최신)에서 parent_revision_id를 따라 목록 안에서 닿는 리비젼들 (첫 리비젼 포함)
+     */
+    private static Set<Long> ancestorsOf(List<Revision> revisions) {
+        Map<Long, Revision> byId = new HashMap<>();
+        for (Revision revision : revisions) {
+            byId.put(revision.revisionId(), revision);
+        }
+        Set<Long> ancestors = new HashSet<>();
+        Revision current = revisions.isEmpty() ? null : revisions.get(0);
+        while (current != null && ancestors.add(current.revisionId())) {
+            current = byId.get(current.parentRevisionId());
+        }
+        return ancestors;
+    }
+
+    /**
+     * 선택한 revision의 내용을 백그라운드에서 불러와 미리보기에 표시
+     * 불러오는 동안 다른 revision을 누르면 이전 요청은 취소되고 결과도 무시된다
+     */
+    private void loadPreview(long revisionId) {
+        long requestSeq = ++previewRequestSeq;
+        if (previewTask != null) {
+            previewTask.cancel(true);
+        }
+        showPreviewMessage("미리보기 불러오는 중... (rev ID: " + revisionId + ")");
+
+        previewTask = tasks.run("미리보기 불러오기", () -> revCon.showRevisionPreview_con(revisionId), preview -> {
+            if (requestSeq != previewRequestSeq) {
+                // 취소하기 전에 끝났지만 그 뒤에 더 최근의 요청이 있음
+                if (preview != null) {
+                    preview.close();
+                }
+                return;
+            }
+            if (preview == null) {
+                showPreviewMessage("미리보기를 불러오지 못했습니다. (rev ID: " + revisionId + ")");
+            }
+            else {
+                showPreview(preview, revisionId);
+            }
+        });
+    }
+
+    private void showPreview(TextPreview preview, long revisionId) {
+        closeCurrentPreview();
+        currentPreview = preview;
+
+        // 줄 번호 + 가장 긴 줄 기준으로 너비 고정 (고정 폭 글꼴)
+        int digits = Math.max(4, String.valueOf(preview.getSize()).length());
+        int charWidth = previewList.getFontMetrics(previewList.getFont()).charWidth('0');
+        previewList.setFixedCellWidth(charWidth * (digits + 2 + preview.getLongestLineLength()) + 10);
+        previewList.setModel(preview);
+        if (preview.getSize() > 0) {
+            previewList.ensureIndexIsVisible(0);
+        }
+
+        previewStatus.setText("rev ID: " + revisionId + " | " + preview.getSize() + "줄"
+                + (preview.isTruncated() ? " (파일이 너무 커서 앞부분만 표시)" : ""));
+    }
+
+    private void showPreviewMessage(String message) {
+        closeCurrentPreview();
+        previewList.setModel(new DefaultListModel<>());
+        previewStatus.setText(message);
+    }
+
+    private void closeCurrentPreview() {
+        if (currentPreview != null) {
+            currentPreview.close();
+            currentPreview = null;
+        }
+    }
+
+    /**
+     * 입력한 줄 번호로 미리보기를 이동 (줄 위치 인덱스를 사용하므로 파일 크기와 관계없이 바로 이동)
+     */
+    private void goToLine() {
+        if (currentPreview == null || currentPreview.getSize() == 0) {
+            return;
+        }
+        int line;
+        try {
+            line = Integer.parseInt(gotoLineInput.getText().trim());
+        }
+        catch (NumberFormatException e) {
+            Toolkit.getDefaultToolkit().beep();
+            return;
+        }
+        int index = Math.max(0, Math.min(line, currentPreview.getSize()) - 1);
+        previewList.setSelectedIndex(index);
+        previewList.ensureIndexIsVisible(index);
+    }
+
+    @Override
+    public void dispose() {
+        // 창을 닫으면 진행 중인 미리보기와 DB 작업을 취소
+        tasks.cancelAll();
+        closeCurrentPreview();
+        super.dispose();
+    }
+
     private void updateCommentDisplay(List<Comment> comments) {
        Timestamp timestamp;
        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm");
        
         commentArea.setText("");
+        if (comments == null) {
+            commentArea.setText("댓글을 불러오지 못했습니다.");
+            return;
+        }
         for (Comment comment : comments) {
            timestamp = comment.createdAt();
             commentArea.append( comment.userName() +  "  |  " + "(" + sdf.format(timestamp) + ")"+ "\n" + comment.commentData() + "\n\n");
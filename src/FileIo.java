@@ -3,13 +3,19 @@ package teamproject;
 import java.awt.Container;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
@@ -21,14 +27,18 @@ public class FileIo {
 	private String filePath;
 	private PageManager pageManager;
 	private String commitMessage;
-	private byte[] fileData;
+	private final RevisionManager revisionManager;
+	private final FileDataManager fileDataManager;
+	private final ConnectionManager connectionManager;
 	
-	public FileIo(PageManager pagemanager) {
+	public FileIo(PageManager pagemanager, ConnectionManager connectionManager) {
 		this.pageManager = pagemanager;
+		this.connectionManager = connectionManager;
+		this.revisionManager = new RevisionManager();
+		this.fileDataManager = new FileDataManager(connectionManager); // 큰 파일의 chunk를 병렬로 가져올 때 사용
 		this.pageName = null;
 		this.filePath = null;
 		this.commitMessage = null;
-		this.fileData = null;
 	}
 	/**
 	 * JFileChooser로 컴퓨터에서 파일을 불러와 DB에 저장.
@@ -56,44 +66,224 @@ public class FileIo {
     	}
 	}
 	/**
-	 * 리비젼 아이디에 해당하는 파일을 불러오는 메소드.
-	 * @param conn
-	 * @param revisionId
+	 * JFileChooser로 여러 파일을 한 번에 고름 (프로젝트 업로드용)
+	 * 확장자는 fileUpLoad와 같이 소스파일 및 텍스트파일로 강제됨.
+	 * @return 선택한 파일 경로 목록, 취소하면 빈 목록
 	 */
-	public void fileDownLoad(Connection conn, long revisionId) {
-		String sql = "SELECT content FROM file_data WHERE actual_data_id = ?";
-		long actualDataId = revisionId; //DB 구조상 항상 actual_data_id랑 revision_id의 값은 같음
+	public List<Path> selectUploadFiles() {
+		JFrame frame = new JFrame();
+		frame.setAlwaysOnTop(true);
+		JFileChooser chooser = new JFileChooser();
+		chooser.setDialogTitle("파일탐색기 (여러 파일 선택)");
+		FileNameExtensionFilter filter = new FileNameExtensionFilter("소스코드 및 텍스트 파일 (*.txt, *.java, *.c)", "txt", "java", "c");
+		chooser.setFileFilter(filter);
+		chooser.setAcceptAllFileFilterUsed(false);
+		chooser.setMultiSelectionEnabled(true);
 		
-		try (PreparedStatement pstmt = conn.prepareStatement(sql)){
+		List<Path> paths = new ArrayList<>();
+		if (chooser.showOpenDialog(frame) == JFileChooser.APPROVE_OPTION) {
+			for (File file : chooser.getSelectedFiles()) {
+				paths.add(file.toPath());
+			}
+		}
+		return paths;
+	}
+	/**
+	 * 여러 파일을 페이지로 만들기 전에 파일을 확인하고 커밋 메시지를 입력받음 (화면 입력은 DB 작업 전에 EDT에서 모두 받음)
+	 * @return 모든 파일을 읽을 수 있으면 true
+	 */
+	public boolean askFilesCommitMessage(Container pagePanel, List<Path> paths) {
+		for (Path path : paths) {
+			if (!Files.isReadable(path)) {
+				System.out.println("파일을 읽어오는데 실패했습니다. 경로를 확인하세요: " + path);
+				return false;
+			}
+		}
+		commitMessage = JOptionPane.showInputDialog(pagePanel, "commitMessege를 입력하시오 : ");
+		return true;
+	}
+	/**
+	 * askFilesCommitMessage 후, 고른 파일들을 한 번에 페이지로 만듦 (하나의 트랜잭션, 하나라도 실패하면 모두 취소)
+	 * DB 작업이므로 EDT가 아닌 스레드에서 호출
+	 * @return 생성된 페이지 수, 실패 시 -1
+	 */
+	public int insertFilesToPages(List<Path> paths) {
+		List<Long> pageIds = pageManager.makePages(paths, commitMessage);
+		if (pageIds == null) {
+			System.out.println("페이지 생성 실패.");
+			return -1;
+		}
+		System.out.println("페이지 " + pageIds.size() + "개 생성 성공!");
+		return pageIds.size();
+	}
+	/**
+	 * JFileChooser로 가져올 폴더를 고름 (폴더 가져오기용)
+	 * @return 선택한 폴더, 취소하면 null
+	 */
+	public Path selectImportDirectory() {
+		JFrame frame = new JFrame();
+		frame.setAlwaysOnTop(true);
+		JFileChooser chooser = new JFileChooser();
+		chooser.setDialogTitle("가져올 폴더 선택");
+		chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+		
+		if (chooser.showOpenDialog(frame) == JFileChooser.APPROVE_OPTION) {
+			return chooser.getSelectedFile().toPath();
+		}
+		return null;
+	}
+	/**
+	 * 폴더에서 가져올 확장자와 커밋 메시지를 입력받음 (화면 입력은 DB 작업 전에 EDT에서 모두 받음)
+	 * @return 확장자 목록 (비어 있으면 모든 파일), 취소하면 null
+	 */
+	public Set<String> askImportOptions(Container pagePanel) {
+		String input = JOptionPane.showInputDialog(pagePanel, "가져올 확장자를 입력하세요 (쉼표로 구분, 비우면 모든 파일)", "txt, java, c");
+		if (input == null) {
+			return null;
+		}
+		Set<String> extensions = new LinkedHashSet<>();
+		for (String extension : input.split(",")) {
+			extension = extension.trim();
+			if (extension.startsWith(".")) {
+				extension = extension.substring(1);
+			}
+			if (!extension.isEmpty()) {
+				extensions.add(extension);
+			}
+		}
+		commitMessage = JOptionPane.showInputDialog(pagePanel, "commitMessege를 입력하시오 : ");
+		return extensions;
+	}
+	/**
+	 * 폴더 아래에서 askImportOptions로 입력받은 확장자의 파일을 모두 페이지로 가져옴 (하위 폴더 포함, 페이지 이름은 상대 경로)
+	 * 그룹에 이름과 내용이 같은 페이지가 이미 있는 파일은 건너뛰며, 진행 상황과 속도는 콘솔에도 출력됨
+	 * DB 작업이므로 EDT가 아닌 스레드에서 호출
+	 * @param listener 진행 상황을 받을 콜백 (가져오는 스레드에서 호출됨)
+	 * @return 가져온 결과, 실패 시 null
+	 */
+	public ImportProgress importDirectoryToPages(Path directory, Set<String> extensions, Consumer<ImportProgress> listener) {
+		ImportProgress result = pageManager.importDirectory(directory, extensions, commitMessage, progress -> {
+			System.out.printf("가져오는 중... %d/%d (생성 %d, 건너뜀 %d, 실패 %d) %.1f MB/s, %.0f 파일/s\n",
+					progress.processedFiles(), progress.totalFiles(), progress.createdPages(), progress.skippedFiles(),
+					progress.failedFiles(), progress.megabytesPerSecond(), progress.filesPerSecond());
+			listener.accept(progress);
+		});
+		if (result == null) {
+			System.out.println("폴더 가져오기 실패.");
+		}
+		return result;
+	}
+	/**
+	 * revision id 에 해당하는 파일 내용을 target 에 저장 (EDT가 아닌 스레드에서 호출)
+	 * repository.engine=jdbc 이면 read connection을 전송하는 동안에만 빌려 스트리밍하고, memory 이면 저장소의 내용을 그대로 씀
+	 * @param target selectDownloadPath에서 고른 저장 경로
+	 * @return 저장 성공 시 true
+	 * @throws SQLException connection을 빌리지 못했을 때
+	 */
+	public boolean fileDownLoad(long revisionId, Path target) throws SQLException {
+		if (connectionManager.usesDatabase()) {
+			try (Connection conn = connectionManager.getReadConnection()) {
+				return fileDownLoad(conn, revisionId, target);
+			}
+		}
+		byte[] content = pageManager.readRevisionContent(revisionId);
+		if (content == null) {
+			System.out.println("파일을 찾을 수 없습니다");
+			return false;
+		}
+		try {
+			Files.write(target, content);
+			System.out.println("파일을 성공적으로 저장했습니다!");
+			return true;
+		} catch (IOException e) {
+			System.err.println("파일을 저장하는 중 오류가 발생했습니다: " + e.getMessage());
+			try {
+				Files.deleteIfExists(target);
+			} catch (IOException deleteEx) {
+				System.err.println("저장하다 만 파일을 삭제하지 못했습니다: " + target);
+			}
+			return false;
+		}
+	}
+	/**
+	 * 리비젼 아이디에 해당하는 파일을 target 경로에 저장하는 메소드.
+	 * DB의 파일 내용을 고정 크기 버퍼로 FileChannel에 바로 기록하므로 파일 전체를 메모리에 올리지 않음.
+	 * 저장에 실패하면 쓰다 만 파일은 삭제함.
+	 * @param conn 전송이 끝나는 대로 호출한 쪽에서 반납
+	 * @param revisionId
+	 * @param target selectDownloadPath에서 고른 저장 경로
+	 * @return 저장 성공 시 true
+	 */
+	private boolean fileDownLoad(Connection conn, long revisionId, Path target) {
+		boolean saved = false;
+		try {
+			// 같은 내용의 revision들은 하나의 file_data를 공유하므로 actual_data_id는 file_revisions에서 찾아야 함
+			Revision revision = revisionManager.getRevision(conn, revisionId);
+			if (revision == null) {
+				System.out.println("파일을 찾을 수 없습니다");
+				return false;
+			}
 			
-			pstmt.setLong(1, actualDataId);
-			try (ResultSet rs = pstmt.executeQuery()){
-				if (rs.next()) {
-					fileData = rs.getBytes("content"); // !!!파일용량 큰 경우 connection 시간 지체되어 누수 경고메시지 뜰 수 있음
+			try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				long written = fileDataManager.writeContentTo(conn, revision.actualDataId(), channel);
+				if (written == -1) {
+					System.out.println("파일을 찾을 수 없습니다");
+					return false;
 				}
 			}
-		}  catch (SQLException e) {
+			saved = true;
+			System.out.println("파일을 성공적으로 저장했습니다!");
+			return true;
+		} catch (SQLException | IOException e) {
             System.err.println("파일을 불러오는 중 오류가 발생했습니다: " + e.getMessage());
             e.printStackTrace();
-            return;
+            return false;
         }
 		finally {
-			if (fileData == null) {
-				System.out.println("파일을 찾을 수 없습니다");
-				return;
+			if (!saved) {
+				try {
+					Files.deleteIfExists(target);
+				} catch (IOException e) {
+					System.err.println("저장하다 만 파일을 삭제하지 못했습니다: " + target);
+				}
 			}
 		}
 	}
 	/**
-	    * 컴퓨터에 파일을 저장할 위치를 골라 해당 위치에 파일을 저장
+	 * 그룹을 내보낼 ZIP 파일의 저장 위치를 고름 (확장자는 zip 으로 강제됨)
+	 * @param defaultName 처음에 표시할 파일 이름 (보통 그룹 이름)
+	 * @return 선택한 경로, 취소하면 null
+	 */
+	public Path selectExportPath(String defaultName) {
+		JFrame frame = new JFrame();
+		frame.setAlwaysOnTop(true);
+		JFileChooser chooser = new JFileChooser();
+		chooser.setDialogTitle("내보낼 ZIP 파일 위치 선택");
+		chooser.setFileFilter(new FileNameExtensionFilter("*.zip 파일", "zip"));
+		chooser.setAcceptAllFileFilterUsed(false);
+		chooser.setSelectedFile(new File(defaultName + ".zip"));
+		
+		if (chooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) {
+			return null;
+		}
+		String savedFilePath = chooser.getSelectedFile().getAbsolutePath();
+		if (!savedFilePath.endsWith(".zip")) { // 확장자 없는경우 자동 추가
+			savedFilePath += ".zip";
+		}
+		return Paths.get(savedFilePath);
+	}
+	/**
+	    * 컴퓨터에 파일을 저장할 위치를 고름
 	    * 똑같은 JFileChooser 창을 띄우지만 저장할때 확장자가 페이지 확장자로 강제됨.
+	    * DB 연결을 잡기 전에 호출하여, 사용자가 경로를 고르는 동안 connection을 붙잡고 있지 않도록 함.
 	    * @param pageName 해당 페이지의 확장자 알기위함
+	    * @return 저장할 경로, 취소하거나 확장자를 알 수 없으면 null
 	    */
-	   public void selectDownloadPath(String pageName) {
-	      try {
+	   public Path selectDownloadPath(String pageName) {
 	         String extenstion = getFileExtension(pageName);
 	         if (extenstion == null) 
-	            return;
+	            return null;
 	         
 	         JFrame frame = new JFrame();
 	         frame.setAlwaysOnTop(true);
@@ -109,64 +299,48 @@ public class FileIo {
 	             File savedFile = chooser.getSelectedFile();
 	             String savedFilePath = savedFile.getAbsolutePath();
 	             if (savedFilePath == null)
-	                return;
-	             JOptionPane.showMessageDialog(null, savedFilePath + "위치에 파일이 저장됩니다.");
+	                return null;
 	             if(!savedFilePath.endsWith("." + extenstion)) { // 확장자 없는경우 자동 추가
 	                savedFilePath += "." + extenstion;
 	             }
-	             Files.write(Paths.get(savedFilePath), fileData);
-	             System.out.println("파일을 성공적으로 저장했습니다!");
+	             JOptionPane.showMessageDialog(null, savedFilePath + "위치에 파일이 저장됩니다.");
+	             return Paths.get(savedFilePath);
 	          }
-	      } catch(IOException e) {
-	         e.printStackTrace();
-	         System.out.println("파일 저장중 오류가 발생했습니다.");
-	         return;
-	      }
-	      
+	          return null;
 	   }
 	/**
 	 * 반드시 fileUpLoad() 사용 후 사용.
-	 * fileUpLoad에서 불러온 파일 내용을 file_data DB에 저장하고 pages DB 업데이트
+	 * 고른 파일을 확인하고 초기 커밋 메시지를 입력받음 (화면 입력은 DB 작업 전에 EDT에서 모두 받음)
+	 * @return 파일을 읽을 수 있으면 true
 	 */
-	public boolean insertFileToPage(Container pagePanel, String commitMessage) {  // void -> boolean으로 바꿈.
-    	if (filePath != null) {
-    		System.out.println("파일 불러오기 성공!");
-    		System.out.print("초기 커밋 메시지를 입력하세요: ");
-    		commitMessage = JOptionPane.showInputDialog(pagePanel, "commitMessege를 입력하시오 : ");
-              
-            try {
-                  // 파일 내용을 byte[]로 읽어오는 헬퍼 메소드 호출
-                byte[] fileContent = readFileContent(filePath);
-
-                if (fileContent != null) {
-                      // makePage 메소드 호출 (groupManager가 아닌 pageManager 사용)
-                      // makePage는 pageManager의 메소드입니다.
-                    long createdPageId = pageManager.makePage(pageName, fileContent, commitMessage);
-
-                    if (createdPageId != -1) { // makePage는 성공 시 page_id 반환
-                        System.out.println("페이지 생성 성공! 페이지 ID: " + createdPageId);
-                        return true;
-                    } else {
-                        System.out.println("페이지 생성 실패."); // makePage 내부에서 오류 메시지 출력됨
-                        return false;
-                    }
-                } else {
-                    System.out.println("파일을 읽어오는데 실패했습니다. 경로를 확인하세요.");
-                    return false;
-                }
+	public boolean askPageCommitMessage(Container pagePanel) {
+		if (filePath == null) {
+			System.out.println("파일을 읽어오는데 실패했습니다.");
+			return false;
+		}
+		System.out.println("파일 불러오기 성공!");
+		// 파일을 byte[]로 미리 읽지 않고 경로를 넘겨, 저장하면서 스트림으로 한 번만 읽도록 함
+		if (!Files.isReadable(Paths.get(filePath))) {
+			System.out.println("파일을 읽어오는데 실패했습니다. 경로를 확인하세요.");
+			return false;
+		}
+		commitMessage = JOptionPane.showInputDialog(pagePanel, "commitMessege를 입력하시오 : ");
+		return true;
+	}
+	/**
+	 * askPageCommitMessage 후 사용.
+	 * fileUpLoad에서 불러온 파일 내용을 file_data DB에 저장하고 pages DB 업데이트, DB 작업이므로 EDT가 아닌 스레드에서 호출
+	 * @return 생성된 page_id, 실패 시 -1
+	 */
+	public long insertFileToPage() {
+		long createdPageId = pageManager.makePage(pageName, Paths.get(filePath), commitMessage);
 
-            } catch (IOException e) {
-                  // readFileContent에서 발생한 예외 처리
-                System.err.println("파일 읽기 오류: " + e.getMessage());
-                e.printStackTrace();
-                System.out.println("페이지 생성 실패 (파일 읽기 오류).");
-            }
-    	}
-    	else {
-    		System.out.println("파일을 읽어오는데 실패했습니다.");
-    		return false;
-    	}
-		return false;
+		if (createdPageId != -1) { // makePage는 성공 시 page_id 반환
+			System.out.println("페이지 생성 성공! 페이지 ID: " + createdPageId);
+		} else {
+			System.out.println("페이지 생성 실패."); // makePage 내부에서 오류 메시지 출력됨 (파일 읽기 오류 포함)
+		}
+		return createdPageId;
 	}
 	
 	 /**
@@ -176,42 +350,60 @@ public class FileIo {
      * @param parentId 수정 히스토리 표시
      */
     public boolean insertFileToRevision(Container file, long pageId, long parentId) {
-       if (filePath != null) {
-           /*System.out.println("파일 불러오기 성공!");
-           System.out.print("커밋 메시지를 입력하세요: ");
-           commitMessage = scanner.nextLine();
-           */
-          System.out.println("파일 불러오기 성공!");
-            // Swing 팝업창으로 커밋 메시지 입력받기
-            commitMessage = JOptionPane.showInputDialog(null, "커밋 메시지를 입력하세요:", "커밋 메시지 입력", JOptionPane.PLAIN_MESSAGE);
-
-            // 사용자가 취소하거나 아무것도 입력하지 않으면 처리하지 않음
-            if (commitMessage == null || commitMessage.trim().isEmpty()) {
-                System.out.println("커밋 메시지가 비어 있어 Revision을 생성하지 않습니다.");
-                return false;
-            }
-           
-           try {
-                // 파일 내용을 byte[]로 읽어오는 헬퍼 메소드 호출
-                 byte[] fileContent = readFileContent(filePath);
-                 
-                 if (fileContent != null) {
-                   pageManager.insertRevision(pageId, parentId, fileContent, commitMessage);
-                   return true;
-                 }
-           } catch (IOException e) {
-                // readFileContent에서 발생한 예외 처리
-                 JOptionPane.showMessageDialog(file, "파일 읽기 오류: " + e.getMessage());
-                 e.printStackTrace();
-                // System.out.println("Revision 생성 실패 (파일 읽기 오류).");
-                 return false;
-           }
+       if (!askRevisionCommitMessage(file)) {
+           return false;
+       }
+       long revisionId = insertFileToRevision(pageId, parentId);
+       if (revisionId == PageManager.REVISION_CONFLICT) {
+           showRevisionConflict(file);
+           return false;
        }
-       else {
+       return revisionId != -1;
+    }
+    
+    /**
+     * 반드시 fileUpLoad() 사용 후 사용.
+     * 고른 파일을 확인하고 커밋 메시지를 입력받음 (화면 입력은 DB 작업 전에 EDT에서 모두 받음)
+     * @return 파일을 읽을 수 있고 커밋 메시지를 입력했으면 true
+     */
+    public boolean askRevisionCommitMessage(Container file) {
+       if (filePath == null) {
            System.out.println("파일을 읽어오는데 실패했습니다.");
            return false;
        }
-       return false;
+       System.out.println("파일 불러오기 성공!");
+       // Swing 팝업창으로 커밋 메시지 입력받기
+       commitMessage = JOptionPane.showInputDialog(null, "커밋 메시지를 입력하세요:", "커밋 메시지 입력", JOptionPane.PLAIN_MESSAGE);
+
+       // 사용자가 취소하거나 아무것도 입력하지 않으면 처리하지 않음
+       if (commitMessage == null || commitMessage.trim().isEmpty()) {
+           System.out.println("커밋 메시지가 비어 있어 Revision을 생성하지 않습니다.");
+           return false;
+       }
+       
+       // 파일을 byte[]로 미리 읽지 않고 경로를 넘겨, 저장하면서 스트림으로 한 번만 읽도록 함
+       if (!Files.isReadable(Paths.get(filePath))) {
+           JOptionPane.showMessageDialog(file, "파일 읽기 오류: " + filePath);
+           return false;
+       }
+       return true;
+    }
+    
+    /**
+     * askRevisionCommitMessage 후 사용, DB 작업이므로 EDT가 아닌 스레드에서 호출
+     * @param pageId 리비젼이 속한 페이지
+     * @param parentId 수정 히스토리 표시
+     * @return 새 revision_id, 그 사이 다른 사용자가 먼저 올렸으면 PageManager.REVISION_CONFLICT, 실패 시 -1
+     */
+    public long insertFileToRevision(long pageId, long parentId) {
+       return pageManager.insertRevision(pageId, parentId, Paths.get(filePath), commitMessage);
+    }
+    
+    /**
+     * 그 사이 다른 사용자가 먼저 리비젼을 올렸음을 알림 (올린 파일은 저장되지 않음)
+     */
+    public void showRevisionConflict(Container file) {
+       JOptionPane.showMessageDialog(file, "다른 사용자가 먼저 리비젼을 올렸습니다.\n최신 리비젼을 확인한 뒤 다시 올려주세요.", "리비젼 충돌", JOptionPane.WARNING_MESSAGE);
     }
 	
 	
@@ -235,32 +427,80 @@ public class FileIo {
 		}
 	}
 	/**
-	 * 반드시 fileDownload 실행 후 실행
-	 * 소스코드 및 텍스트 파일 내용을 String 으로 변환 후 반환
+	 * 리비젼 아이디에 해당하는 소스코드 및 텍스트 파일 내용을 String 으로 변환 후 반환 (미리보기용)
+	 * 내용은 FileIo에 보관하지 않음.
+	 * @return 파일 내용, 찾을 수 없으면 null
 	 */
-	public String showFileContent() {
-		if (fileData == null) {
+	public String showFileContent(long revisionId) {
+		byte[] content = pageManager.readRevisionContent(revisionId);
+		if (content == null) {
 			System.out.println("파일내용을 불러올 수 없습니다.");
 			return null;
 		}
-		String showContent = new String(fileData, StandardCharsets.UTF_8);
-		return showContent;
+		return new String(content, StandardCharsets.UTF_8);
 	}
 	
-	private static byte[] readFileContent(String filePath) throws IOException {
-       // java.nio.file.Files를 사용하여 파일 내용을 쉽게 읽습니다.
-       // Paths.get() 메소드로 문자열 경로를 Path 객체로 변환합니다.
-       try {
-           return Files.readAllBytes(Paths.get(filePath));
-       } catch (IOException e) {
-           // 파일이 없거나, 권한이 없거나, 읽기 오류 등 발생 시
-           System.err.println("Error reading file: " + e.getMessage());
-           e.printStackTrace();
-           throw e; // 예외를 잡아서 메시지 출력 후 다시 던져서 호출부에서 처리하도록 함
-           // 또는 단순히 null을 반환하고 호출부에서 null 체크
-           // return null; // 이 경우 catch 블록에서 throw e; 대신 이 줄 사용
-       }
-    }
+	/**
+	 * 리비젼 아이디에 해당하는 파일 내용을 한 번 훑어 줄 블록 index만 만든 미리보기 모델로 연다 (큰 파일용)
+	 * 파일 내용은 힙이나 임시 파일에 두지 않으며, 화면에 보이는 줄의 블록만 readRange로 그때그때 읽는다.
+	 * (repository.engine=memory 이면 내용이 이미 메모리에 있으므로 그 배열에서 블록을 읽는다)
+	 * @return 미리보기 모델, 찾을 수 없으면 null
+	 */
+	public TextPreview openTextPreview(long revisionId) {
+		if (connectionManager.usesDatabase()) {
+			try (Connection conn = connectionManager.getReadConnection()) {
+				return openTextPreview(conn, revisionId);
+			} catch (SQLException e) {
+				System.err.println("파일을 불러오는 중 오류가 발생했습니다: " + e.getMessage());
+				e.printStackTrace();
+				return null;
+			}
+		}
+		byte[] content = pageManager.readRevisionContent(revisionId);
+		if (content == null) {
+			System.out.println("파일내용을 불러올 수 없습니다.");
+			return null;
+		}
+		try {
+			return TextPreview.of(content, connectionManager.getExecutor());
+		} catch (SQLException | IOException e) {
+			System.err.println("파일을 불러오는 중 오류가 발생했습니다: " + e.getMessage());
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
+	private TextPreview openTextPreview(Connection conn, long revisionId) {
+		try {
+			Revision revision = revisionManager.getRevision(conn, revisionId);
+			if (revision == null) {
+				System.out.println("파일내용을 불러올 수 없습니다.");
+				return null;
+			}
+			long dataId = revision.actualDataId();
+			TextPreview preview = TextPreview.open(
+					out -> fileDataManager.writeContentTo(conn, dataId, out) != -1,
+					(offset, length) -> readRange(dataId, offset, length),
+					connectionManager.getExecutor());
+			if (preview == null) {
+				System.out.println("파일내용을 불러올 수 없습니다.");
+			}
+			return preview;
+		} catch (SQLException | IOException e) {
+			System.err.println("파일을 불러오는 중 오류가 발생했습니다: " + e.getMessage());
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
+	/**
+	 * 미리보기 블록 하나를 읽음 (executor 스레드에서 호출되므로 connection을 따로 빌림)
+	 */
+	private byte[] readRange(long fileDataId, long offset, int length) throws SQLException {
+		try (Connection conn = connectionManager.getReadConnection()) {
+			return fileDataManager.readRange(conn, fileDataId, offset, length);
+		}
+	}
 	
 	public String getPageName() {
 		return pageName;
@@ -7,8 +7,8 @@ import java.awt.Container;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Font;
-import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.swing.BorderFactory;
@@ -23,6 +23,12 @@ import javax.swing.SwingConstants;
 
 public class GroupEditor extends JFrame{
 	private static final long serialVersionUID = 1L;
+	// 그룹 조회, 생성, 삭제 등 DB 작업은 EDT가 아닌 스레드에서 실행
+	private final UiTasks tasks = new UiTasks(this);
+	
+	// 그룹 목록의 한 줄 (그룹마다 이름과 join key를 조회)
+	private record GroupRow(String groupName, String joinKey) {
+	}
 
 	public GroupEditor(User currentUser, UserManager userManager, ConnectionManager connectionManager) {
 		
@@ -36,8 +42,6 @@ public class GroupEditor extends JFrame{
 		
 		GroupManager groupManager = new GroupManager(connectionManager, currentUser);
 		
-		List<Membership> membershipList = groupManager.searchGroup();
-		
 		setTitle("Sharing Cloud");
 		
 		setSize(400, 500);
@@ -60,16 +64,18 @@ public class GroupEditor extends JFrame{
 		groupLabel.setBackground(background);
 		add(groupLabel, BorderLayout.NORTH);
 		
-		// 기존의 가입한 그룹을 보여주는 패널
-		for (Membership membership : membershipList) { 
+		// 기존의 가입한 그룹을 보여주는 패널 (백그라운드에서 그룹마다 조회하고, 불러온 만큼씩 묶어서 추가)
+		tasks.forEach("그룹 목록 불러오기", groupManager::searchGroup, (index, membership) -> {
 			String groupName = groupManager.selectGroup(membership.groupId()).groupName();
 			String joinKey = groupManager.getJoinKey(membership.groupId());
-					
-			addGroup(jpGroup, groupName, joinKey, connectionManager, currentUser, userManager);
-		}
-		
-		jpGroup.revalidate();
-		jpGroup.repaint();
+			return new GroupRow(groupName, joinKey);
+		}, rows -> {
+			for (GroupRow row : rows) {
+				addGroup(jpGroup, row.groupName(), row.joinKey(), connectionManager, currentUser, userManager);
+			}
+			jpGroup.revalidate();
+			jpGroup.repaint();
+		}, null);
 		
 		JPanel jpButton = new JPanel();  // 하단 버튼을 담을 패널 (+, 뒤로가기 등)
 		jpButton.setLayout(new FlowLayout(FlowLayout.CENTER));  // 버튼들을 수평 중앙 정렬
@@ -86,23 +92,29 @@ public class GroupEditor extends JFrame{
 		jpButton.add(joinButton);
 		jpButton.add(btnCancel);
 		
-		add(jpButton, BorderLayout.SOUTH);
+		JPanel jpSouth = new JPanel(new BorderLayout());  // 하단 버튼 + 작업 중에만 보이는 상태 표시줄
+		jpSouth.add(jpButton, BorderLayout.CENTER);
+		jpSouth.add(tasks.getStatusBar(), BorderLayout.SOUTH);
+		add(jpSouth, BorderLayout.SOUTH);
 		
 		// '그룹 생성' 버튼
 		addButton.addActionListener(e -> {
 			String groupName = JOptionPane.showInputDialog(this, "그룹 이름 : ");
 			if(groupName == null) return;
-			long createGroupId = groupManager.makeGroup(groupName);  // 그룹 ID
 			
-			if (groupName != null && !groupName.trim().isEmpty()) {
-				if (createGroupId != -1) {
-					String createJoinKey = groupManager.getJoinKey(createGroupId);  // 그룹 Key
-					JOptionPane.showMessageDialog(this, "그룹 생성 성공!\n그룹 이름: " + groupName + "\nJoin Key: " + createJoinKey);
-					
-					addGroup(jpGroup, groupName, createJoinKey, connectionManager, currentUser, userManager);
-					jpGroup.revalidate();
-					jpGroup.repaint();
-				}
+			if (!groupName.trim().isEmpty()) {
+				tasks.run("그룹 생성", () -> {
+					long createGroupId = groupManager.makeGroup(groupName);  // 그룹 ID
+					return (createGroupId != -1) ? groupManager.getJoinKey(createGroupId) : null;  // 그룹 Key
+				}, createJoinKey -> {
+					if (createJoinKey != null) {
+						JOptionPane.showMessageDialog(this, "그룹 생성 성공!\n그룹 이름: " + groupName + "\nJoin Key: " + createJoinKey);
+						
+						addGroup(jpGroup, groupName, createJoinKey, connectionManager, currentUser, userManager);
+						jpGroup.revalidate();
+						jpGroup.repaint();
+					}
+				}, addButton);
 			}
 			else
 			{
@@ -114,24 +126,26 @@ public class GroupEditor extends JFrame{
 		joinButton.addActionListener(e -> {
 			String joinKey = JOptionPane.showInputDialog(this, "참여할 그룹 키 : ");
 			if(joinKey == null) return;
+			if (joinKey.isEmpty()) {
+				JOptionPane.showMessageDialog(this, "잘못된 키입니다");
+				return;
+			}
 			
-			try(Connection conn = connectionManager.getConnection()) { 
-				int groupCheck = groupManager.joinGroup(conn, joinKey, currentUser.userId());
-				if (groupCheck == -1 || joinKey.isEmpty()) {  // DB에서 그룹 참여
+			tasks.run("그룹 참여", () -> groupManager.joinGroup(joinKey, currentUser.userId()), groupCheck -> {  // DB에서 그룹 참여
+				if (groupCheck == -1) {
 					JOptionPane.showMessageDialog(this, "잘못된 키입니다");
 				}			
 				else if (groupCheck == -2) {
 					JOptionPane.showMessageDialog(this, "이미 참여 중인 그룹입니다");
 				}
 				else {
-					String openGroupName = groupManager.getGroupNameByJoinKey(joinKey);	
-					addGroup(jpGroup, openGroupName, joinKey, connectionManager, currentUser, userManager);
-					jpGroup.revalidate();
-					jpGroup.repaint();
+					tasks.run("그룹 불러오기", () -> groupManager.getGroupNameByJoinKey(joinKey), openGroupName -> {
+						addGroup(jpGroup, openGroupName, joinKey, connectionManager, currentUser, userManager);
+						jpGroup.revalidate();
+						jpGroup.repaint();
+					}, joinButton);
 				}
-			} catch (SQLException e1) {
-				e1.printStackTrace();
-			}
+			}, joinButton);
 		});
 		// '뒤로가기' 버튼 -> 로그아웃으로 변경
 		btnCancel.addActionListener(e -> {
@@ -189,47 +203,67 @@ public class GroupEditor extends JFrame{
 		
 		// '그룹 열기' 버튼
 		btnGroup.addActionListener(e -> {
-			long targetGroupId = groupManager.getGroupIdByJoinKey(joinKey);
-			Group targetGroup = groupManager.selectGroup(targetGroupId);
-			dispose();
-			new PageEditor(currentUser, targetGroup, connectionManager, userManager); //PageEditor로 넘어감
+			tasks.run("그룹 열기", () -> {
+				long targetGroupId = groupManager.getGroupIdByJoinKey(joinKey);
+				return groupManager.selectGroup(targetGroupId);
+			}, targetGroup -> {
+				dispose();
+				new PageEditor(currentUser, targetGroup, connectionManager, userManager); //PageEditor로 넘어감
+			}, btnGroup);
 		});
 		// '그룹 삭제' 버튼
-		
-			long groupId = groupManager.getGroupIdByJoinKey(joinKey);
-			Group delGroup = groupManager.selectGroup(groupId);
-			PageManager pageManager = new PageManager(connectionManager, currentUser, delGroup);
-			CommentManager delComment = new CommentManager();
-			btnDelete.addActionListener(e -> {
-			List<Page> delPageList = null; 
-			if (groupManager.deleteGroup(groupId)) {  // 그룹을 DB에서 삭제
-				try(Connection conn = connectionManager.getConnection()){
-					delPageList = pageManager.searchPage(conn);
-				} catch(SQLException ex1) {
-					JOptionPane.showMessageDialog(this, "페이지 불러오기 실패");
+		btnDelete.addActionListener(e -> {
+			tasks.run("그룹 삭제", () -> deleteGroup(groupManager, joinKey, connectionManager, currentUser), failures -> {
+				if (failures == null) {
+					JOptionPane.showMessageDialog(this, "삭제 권한이 없습니다");
+					return;
 				}
-				if (delPageList != null) {
-					for (Page delPage : delPageList) {
-						pageManager.deletePage(delPage.pageId());
-						try (Connection conn = connectionManager.getConnection()){
-	        				delComment.deleteAllComments(conn, delPage.pageId());
-	        			} catch(SQLException ex2) {
-	        				JOptionPane.showMessageDialog(this, "댓글 삭제 실패");
-	        			}
-					}
+				for (String failure : failures) {
+					JOptionPane.showMessageDialog(this, failure);
 				}
 				JOptionPane.showMessageDialog(this, deleteGroupName + " 그룹이 삭제 되었습니다.");
 				jpGroup.remove(innerGroup);  // 해당 그룹 패널 제거
 				jpGroup.revalidate();
 				jpGroup.repaint();
-			}
-			else {
-				JOptionPane.showMessageDialog(this, "삭제 권한이 없습니다");
-			}
+			}, btnGroup, btnDelete);
 		});
 	setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 	}
 	
+	// 그룹과 그룹의 페이지, 댓글을 DB에서 삭제하는 메서드 (EDT가 아닌 스레드에서 호출)
+	// 삭제 권한이 없으면 null, 그룹은 삭제했지만 페이지나 댓글 삭제에 실패하면 실패 메시지 목록을 반환
+	private List<String> deleteGroup(GroupManager groupManager, String joinKey, ConnectionManager connectionManager, User currentUser) {
+		long groupId = groupManager.getGroupIdByJoinKey(joinKey);
+		Group delGroup = groupManager.selectGroup(groupId);
+		PageManager pageManager = new PageManager(connectionManager, currentUser, delGroup);
+		
+		if (!groupManager.deleteGroup(groupId)) {  // 그룹을 DB에서 삭제
+			return null;
+		}
+		List<String> failures = new ArrayList<>();
+		List<Page> delPageList = null; 
+		try {
+			delPageList = connectionManager.getRepository().pages().findPagesByGroup(groupId);
+		} catch(SQLException ex1) {
+			failures.add("페이지 불러오기 실패");
+		}
+		if (delPageList != null) {
+			for (Page delPage : delPageList) {
+				if (!pageManager.deleteAllComments(delPage.pageId()) && !failures.contains("댓글 삭제 실패")) {
+					failures.add("댓글 삭제 실패");
+				}
+				pageManager.deletePage(delPage.pageId());
+			}
+		}
+		return failures;
+	}
+	
+	@Override
+	public void dispose() {
+		tasks.cancelAll();  // 창을 닫으면 진행 중인 작업 취소
+		super.dispose();
+	}
+	
 	// 버튼 디자인 바꾸는 메서드
     public void changebtnColor(JButton button)
     {
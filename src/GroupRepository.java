@@ -0,0 +1,37 @@
+package teamproject;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * group_data, group_membership 저장소
+ * 권한 확인 (그룹 삭제는 만든 사용자만)은 GroupManager에서 한다
+ */
+public interface GroupRepository {
+
+    /**
+     * @param joinKey 고유한 join key (findGroupByJoinKey로 미리 확인)
+     * @return 생성된 group_id
+     */
+    long insertGroup(String groupName, String joinKey, long createdByUserId) throws SQLException;
+
+    /** @return 그룹, 없으면 null */
+    Group findGroup(long groupId) throws SQLException;
+
+    /** @return 그룹, 없으면 null */
+    Group findGroupByJoinKey(String joinKey) throws SQLException;
+
+    /**
+     * @param role "admin" 또는 "user"
+     * @return 추가했으면 true, 이미 그 그룹의 멤버이면 false
+     */
+    boolean insertMembership(long groupId, long userId, String role) throws SQLException;
+
+    List<Membership> findMembershipsByUser(long userId) throws SQLException;
+
+    /**
+     * 그룹과 그룹의 모든 membership을 삭제 (페이지와 댓글은 호출한 쪽에서 먼저 삭제)
+     * @return 삭제된 그룹 수
+     */
+    int deleteGroup(long groupId) throws SQLException;
+}
@@ -0,0 +1,19 @@
+package teamproject;
+
+import java.nio.file.Path;
+
+/**
+ * 여러 페이지를 한 번에 생성할 때 페이지 하나가 될 파일
+ * 미리 읽어 둔 내용과 체크섬이 있으면 다시 읽지 않고 그대로 저장한다
+ * @param path 파일 경로
+ * @param pageName 생성할 페이지 이름
+ * @param size 파일 크기
+ * @param content 미리 읽어 둔 내용, 읽지 않았거나 스트리밍으로 저장할 큰 파일이면 null
+ * @param checksum content의 SHA-256 체크섬, content가 null이면 무시됨
+ */
+public record ImportFile(Path path,
+                         String pageName,
+                         long size,
+                         byte[] content,
+                         String checksum) {
+}
@@ -0,0 +1,28 @@
+package teamproject;
+
+/**
+ * 폴더 가져오기 (PageManager.importDirectory)의 진행 상황, 마지막 값이 최종 결과
+ * @param totalFiles 가져올 대상 파일 수 (확장자 조건에 맞는 파일)
+ * @param processedFiles 지금까지 처리한 파일 수 (생성 + 건너뜀 + 실패)
+ * @param createdPages 생성한 페이지 수
+ * @param skippedFiles 이름과 내용이 같은 페이지가 이미 그룹에 있어 건너뛴 파일 수
+ * @param failedFiles 읽지 못해 건너뛴 파일 수
+ * @param bytesRead 읽은 바이트 수
+ * @param elapsedMillis 시작한 뒤 지난 시간 (milliseconds)
+ */
+public record ImportProgress(int totalFiles,
+                             int processedFiles,
+                             int createdPages,
+                             int skippedFiles,
+                             int failedFiles,
+                             long bytesRead,
+                             long elapsedMillis) {
+
+    public double megabytesPerSecond() {
+        return (elapsedMillis > 0) ? (bytesRead / (1024.0 * 1024.0)) / (elapsedMillis / 1000.0) : 0;
+    }
+
+    public double filesPerSecond() {
+        return (elapsedMillis > 0) ? processedFiles / (elapsedMillis / 1000.0) : 0;
+    }
+}
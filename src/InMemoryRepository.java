@@ -0,0 +1,851 @@
+package teamproject;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * 메모리 저장소 (혼자 쓰는 로컬 모드, benchmark, 데모용), DB 없이 JdbcRepository와 같은 동작을 한다
+ * 읽기는 lock 없이 concurrent map에서 하고, 쓰기는 하나의 lock으로 순서를 정해 검사 (중복, compare-and-set)와 적용을 한 번에 한다
+ * 내용은 SHA-256으로 한 번만 저장하고, 어떤 revision도 참조하지 않으면 삭제한다
+ *
+ * open(journalFile)로 열면 모든 쓰기를 append-only journal에 기록한 뒤 적용하고, 다시 열 때 journal을 재생하여 복원한다
+ * 쓰기 하나(예: 페이지 생성의 내용, 페이지, 첫 revision)는 CRC가 붙은 한 frame이므로, 중간에 종료되어 잘린 frame은 재생하지 않고 잘라낸다
+ * frame은 OS에 넘긴 뒤 반환하므로 프로세스가 종료되어도 남지만, 전원이 꺼지는 경우까지 보장하지는 않는다 (close 시 force)
+ */
+public final class InMemoryRepository implements Repository {
+
+    // journal record 종류
+    private static final byte USER_INSERT = 1;
+    private static final byte USER_DELETE = 2;
+    private static final byte GROUP_INSERT = 3;
+    private static final byte MEMBERSHIP_INSERT = 4;
+    private static final byte GROUP_DELETE = 5;
+    private static final byte CONTENT_INSERT = 6;
+    private static final byte PAGE_INSERT = 7;
+    private static final byte REVISION_INSERT = 8;
+    private static final byte PAGE_DELETE = 9;
+    private static final byte COMMENT_INSERT = 10;
+    private static final byte COMMENT_DELETE = 11;
+    private static final byte PAGE_COMMENTS_DELETE = 12;
+
+    private record StoredUser(User user, String passwordHash) {}
+
+    private record StoredContent(String checksum, byte[] content) {}
+
+    /** journal frame 하나에 기록할 record들 */
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // journal 파일, 메모리만 사용하면 null
+    private final FileChannel journal;
+
+    private final AtomicLong nextUserId = new AtomicLong(1);
+    private final AtomicLong nextGroupId = new AtomicLong(1);
+    private final AtomicLong nextPageId = new AtomicLong(1);
+    private final AtomicLong nextRevisionId = new AtomicLong(1);
+    private final AtomicLong nextDataId = new AtomicLong(1);
+    private final AtomicLong nextCommentId = new AtomicLong(1);
+
+    private final Map<Long, StoredUser> usersById = new ConcurrentHashMap<>();
+    private final Map<String, Long> userIdsByName = new ConcurrentHashMap<>();
+    private final Map<Long, Group> groupsById = new ConcurrentHashMap<>();
+    private final Map<String, Long> groupIdsByJoinKey = new ConcurrentHashMap<>();
+    // user_id -> (group_id -> membership)
+    private final Map<Long, Map<Long, Membership>> membershipsByUser = new ConcurrentHashMap<>();
+    private final Map<Long, Page> pagesById = new ConcurrentHashMap<>();
+    // group_id -> (page_id -> page_id), page_id 순
+    private final Map<Long, ConcurrentSkipListMap<Long, Long>> pageIdsByGroup = new ConcurrentHashMap<>();
+    private final Map<Long, Revision> revisionsById = new ConcurrentHashMap<>();
+    // page_id -> (revision_id -> revision), revision_id 순 = 생성 순
+    private final Map<Long, ConcurrentSkipListMap<Long, Revision>> revisionsByPage = new ConcurrentHashMap<>();
+    private final Map<Long, StoredContent> contentsById = new ConcurrentHashMap<>();
+    private final Map<String, Long> dataIdsByChecksum = new ConcurrentHashMap<>();
+    // actual_data_id -> 참조하는 revision 수 (쓰기 lock 안에서만 변경)
+    private final Map<Long, Integer> contentReferences = new ConcurrentHashMap<>();
+    private final Map<Long, Comment> commentsById = new ConcurrentHashMap<>();
+    // page_id -> (comment_id -> comment), comment_id 순 = 작성 순
+    private final Map<Long, ConcurrentSkipListMap<Long, Comment>> commentsByPage = new ConcurrentHashMap<>();
+
+    private final UserRepository users = new Users();
+    private final GroupRepository groups = new Groups();
+    private final PageRepository pages = new Pages();
+    private final CommentRepository comments = new Comments();
+
+    /**
+     * 메모리에만 저장하는 저장소 (닫으면 내용이 사라짐)
+     */
+    public InMemoryRepository() {
+        this.journal = null;
+    }
+
+    private InMemoryRepository(FileChannel journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * journal 파일을 재생하여 저장소를 복원하고, 이후의 쓰기를 같은 파일 끝에 기록
+     * @param journalFile journal 파일 (없으면 생성)
+     * @throws IOException 파일을 열거나 읽을 수 없을 때
+     */
+    public static InMemoryRepository open(Path journalFile) throws IOException {
+        FileChannel channel = FileChannel.open(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            InMemoryRepository repository = new InMemoryRepository(channel);
+            long validLength = repository.replay(channel);
+            if (validLength < channel.size()) {
+                System.err.println("In-Memory Repository: Discarding " + (channel.size() - validLength) + " bytes of incomplete journal at " + journalFile);
+                channel.truncate(validLength);
+            }
+            channel.position(validLength);
+            return repository;
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public UserRepository users() {
+        return users;
+    }
+
+    @Override
+    public GroupRepository groups() {
+        return groups;
+    }
+
+    @Override
+    public PageRepository pages() {
+        return pages;
+    }
+
+    @Override
+    public CommentRepository comments() {
+        return comments;
+    }
+
+    /**
+     * 작업이 I/O를 기다리지 않으므로 (journal 기록 제외) 공용 ForkJoinPool에서 실행
+     */
+    @Override
+    public Executor executor() {
+        return ForkJoinPool.commonPool();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (journal.isOpen()) {
+                journal.force(true);
+                journal.close();
+            }
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    // --- journal ---
+
+    /**
+     * record들을 한 frame (길이, CRC32, record들)으로 journal 끝에 기록, 쓰기 lock 안에서 호출
+     * 기록에 실패하면 frame의 일부가 남지 않도록 기록 전 길이로 되돌린다 (뒤의 frame이 재생되지 않는 것을 방지)
+     */
+    private void log(RecordWriter records) throws SQLException {
+        if (journal == null) {
+            return;
+        }
+        long start = -1;
+        try {
+            start = journal.position();
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            records.write(new DataOutputStream(payload));
+            byte[] bytes = payload.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+
+            ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES * 2 + bytes.length);
+            frame.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes).flip();
+            while (frame.hasRemaining()) {
+                journal.write(frame);
+            }
+        }
+        catch (IOException e) {
+            if (start >= 0) {
+                try {
+                    journal.truncate(start);
+                    journal.position(start);
+                }
+                catch (IOException truncateEx) {
+                    e.addSuppressed(truncateEx);
+                }
+            }
+            throw new SQLException("In-Memory Repository: Error writing journal: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * journal의 frame을 처음부터 적용
+     * @return 온전히 적용한 frame까지의 길이 (그 뒤는 잘렸거나 손상된 부분)
+     */
+    private long replay(FileChannel channel) throws IOException {
+        long validLength = 0;
+        int frames = 0;
+        InputStream raw = Channels.newInputStream(channel.position(0));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(raw));
+        while (true) {
+            byte[] bytes;
+            int checksum;
+            try {
+                int length = in.readInt();
+                checksum = in.readInt();
+                if (length < 0 || length > channel.size() - validLength) {
+                    break;
+                }
+                bytes = new byte[length];
+                in.readFully(bytes);
+            }
+            catch (EOFException e) {
+                break;
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            DataInputStream records = new DataInputStream(new ByteArrayInputStream(bytes));
+            while (records.available() > 0) {
+                applyRecord(records);
+            }
+            validLength += Integer.BYTES * 2 + bytes.length;
+            frames++;
+        }
+        System.out.println("In-Memory Repository: Replayed " + frames + " journal frame(s).");
+        return validLength;
+    }
+
+    private void applyRecord(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case USER_INSERT -> applyUserInsert(in.readLong(), readString(in), readString(in), new Timestamp(in.readLong()));
+            case USER_DELETE -> applyUserDelete(in.readLong());
+            case GROUP_INSERT -> applyGroupInsert(new Group(in.readLong(), readString(in), readString(in), in.readLong(), new Timestamp(in.readLong())));
+            case MEMBERSHIP_INSERT -> applyMembershipInsert(new Membership(in.readLong(), in.readLong(), readString(in)));
+            case GROUP_DELETE -> applyGroupDelete(in.readLong());
+            case CONTENT_INSERT -> {
+                long dataId = in.readLong();
+                String checksum = readString(in);
+                byte[] content = new byte[in.readInt()];
+                in.readFully(content);
+                applyContentInsert(dataId, checksum, content);
+            }
+            case PAGE_INSERT -> applyPageInsert(new Page(in.readLong(), in.readLong(), readString(in), new Timestamp(in.readLong()), 0));
+            case REVISION_INSERT -> applyRevisionInsert(new Revision(in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                    in.readLong(), readString(in), new Timestamp(in.readLong())));
+            case PAGE_DELETE -> applyPageDelete(in.readLong());
+            case COMMENT_INSERT -> applyCommentInsert(new Comment(in.readLong(), in.readLong(), in.readLong(), readString(in),
+                    readString(in), new Timestamp(in.readLong())));
+            case COMMENT_DELETE -> applyCommentDelete(in.readLong());
+            case PAGE_COMMENTS_DELETE -> applyPageCommentsDelete(in.readLong());
+            default -> throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    /** null은 길이 -1로 기록 (writeUTF는 64KB 제한이 있어 사용하지 않음) */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // --- 적용 (쓰기 lock 안, 또는 열 때 재생) ---
+
+    private static void advance(AtomicLong next, long usedId) {
+        next.accumulateAndGet(usedId + 1, Math::max);
+    }
+
+    private void applyUserInsert(long userId, String username, String passwordHash, Timestamp createdAt) {
+        usersById.put(userId, new StoredUser(new User(userId, username, createdAt), passwordHash));
+        userIdsByName.put(username, userId);
+        advance(nextUserId, userId);
+    }
+
+    private int applyUserDelete(long userId) {
+        StoredUser removed = usersById.remove(userId);
+        if (removed == null) {
+            return 0;
+        }
+        userIdsByName.remove(removed.user().username(), userId);
+        return 1;
+    }
+
+    private void applyGroupInsert(Group group) {
+        groupsById.put(group.groupId(), group);
+        groupIdsByJoinKey.put(group.joinKey(), group.groupId());
+        advance(nextGroupId, group.groupId());
+    }
+
+    private void applyMembershipInsert(Membership membership) {
+        membershipsByUser.computeIfAbsent(membership.userId(), userId -> new ConcurrentHashMap<>())
+                .put(membership.groupId(), membership);
+    }
+
+    private int applyGroupDelete(long groupId) {
+        for (Map<Long, Membership> memberships : membershipsByUser.values()) {
+            memberships.remove(groupId);
+        }
+        Group removed = groupsById.remove(groupId);
+        if (removed == null) {
+            return 0;
+        }
+        groupIdsByJoinKey.remove(removed.joinKey(), groupId);
+        return 1;
+    }
+
+    private void applyContentInsert(long dataId, String checksum, byte[] content) {
+        contentsById.put(dataId, new StoredContent(checksum, content));
+        dataIdsByChecksum.put(checksum, dataId);
+        advance(nextDataId, dataId);
+    }
+
+    private void applyPageInsert(Page page) {
+        pagesById.put(page.pageId(), page);
+        pageIdsByGroup.computeIfAbsent(page.groupId(), groupId -> new ConcurrentSkipListMap<>())
+                .put(page.pageId(), page.pageId());
+        advance(nextPageId, page.pageId());
+    }
+
+    /**
+     * revision을 추가하고 페이지의 latest_revision_id로 함
+     */
+    private void applyRevisionInsert(Revision revision) {
+        revisionsById.put(revision.revisionId(), revision);
+        revisionsByPage.computeIfAbsent(revision.pageId(), pageId -> new ConcurrentSkipListMap<>())
+                .put(revision.revisionId(), revision);
+        contentReferences.merge(revision.actualDataId(), 1, Integer::sum);
+        pagesById.computeIfPresent(revision.pageId(), (pageId, page) ->
+                new Page(page.pageId(), page.groupId(), page.pageName(), page.createdAt(), revision.revisionId()));
+        advance(nextRevisionId, revision.revisionId());
+    }
+
+    private void applyPageDelete(long pageId) {
+        Map<Long, Revision> revisions = revisionsByPage.remove(pageId);
+        if (revisions != null) {
+            for (Revision revision : revisions.values()) {
+                revisionsById.remove(revision.revisionId());
+                // 같은 내용을 다른 revision이 공유하고 있으면 남겨 두고, 마지막 참조가 사라질 때 삭제
+                if (contentReferences.merge(revision.actualDataId(), -1, Integer::sum) <= 0) {
+                    contentReferences.remove(revision.actualDataId());
+                    StoredContent content = contentsById.remove(revision.actualDataId());
+                    if (content != null) {
+                        dataIdsByChecksum.remove(content.checksum(), revision.actualDataId());
+                    }
+                }
+            }
+        }
+        Page removed = pagesById.remove(pageId);
+        if (removed != null) {
+            Map<Long, Long> groupPages = pageIdsByGroup.get(removed.groupId());
+            if (groupPages != null) {
+                groupPages.remove(pageId);
+            }
+        }
+    }
+
+    private void applyCommentInsert(Comment comment) {
+        commentsById.put(comment.commentId(), comment);
+        commentsByPage.computeIfAbsent(comment.pageId(), pageId -> new ConcurrentSkipListMap<>())
+                .put(comment.commentId(), comment);
+        advance(nextCommentId, comment.commentId());
+    }
+
+    private int applyCommentDelete(long commentId) {
+        Comment removed = commentsById.remove(commentId);
+        if (removed == null) {
+            return 0;
+        }
+        Map<Long, Comment> pageComments = commentsByPage.get(removed.pageId());
+        if (pageComments != null) {
+            pageComments.remove(commentId);
+        }
+        return 1;
+    }
+
+    private void applyPageCommentsDelete(long pageId) {
+        Map<Long, Comment> removed = commentsByPage.remove(pageId);
+        if (removed != null) {
+            removed.keySet().forEach(commentsById::remove);
+        }
+    }
+
+    // --- 내용 ---
+
+    /**
+     * 같은 체크섬의 내용이 있으면 그 ID를, 없으면 새 ID를 정함 (쓰기 lock 안에서 호출)
+     * 새 내용이면 CONTENT_INSERT record를 records에, 적용할 작업을 applies에 추가하고, 호출한 쪽에서 journal에 기록한 뒤 적용한다
+     */
+    private long resolveContent(String checksum, byte[] content, List<RecordWriter> records, List<Runnable> applies) {
+        Long existing = dataIdsByChecksum.get(checksum);
+        if (existing != null) {
+            return existing;
+        }
+        long dataId = nextDataId.getAndIncrement();
+        records.add(out -> {
+            out.writeByte(CONTENT_INSERT);
+            out.writeLong(dataId);
+            writeString(out, checksum);
+            out.writeInt(content.length);
+            out.write(content);
+        });
+        applies.add(() -> applyContentInsert(dataId, checksum, content));
+        return dataId;
+    }
+
+    private static RecordWriter concat(List<RecordWriter> writers) {
+        return out -> {
+            for (RecordWriter writer : writers) {
+                writer.write(out);
+            }
+        };
+    }
+
+    private static RecordWriter revisionRecord(Revision revision) {
+        return out -> {
+            out.writeByte(REVISION_INSERT);
+            out.writeLong(revision.revisionId());
+            out.writeLong(revision.pageId());
+            out.writeLong(revision.actualDataId());
+            out.writeLong(revision.committedByUserId());
+            out.writeLong(revision.parentRevisionId());
+            writeString(out, revision.commitMessage());
+            out.writeLong(revision.createdAt().getTime());
+        };
+    }
+
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+
+    // --- 저장소 구현 ---
+
+    private final class Users implements UserRepository {
+
+        @Override
+        public long insertUser(String username, String passwordHash) throws SQLException {
+            writeLock.lock();
+            try {
+                if (userIdsByName.containsKey(username)) {
+                    throw new SQLIntegrityConstraintViolationException("Duplicate entry '" + username + "' for key 'users.user_name'");
+                }
+                long userId = nextUserId.getAndIncrement();
+                Timestamp createdAt = now();
+                log(out -> {
+                    out.writeByte(USER_INSERT);
+                    out.writeLong(userId);
+                    writeString(out, username);
+                    writeString(out, passwordHash);
+                    out.writeLong(createdAt.getTime());
+                });
+                applyUserInsert(userId, username, passwordHash, createdAt);
+                return userId;
+            }
+            finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public User findUserByName(String username) {
+            Long userId = userIdsByName.get(username);
+            return (userId != null) ? findUserById(userId) : null;
+        }
+
+        @Override
+        public User findUserById(long userId) {
+            StoredUser stored = usersById.get(userId);
+            return (stored != null) ? stored.user() : null;
+        }
+
+        @Override
+        public String findPasswordHash(String username) {
+            Long userId = userIdsByName.get(username);
+            StoredUser stored = (userId != null) ? usersById.get(userId) : null;
+            return (stored != null) ? stored.passwordHash() : null;
+        }
+
+        @Override
+        public int deleteUser(long userId) throws SQLException {
+            writeLock.lock();
+            try {
+                if (!usersById.containsKey(userId)) {
+                    return 0;
+                }
+                log(out -> {
+                    out.writeByte(USER_DELETE);
+                    out.writeLong(userId);
+                });
+                return applyUserDelete(userId);
+            }
+            finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public List<User> findAllUsers() {
+            List<User> userList = new ArrayList<>();
+            for (StoredUser stored : usersById.values()) {
+                userList.add(stored.user());
+            }
+            userList.sort(Comparator.comparingLong(User::userId));
+            return userList;
+        }
+    }
+
+    private final class Groups implements GroupRepository {
+
+        @Override
+        public long insertGroup(String groupName, String joinKey, long createdByUserId) throws SQLException {
+            writeLock.lock();
+            try {
+                if (groupIdsByJoinKey.containsKey(joinKey)) {
+                    throw new SQLIntegrityConstraintViolationException("Duplicate entry '" + joinKey + "' for key 'group_data.join_key'");
+                }
+                Group group = new Group(nextGroupId.getAndIncrement(), groupName, joinKey, createdByUserId, now());
+                log(out -> {
+                    out.writeByte(GROUP_INSERT);
+                    out.writeLong(group.groupId());
+                    writeString(out, group.groupName());
+                    writeString(out, group.joinKey());
+                    out.writeLong(group.createdByUserId());
+                    out.writeLong(group.createdAt().getTime());
+                });
+                applyGroupInsert(group);
+                return group.groupId();
+            }
+            finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public Group findGroup(long groupId) {
+            return groupsById.get(groupId);
+        }
+
+        @Override
+        public Group findGroupByJoinKey(String joinKey) {
+            Long groupId = groupIdsByJoinKey.get(joinKey);
+            return (groupId != null) ? groupsById.get(groupId) : null;
+        }
+
+        @Override
+        public boolean insertMembership(long groupId, long userId, String role) throws SQLException {
+            writeLock.lock();
+            try {
+                Map<Long, Membership> memberships = membershipsByUser.get(userId);
+                if (memberships != null && memberships.containsKey(groupId)) {
+                    return false;
+                }
+                Membership membership = new Membership(groupId, userId, role);
+                log(out -> {
+                    out.writeByte(MEMBERSHIP_INSERT);
+                    out.writeLong(groupId);
+                    out.writeLong(userId);
+                    writeString(out, role);
+                });
+                applyMembershipInsert(membership);
+                return true;
+            }
+            finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public List<Membership> findMembershipsByUser(long userId) {
+            Map<Long, Membership> memberships = membershipsByUser.get(userId);
+            if (memberships == null) {
+                return new ArrayList<>();
+            }
+            List<Membership> membershipList = new ArrayList<>(memberships.values());
+            membershipList.sort(Comparator.comparingLong(Membership::groupId));
+            return membershipList;
+        }
+
+        @Override
+        public int deleteGroup(long groupId) throws SQLException {
+            writeLock.lock();
+            try {
+                log(out -> {
+                    out.writeByte(GROUP_DELETE);
+                    out.writeLong(groupId);
+                });
+                return applyGroupDelete(groupId);
+            }
+            finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private final class Pages implements PageRepository {
+
+        @Override
+        public List<Page> findPagesByGroup(long groupId) {
+            List<Page> pageList = new ArrayList<>();
+            Map<Long, Long> pageIds = pageIdsByGroup.get(groupId);
+            if (pageIds != null) {
+                for (Long pageId : pageIds.keySet()) {
+                    Page page = pagesById.get(pageId);
+                    if (page != null) {
+                        pageList.add(page);
+                    }
+                }
+            }
+            return pageList;
+        }
+
+        /**
+         * 내용, 페이지, 첫 revision을 journal의 한 frame으로 기록하여 함께 복원되게 한다
+         */
+        @Override
+        public long createPage(long groupId, long userId, String pageName, byte[] content, String commitMessage) throws SQLException {
+            // 체크섬 계산은 lock 밖에서
+            String checksum = FileDataManager.toHexString(FileDataManager.newSha256Digest().digest(content));
+
+            writeLock.lock();
+            try {
+                List<RecordWriter> records = new ArrayList<>();
+                List<Runnable> applies = new ArrayList<>();
+                long dataId = resolveContent(checksum, content, records, applies);
+
+                Page page = new Page(nextPageId.getAndIncrement(), groupId, pageName, now(), 0);
+                Revision revision = new Revision(nextRevisionId.getAndIncrement(), page.pageId(), dataId, userId, 0,
+                        commitMessage, page.createdAt());
+                records.add(out -> {
+                    out.writeByte(PAGE_INSERT);
+                    out.writeLong(page.pageId());
+                    out.writeLong(page.groupId());
+                    writeString(out, page.pageName());
+                    out.writeLong(page.createdAt().getTime());
+                });
+                records.add(revisionRecord(revision));
+
+                log(concat(records));
+                applies.forEach(Runnable::run);
+                applyPageInsert(page);
+                applyRevisionInsert(revision);
+                return page.pageId();
+            }
+            finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public long commitRevision(long pageId, long userId, long parentRevisionId, byte[] content, String commitMessage) throws SQLException {
+            String checksum = FileDataManager.toHexString(FileDataManager.newSha256Digest().digest(content));
+
+            writeLock.lock();
+            try {
+                Page page = pagesById.get(pageId);
+                if (page == null) {
+                    throw new SQLException("Page with ID " + pageId + " not found.");
+                }
+                // compare-and-set: 그 사이 다른 revision이 최신이 되었으면 아무것도 저장하지 않음
+                if (page.latestRevisionId() != parentRevisionId) {
+                    return PageManager.REVISION_CONFLICT;
+                }
+
+                List<RecordWriter> records = new ArrayList<>();
+                List<Runnable> applies = new ArrayList<>();
+                long dataId = resolveContent(checksum, content, records, applies);
+                Revision revision = new Revision(nextRevisionId.getAndIncrement(), pageId, dataId, userId, parentRevisionId,
+                        commitMessage, now());
+                records.add(revisionRecord(revision));
+
+                log(concat(records));
+                applies.forEach(Runnable::run);
+                applyRevisionInsert(revision);
+                return revision.revisionId();
+            }
+            finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public List<Revision> findRevisions(long pageId) {
+            Map<Long, Revision> revisions = revisionsByPage.get(pageId);
+            return (revisions != null) ? new ArrayList<>(revisions.values()) : new ArrayList<>();
+        }
+
+        @Override
+        public Revision findRevision(long revisionId) {
+            return revisionsById.get(revisionId);
+        }
+
+        /**
+         * 저장된 배열을 그대로 돌려주므로 호출한 쪽에서 수정하면 안 된다 (DB에서 읽을 때와 달리 복사하지 않음)
+         */
+        @Override
+        public byte[] readContent(long actualDataId) {
+            StoredContent stored = contentsById.get(actualDataId);
+            return (stored != null) ? stored.content() : null;
+        }
+
+        @Override
+        public void deletePage(long pageId) throws SQLException {
+            writeLock.lock();
+            try {
+                if (!pagesById.containsKey(pageId)) {
+                    throw new SQLException("Page with ID " + pageId + " not found for deletion.");
+                }
+                log(out -> {
+                    out.writeByte(PAGE_DELETE);
+                    out.writeLong(pageId);
+                });
+                applyPageDelete(pageId);
+            }
+            finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private final class Comments implements CommentRepository {
+
+        @Override
+        public void insertComment(long pageId, long userId, String commentContent) throws SQLException {
+            writeLock.lock();
+            try {
+                StoredUser user = usersById.get(userId);
+                if (user == null) {
+                    throw new SQLException("Error searching user inserting comment.");
+                }
+                Comment comment = new Comment(nextCommentId.getAndIncrement(), pageId, userId, user.user().username(),
+                        commentContent, now());
+                log(out -> {
+                    out.writeByte(COMMENT_INSERT);
+                    out.writeLong(comment.commentId());
+                    out.writeLong(comment.pageId());
+                    out.writeLong(comment.commentedByUserId());
+                    writeString(out, comment.userName());
+                    writeString(out, comment.commentData());
+                    out.writeLong(comment.createdAt().getTime());
+                });
+                applyCommentInsert(comment);
+            }
+            finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public int deleteComment(long commentId, long userId) throws SQLException {
+            writeLock.lock();
+            try {
+                Comment comment = commentsById.get(commentId);
+                if (comment == null) {
+                    throw new SQLException("Error searching comment to delete");
+                }
+                if (comment.commentedByUserId() != userId) {
+                    System.out.println("User " + userId + " does not have permission to delete.");
+                    return 0;
+                }
+                log(out -> {
+                    out.writeByte(COMMENT_DELETE);
+                    out.writeLong(commentId);
+                });
+                return applyCommentDelete(commentId);
+            }
+            finally {
+                writeLock.unlock();
+            }
+        }
+
+        /**
+         * 작성자 이름은 JdbcRepository와 같이 현재 users에서 가져온다 (탈퇴했으면 "탈퇴한 사용자")
+         */
+        @Override
+        public List<Comment> findComments(long pageId) {
+            List<Comment> commentList = new ArrayList<>();
+            Map<Long, Comment> pageComments = commentsByPage.get(pageId);
+            if (pageComments != null) {
+                for (Comment comment : pageComments.values()) {
+                    StoredUser user = usersById.get(comment.commentedByUserId());
+                    String userName = (user != null) ? user.user().username() : "탈퇴한 사용자";
+                    commentList.add(new Comment(comment.commentId(), comment.pageId(), comment.commentedByUserId(),
+                            userName, comment.commentData(), comment.createdAt()));
+                }
+            }
+            return commentList;
+        }
+
+        @Override
+        public void deleteAllComments(long pageId) throws SQLException {
+            writeLock.lock();
+            try {
+                log(out -> {
+                    out.writeByte(PAGE_COMMENTS_DELETE);
+                    out.writeLong(pageId);
+                });
+                applyPageCommentsDelete(pageId);
+            }
+            finally {
+                writeLock.unlock();
+            }
+        }
+    }
+}
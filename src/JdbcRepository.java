@@ -0,0 +1,459 @@
+package teamproject;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * MySQL 저장소 (ConnectionManager의 pool 사용)
+ * 메소드마다 connection을 빌려 쓰고 반납하며, 페이지와 댓글 조회는 getReadConnection (replica가 있으면 replica)을 사용한다
+ * 사용자와 그룹은 가입, 생성 직후 바로 읽으므로 primary에서 조회한다
+ * 페이지 생성, revision 추가, 페이지 삭제는 delta / chunk 저장과 트랜잭션을 처리하는 PageManager의 store... / removePage에 위임한다
+ */
+public final class JdbcRepository implements Repository {
+
+    private final ConnectionManager connectionManager;
+    private final UserRepository users = new Users();
+    private final GroupRepository groups = new Groups();
+    private final PageRepository pages = new Pages();
+    private final CommentRepository comments = new Comments();
+
+    // 실행 계획을 SchemaMigrator.verifyQueryPlans에서 EXPLAIN으로 확인하는 쿼리
+    static final String USER_BY_NAME_SQL = "SELECT user_id, user_name, created_at " +
+            "FROM users " +
+            "WHERE user_name = ?";
+    static final String USER_BY_ID_SQL = "SELECT user_id, user_name, created_at " +
+            "FROM users " +
+            "WHERE user_id = ?";
+    static final String PASSWORD_HASH_SQL = "SELECT password_hash " +
+            "FROM users " +
+            "WHERE user_name = ?";
+    static final String GROUP_SQL = "SELECT group_id, group_name, join_key, created_by_user_id, created_at " +
+            "FROM group_data " +
+            "WHERE group_id = ?";
+    static final String GROUP_BY_JOIN_KEY_SQL = "SELECT group_id, group_name, join_key, created_by_user_id, created_at " +
+            "FROM group_data " +
+            "WHERE join_key = ?";
+    static final String MEMBERSHIP_COUNT_SQL = "SELECT COUNT(*) " +
+            "FROM group_membership " +
+            "WHERE group_id = ? AND user_id = ?";
+    static final String MEMBERSHIPS_BY_USER_SQL = "SELECT group_id, user_role " +
+            "FROM group_membership " +
+            "WHERE user_id = ?";
+    static final String DELETE_GROUP_MEMBERSHIPS_SQL = "DELETE FROM group_membership WHERE group_id = ?";
+    static final String DELETE_GROUP_SQL = "DELETE FROM group_data WHERE group_id = ?";
+
+    public JdbcRepository(ConnectionManager connectionManager) {
+        if (connectionManager == null) {
+            throw new IllegalArgumentException("ConnectionManager cannot be null.");
+        }
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public UserRepository users() {
+        return users;
+    }
+
+    @Override
+    public GroupRepository groups() {
+        return groups;
+    }
+
+    @Override
+    public PageRepository pages() {
+        return pages;
+    }
+
+    @Override
+    public CommentRepository comments() {
+        return comments;
+    }
+
+    /**
+     * pool 크기에 맞춘 ConnectionManager의 executor (connection을 기다리며 막히는 스레드를 만들지 않음)
+     */
+    @Override
+    public Executor executor() {
+        return connectionManager.getExecutor();
+    }
+
+    /**
+     * ConnectionManager는 호출한 쪽에서 닫는다
+     */
+    @Override
+    public void close() {
+    }
+
+    private static long getGeneratedId(PreparedStatement pstmt, String what) throws SQLException {
+        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+            if (generatedKeys.next()) {
+                return generatedKeys.getLong(1);
+            }
+            throw new SQLException("Inserting " + what + " failed, no ID obtained.");
+        }
+    }
+
+    private final class Users implements UserRepository {
+
+        @Override
+        public long insertUser(String username, String passwordHash) throws SQLException {
+            String sql = "INSERT INTO users " +
+                    "(user_name, password_hash, created_at) " +
+                    "VALUES (?, ?, ?)";
+
+            try (Connection conn = connectionManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+                pstmt.setString(1, username);
+                pstmt.setString(2, passwordHash);
+                pstmt.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+
+                if (pstmt.executeUpdate() == 0) {
+                    throw new SQLException("Inserting user failed for " + username + ", no rows affected.");
+                }
+                return getGeneratedId(pstmt, "user " + username);
+            }
+        }
+
+        @Override
+        public User findUserByName(String username) throws SQLException {
+            try (Connection conn = connectionManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(USER_BY_NAME_SQL)) {
+
+                pstmt.setString(1, username);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? toUser(rs) : null;
+                }
+            }
+        }
+
+        @Override
+        public User findUserById(long userId) throws SQLException {
+            try (Connection conn = connectionManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(USER_BY_ID_SQL)) {
+
+                pstmt.setLong(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? toUser(rs) : null;
+                }
+            }
+        }
+
+        @Override
+        public String findPasswordHash(String username) throws SQLException {
+            // 가입 직후 로그인할 수 있도록 primary에서 조회
+            try (Connection conn = connectionManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(PASSWORD_HASH_SQL)) {
+
+                pstmt.setString(1, username);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getString("password_hash") : null;
+                }
+            }
+        }
+
+        @Override
+        public int deleteUser(long userId) throws SQLException {
+            String sql = "DELETE " +
+                    "FROM users " +
+                    "WHERE user_id = ?";
+
+            try (Connection conn = connectionManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                pstmt.setLong(1, userId);
+                return pstmt.executeUpdate();
+            }
+        }
+
+        @Override
+        public List<User> findAllUsers() throws SQLException {
+            String sql = "SELECT user_id, user_name, created_at FROM users";
+            List<User> userList = new ArrayList<>();
+
+            try (Connection conn = connectionManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    userList.add(toUser(rs));
+                }
+            }
+            return userList;
+        }
+
+        private User toUser(ResultSet rs) throws SQLException {
+            return new User(rs.getLong("user_id"), rs.getString("user_name"), rs.getTimestamp("created_at"));
+        }
+    }
+
+    private final class Groups implements GroupRepository {
+
+        @Override
+        public long insertGroup(String groupName, String joinKey, long createdByUserId) throws SQLException {
+            String sql = "INSERT INTO group_data " +
+                    "(group_name, join_key, created_by_user_id) " +
+                    "VALUES (?, ?, ?)";
+
+            try (Connection conn = connectionManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+                pstmt.setString(1, groupName);
+                pstmt.setString(2, joinKey);
+                pstmt.setLong(3, createdByUserId);
+
+                if (pstmt.executeUpdate() == 0) {
+                    throw new SQLException("Inserting group failed for " + groupName + ", no rows affected.");
+                }
+                return getGeneratedId(pstmt, "group " + groupName);
+            }
+        }
+
+        @Override
+        public Group findGroup(long groupId) throws SQLException {
+            try (Connection conn = connectionManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(GROUP_SQL)) {
+
+                pstmt.setLong(1, groupId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? toGroup(rs) : null;
+                }
+            }
+        }
+
+        @Override
+        public Group findGroupByJoinKey(String joinKey) throws SQLException {
+            try (Connection conn = connectionManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(GROUP_BY_JOIN_KEY_SQL)) {
+
+                pstmt.setString(1, joinKey);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? toGroup(rs) : null;
+                }
+            }
+        }
+
+        @Override
+        public boolean insertMembership(long groupId, long userId, String role) throws SQLException {
+            String insertSql = "INSERT INTO group_membership " +
+                    "(group_id, user_id, user_role) " +
+                    "VALUES (?, ?, ?)";
+
+            try (Connection conn = connectionManager.getConnection()) {
+                try (PreparedStatement checkPstmt = conn.prepareStatement(MEMBERSHIP_COUNT_SQL)) {
+                    checkPstmt.setLong(1, groupId);
+                    checkPstmt.setLong(2, userId);
+                    try (ResultSet rs = checkPstmt.executeQuery()) {
+                        if (rs.next() && rs.getInt(1) > 0) {
+                            return false;
+                        }
+                    }
+                }
+
+                try (PreparedStatement insertPstmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+                    insertPstmt.setLong(1, groupId);
+                    insertPstmt.setLong(2, userId);
+                    insertPstmt.setString(3, role);
+
+                    if (insertPstmt.executeUpdate() == 0) {
+                        throw new SQLException("Inserting membership failed, no rows affected.");
+                    }
+                    System.out.println("Membership inserted successfully. Membership ID: " + getGeneratedId(insertPstmt, "membership"));
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public List<Membership> findMembershipsByUser(long userId) throws SQLException {
+            List<Membership> membershipList = new ArrayList<>();
+
+            try (Connection conn = connectionManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(MEMBERSHIPS_BY_USER_SQL)) {
+
+                pstmt.setLong(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        membershipList.add(new Membership(rs.getLong("group_id"), userId, rs.getString("user_role")));
+                    }
+                }
+            }
+            return membershipList;
+        }
+
+        /**
+         * group_membership과 group_data의 삭제를 하나의 트랜잭션으로 수행
+         */
+        @Override
+        public int deleteGroup(long groupId) throws SQLException {
+            try (Connection conn = connectionManager.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    int memberships;
+                    try (PreparedStatement pstmt = conn.prepareStatement(DELETE_GROUP_MEMBERSHIPS_SQL)) {
+                        pstmt.setLong(1, groupId);
+                        memberships = pstmt.executeUpdate();
+                    }
+                    int deleted;
+                    try (PreparedStatement pstmt = conn.prepareStatement(DELETE_GROUP_SQL)) {
+                        pstmt.setLong(1, groupId);
+                        deleted = pstmt.executeUpdate();
+                    }
+                    conn.commit();
+                    System.out.println(memberships + " row(s) deleted from group membership");
+                    System.out.println(deleted + " row(s) deleted from group data");
+                    return deleted;
+                }
+                catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+                finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+        }
+
+        private Group toGroup(ResultSet rs) throws SQLException {
+            return new Group(rs.getLong("group_id"), rs.getString("group_name"), rs.getString("join_key"),
+                    rs.getLong("created_by_user_id"), rs.getTimestamp("created_at"));
+        }
+    }
+
+    private final class Pages implements PageRepository {
+
+        private final RevisionManager revisionManager = new RevisionManager();
+        private final FileDataManager fileDataManager = new FileDataManager(connectionManager);
+
+        /**
+         * PageManager는 사용자와 그룹 단위로 동작하므로, 필요한 ID만 채운 객체로 만든다
+         */
+        private PageManager pageManager(long userId, long groupId) {
+            return new PageManager(connectionManager, new User(userId, null, null), new Group(groupId, null, null, 0, null));
+        }
+
+        @Override
+        public List<Page> findPagesByGroup(long groupId) throws SQLException {
+            try (Connection conn = connectionManager.getReadConnection()) {
+                return pageManager(0, groupId).searchPage(conn);
+            }
+        }
+
+        @Override
+        public long createPage(long groupId, long userId, String pageName, byte[] content, String commitMessage) throws SQLException {
+            return checkPageId(pageManager(userId, groupId).storePage(pageName, content, commitMessage), pageName);
+        }
+
+        /**
+         * 큰 파일은 byte 배열로 읽지 않고 chunk 단위로 스트리밍하여 저장
+         */
+        @Override
+        public long createPage(long groupId, long userId, String pageName, Path file, String commitMessage) throws SQLException {
+            return checkPageId(pageManager(userId, groupId).storePage(pageName, file, commitMessage), pageName);
+        }
+
+        private long checkPageId(long pageId, String pageName) throws SQLException {
+            if (pageId < 0) {
+                throw new SQLException("Creating page failed for " + pageName + ".");
+            }
+            return pageId;
+        }
+
+        @Override
+        public long commitRevision(long pageId, long userId, long parentRevisionId, byte[] content, String commitMessage) throws SQLException {
+            return checkRevisionId(pageManager(userId, 0).storeRevision(pageId, parentRevisionId, content, commitMessage), pageId);
+        }
+
+        /**
+         * 큰 파일은 byte 배열로 읽지 않고 chunk 단위로 스트리밍하여 저장
+         */
+        @Override
+        public long commitRevision(long pageId, long userId, long parentRevisionId, Path file, String commitMessage) throws SQLException {
+            return checkRevisionId(pageManager(userId, 0).storeRevision(pageId, parentRevisionId, file, commitMessage), pageId);
+        }
+
+        private long checkRevisionId(long revisionId, long pageId) throws SQLException {
+            if (revisionId < 0 && revisionId != PageManager.REVISION_CONFLICT) {
+                throw new SQLException("Inserting revision failed for page " + pageId + ".");
+            }
+            return revisionId;
+        }
+
+        @Override
+        public List<Revision> findRevisions(long pageId) throws SQLException {
+            try (Connection conn = connectionManager.getReadConnection()) {
+                return revisionManager.getRevisionsByPageId(conn, pageId);
+            }
+        }
+
+        /**
+         * (page_id, created_at, revision_id) 인덱스에서 한 화면 분량만 읽음
+         */
+        @Override
+        public List<Revision> findRevisionPage(long pageId, long afterRevisionId, int limit, boolean newestFirst) throws SQLException {
+            try (Connection conn = connectionManager.getReadConnection()) {
+                return revisionManager.getRevisionPage(conn, pageId, afterRevisionId, limit, newestFirst);
+            }
+        }
+
+        @Override
+        public Revision findRevision(long revisionId) throws SQLException {
+            try (Connection conn = connectionManager.getReadConnection()) {
+                return revisionManager.getRevision(conn, revisionId);
+            }
+        }
+
+        @Override
+        public byte[] readContent(long actualDataId) throws SQLException {
+            try (Connection conn = connectionManager.getReadConnection()) {
+                return fileDataManager.readContent(conn, actualDataId);
+            }
+        }
+
+        @Override
+        public void deletePage(long pageId) {
+            pageManager(0, 0).removePage(pageId);
+        }
+    }
+
+    private final class Comments implements CommentRepository {
+
+        private final CommentManager commentManager = new CommentManager();
+
+        @Override
+        public void insertComment(long pageId, long userId, String commentContent) throws SQLException {
+            try (Connection conn = connectionManager.getConnection()) {
+                commentManager.insertComment(conn, pageId, userId, commentContent);
+            }
+        }
+
+        @Override
+        public int deleteComment(long commentId, long userId) throws SQLException {
+            try (Connection conn = connectionManager.getConnection()) {
+                return commentManager.deleteComment(conn, commentId, userId);
+            }
+        }
+
+        @Override
+        public List<Comment> findComments(long pageId) throws SQLException {
+            try (Connection conn = connectionManager.getReadConnection()) {
+                return commentManager.getComments(conn, pageId);
+            }
+        }
+
+        @Override
+        public void deleteAllComments(long pageId) throws SQLException {
+            try (Connection conn = connectionManager.getConnection()) {
+                commentManager.deleteAllComments(conn, pageId);
+            }
+        }
+    }
+}
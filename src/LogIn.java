@@ -16,6 +16,8 @@ import javax.swing.JTextField;
 public class LogIn extends JFrame{
 	private static final long serialVersionUID = 1L;
 	User currentUser = null;
+	// 로그인 (BCrypt 비교 + DB 조회)은 EDT가 아닌 스레드에서 실행
+	private final UiTasks tasks = new UiTasks(this);
 	public LogIn(UserManager userManager, ConnectionManager connectionManager) {
 		
 		Color background = new Color(220, 220, 220);  // 배경 : 회색
@@ -63,27 +65,31 @@ public class LogIn extends JFrame{
 	    lblTitle.setFont(new Font("D2Coding", Font.PLAIN, 24));
 	    lblTitle.setBounds(50, 0, 235, 63);
 	    initialPanel.add(lblTitle);
+	    
+	    getContentPane().add(tasks.getStatusBar(), BorderLayout.SOUTH);  // 작업 중에만 보이는 상태 표시줄
 
 		// '로그인' 버튼
 		logButton.addActionListener(e -> {
 			String id = txtID.getText();  // String으로 바꿔서 넣기
 			String pw = new String(txtPass.getPassword());  // 비밀번호는 char[] 이므로 String으로 변환
 					
-			currentUser = userManager.login(id, pw);
-					
 			if (id.isEmpty() || pw.isEmpty()) {
 				JOptionPane.showMessageDialog(this, "아이디와 비밀번호를 모두 입력해주세요.");
+				return;
 			}
-			else if(currentUser != null) {
-				JOptionPane.showMessageDialog(this, "로그인 성공! 사용자: " + id);
-				dispose();
-				new GroupEditor(currentUser, userManager, connectionManager); 
-			}
-			else {
-				JOptionPane.showMessageDialog(this, "아이디 또는 비밀번호가 잘못되었습니다.");
-				txtID.setText("");
-                txtPass.setText("");
-			}
+			tasks.run("로그인", () -> userManager.login(id, pw), user -> {
+				currentUser = user;
+				if(currentUser != null) {
+					JOptionPane.showMessageDialog(this, "로그인 성공! 사용자: " + id);
+					dispose();
+					new GroupEditor(currentUser, userManager, connectionManager); 
+				}
+				else {
+					JOptionPane.showMessageDialog(this, "아이디 또는 비밀번호가 잘못되었습니다.");
+					txtID.setText("");
+	                txtPass.setText("");
+				}
+			}, logButton, btnRegister);
 		});
 		
 		btnRegister.addActionListener(e -> {
@@ -102,6 +108,12 @@ public class LogIn extends JFrame{
 		setVisible(true);
 	}
 	
+	@Override
+	public void dispose() {
+		tasks.cancelAll();  // 창을 닫으면 진행 중인 작업 취소
+		super.dispose();
+	}
+	
 	// 버튼 디자인 바꾸는 메서드
     public void changebtnColor(JButton button)
     {
@@ -0,0 +1,13 @@
+package teamproject;
+
+/**
+ * PageManager.mergeRevisions의 결과
+ * @param revisionId 합쳐진 내용으로 생성된 revision_id (이미 합쳐져 있어 새로 만들지 않은 경우 기존 revision_id)
+ * @param baseRevisionId 사용한 공통 조상의 revision_id, 공통 조상이 없으면 0
+ * @param conflictCount 충돌 표시로 남긴 구간의 개수
+ */
+public record MergeResult(long revisionId,
+                          long baseRevisionId,
+                          int conflictCount) {
+
+}
@@ -0,0 +1,275 @@
+package teamproject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Myers의 O((N+M)D) diff 알고리즘을 선형 공간(linear space) 방식으로 구현한 클래스
+ * 두 줄 목록(줄 내용을 정수 ID로 바꾼 배열) 사이의 최장 공통 부분열을 구한다
+ * DP 표를 만들지 않고, 양쪽 끝에서 동시에 탐색하여 가운데 지점(middle snake)을 찾은 뒤 두 부분으로 나누어 재귀적으로 푼다
+ * 1. 공통 앞부분과 뒷부분은 바로 일치로 처리
+ * 2. 한쪽에만 있는 줄은 일치할 수 없으므로 미리 제외 (파일을 크게 고친 경우 탐색 범위가 크게 줄어듦)
+ * 3. 한 구간의 편집 거리가 MAX_EDIT_COST를 넘으면 그 구간은 일치 없음으로 처리 (최소 diff 대신 시간 상한을 보장)
+ */
+final class MyersDiff {
+
+    static final int NO_MATCH = -1;
+
+    // 한 번의 분할에서 탐색할 최대 편집 거리
+    private static final int MAX_EDIT_COST = 4096;
+
+    private final int[] a;
+    private final int[] b;
+    private final int[] matches;
+
+    private MyersDiff(int[] a, int[] b, int[] matches) {
+        this.a = a;
+        this.b = b;
+        this.matches = matches;
+    }
+
+    /**
+     * a의 각 줄이 b의 몇 번째 줄과 일치하는지 계산
+     * @param a 비교할 줄 ID 배열 (보통 이전 내용)
+     * @param b 비교할 줄 ID 배열 (보통 새 내용)
+     * @return 길이가 a.length인 배열, i번째 값은 a[i]와 짝지어진 b의 위치 또는 NO_MATCH (위치는 항상 증가)
+     */
+    static int[] match(int[] a, int[] b) {
+        int[] result = new int[a.length];
+        Arrays.fill(result, NO_MATCH);
+
+        // 상대편에 한 번도 나오지 않는 줄은 제외하고 남은 줄만 비교
+        int maxId = 0;
+        for (int id : a) {
+            maxId = Math.max(maxId, id);
+        }
+        for (int id : b) {
+            maxId = Math.max(maxId, id);
+        }
+        boolean[] inA = new boolean[maxId + 1];
+        boolean[] inB = new boolean[maxId + 1];
+        for (int id : a) {
+            inA[id] = true;
+        }
+        for (int id : b) {
+            inB[id] = true;
+        }
+
+        int[] aIndex = new int[a.length];
+        int[] bIndex = new int[b.length];
+        int aCount = compact(a, inB, aIndex);
+        int bCount = compact(b, inA, bIndex);
+
+        int[] compactA = new int[aCount];
+        int[] compactB = new int[bCount];
+        for (int i = 0; i < aCount; i++) {
+            compactA[i] = a[aIndex[i]];
+        }
+        for (int i = 0; i < bCount; i++) {
+            compactB[i] = b[bIndex[i]];
+        }
+
+        int[] compactMatches = new int[aCount];
+        Arrays.fill(compactMatches, NO_MATCH);
+        new MyersDiff(compactA, compactB, compactMatches).diff(0, aCount, 0, bCount);
+
+        for (int i = 0; i < aCount; i++) {
+            if (compactMatches[i] != NO_MATCH) {
+                result[aIndex[i]] = bIndex[compactMatches[i]];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 두 줄 ID 배열의 차이를 변경 구간(hunk) 목록으로 반환
+     * @param a 이전 내용의 줄 ID 배열
+     * @param b 새 내용의 줄 ID 배열
+     * @return 위치 순서대로 정렬된 변경 구간 목록, 같으면 빈 목록
+     */
+    static List<DiffHunk> diff(int[] a, int[] b) {
+        int[] matches = match(a, b);
+        List<DiffHunk> hunks = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            if (i < a.length && matches[i] == j) {
+                i++;
+                j++;
+                continue;
+            }
+            int oldStart = i;
+            int newStart = j;
+            while (i < a.length && matches[i] == NO_MATCH) {
+                i++;
+            }
+            j = (i < a.length) ? matches[i] : b.length;
+            hunks.add(new DiffHunk(oldStart, i - oldStart, newStart, j - newStart));
+        }
+        return hunks;
+    }
+
+    /**
+     * 내용을 줄 단위로 나눔 (각 줄은 줄바꿈 문자를 포함, 마지막 줄은 줄바꿈이 없을 수 있음)
+     * ISO-8859-1로 읽으므로 각 글자가 바이트 하나와 대응하여 원래 바이트로 그대로 되돌릴 수 있다
+     */
+    static String[] splitLines(byte[] content) {
+        String text = new String(content, StandardCharsets.ISO_8859_1);
+        List<String> lines = new ArrayList<>();
+        int lineStart = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines.add(text.substring(lineStart, i + 1));
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < text.length()) {
+            lines.add(text.substring(lineStart));
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    /**
+     * 줄 내용을 정수 ID로 변환 (같은 lineIds를 사용한 내용끼리는 같은 줄이면 같은 ID)
+     */
+    static int[] toLineIds(String[] lines, Map<String, Integer> lineIds) {
+        int[] ids = new int[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            Integer id = lineIds.putIfAbsent(lines[i], lineIds.size());
+            ids[i] = (id != null) ? id : lineIds.size() - 1;
+        }
+        return ids;
+    }
+
+    private static int compact(int[] lines, boolean[] inOther, int[] index) {
+        int count = 0;
+        for (int i = 0; i < lines.length; i++) {
+            if (inOther[lines[i]]) {
+                index[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * a[aLo, aHi)와 b[bLo, bHi)를 비교하여 일치하는 줄을 matches에 기록
+     */
+    private void diff(int aLo, int aHi, int bLo, int bHi) {
+        while (aLo < aHi && bLo < bHi && a[aLo] == b[bLo]) {
+            matches[aLo++] = bLo++;
+        }
+        while (aLo < aHi && bLo < bHi && a[aHi - 1] == b[bHi - 1]) {
+            matches[--aHi] = --bHi;
+        }
+        if (aLo == aHi || bLo == bHi) {
+            return;
+        }
+        bisect(aLo, aHi, bLo, bHi);
+    }
+
+    /**
+     * 앞과 뒤에서 동시에 최단 편집 경로를 탐색하여 두 경로가 만나는 지점에서 문제를 나눔
+     * 필요한 메모리는 두 구간 길이의 합에 비례한다
+     */
+    private void bisect(int aLo, int aHi, int bLo, int bHi) {
+        int n = aHi - aLo;
+        int m = bHi - bLo;
+        int maxD = Math.min((n + m + 1) / 2, MAX_EDIT_COST);
+        int vOffset = maxD;
+        int vLength = 2 * maxD + 2;
+        int[] v1 = new int[vLength];
+        int[] v2 = new int[vLength];
+        Arrays.fill(v1, -1);
+        Arrays.fill(v2, -1);
+        v1[vOffset + 1] = 0;
+        v2[vOffset + 1] = 0;
+
+        int delta = n - m;
+        // 두 경로는 delta가 홀수면 앞쪽 탐색 중에, 짝수면 뒤쪽 탐색 중에 만난다
+        boolean front = (delta % 2 != 0);
+        int k1Start = 0;
+        int k1End = 0;
+        int k2Start = 0;
+        int k2End = 0;
+
+        for (int d = 0; d < maxD; d++) {
+            for (int k1 = -d + k1Start; k1 <= d - k1End; k1 += 2) {
+                int k1Offset = vOffset + k1;
+                int x1;
+                if (k1 == -d || (k1 != d && v1[k1Offset - 1] < v1[k1Offset + 1])) {
+                    x1 = v1[k1Offset + 1];
+                }
+                else {
+                    x1 = v1[k1Offset - 1] + 1;
+                }
+                int y1 = x1 - k1;
+                while (x1 < n && y1 < m && a[aLo + x1] == b[bLo + y1]) {
+                    x1++;
+                    y1++;
+                }
+                v1[k1Offset] = x1;
+
+                if (x1 > n) {
+                    k1End += 2;     // 오른쪽 경계를 넘음
+                }
+                else if (y1 > m) {
+                    k1Start += 2;   // 아래쪽 경계를 넘음
+                }
+                else if (front) {
+                    int k2Offset = vOffset + delta - k1;
+                    if (k2Offset >= 0 && k2Offset < vLength && v2[k2Offset] != -1) {
+                        int x2 = n - v2[k2Offset];
+                        if (x1 >= x2) {
+                            split(aLo, aHi, bLo, bHi, x1, y1);
+                            return;
+                        }
+                    }
+                }
+            }
+
+            for (int k2 = -d + k2Start; k2 <= d - k2End; k2 += 2) {
+                int k2Offset = vOffset + k2;
+                int x2;
+                if (k2 == -d || (k2 != d && v2[k2Offset - 1] < v2[k2Offset + 1])) {
+                    x2 = v2[k2Offset + 1];
+                }
+                else {
+                    x2 = v2[k2Offset - 1] + 1;
+                }
+                int y2 = x2 - k2;
+                while (x2 < n && y2 < m && a[aHi - x2 - 1] == b[bHi - y2 - 1]) {
+                    x2++;
+                    y2++;
+                }
+                v2[k2Offset] = x2;
+
+                if (x2 > n) {
+                    k2End += 2;
+                }
+                else if (y2 > m) {
+                    k2Start += 2;
+                }
+                else if (!front) {
+                    int k1Offset = vOffset + delta - k2;
+                    if (k1Offset >= 0 && k1Offset < vLength && v1[k1Offset] != -1) {
+                        int x1 = v1[k1Offset];
+                        int y1 = vOffset + x1 - k1Offset;
+                        if (x1 >= n - x2) {
+                            split(aLo, aHi, bLo, bHi, x1, y1);
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+        // 편집 거리가 상한을 넘음: 이 구간에는 일치하는 줄이 없는 것으로 처리
+    }
+
+    private void split(int aLo, int aHi, int bLo, int bHi, int x, int y) {
+        diff(aLo, aLo + x, bLo, bLo + y);
+        diff(aLo + x, aHi, bLo + y, bHi);
+    }
+}
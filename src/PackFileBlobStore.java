@@ -0,0 +1,293 @@
+package teamproject;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 로컬 디렉토리의 append-only pack 파일에 내용을 저장하는 BlobStore
+ * pack-NNNNNN.pack에 내용을 이어 붙이고, 같은 번호의 .idx 파일에 (SHA-256, offset, length) 레코드를 추가한다
+ * location은 "pack:번호:offset:length" 형식이며, 읽을 때는 pack 파일 전체를 memory-mapped로 열어 두고 잘라서 반환한다
+ * 여러 프로세스가 같은 디렉토리를 써도 되도록 pack 파일에 FileLock을 잡고 append한다
+ * .idx는 같은 내용을 다시 저장하지 않기 위한 것이며, 비어 있거나 손상되어도 이미 DB에 저장된 location으로 읽는 데는 문제가 없다
+ */
+final class PackFileBlobStore implements BlobStore {
+
+    static final String LOCATION_PREFIX = "pack:";
+
+    // pack 파일 하나의 최대 크기 (하나의 MappedByteBuffer로 매핑할 수 있도록 2GB 미만으로 유지)
+    static final long DEFAULT_MAX_PACK_SIZE = 1L << 30;
+
+    private static final String PACK_SUFFIX = ".pack";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final int HASH_SIZE = 32;
+    private static final int INDEX_RECORD_SIZE = HASH_SIZE + Long.BYTES + Long.BYTES;
+
+    private final Path directory;
+    private final long maxPackSize;
+    // 내용의 SHA-256 -> location
+    private final Map<String, String> index = new ConcurrentHashMap<>();
+    // pack 번호 -> 읽기용 매핑 (pack이 커지면 다시 매핑)
+    private final Map<Integer, MappedByteBuffer> mappings = new ConcurrentHashMap<>();
+    private int currentPackId = 1;
+
+    PackFileBlobStore(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_PACK_SIZE);
+    }
+
+    PackFileBlobStore(Path directory, long maxPackSize) throws IOException {
+        if (maxPackSize <= 0 || maxPackSize > DEFAULT_MAX_PACK_SIZE) {
+            throw new IllegalArgumentException("maxPackSize must be between 1 and " + DEFAULT_MAX_PACK_SIZE);
+        }
+        this.directory = directory;
+        this.maxPackSize = maxPackSize;
+        Files.createDirectories(directory);
+        loadIndexes();
+    }
+
+    /**
+     * 디렉토리의 모든 .idx 파일을 읽어 메모리 인덱스를 만들고, 가장 큰 번호의 pack부터 이어서 쓴다
+     * 쓰다 만 마지막 레코드나 pack 범위를 벗어나는 레코드는 무시한다
+     */
+    private void loadIndexes() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "pack-*" + INDEX_SUFFIX)) {
+            for (Path indexFile : stream) {
+                int packId = parsePackId(indexFile.getFileName().toString());
+                if (packId <= 0) {
+                    continue;
+                }
+                currentPackId = Math.max(currentPackId, packId);
+
+                Path packFile = packPath(packId);
+                long packSize = Files.exists(packFile) ? Files.size(packFile) : 0;
+                ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+                byte[] hash = new byte[HASH_SIZE];
+                while (records.remaining() >= INDEX_RECORD_SIZE) {
+                    records.get(hash);
+                    long offset = records.getLong();
+                    long length = records.getLong();
+                    if (offset >= 0 && length >= 0 && offset + length <= packSize) {
+                        index.putIfAbsent(FileDataManager.toHexString(hash), toLocation(packId, offset, length));
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public String put(byte[] content) throws IOException {
+        return putAll(Collections.singletonList(content)).get(0);
+    }
+
+    /**
+     * 이미 저장된 내용은 기존 location을 돌려주고, 나머지는 하나의 lock과 한 번의 force로 pack 끝에 이어 붙인다
+     */
+    @Override
+    public synchronized List<String> putAll(List<byte[]> contents) throws IOException {
+        List<String> locations = new ArrayList<>(contents.size());
+        List<byte[]> hashes = new ArrayList<>(contents.size());
+        boolean allStored = true;
+
+        for (byte[] content : contents) {
+            byte[] hash = FileDataManager.newSha256Digest().digest(content);
+            String location = index.get(FileDataManager.toHexString(hash));
+            hashes.add(hash);
+            locations.add(location);
+            allStored &= location != null;
+        }
+        if (allStored) {
+            return locations;
+        }
+
+        int next = 0;
+        while (next < contents.size()) {
+            next = appendToCurrentPack(contents, hashes, locations, next);
+        }
+        return locations;
+    }
+
+    /**
+     * 현재 pack에 들어가는 만큼 append하고, 다음에 저장할 위치를 반환 (pack이 가득 차면 다음 pack으로 넘어감)
+     */
+    private int appendToCurrentPack(List<byte[]> contents, List<byte[]> hashes, List<String> locations, int from) throws IOException {
+        int packId = currentPackId;
+        int next = from;
+
+        try (FileChannel pack = FileChannel.open(packPath(packId), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileChannel indexChannel = FileChannel.open(indexPath(packId), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            FileLock lock = pack.lock();
+            try {
+                long offset = pack.size();
+                ByteBuffer records = ByteBuffer.allocate(INDEX_RECORD_SIZE * (contents.size() - from));
+                // force가 끝나기 전에는 메모리 인덱스에 넣지 않는다 (쓰기 실패 시 잘못된 location을 돌려주지 않도록)
+                Map<String, String> appended = new HashMap<>();
+
+                for (; next < contents.size(); next++) {
+                    if (locations.get(next) != null) {
+                        continue;
+                    }
+                    byte[] content = contents.get(next);
+                    String hashHex = FileDataManager.toHexString(hashes.get(next));
+                    String existing = appended.containsKey(hashHex) ? appended.get(hashHex) : index.get(hashHex);
+                    if (existing != null) {
+                        // 같은 batch 안에서 이미 저장한 내용
+                        locations.set(next, existing);
+                        continue;
+                    }
+                    if (offset > 0 && offset + content.length > maxPackSize) {
+                        currentPackId = packId + 1;
+                        break;
+                    }
+
+                    ByteBuffer buffer = ByteBuffer.wrap(content);
+                    long position = offset;
+                    while (buffer.hasRemaining()) {
+                        position += pack.write(buffer, position);
+                    }
+
+                    records.put(hashes.get(next)).putLong(offset).putLong(content.length);
+                    String location = toLocation(packId, offset, content.length);
+                    locations.set(next, location);
+                    appended.put(hashHex, location);
+                    offset += content.length;
+                }
+
+                // DB에 location이 커밋되기 전에 내용이 디스크에 있어야 한다
+                pack.force(false);
+                records.flip();
+                while (records.hasRemaining()) {
+                    indexChannel.write(records);
+                }
+                index.putAll(appended);
+            }
+            finally {
+                lock.release();
+            }
+        }
+        return next;
+    }
+
+    @Override
+    public byte[] get(String location) throws IOException {
+        ByteBuffer region = region(location);
+        byte[] content = new byte[region.remaining()];
+        region.get(content);
+        return content;
+    }
+
+    @Override
+    public byte[] getRange(String location, long offset, int length) throws IOException {
+        ByteBuffer region = region(location);
+        if (offset >= region.remaining()) {
+            return new byte[0];
+        }
+        byte[] content = new byte[(int) Math.min(length, region.remaining() - offset)];
+        region.get((int) offset, content);
+        return content;
+    }
+
+    @Override
+    public long writeTo(String location, WritableByteChannel out) throws IOException {
+        ByteBuffer region = region(location);
+        long length = region.remaining();
+        while (region.hasRemaining()) {
+            out.write(region);
+        }
+        return length;
+    }
+
+    /**
+     * location이 가리키는 pack 영역을 매핑된 버퍼의 slice로 반환
+     */
+    private ByteBuffer region(String location) throws IOException {
+        String[] parts = location.startsWith(LOCATION_PREFIX) ? location.substring(LOCATION_PREFIX.length()).split(":") : new String[0];
+        if (parts.length != 3) {
+            throw new IOException("Invalid pack location: " + location);
+        }
+
+        int packId;
+        long offset;
+        long length;
+        try {
+            packId = Integer.parseInt(parts[0]);
+            offset = Long.parseLong(parts[1]);
+            length = Long.parseLong(parts[2]);
+        }
+        catch (NumberFormatException e) {
+            throw new IOException("Invalid pack location: " + location, e);
+        }
+        if (packId <= 0 || offset < 0 || length < 0 || offset + length > Integer.MAX_VALUE) {
+            throw new IOException("Invalid pack location: " + location);
+        }
+
+        MappedByteBuffer mapping = mappings.get(packId);
+        if (mapping == null || mapping.capacity() < offset + length) {
+            mapping = remap(packId, offset + length);
+        }
+        return mapping.slice((int) offset, (int) length);
+    }
+
+    /**
+     * pack 파일 전체를 다시 매핑 (다른 스레드나 프로세스가 append하여 pack이 커진 경우)
+     */
+    private synchronized MappedByteBuffer remap(int packId, long requiredSize) throws IOException {
+        MappedByteBuffer mapping = mappings.get(packId);
+        if (mapping != null && mapping.capacity() >= requiredSize) {
+            return mapping;
+        }
+
+        Path packFile = packPath(packId);
+        if (!Files.exists(packFile)) {
+            throw new IOException("Pack file not found: " + packFile);
+        }
+        try (FileChannel channel = FileChannel.open(packFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < requiredSize) {
+                throw new IOException("Pack file " + packFile + " is truncated (" + size + " < " + requiredSize + " bytes).");
+            }
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        mappings.put(packId, mapping);
+        return mapping;
+    }
+
+    @Override
+    public void close() {
+        // 매핑은 GC가 해제하며, 쓰기용 channel은 append마다 닫는다
+        mappings.clear();
+    }
+
+    private Path packPath(int packId) {
+        return directory.resolve(String.format("pack-%06d%s", packId, PACK_SUFFIX));
+    }
+
+    private Path indexPath(int packId) {
+        return directory.resolve(String.format("pack-%06d%s", packId, INDEX_SUFFIX));
+    }
+
+    private static int parsePackId(String fileName) {
+        try {
+            return Integer.parseInt(fileName.substring("pack-".length(), fileName.length() - INDEX_SUFFIX.length()));
+        }
+        catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    private static String toLocation(int packId, long offset, long length) {
+        return LOCATION_PREFIX + packId + ":" + offset + ":" + length;
+    }
+}
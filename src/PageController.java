@@ -1,17 +1,19 @@
 package teamproject;
 
-import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.Callable;
 
 import java.awt.Container;
+import java.nio.file.Path;
+
+import javax.swing.JOptionPane;
 
 public class PageController {
 	private final PageManager pageManager;
 	private final ConnectionManager connectionManager;
-	private CommentManager commentManager;
 	private User currentUser;
 	private Group currentGroup;
 	
@@ -38,19 +40,10 @@ public class PageController {
 		this.connectionManager = connectionManager;
 		this.currentUser = currentUser;
 		this.currentGroup = currentGroup;
-		commentManager = new CommentManager();
 	}
 	
 	public List<Page> getAllPages_con() {
-		List<Page> pageList = new ArrayList<>();
-		try (Connection conn = connectionManager.getConnection()){
-    		pageList = pageManager.searchPage(conn);
-    	} catch(SQLException e) {
-    		e.getStackTrace();
-    		System.out.println("Can not borrow connection from connection pool.");
-    		return null;
-    	}
-		return pageList;
+		return pageManager.searchPage();
 	}
 	
 	public void showAllPages_con(List<Page> pageList) {
@@ -66,54 +59,179 @@ public class PageController {
         System.out.println("---------------------------------------------------");
 	}
 	
-	public boolean insertPage_con(Container pagePanel, String commitMessage) {  // void -> boolean으로 바꿈.
-		FileIo fileIo = new FileIo(pageManager);
+	/**
+	 * 페이지로 추가할 파일과 커밋 메시지를 고름 (EDT에서 호출)
+	 * 저장은 반환한 작업으로 EDT가 아닌 스레드에서 실행 (UiTasks)
+	 * @return 생성된 page_id (실패 시 -1)를 반환하는 작업, 취소하면 null
+	 */
+	public Callable<Long> prepareInsertPage_con(Container pagePanel) {
+		FileIo fileIo = new FileIo(pageManager, connectionManager);
     	fileIo.fileUpLoad(); //파일탐색기에서 파일 가져옴
-    	return fileIo.insertFileToPage(pagePanel, commitMessage); //가져온 파일 DB에 저장 (fileUpLoad 무조건 실행 후 실행)
+    	if (!fileIo.askPageCommitMessage(pagePanel)) {
+    		return null;
+    	}
+    	return fileIo::insertFileToPage; //가져온 파일 DB에 저장
 	}
 	
-	public boolean deletePage_con(long pageId) {
-		List<Comment> commentList = new ArrayList<>();
-		commentList = getAllComments_con(pageId);
+	/**
+	 * 여러 파일을 골라 한 번에 페이지로 추가 (또는 폴더를 통째로 가져오기)
+	 * 파일 선택과 입력은 지금 받고 (EDT), 저장은 반환한 작업으로 EDT가 아닌 스레드에서 실행
+	 * 폴더 가져오기는 진행 상황을 Progress로 알림
+	 * @return 사용자에게 보여줄 결과 메시지를 반환하는 작업, 취소하면 null
+	 */
+	public UiTasks.Task<String> prepareInsertPages_con(Container pagePanel) {
+		FileIo fileIo = new FileIo(pageManager, connectionManager);
+		String[] options = { "파일 선택", "폴더 가져오기", "취소" };
+		int choice = JOptionPane.showOptionDialog(pagePanel, "여러 파일을 어떻게 추가할까요?", "여러 파일 추가",
+				JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+		if (choice < 0 || choice == 2) {
+			return null;
+		}
+		if (choice == 1) {
+			if (!connectionManager.usesDatabase()) {
+				JOptionPane.showMessageDialog(pagePanel, "폴더 가져오기는 MySQL 저장소 (repository.engine=jdbc)에서만 사용할 수 있습니다.");
+				return null;
+			}
+			Path directory = fileIo.selectImportDirectory(); //파일탐색기에서 폴더 가져옴
+			if (directory == null) {
+				return null;
+			}
+			Set<String> extensions = fileIo.askImportOptions(pagePanel);
+			if (extensions == null) {
+				return null;
+			}
+			return progress -> {
+				ImportProgress result = fileIo.importDirectoryToPages(directory, extensions, current ->
+						progress.update(current.processedFiles(), current.totalFiles(), String.format("가져오는 중... (생성 %d, 건너뜀 %d, 실패 %d) %.1f MB/s",
+								current.createdPages(), current.skippedFiles(), current.failedFiles(), current.megabytesPerSecond())));
+				if (result == null) {
+					// 폴더 가져오기는 묶음마다 저장되므로 실패 전까지 추가된 페이지가 있을 수 있음
+					return "페이지 추가에 실패했습니다.";
+				}
+				return String.format("폴더 가져오기 완료\n생성: %d개, 건너뜀 (같은 내용): %d개, 읽기 실패: %d개\n%.1f초, %.1f MB/s",
+						result.createdPages(), result.skippedFiles(), result.failedFiles(),
+						result.elapsedMillis() / 1000.0, result.megabytesPerSecond());
+			};
+		}
 		
+		List<Path> paths = fileIo.selectUploadFiles(); //파일탐색기에서 여러 파일 가져옴
+		if (paths.isEmpty() || !fileIo.askFilesCommitMessage(pagePanel, paths)) {
+			return null;
+		}
+		return progress -> {
+			int created = fileIo.insertFilesToPages(paths);
+			return (created < 0) ? "페이지 추가에 실패했습니다." : created + "개의 페이지가 추가되었습니다.";
+		};
+	}
+	
+	/**
+	 * 그룹의 모든 페이지를 하나의 ZIP 파일로 내보내기 (최신, 지정한 날짜 기준, 지정한 리비젼 기준 중 선택)
+	 * 파일 내용은 스트리밍으로 저장되므로 그룹이 커도 메모리를 더 쓰지 않음
+	 * 기준과 저장 위치는 지금 입력받고 (EDT), 내보내기는 반환한 작업으로 EDT가 아닌 스레드에서 실행
+	 * @return 내보낸 페이지 수 (실패 시 -1)를 반환하는 작업, 취소하면 null
+	 */
+	public Callable<Integer> prepareExportPages_con(Container pagePanel) {
+		if (!connectionManager.usesDatabase()) {
+			JOptionPane.showMessageDialog(pagePanel, "그룹 내보내기는 MySQL 저장소 (repository.engine=jdbc)에서만 사용할 수 있습니다.");
+			return null;
+		}
+		String[] options = { "최신", "날짜 기준", "리비젼 기준", "취소" };
+		int choice = JOptionPane.showOptionDialog(pagePanel, "어느 시점의 페이지를 내보낼까요?", "그룹 내보내기",
+				JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+		if (choice < 0 || choice == 3) {
+			return null;
+		}
+		
+		Timestamp asOf = null;
+		long revisionId = 0;
+		if (choice == 1) {
+			String input = JOptionPane.showInputDialog(pagePanel, "기준 날짜를 입력하세요 (yyyy-MM-dd HH:mm:ss)", 
+					new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
+			if (input == null) {
+				return null;
+			}
+			try {
+				asOf = Timestamp.valueOf(input.trim());
+			} catch (IllegalArgumentException e) {
+				JOptionPane.showMessageDialog(pagePanel, "날짜 형식이 올바르지 않습니다.");
+				return null;
+			}
+		}
+		else if (choice == 2) {
+			String input = JOptionPane.showInputDialog(pagePanel, "기준 리비젼 ID를 입력하세요");
+			if (input == null) {
+				return null;
+			}
+			try {
+				revisionId = Long.parseLong(input.trim());
+			} catch (NumberFormatException e) {
+				JOptionPane.showMessageDialog(pagePanel, "리비젼 ID는 숫자여야 합니다.");
+				return null;
+			}
+		}
+		
+		FileIo fileIo = new FileIo(pageManager, connectionManager);
+		Path target = fileIo.selectExportPath(currentGroup.groupName()); //파일탐색기에서 저장할 경로 선택
+		if (target == null) {
+			return null;
+		}
+		
+		Timestamp exportAsOf = asOf;
+		long exportRevisionId = revisionId;
+		return () -> {
+			int exported;
+			if (choice == 1) {
+				exported = pageManager.exportPages(target, exportAsOf);
+			}
+			else if (choice == 2) {
+				exported = pageManager.exportPagesAsOfRevision(target, exportRevisionId);
+			}
+			else {
+				exported = pageManager.exportPages(target);
+			}
+			if (exported < 0) {
+				System.out.println("그룹 내보내기 실패.");
+			}
+			else {
+				System.out.println("페이지 " + exported + "개를 " + target + " 에 저장했습니다.");
+			}
+			return exported;
+		};
+	}
+	
+	public boolean deletePage_con(long pageId) {
 		if (currentUser.userId() != currentGroup.createdByUserId()) {
     		System.out.println("admin이 아닙니다.");
     		return false;
     	}
 		else {
+			pageManager.deleteAllComments(pageId); //페이지에 속한 comment 삭제 (작성자와 관계없이)
 			pageManager.deletePage(pageId);
-			for (Comment comment : commentList) { //페이지에 속한 comment 삭제
-				deleteComment_con(comment.commentId());
-			}
 			return true;
 		}
 	}
 	
 	public List<Revision> getAllRevisions_con(long pageId){
-		List<Revision> revisionList = new ArrayList<>();
-		RevisionManager revision = new RevisionManager();
-		
-     	try (Connection conn = connectionManager.getConnection()){
-     		revisionList = revision.getRevisionsByPageId(conn, pageId);
-     	} catch (SQLException e) {
-     		System.err.printf("%d 페이지 불러오기 실패\n", pageId);
-     		e.printStackTrace();
-     		return null;
-     	}
-     	return revisionList;
+     	return pageManager.getRevisionsByPageId(pageId);
+	}
+	
+	/**
+	 * 페이지의 리비젼을 limit 개씩 나누어 불러오기 (이전 목록의 마지막 리비젼 다음부터, 기록이 많아도 같은 속도)
+	 * @param afterRevisionId 이전에 불러온 목록의 마지막 리비젼 id, 처음이면 0
+	 * @param limit 한 번에 불러올 개수
+	 * @param newestFirst true 면 최신 리비젼부터
+	 * @return 리비젼 목록, 실패 시 null
+	 */
+	public List<Revision> getRevisionPage_con(long pageId, long afterRevisionId, int limit, boolean newestFirst){
+		List<Revision> revisionList = pageManager.getRevisionPage(pageId, afterRevisionId, limit, newestFirst);
+		if (revisionList == null) {
+			System.err.printf("%d 페이지 불러오기 실패\n", pageId);
+		}
+		return revisionList;
 	}
 	
 	public List<Comment> getAllComments_con(long pageId){
-		List<Comment> commentList = new ArrayList<>();
-		
-		try (Connection conn = connectionManager.getConnection()){
-    		commentList = commentManager.getComments(conn, pageId);
-    	} catch (SQLException e) {
-    		e.getStackTrace();
-    		System.out.println("Can not borrow connection from connection pool.");
-    		return null;
-    	}
-		return commentList;
+		return pageManager.getComments(pageId);
 	}
 	
 	/**
@@ -122,12 +240,11 @@ public class PageController {
 	 * @param comment
 	 */
 	public void insertComment_con(long pageId, String comment) {
-		try (Connection conn = connectionManager.getConnection()){
-    		commentManager.insertComment(conn, pageId, currentUser.userId(), comment);
+		try {
+    		pageManager.insertComment(pageId, comment);
     	} catch (SQLException e) {
     		e.getStackTrace();
     		System.out.println("댓글을 올리지 못했습니다.");
-    		System.out.println("Can not borrow connection from connection pool.");
     	}
 	}
 	
@@ -136,10 +253,7 @@ public class PageController {
 	 * @param commentId
 	 */
 	public void deleteComment_con(long commentId) {
-		try(Connection conn = connectionManager.getConnection()){
-			commentManager.deleteComment(conn, commentId, currentUser.userId());
-		}catch(SQLException e) {
-			e.getStackTrace();
+		if (pageManager.deleteComment(commentId) == 0) {
 			System.out.println("댓글 삭제 실패.");
 		}
 	}
@@ -149,10 +263,7 @@ public class PageController {
 	 * @param pageId
 	 */
 	public void deleteAllComment_con(long pageId) {
-		try(Connection conn = connectionManager.getConnection()){
-			commentManager.deleteAllComments(conn, pageId);
-		}catch(SQLException e) {
-			e.getStackTrace();
+		if (!pageManager.deleteAllComments(pageId)) {
 			System.out.println("댓글 삭제 실패.");
 		}
 	}
@@ -2,25 +2,37 @@ package teamproject;
 
 import javax.swing.*;
 import java.awt.*;
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class PageEditor extends JFrame {
 	private static final long serialVersionUID = 1L;
+	// 페이지 조회, 추가, 삭제 등 DB 작업은 EDT가 아닌 스레드에서 실행
+	private final UiTasks tasks = new UiTasks(this);
+	// 진행 중인 페이지 목록 불러오기, 목록을 다시 불러오면 이전 작업은 취소
+	private Future<?> pageListTask;
+	
+	// 페이지 목록의 한 줄 (페이지마다 첫 번째 Revision의 커밋 메시지를 조회)
+	private record PageRow(int index, Page page, String commitMessage) {
+	}
+
+	// FileEditor를 열 때 필요한 데이터 (미리보기는 최신 Revision이 없거나 불러오지 못하면 null)
+	private record OpenedPage(List<Revision> revisions, List<Comment> comments, TextPreview latestPreview) {
+	}
 
 	public PageEditor(User currentUser, Group currentGroup, ConnectionManager connectionManager, UserManager userManager) {
 		try {
 			PageManager pageManager = new PageManager(connectionManager, currentUser, currentGroup);
 			PageController pageController = new PageController(pageManager, connectionManager, currentUser, currentGroup);
-			RevisionManager revisionManager = new RevisionManager();
 			
 			Color background = new Color(220, 220, 220);  // 배경 : 회색
 			
 			// 1. 전체 프레임 (전체)
 			setTitle(currentGroup.groupName());
-			setSize(400, 500);
+			setSize(480, 500);
 			setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 			setLayout(new BorderLayout());  // 동, 서, 남, 북, 중앙 다섯으로 나눈 배치 방법
 
@@ -48,61 +60,88 @@ public class PageEditor extends JFrame {
 			add(scrollPane, BorderLayout.CENTER);
 
 			// 3-1. 기존의 페이지들 추가
-			List<Page> pageList = new ArrayList<>();
-			try {
-				pageList = pageController.getAllPages_con();  // 모든 페이지 DB로부터 읽어오기
-			} catch (Exception e) {
-				JOptionPane.showMessageDialog(this, "페이지 목록을 불러오는 중 오류가 발생했습니다:\n" + e.getMessage(), "오류", JOptionPane.ERROR_MESSAGE);
-			}
-
-			for (int i = 0; i < pageList.size(); i++) {
-				Page page = pageList.get(i);  // 해당 페이지 불러오기
-				List<Revision> revisions = pageController.getAllRevisions_con(page.pageId());  // 해당 페이지의 모든 Revision 불러오기
-				Revision firstRevision = revisions.get(0);  // 해당 페이지의 첫 번째 Revision 불러오기
-				
-				String commitMessage = firstRevision.commitMessage();  // 커밋 메시지 읽어오기
-				
-				addPage(pagePanel, pageController, currentUser, currentGroup, i + 1, page, pageManager, connectionManager, commitMessage);
-			}
+			loadPageList(pagePanel, pageController, currentUser, currentGroup, pageManager, connectionManager);
 
 			// 4. 버튼 패널 (하단)
 			JPanel buttonPanel = new JPanel();
 			buttonPanel.setLayout(new FlowLayout(FlowLayout.CENTER));
-			add(buttonPanel, BorderLayout.SOUTH);
+			JPanel southPanel = new JPanel(new BorderLayout());  // 버튼 패널 + 작업 중에만 보이는 상태 표시줄
+			southPanel.add(buttonPanel, BorderLayout.CENTER);
+			southPanel.add(tasks.getStatusBar(), BorderLayout.SOUTH);
+			add(southPanel, BorderLayout.SOUTH);
 
-			// 4-1. '페이지 추가' 버튼
 			JButton btnAddPage = new JButton("페이지 추가");
+			JButton btnAddPages = new JButton("여러 파일 추가");
+
+			// 4-1. '페이지 추가' 버튼
 			btnAddPage.addActionListener(e -> {  // 기능
-				
-				try {
-					String commitContainer = null;  // 커밋 메시지 (처음에 설명 넣는 주석 같은 것)
-					if (pageController.insertPage_con(pagePanel, commitContainer)) {  // 페이지 추가하기
-						List<Page> pageList_2 = pageController.getAllPages_con();  // 모든 페이지 읽어오기
-						Page lastPage = pageList_2.get(pageList_2.size() - 1);  // 추가한 페이지 읽어오기
-						String commitMessage = null;
-						
-						// 커넥션을 안전하게 닫기 위한 try-with-resources 사용
-						try (Connection conn = connectionManager.getConnection()) {
-							Revision lastRev = revisionManager.getRevision(conn, lastPage.latestRevisionId());  // 추가한 페이지의 Revision 읽어오기
-							commitMessage = lastRev.commitMessage();  // 커밋 메시지 읽어오기
-						}
-						catch (SQLException ex) {
-							JOptionPane.showMessageDialog(this, "connection error.");
-							ex.printStackTrace();
+				// 파일 선택과 커밋 메시지 입력은 여기서 받고, 저장은 백그라운드에서
+				Callable<Long> insertPage = pageController.prepareInsertPage_con(pagePanel);
+				if (insertPage == null) {
+					return;
+				}
+				tasks.run("페이지 추가", () -> {
+					long createdPageId = insertPage.call();  // 페이지 추가하기
+					if (createdPageId == -1) {
+						return null;
+					}
+					List<Page> pageList_2 = pageController.getAllPages_con();  // 모든 페이지 읽어오기
+					for (int i = 0; i < pageList_2.size(); i++) {
+						Page createdPage = pageList_2.get(i);  // 추가한 페이지 읽어오기
+						if (createdPage.pageId() != createdPageId) {
+							continue;
 						}
-						int newIndex = pageList_2.size();
-						addPage(pagePanel, pageController, currentUser, currentGroup, newIndex, lastPage, pageManager, connectionManager, commitMessage);					
+						Revision lastRev = pageManager.getRevision(createdPage.latestRevisionId());  // 추가한 페이지의 Revision 읽어오기
+						return new PageRow(i + 1, createdPage, (lastRev != null) ? lastRev.commitMessage() : "(불러오지 못함)");  // 커밋 메시지 읽어오기
 					}
-				} catch (Exception ex) {
-					JOptionPane.showMessageDialog(this, "페이지 추가 중 오류 발생:\n" + ex.getMessage(), "오류", JOptionPane.ERROR_MESSAGE);
-					ex.printStackTrace();
-				}
+					return null;
+				}, row -> {
+					if (row != null) {
+						addPage(pagePanel, pageController, currentUser, currentGroup, row.index(), row.page(), pageManager, connectionManager, row.commitMessage());
+					}
+				}, btnAddPage, btnAddPages);
 			});
 			
 			changebtnColor(btnAddPage);
 			buttonPanel.add(btnAddPage);
 
-			// 4-2. '뒤로가기' 버튼
+			// 4-2. '여러 파일 추가' 버튼 (선택한 파일들 또는 폴더 전체를 한 번에 페이지로 추가)
+			btnAddPages.addActionListener(e -> {
+				UiTasks.Task<String> insertPages = pageController.prepareInsertPages_con(pagePanel);
+				if (insertPages == null) {
+					return;
+				}
+				// 폴더 가져오기는 진행 상황이 상태 표시줄에 표시됨
+				tasks.runWithProgress("페이지 추가", insertPages, message -> {
+					JOptionPane.showMessageDialog(this, message);
+					repaintPageList(pagePanel, null, pageController, currentUser, currentGroup, pageManager, connectionManager);
+				}, btnAddPage, btnAddPages);
+			});
+			
+			changebtnColor(btnAddPages);
+			buttonPanel.add(btnAddPages);
+
+			// 4-3. '내보내기' 버튼 (그룹의 페이지들을 ZIP 파일 하나로 저장)
+			JButton btnExport = new JButton("내보내기");
+			btnExport.addActionListener(e -> {
+				Callable<Integer> exportPages = pageController.prepareExportPages_con(pagePanel);
+				if (exportPages == null) {
+					return;
+				}
+				tasks.run("내보내기", exportPages, exported -> {
+					if (exported > 0) {
+						JOptionPane.showMessageDialog(this, exported + "개의 페이지를 내보냈습니다.");
+					}
+					else if (exported < 0) {
+						JOptionPane.showMessageDialog(this, "내보내기에 실패했습니다.");
+					}
+				}, btnExport);
+			});
+			
+			changebtnColor(btnExport);
+			buttonPanel.add(btnExport);
+
+			// 4-4. '뒤로가기' 버튼
 			JButton btnBack = new JButton("뒤로가기");
 			btnBack.addActionListener(e -> {  // 기능
 				try {
@@ -148,31 +187,27 @@ public class PageEditor extends JFrame {
 			commitMessageLabel.setAlignmentX(Component.CENTER_ALIGNMENT);  // BoxLayout 수직
 			
 			RevisionController revisionController = new RevisionController(page, pageManager, connectionManager);
-			List<Revision> revisions = pageController.getAllRevisions_con(page.pageId());  // 해당 페이지의 모든 Revision 불러오기
 			
 			// '페이지 참여' 버튼
 			btnOpenPage.addActionListener(e -> {
-				try {
+				// 리비젼 목록 (최신 Revision부터 한 화면 분량, 나머지는 FileEditor에서 '더 보기'), 댓글, 최신 Revision의 미리보기를 함께 요청
+				tasks.run("페이지 열기", () -> openPage(page, pageManager, revisionController, connectionManager), opened -> {
 					dispose();
-					new FileEditor(revisions, pageController, revisionController, connectionManager, page, currentUser, currentGroup);
-				} catch (Exception ex) {
-					JOptionPane.showMessageDialog(this, "페이지 열기 중 오류 발생:\n" + ex.getMessage(), "오류", JOptionPane.ERROR_MESSAGE);
-				}
+					new FileEditor(opened.revisions(), opened.comments(), opened.latestPreview(), pageController, revisionController,
+							connectionManager, page, currentUser, currentGroup);
+				}, btnOpenPage);
 			});
 
 			// '페이지 삭제' 버튼
 			btnDeletePage.addActionListener(e -> {
-				try {
-					if (currentUser.userId() != currentGroup.createdByUserId()) {  // 그룹 어드민 Id와 User Id가 일치하지 않으면 삭제 못하게 함.
-						JOptionPane.showMessageDialog(this, "삭제 권한이 없습니다.");
-					} else {
-						pageController.deletePage_con(page.pageId());  // 페이지 삭제
-						JOptionPane.showMessageDialog(this, page.pageName() + " 삭제되었습니다.");
-						repaintPageList(pagePanel, page, pageController, currentUser, currentGroup, pageManager, connectionManager);  // 페이지 순서를 정렬하기 위해 repaint메서드 사용
-					}
-				} catch (Exception ex) {
-					JOptionPane.showMessageDialog(this, "페이지 삭제 중 오류 발생:\n" + ex.getMessage(), "오류", JOptionPane.ERROR_MESSAGE);
+				if (currentUser.userId() != currentGroup.createdByUserId()) {  // 그룹 어드민 Id와 User Id가 일치하지 않으면 삭제 못하게 함.
+					JOptionPane.showMessageDialog(this, "삭제 권한이 없습니다.");
+					return;
 				}
+				tasks.run("페이지 삭제", () -> pageController.deletePage_con(page.pageId()), deleted -> {  // 페이지 삭제
+					JOptionPane.showMessageDialog(this, page.pageName() + " 삭제되었습니다.");
+					repaintPageList(pagePanel, page, pageController, currentUser, currentGroup, pageManager, connectionManager);  // 페이지 순서를 정렬하기 위해 repaint메서드 사용
+				}, btnOpenPage, btnDeletePage);
 			});
 			
 			changebtnColor(btnOpenPage);
@@ -195,25 +230,67 @@ public class PageEditor extends JFrame {
 	}
 
 	// 각 페이지의 순서를 정렬하기 위해 다 지우고 다시 페이지 패널들을 추가하는 메서드
-	public void repaintPageList(Container pagePanel, Page page, PageController pageController, User currentUser, Group currentGroup, PageManager pageManager, ConnectionManager connectionManager) {
+	/**
+	 * 페이지를 여는 데 필요한 조회를 connection pool의 executor에서 병렬로 실행하고 모두 끝날 때까지 기다림 (EDT가 아닌 스레드에서 호출)
+	 * 하나라도 실패하면 먼저 불러온 미리보기를 닫고 예외를 던진다
+	 */
+	private OpenedPage openPage(Page page, PageManager pageManager, RevisionController revisionController,
+			ConnectionManager connectionManager) throws Exception {
+		CompletableFuture<List<Revision>> revisionsFuture =
+				pageManager.getRevisionPageAsync(page.pageId(), 0, FileEditor.REVISION_PAGE_SIZE, true);
+		CompletableFuture<List<Comment>> commentsFuture = pageManager.getCommentsAsync(page.pageId());
+		CompletableFuture<TextPreview> previewFuture = (page.latestRevisionId() > 0)
+				? CompletableFuture.supplyAsync(() -> revisionController.showRevisionPreview_con(page.latestRevisionId()), connectionManager.getExecutor())
+				: CompletableFuture.completedFuture(null);
 		try {
-			pagePanel.removeAll();  // 전의 패널들 다 삭제
-			pagePanel.revalidate();  // 마지막 한 페이지가 남았을 때는 addPage가 한번도 실행되지 않으므로 revalidate, repaint를 한번 해줌.
-			pagePanel.repaint();
-			List<Page> pages = pageController.getAllPages_con();
-			
-			for (int i = 0; i < pages.size(); i++) {
-				Page rePage = pages.get(i);  // 해당 페이지 불러오기
-				List<Revision> revisions = pageController.getAllRevisions_con(rePage.pageId());  // 해당 페이지의 모든 Revision 불러오기
-				Revision firstRevision = revisions.get(0);  // 해당 페이지의 첫 번째 Revision 불러오기
-				
-				String commitMessage = firstRevision.commitMessage();  // 커밋 메시지 읽어오기
-				
-				addPage(pagePanel, pageController, currentUser, currentGroup, i + 1, rePage, pageManager, connectionManager, commitMessage);
+			CompletableFuture.allOf(revisionsFuture, commentsFuture, previewFuture).get();
+		} catch (ExecutionException | InterruptedException e) {
+			previewFuture.thenAccept(preview -> {
+				if (preview != null) {
+					preview.close();
+				}
+			});
+			// 오류 대화상자에는 실패한 조회의 예외를 보여줌
+			if (e instanceof ExecutionException && e.getCause() instanceof Exception cause) {
+				throw cause;
 			}
-		} catch (Exception e) {
-			JOptionPane.showMessageDialog(this, "페이지 목록 갱신 중 오류 발생:\n" + e.getMessage(), "오류", JOptionPane.ERROR_MESSAGE);
+			throw e;
+		}
+		return new OpenedPage(revisionsFuture.join(), commentsFuture.join(), previewFuture.join());
+	}
+
+	public void repaintPageList(Container pagePanel, Page page, PageController pageController, User currentUser, Group currentGroup, PageManager pageManager, ConnectionManager connectionManager) {
+		pagePanel.removeAll();  // 전의 패널들 다 삭제
+		pagePanel.revalidate();  // 마지막 한 페이지가 남았을 때는 addPage가 한번도 실행되지 않으므로 revalidate, repaint를 한번 해줌.
+		pagePanel.repaint();
+		loadPageList(pagePanel, pageController, currentUser, currentGroup, pageManager, connectionManager);
+	}
+	
+	// 모든 페이지를 DB로부터 읽어와 페이지 패널들을 추가하는 메서드
+	// 페이지마다 첫 번째 Revision을 조회해야 하므로 백그라운드에서 불러오고, 불러온 만큼씩 묶어서 화면에 추가
+	private void loadPageList(Container pagePanel, PageController pageController, User currentUser, Group currentGroup, PageManager pageManager, ConnectionManager connectionManager) {
+		if (pageListTask != null) {
+			pageListTask.cancel(true);  // 이전 목록을 아직 불러오는 중이면 취소 (같은 페이지가 두 번 추가되지 않도록)
 		}
+		pageListTask = tasks.forEach("페이지 목록 불러오기", pageController::getAllPages_con, (index, page) -> {
+			List<Revision> revisions = pageController.getRevisionPage_con(page.pageId(), 0, 1, false);  // 해당 페이지의 첫 번째 Revision만 불러오기
+			if (revisions == null || revisions.isEmpty()) {  // 조회에 실패했거나 Revision이 없어도 페이지는 목록에 보여줌
+				return new PageRow(index + 1, page, "(불러오지 못함)");
+			}
+			Revision firstRevision = revisions.get(0);  // 해당 페이지의 첫 번째 Revision 불러오기
+			
+			return new PageRow(index + 1, page, firstRevision.commitMessage());  // 커밋 메시지 읽어오기
+		}, rows -> {
+			for (PageRow row : rows) {
+				addPage(pagePanel, pageController, currentUser, currentGroup, row.index(), row.page(), pageManager, connectionManager, row.commitMessage());
+			}
+		}, null);
+	}
+	
+	@Override
+	public void dispose() {
+		tasks.cancelAll();  // 창을 닫으면 진행 중인 작업 취소
+		super.dispose();
 	}
 	
 	// 버튼 디자인 바꾸는 메서드
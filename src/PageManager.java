@@ -1,20 +1,81 @@
 package teamproject;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.*;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 public class PageManager {
 
     private final ConnectionManager connectionManager;
+    // 페이지와 댓글은 repository.engine에 따라 JdbcRepository (아래의 store..., removePage 사용) 또는 InMemoryRepository에 저장
+    private final PageRepository pages;
+    private final CommentRepository comments;
 
     private final User user;
     private final Group group;
     private final RevisionManager revisionManager;
     private final FileDataManager fileDataManager;
-    private final CommentManager commentManager;
+    private final BlameManager blameManager;
+
+    // insertRevision, mergeRevisions의 반환값: 부모로 지정한 revision이 그 사이 최신 revision이 아니게 됨 (다른 사용자가 먼저 올림)
+    public static final long REVISION_CONFLICT = -2;
+
+    // 실행 계획을 SchemaMigrator.verifyQueryPlans에서 EXPLAIN으로 확인하는 쿼리
+    static final String SEARCH_PAGE_SQL = "SELECT page_id, page_name, created_at, latest_revision_id " +
+            "FROM pages " +
+            "WHERE group_id = ?";
+    static final String LATEST_CHECKSUMS_SQL = "SELECT p.page_name, d.checksum " +
+            "FROM pages p " +
+            "JOIN file_revisions r ON r.revision_id = p.latest_revision_id " +
+            "JOIN file_data d ON d.actual_data_id = r.actual_data_id " +
+            "WHERE p.group_id = ? AND d.checksum IS NOT NULL";
+    static final String COMPARE_AND_SET_LATEST_REVISION_SQL = "UPDATE pages " +
+            "SET latest_revision_id = ? " +
+            "WHERE page_id = ? AND latest_revision_id <=> ?";
+    static final String DELETE_PAGE_SQL = "DELETE FROM pages " +
+            "WHERE page_id = ?";
+    static final String LATEST_REVISION_ID_SQL = "SELECT latest_revision_id " +
+            "FROM pages " +
+            "WHERE page_id = ?";
+
+    // page_id -> revision 그래프, PageManager 인스턴스 사이에서 공유 (이 클라이언트에서 생성한 revision은 바로 반영)
+    private static final Map<Long, RevisionGraph> revisionGraphs = new ConcurrentHashMap<>();
+
+    // makePages에서 한 번의 file_data batch로 보낼 최대 내용 크기 (max_allowed_packet보다 충분히 작게)
+    private static final long BULK_BATCH_BYTES = 16L * 1024 * 1024;
+
+    // (이전 actual_data_id, 새 actual_data_id) -> diff 결과, file_data는 바뀌지 않으므로 무효화 없이 최근 사용 순으로만 정리
+    private static final int DIFF_CACHE_SIZE = 256;
+    private static final Map<DiffKey, RevisionDiff> diffCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<DiffKey, RevisionDiff> eldest) {
+            return size() > DIFF_CACHE_SIZE;
+        }
+    });
+
+    private record DiffKey(long oldDataId, long newDataId) {
+    }
 
     PageManager(ConnectionManager connectionManager, User user, Group group) {
         if (connectionManager == null) {
@@ -27,12 +88,14 @@ public class PageManager {
             throw new IllegalArgumentException("Group cannot be null for PageManager");
         }
         this.connectionManager = connectionManager;
+        this.pages = connectionManager.getRepository().pages();
+        this.comments = connectionManager.getRepository().comments();
         this.user = user;
         this.group = group;
 
         this.revisionManager = new RevisionManager();
-        this.fileDataManager = new FileDataManager();
-        this.commentManager = new CommentManager();
+        this.fileDataManager = new FileDataManager(connectionManager);
+        this.blameManager = new BlameManager();
     }
 
     /**
@@ -42,20 +105,9 @@ public class PageManager {
      */
     private String calculateChecksum(byte[] content) {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(content);
-
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
+            return FileDataManager.toHexString(FileDataManager.newSha256Digest().digest(content));
         }
-        catch (NoSuchAlgorithmException e) {
+        catch (IllegalStateException e) {
             System.err.println("Error calculating checksum: SHA-256 algorithm not found.");
             e.printStackTrace();
             return null;
@@ -63,17 +115,75 @@ public class PageManager {
     }
 
     /**
-     * group_id에 대한 그룹에 속한 모든 페이지를 객체로 리턴
+     * 파일을 file_data 테이블에 저장하는 방법
+     * makePage, insertRevision이 byte 배열과 파일 경로 두 가지 입력을 같은 트랜잭션 흐름으로 처리하기 위해 사용
+     */
+    @FunctionalInterface
+    private interface FileDataWriter {
+        /**
+         * @param baseDataId delta의 base로 사용할 부모 revision의 actual_data_id, 없으면 0
+         * @return 저장된 file_data의 actual_data_id
+         */
+        long write(Connection conn, long baseDataId) throws SQLException, IOException;
+    }
+
+    private FileDataWriter bytesWriter(byte[] content) {
+        return (conn, baseDataId) -> fileDataManager.insertFileData(conn, content, calculateChecksum(content), baseDataId);
+    }
+
+    /**
+     * 파일을 한 번만 읽어서 저장하는 FileDataWriter
+     * DELTA_MAX_FILE_SIZE 이하의 파일은 delta 계산을 위해 메모리로 읽고,
+     * 그보다 큰 파일은 스트림으로 읽으면서 SHA-256을 계산하고 chunk 단위로 전송하므로 파일 크기와 관계없이 메모리 사용량이 일정하다
+     */
+    private FileDataWriter fileWriter(Path filePath) {
+        return (conn, baseDataId) -> {
+            long size = Files.size(filePath);
+            if (size <= FileDataManager.DELTA_MAX_FILE_SIZE) {
+                return bytesWriter(Files.readAllBytes(filePath)).write(conn, baseDataId);
+            }
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(filePath))) {
+                return fileDataManager.insertFileData(conn, in, size);
+            }
+        };
+    }
+
+    /**
+     * MySQL 저장 형식 (delta / chunk, revision_blame 등)이 필요한 기능을 쓸 수 있는지 확인
+     * @param operation 오류 메시지에 쓸 작업 이름
+     * @return repository.engine=jdbc이면 true, 아니면 오류를 출력하고 false
+     */
+    private boolean requireDatabase(String operation) {
+        if (connectionManager.usesDatabase()) {
+            return true;
+        }
+        System.err.println("Page Manager: Error " + operation + ": requires repository.engine=jdbc");
+        return false;
+    }
+
+    /**
+     * 현재 그룹에 속한 모든 페이지를 저장소에서 조회
+     * @return List 객체로 Page를 반환, 실패 시 빈 ArrayList
+     */
+    public List<Page> searchPage() {
+        try {
+            return pages.findPagesByGroup(group.groupId());
+        }
+        catch (SQLException e) {
+            System.err.println("Page Manager: Error searching pages: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * group_id에 대한 그룹에 속한 모든 페이지를 객체로 리턴 (JdbcRepository, export에서 사용)
      * @return List 객체로 Page를 반환
      */
     public List<Page> searchPage(Connection conn) {
-        String sql = "SELECT page_id, page_name, created_at, latest_revision_id " +
-                "FROM pages " +
-                "WHERE group_id = ?";
         ResultSet rs = null;
         List<Page> pageList = new ArrayList<>();
 
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(SEARCH_PAGE_SQL)) {
 
             pstmt.setLong(1, group.groupId());
             rs = pstmt.executeQuery();
@@ -97,7 +207,7 @@ public class PageManager {
     /**
      * 현재 그룹에 페이지를 생성하고, 생성된 페이지의 ID를 반환
      * 1. pages 테이블에 데이터를 삽입하고 latest_revision_id 자리를 비워 둔다. page_id를 기억해 둔다.
-     * 2. file_data 테이블에 실제 데이터를 삽입하고 actual_data_id를 받아온다.
+     * 2. file_data 테이블에 실제 데이터를 삽입하고 actual_data_id를 받아온다. (같은 체크섬의 데이터가 있으면 재사용)
      * 3. file_revision 테이블에 데이터를 삽입하고 revision_id를 받아 온다.
      *     3-1. actual_data_id, committed_by_user_id, page_id를 현재 ID값에 대해 할당한다.
      *     3-2. parent_revision_id = null, commit_message는 null 또는 입력한 값으로 한다.
@@ -110,6 +220,46 @@ public class PageManager {
      * @return 생성된 page_id, 실패 시 -1
      */
     public long makePage(String pageName, byte[] fileContent, String commitMessage) {
+        try {
+            return pages.createPage(group.groupId(), user.userId(), pageName, fileContent, commitMessage);
+        }
+        catch (SQLException e) {
+            System.err.println("Page Manager: Error creating page: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * 현재 그룹에 파일 경로의 내용으로 페이지를 생성
+     * 파일을 byte 배열로 미리 읽지 않고, 저장하면서 한 번만 읽는다 (큰 파일은 스트리밍)
+     * @param pageName 페이지 이름
+     * @param filePath 업로드할 파일 경로
+     * @param commitMessage commit message
+     * @return 생성된 page_id, 실패 시 -1
+     */
+    public long makePage(String pageName, Path filePath, String commitMessage) {
+        try {
+            return pages.createPage(group.groupId(), user.userId(), pageName, filePath, commitMessage);
+        }
+        catch (SQLException | IOException e) {
+            System.err.println("Page Manager: Error creating page: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * makePage의 MySQL 구현 (JdbcRepository.createPage에서 호출)
+     * @return 생성된 page_id, 실패 시 -1
+     */
+    long storePage(String pageName, byte[] fileContent, String commitMessage) {
+        return storePage(pageName, bytesWriter(fileContent), commitMessage);
+    }
+
+    long storePage(String pageName, Path filePath, String commitMessage) {
+        return storePage(pageName, fileWriter(filePath), commitMessage);
+    }
+
+    private long storePage(String pageName, FileDataWriter fileDataWriter, String commitMessage) {
         // 전체 과정을 하나의 트랜잭션으로 두고, 예외 발생 시 롤백 처리를 위해 try-with-resources 밖에서 선언 후 수행
         long generatedPageId = -1;
 
@@ -128,8 +278,7 @@ public class PageManager {
             }
 
             // 2. file_data 테이블에 실제 파일 데이터를 삽입
-            String checksum = calculateChecksum(fileContent);
-            long actualDataId = fileDataManager.insertFileData(conn, fileContent, checksum);
+            long actualDataId = fileDataWriter.write(conn, 0);
 
             // 3. file_revisions 테이블에 데이터를 삽입, parent_revision_id = null
             long revisionId = revisionManager.insertRevision(
@@ -149,7 +298,7 @@ public class PageManager {
             System.out.println("Page generated with ID: " + generatedPageId);
             return generatedPageId;
         }
-        catch (SQLException e) {
+        catch (SQLException | IOException e) {
             // 단계 중 하나라도 실패 시 롤백
             if (conn != null) {
                 try {
@@ -191,6 +340,246 @@ public class PageManager {
         }
     }
 
+    /**
+     * 여러 파일로 현재 그룹에 페이지를 한 번에 생성 (프로젝트 폴더 업로드 등)
+     * 파일마다 makePage를 호출하면 파일마다 connection과 트랜잭션, 네 번의 단일 행 왕복이 필요하므로
+     * 하나의 connection과 트랜잭션에서 pages, file_data, file_revisions를 각각 batch로 삽입한다
+     * 1. pages를 batch로 삽입하고 page_id 목록을 받는다
+     * 2. 작은 파일(DELTA_MAX_FILE_SIZE 이하)은 BULK_BATCH_BYTES 단위로 묶어, 묶음 안의 파일을 병렬로 읽고 SHA-256을 계산한 뒤 batch로 저장
+     *    (이미 있는 내용은 전송하지 않음), 큰 파일은 하나씩 스트림으로 chunk 저장
+     * 3. file_revisions를 batch로 삽입하고, pages의 latest_revision_id를 batch로 갱신
+     * 전체 과정을 하나의 트랜잭션으로 묶어, 하나라도 실패하면 아무 페이지도 생성되지 않는다
+     * 힙에는 한 묶음의 내용만 올라가므로 파일 수와 관계없이 메모리 사용량이 일정하다
+     * @param filePaths 업로드할 파일 경로 목록 (페이지 이름은 파일 이름)
+     * @param commitMessage 모든 페이지의 첫 revision에 공통인 commit message
+     * repository.engine=memory이면 파일마다 makePage를 호출하고, 실패하면 그때까지 만든 페이지를 삭제한다
+     * @return filePaths와 같은 순서의 page_id 목록, 실패 시 null
+     */
+    public List<Long> makePages(List<Path> filePaths, String commitMessage) {
+        if (!connectionManager.usesDatabase()) {
+            return makePagesInRepository(filePaths, commitMessage);
+        }
+        List<ImportFile> files = new ArrayList<>(filePaths.size());
+        try {
+            for (Path filePath : filePaths) {
+                files.add(new ImportFile(filePath, filePath.getFileName().toString(), Files.size(filePath), null, null));
+            }
+        }
+        catch (IOException e) {
+            System.err.println("Page Manager: Error creating pages: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+        return makeImportedPages(files, commitMessage);
+    }
+
+    private List<Long> makePagesInRepository(List<Path> filePaths, String commitMessage) {
+        List<Long> pageIds = new ArrayList<>(filePaths.size());
+        try {
+            for (Path filePath : filePaths) {
+                pageIds.add(pages.createPage(group.groupId(), user.userId(), filePath.getFileName().toString(), filePath, commitMessage));
+            }
+            return pageIds;
+        }
+        catch (SQLException | IOException e) {
+            System.err.println("Page Manager: Error creating pages: " + e.getMessage());
+            for (long pageId : pageIds) {
+                deletePage(pageId);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 폴더 아래의 파일들로 현재 그룹에 페이지를 생성 (기존 코드베이스로 그룹을 채울 때)
+     * 파일은 work-stealing pool에서 병렬로 읽고 SHA-256을 계산하며, BULK_BATCH_BYTES 단위의 묶음마다 makePages와 같이 batch로 저장한다
+     * 그룹에 이름과 최신 내용 (체크섬)이 같은 페이지가 있는 파일은 건너뛰므로, 중간에 실패해도 다시 가져오면 남은 파일만 저장된다
+     * (내용만 같고 경로가 다른 파일, 예를 들어 여러 폴더의 같은 __init__.py는 각각 페이지로 가져온다)
+     * 페이지 이름은 폴더 기준 상대 경로 (예: src/Main.java)
+     * @param root 가져올 폴더
+     * @param extensions 가져올 확장자 (점 없이, 대소문자 무시), 비어 있으면 모든 파일
+     * @param commitMessage 모든 페이지의 첫 revision에 공통인 commit message
+     * @param listener 묶음 하나를 저장할 때마다 진행 상황을 받을 콜백 (가져오는 스레드에서 호출), 필요 없으면 null
+     * @return 최종 진행 상황, 실패하거나 repository.engine=memory이면 null (실패 전까지 저장된 묶음은 남음)
+     */
+    public ImportProgress importDirectory(Path root, Set<String> extensions, String commitMessage, Consumer<ImportProgress> listener) {
+        if (!requireDatabase("importing directory")) {
+            return null;
+        }
+        Set<String> existingPages;
+        try (Connection conn = connectionManager.getConnection()) {
+            existingPages = getLatestChecksums(conn);
+        }
+        catch (SQLException e) {
+            System.err.println("Page Manager: Error importing directory: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+
+        try {
+            return new DirectoryImporter(this, BULK_BATCH_BYTES).run(root, extensions, existingPages, commitMessage, listener);
+        }
+        catch (IOException e) {
+            System.err.println("Page Manager: Error importing directory: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * 현재 그룹의 각 페이지의 (페이지 이름, 최신 revision 내용의 체크섬), DirectoryImporter.importKey 형식
+     */
+    private Set<String> getLatestChecksums(Connection conn) throws SQLException {
+
+        Set<String> pages = new HashSet<>();
+
+        try (PreparedStatement pstmt = conn.prepareStatement(LATEST_CHECKSUMS_SQL)) {
+
+            pstmt.setLong(1, group.groupId());
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    pages.add(DirectoryImporter.importKey(rs.getString("page_name"), rs.getString("checksum")));
+                }
+            }
+        }
+        return pages;
+    }
+
+    /**
+     * makePages와 같지만 페이지 이름과, 미리 읽어 둔 내용과 체크섬을 받음 (importDirectory에서 사용)
+     * content가 있는 파일은 다시 읽거나 체크섬을 다시 계산하지 않는다
+     * @return files와 같은 순서의 page_id 목록, 실패 시 null
+     */
+    List<Long> makeImportedPages(List<ImportFile> files, String commitMessage) {
+        if (files.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Connection conn = null;
+        try {
+            List<String> pageNames = new ArrayList<>(files.size());
+            for (ImportFile file : files) {
+                pageNames.add(file.pageName());
+            }
+
+            conn = connectionManager.getConnection();
+            conn.setAutoCommit(false);
+
+            // 1. pages
+            long[] pageIds = insertPages(conn, group.groupId(), pageNames);
+
+            // 2. file_data
+            long[] actualDataIds = new long[files.size()];
+            int next = 0;
+            while (next < files.size()) {
+                ImportFile file = files.get(next);
+                if (file.content() == null && file.size() > FileDataManager.DELTA_MAX_FILE_SIZE) {
+                    try (InputStream in = new BufferedInputStream(Files.newInputStream(file.path()))) {
+                        actualDataIds[next] = fileDataManager.insertFileData(conn, in, file.size());
+                    }
+                    next++;
+                    continue;
+                }
+
+                // 작은 파일을 BULK_BATCH_BYTES까지 묶음 (최소 한 개)
+                int batchStart = next;
+                long batchBytes = 0;
+                while (next < files.size()
+                        && (files.get(next).content() != null || files.get(next).size() <= FileDataManager.DELTA_MAX_FILE_SIZE)
+                        && (next == batchStart || batchBytes + files.get(next).size() <= BULK_BATCH_BYTES)) {
+                    batchBytes += files.get(next).size();
+                    next++;
+                }
+                insertFileDataBatch(conn, files, batchStart, next, actualDataIds);
+            }
+
+            // 3. file_revisions, latest_revision_id
+            long[] revisionIds = revisionManager.insertRevisions(conn, pageIds, user.userId(), commitMessage, actualDataIds);
+            updatePagesLatestRevision(conn, pageIds, revisionIds);
+
+            conn.commit();
+            System.out.println(files.size() + " pages created in group " + group.groupId());
+
+            List<Long> result = new ArrayList<>(pageIds.length);
+            for (long pageId : pageIds) {
+                result.add(pageId);
+            }
+            return result;
+        }
+        catch (SQLException | IOException | UncheckedIOException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                    System.err.println("Page Manager: Transaction rolled back due to error during bulk page creation.");
+                }
+                catch (SQLException rollbackEx) {
+                    System.err.println("Page Manager: Error during transaction rollback for bulk page creation: " + rollbackEx.getMessage());
+                    rollbackEx.printStackTrace();
+                }
+            }
+            System.err.println("Page Manager: Error creating pages: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+        finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                }
+                catch (SQLException autoCommitEx) {
+                    System.err.println("Error resetting auto-commit to true during cleanup: " + autoCommitEx.getMessage());
+                    autoCommitEx.printStackTrace();
+                }
+
+                try {
+                    conn.close();
+                }
+                catch (SQLException closeEx) {
+                    System.err.println("Error closing database connection in finally block: " + closeEx.getMessage());
+                    closeEx.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * files[from, to)의 파일을 병렬로 읽어 SHA-256을 계산하고, 한 번의 batch로 file_data에 저장
+     * 미리 읽어 둔 내용과 체크섬이 있으면 그대로 사용
+     */
+    private void insertFileDataBatch(Connection conn, List<ImportFile> files, int from, int to, long[] actualDataIds) throws SQLException {
+        List<ImportFile> batch = files.subList(from, to);
+        List<byte[]> contents = batch.parallelStream()
+                .map(file -> {
+                    if (file.content() != null) {
+                        return file.content();
+                    }
+                    try {
+                        return Files.readAllBytes(file.path());
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .toList();
+        List<String> checksums = new ArrayList<>(contents.size());
+        for (int i = 0; i < contents.size(); i++) {
+            checksums.add(null);
+        }
+        IntStream.range(0, contents.size()).parallel().forEach(i -> {
+            ImportFile file = batch.get(i);
+            checksums.set(i, (file.content() != null && file.checksum() != null) ? file.checksum() : calculateChecksum(contents.get(i)));
+        });
+        if (checksums.contains(null)) {
+            throw new SQLException("Error calculating checksum for bulk upload.");
+        }
+
+        Map<String, Long> ids = fileDataManager.insertFileDataBatch(conn, contents, checksums);
+        for (int i = from; i < to; i++) {
+            actualDataIds[i] = ids.get(checksums.get(i - from));
+        }
+    }
+
     /**
      * pages 테이블에 새 레코드를 삽입
      * makePage 메소드에서만 호출됨
@@ -231,7 +620,7 @@ public class PageManager {
 
     /**
      * pages 테이블의 latest_revision_id 값을 업데이트
-     * makePage, insertRevision 메소드에서 호출되는 메소드
+     * makePage 메소드에서 호출되는 메소드 (기존 revision이 있는 페이지는 compareAndSetLatestRevision 사용)
      * @param conn 데이터베이스 연결
      * @param pageId 업데이트할 페이지의 ID
      * @param latestRevisionId 가장 최신의 revision_id
@@ -256,6 +645,86 @@ public class PageManager {
         }
     }
 
+    /**
+     * pages 테이블의 latest_revision_id가 expectedLatestRevisionId일 때만 latestRevisionId로 변경
+     * UPDATE가 행을 잠그므로, 같은 값을 기대한 동시 트랜잭션 중 먼저 커밋한 쪽만 성공하고 나머지는 0행이 바뀐다
+     * @param expectedLatestRevisionId 현재 latest_revision_id로 기대하는 값 (NULL이면 0)
+     * @return 변경되었으면 true, 그 사이 다른 revision이 최신이 되었으면 false
+     * @throws SQLException 오류 발생 시 롤백을 유도할 Exception
+     */
+    private boolean compareAndSetLatestRevision(Connection conn, long pageId, long expectedLatestRevisionId, long latestRevisionId) throws SQLException {
+
+        try (PreparedStatement pstmt = conn.prepareStatement(COMPARE_AND_SET_LATEST_REVISION_SQL)) {
+
+            pstmt.setLong(1, latestRevisionId);
+            pstmt.setLong(2, pageId);
+            if (expectedLatestRevisionId > 0) {
+                pstmt.setLong(3, expectedLatestRevisionId);
+            }
+            else {
+                pstmt.setNull(3, Types.BIGINT);
+            }
+
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * pages 테이블에 여러 레코드를 한 번의 batch로 삽입 (latest_revision_id = null)
+     * makePages 메소드에서만 호출됨
+     * @return pageNames와 같은 순서의 page_id 목록
+     * @throws SQLException 오류 발생 시 롤백을 유도할 Exception
+     */
+    private long[] insertPages(Connection conn, long groupId, List<String> pageNames) throws SQLException {
+        String sql = "INSERT INTO pages " +
+                "(group_id, page_name) " +
+                "VALUES (?, ?)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            for (String pageName : pageNames) {
+                pstmt.setLong(1, groupId);
+                pstmt.setString(2, pageName);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+
+            long[] pageIds = new long[pageNames.size()];
+            int count = 0;
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                while (generatedKeys.next() && count < pageIds.length) {
+                    pageIds[count++] = generatedKeys.getLong(1);
+                }
+            }
+            if (count != pageIds.length) {
+                throw new SQLException("Inserting pages failed, expected " + pageIds.length + " IDs but obtained " + count + ".");
+            }
+            return pageIds;
+        }
+    }
+
+    /**
+     * 여러 페이지의 latest_revision_id를 한 번의 batch로 업데이트
+     * makePages 메소드에서만 호출됨
+     * @throws SQLException 오류 발생 시 롤백을 유도할 Exception
+     */
+    private void updatePagesLatestRevision(Connection conn, long[] pageIds, long[] latestRevisionIds) throws SQLException {
+
+        String sql = "UPDATE pages " +
+                "SET latest_revision_id = ? " +
+                "WHERE page_id = ?";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < pageIds.length; i++) {
+                pstmt.setLong(1, latestRevisionIds[i]);
+                pstmt.setLong(2, pageIds[i]);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
     /**
      * 메소드 호출 시, 해당 user가 이 페이지를 삭제할 권한이 있는지 검사해야 한다.
      * page_id에 대한 페이지를 삭제한다.
@@ -268,6 +737,18 @@ public class PageManager {
      * @param pageId 삭제할 페이지의 ID
      */
     public void deletePage(long pageId) {
+        try {
+            pages.deletePage(pageId);
+        }
+        catch (SQLException e) {
+            System.err.println("Page Manager: Error deleting page with ID " + pageId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * deletePage의 MySQL 구현 (JdbcRepository.deletePage에서 호출)
+     */
+    void removePage(long pageId) {
         // 전체 과정을 하나의 트랜잭션으로 두고, 예외 발생 시 롤백 처리를 위해 try-with-resources 밖에서 선언 후 수행
         Connection conn = null;
 
@@ -282,7 +763,7 @@ public class PageManager {
             // 1-1. page_id에 대한 모든 revision을 검색
             List<Revision> revisionsToDelete = revisionManager.getRevisionsByPageId(conn, pageId);
 
-            // 1-2. 리스트의 모든 revision과 연결된 file_data를 삭제한 후, revision 자체를 삭제
+            // 1-2. 리스트의 모든 revision을 삭제한 후, 더 이상 참조되지 않는 file_data를 삭제
             for (Revision revision : revisionsToDelete) {
                 int deletedRevisionsCount = revisionManager.deleteRevision(conn, revision.revisionId());
                 if (deletedRevisionsCount == 0) {
@@ -291,13 +772,10 @@ public class PageManager {
                     // throw new SQLException("Revision " + revision.getRevisionId() + " not found during deletion process.");
                 }
 
-                int deletedFileDataCount = fileDataManager.deleteFileData(conn, revision.actualDataId());
-                if (deletedFileDataCount == 0) {
-                    System.err.println("Warning: FileData ID " + revision.actualDataId() + " not found for deletion.");
-                    // 트랜잭션 롤백 가능
-                    // throw new SQLException("File " + revision.getActualDataId() + " not found during deletion process.");
-                }
+                // 같은 내용을 다른 revision이 공유하고 있으면 file_data는 남겨 두고, 마지막 참조가 사라질 때 삭제
+                fileDataManager.deleteFileDataIfUnreferenced(conn, revision.actualDataId());
             }
+            revisionGraphs.remove(pageId);
 
             // 2. 해당 페이지 삭제
             int deletedPagesCount = deletePageRecord(pageId, conn);
@@ -360,11 +838,8 @@ public class PageManager {
      */
     private int deletePageRecord(long pageId, Connection conn) throws SQLException {
 
-        String sql = "DELETE FROM pages " +
-                "WHERE page_id = ?";
-
        
-        PreparedStatement pstmt = conn.prepareStatement(sql);
+        PreparedStatement pstmt = conn.prepareStatement(DELETE_PAGE_SQL);
         pstmt.setLong(1, pageId);
         return pstmt.executeUpdate();
         
@@ -376,8 +851,8 @@ public class PageManager {
      * @return List 객체로 Revision들을 반환, 실패 시 빈 ArrayList
      */
     public List<Revision> getRevisionsByPageId(long pageId) {
-        try (Connection conn = connectionManager.getConnection()) {
-            return revisionManager.getRevisionsByPageId(conn, pageId);
+        try {
+            return pages.findRevisions(pageId);
         }
         catch (SQLException e) {
             System.err.println("Page Manager: Error searching revisions by page id: " + e.getMessage());
@@ -387,31 +862,572 @@ public class PageManager {
     }
 
     /**
-     * page_id에 해당하는 페이지에 revision을 생성
-     * @param pageId revision을 생성할 페이지의 ID
-     * @param content 새로 개정된 데이터
-     * @param commitMessage commit message
-     * @return 생성된 revision_id, 실패 시 -1
+     * page_id에 해당하는 페이지의 revision을 한 화면 분량씩 반환 (RevisionManager.getRevisionPage)
+     * @param afterRevisionId 이전 목록의 마지막 revision_id, 처음부터 조회하면 0
+     * @param newestFirst true면 최신 revision부터
+     * @return 최대 limit개의 Revision, 실패 시 null
      */
-    public long insertRevision(long pageId, long parentRevisionId, byte[] content, String commitMessage) {
-        try (Connection conn = connectionManager.getConnection()) {
-            long actualDataId = fileDataManager.insertFileData(conn, content, calculateChecksum(content));
-            long revisionId = revisionManager.insertRevision(
-                    conn,
-                    pageId,
-                    user.userId(),
-                    parentRevisionId,
-                    commitMessage,
-                    actualDataId
+    public List<Revision> getRevisionPage(long pageId, long afterRevisionId, int limit, boolean newestFirst) {
+        try {
+            return pages.findRevisionPage(pageId, afterRevisionId, limit, newestFirst);
+        }
+        catch (SQLException e) {
+            System.err.println("Page Manager: Error searching revisions by page id: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @param revisionId 검색할 revision의 ID
+     * @return Revision, 없거나 실패 시 null
+     */
+    public Revision getRevision(long revisionId) {
+        try {
+            return pages.findRevision(revisionId);
+        }
+        catch (SQLException e) {
+            System.err.println("Page Manager: Error searching revision: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * revision의 내용 전체를 반환 (큰 파일의 미리보기와 다운로드는 repository.engine=jdbc이면 FileIo가 스트리밍)
+     * @param revisionId 읽을 revision의 ID
+     * @return 파일 내용, 없거나 실패 시 null
+     */
+    public byte[] readRevisionContent(long revisionId) {
+        try {
+            Revision revision = pages.findRevision(revisionId);
+            return (revision != null) ? pages.readContent(revision.actualDataId()) : null;
+        }
+        catch (SQLException e) {
+            System.err.println("Page Manager: Error reading revision " + revisionId + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * page_id에 해당하는 페이지에 revision을 생성
+     * 파일 내용은 부모 revision에 대한 delta로 저장되며, 일정 간격마다 전체 내용(keyframe)으로 저장된다
+     * parentRevisionId가 페이지의 latest_revision_id일 때만 생성되며, 그 사이 다른 사용자가 먼저 revision을 올렸다면 REVISION_CONFLICT를 반환
+     * @param pageId revision을 생성할 페이지의 ID
+     * @param parentRevisionId 부모 revision (호출 시점의 latest_revision_id, revision이 없으면 0)
+     * @param content 새로 개정된 데이터
+     * @param commitMessage commit message
+     * @return 생성된 revision_id, 최신 revision이 바뀌었으면 REVISION_CONFLICT, 실패 시 -1
+     */
+    public long insertRevision(long pageId, long parentRevisionId, byte[] content, String commitMessage) {
+        try {
+            return pages.commitRevision(pageId, user.userId(), parentRevisionId, content, commitMessage);
+        }
+        catch (SQLException e) {
+            System.err.println("Page Manager: Error inserting revision: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * page_id에 해당하는 페이지에 파일 경로의 내용으로 revision을 생성
+     * 파일을 byte 배열로 미리 읽지 않고, 저장하면서 한 번만 읽는다 (큰 파일은 스트리밍, keyframe으로 저장)
+     * parentRevisionId가 페이지의 latest_revision_id일 때만 생성되며, 그 사이 다른 사용자가 먼저 revision을 올렸다면 REVISION_CONFLICT를 반환
+     * @param pageId revision을 생성할 페이지의 ID
+     * @param parentRevisionId 부모 revision (호출 시점의 latest_revision_id, revision이 없으면 0)
+     * @param filePath 업로드할 파일 경로
+     * @param commitMessage commit message
+     * @return 생성된 revision_id, 최신 revision이 바뀌었으면 REVISION_CONFLICT, 실패 시 -1
+     */
+    public long insertRevision(long pageId, long parentRevisionId, Path filePath, String commitMessage) {
+        try {
+            return pages.commitRevision(pageId, user.userId(), parentRevisionId, filePath, commitMessage);
+        }
+        catch (SQLException | IOException e) {
+            System.err.println("Page Manager: Error inserting revision: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * insertRevision의 MySQL 구현 (JdbcRepository.commitRevision에서 호출)
+     * @return 생성된 revision_id, 최신 revision이 바뀌었으면 REVISION_CONFLICT, 실패 시 -1
+     */
+    long storeRevision(long pageId, long parentRevisionId, byte[] content, String commitMessage) {
+        return insertRevision(pageId, parentRevisionId, parentRevisionId, bytesWriter(content), commitMessage);
+    }
+
+    long storeRevision(long pageId, long parentRevisionId, Path filePath, String commitMessage) {
+        return insertRevision(pageId, parentRevisionId, parentRevisionId, fileWriter(filePath), commitMessage);
+    }
+
+    /**
+     * file_data, file_revisions 삽입과 latest_revision_id 변경을 하나의 트랜잭션으로 수행
+     * latest_revision_id는 expectedLatestRevisionId일 때만 바꾸고 (compare-and-set), 아니면 전체를 롤백하여
+     * 동시에 올린 revision 중 하나만 최신이 되고 진 쪽의 file_data도 남지 않게 한다
+     * @param expectedLatestRevisionId 호출한 쪽이 알고 있는 latest_revision_id (revision이 없으면 0)
+     */
+    private long insertRevision(long pageId, long parentRevisionId, long expectedLatestRevisionId,
+                                FileDataWriter fileDataWriter, String commitMessage) {
+        Connection conn = null;
+
+        try {
+            conn = connectionManager.getConnection();
+
+            // 트랜잭션 시작 부분 (자동 커밋 비활성화, finally에서 다시 활성화)
+            conn.setAutoCommit(false);
+
+            // 1. 이미 다른 revision이 올라왔으면 file_data를 쓰기 전에 바로 충돌 처리
+            if (getLatestRevisionId(conn, pageId) != expectedLatestRevisionId) {
+                conn.rollback();
+                System.err.println("Page Manager: Revision conflict on page " + pageId + ", latest revision is no longer " + expectedLatestRevisionId);
+                return REVISION_CONFLICT;
+            }
+
+            // 2. 부모 revision의 file_data를 base로 하여 delta로 저장 (부모가 없으면 keyframe)
+            Revision parentRevision = revisionManager.getRevision(conn, parentRevisionId);
+            long baseDataId = (parentRevision != null) ? parentRevision.actualDataId() : 0;
+
+            long actualDataId = fileDataWriter.write(conn, baseDataId);
+
+            // 3. file_revisions 테이블에 데이터를 삽입
+            long revisionId = revisionManager.insertRevision(
+                    conn,
+                    pageId,
+                    user.userId(),
+                    (parentRevisionId > 0) ? parentRevisionId : null,
+                    commitMessage,
+                    actualDataId
             );
-            updatePageLatestRevision(conn, pageId, revisionId);// 생성된 리비젼이 최신 리비젼
+
+            // 4. 생성된 리비젼을 최신 리비젼으로 (그 사이 다른 트랜잭션이 먼저 바꿨으면 0행이 바뀜)
+            if (!compareAndSetLatestRevision(conn, pageId, expectedLatestRevisionId, revisionId)) {
+                conn.rollback();
+                System.err.println("Page Manager: Revision conflict on page " + pageId + ", latest revision is no longer " + expectedLatestRevisionId);
+                return REVISION_CONFLICT;
+            }
+
+            // 5. 트랜잭션 커밋 후 그래프에 반영
+            conn.commit();
+            addToRevisionGraph(pageId, revisionId, parentRevisionId);
             return revisionId;
         }
-        catch (SQLException e) {
+        catch (SQLException | IOException e) {
+            // 단계 중 하나라도 실패 시 롤백
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                    System.err.println("Page Manager: Transaction rolled back due to SQLException.");
+                }
+                catch (SQLException rollbackEx) {
+                    System.err.println("Page Manager: Error during transaction rollback: " + rollbackEx);
+                }
+            }
             System.err.println("Page Manager: Error inserting revision: " + e.getMessage());
             e.printStackTrace();
             return -1;
         }
+        finally {
+            // 연결 닫기, 자동 커밋 다시 활성화
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                }
+                catch (SQLException autoCommitEx) {
+                    System.err.println("Error resetting auto-commit to true during cleanup: " + autoCommitEx.getMessage());
+                    autoCommitEx.printStackTrace();
+                }
+
+                try {
+                    conn.close();
+                }
+                catch (SQLException closeEx) {
+                    System.err.println("Error closing database connection in finally block: " + closeEx.getMessage());
+                    closeEx.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * page_id에 해당하는 페이지의 revision 그래프를 반환 (조상, 자손, 공통 조상 조회용)
+     * 처음 요청할 때 한 번만 DB에서 불러오고, 이후에는 메모리에 있는 그래프를 반환한다
+     * 다른 클라이언트가 추가한 revision은 refreshRevisionGraph를 호출해야 반영된다
+     * @param pageId 페이지의 ID
+     * @return RevisionGraph, 실패하거나 repository.engine=memory이면 null
+     */
+    public RevisionGraph getRevisionGraph(long pageId) {
+        RevisionGraph graph = revisionGraphs.get(pageId);
+        return (graph != null) ? graph : refreshRevisionGraph(pageId);
+    }
+
+    /**
+     * page_id에 해당하는 페이지의 revision 그래프를 DB에서 다시 불러옴
+     * @param pageId 페이지의 ID
+     * @return RevisionGraph, 실패하거나 repository.engine=memory이면 null
+     */
+    public RevisionGraph refreshRevisionGraph(long pageId) {
+        if (!requireDatabase("loading revision graph")) {
+            return null;
+        }
+        try (Connection conn = connectionManager.getConnection()) {
+            RevisionGraph graph = revisionManager.loadRevisionGraph(conn, pageId);
+            revisionGraphs.put(pageId, graph);
+            return graph;
+        }
+        catch (SQLException e) {
+            System.err.println("Page Manager: Error loading revision graph: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * 새로 생성한 revision을 이미 불러온 그래프에 추가 (불러온 적 없으면 다음 요청 시 불러옴)
+     */
+    private void addToRevisionGraph(long pageId, long revisionId, long parentRevisionId) {
+        RevisionGraph graph = revisionGraphs.get(pageId);
+        if (graph == null) {
+            return;
+        }
+        if (parentRevisionId > 0 && !graph.contains(parentRevisionId)) {
+            // 부모가 다른 클라이언트가 추가한 revision이면 그래프가 오래된 것이므로 다음 요청 시 다시 불러옴
+            revisionGraphs.remove(pageId);
+            return;
+        }
+        try {
+            graph.add(revisionId, parentRevisionId);
+        }
+        catch (IllegalArgumentException e) {
+            // 그 사이 다른 클라이언트가 revision을 추가한 경우, 다음 요청 시 다시 불러옴
+            revisionGraphs.remove(pageId);
+        }
+    }
+
+    /**
+     * 갈라진 두 revision을 3-way merge하여 새 revision을 생성
+     * 공통 조상은 parent_revision_id로 이어진 revision 그래프에서 찾고, 양쪽이 다르게 바꾼 구간은 충돌 표시로 남긴다
+     * 새 revision은 최신 revision을 대체하므로 부모는 항상 최신 revision이다 (parent_revision_id가 하나뿐이므로 다른 쪽은 commit message로만 남음)
+     * 따라서 두 revision 중 하나는 최신 revision이어야 하며, theirsRevisionId가 최신이면 두 revision의 역할을 바꾼다
+     * 둘 다 최신이 아니거나, 병합하는 동안 다른 사용자가 revision을 올리면 새 revision을 만들지 않고 revisionId가 REVISION_CONFLICT인 결과를 반환
+     * @param pageId 페이지의 ID
+     * @param oursRevisionId 합칠 대상 revision (최신 revision이면 새 revision의 부모)
+     * @param theirsRevisionId 합쳐 넣을 revision
+     * @param commitMessage commit message
+     * @return MergeResult, 실패하거나 repository.engine=memory이면 null
+     */
+    public MergeResult mergeRevisions(long pageId, long oursRevisionId, long theirsRevisionId, String commitMessage) {
+        if (!requireDatabase("merging revisions")) {
+            return null;
+        }
+        // 병합 결과는 이 시점의 최신 revision을 대체하므로, 병합 중 최신이 바뀌면 충돌로 처리
+        long expectedLatestRevisionId = getLatestRevisionId(pageId);
+        if (expectedLatestRevisionId == -1) {
+            return null;
+        }
+        if (theirsRevisionId == expectedLatestRevisionId && oursRevisionId != expectedLatestRevisionId) {
+            long tipRevisionId = theirsRevisionId;
+            theirsRevisionId = oursRevisionId;
+            oursRevisionId = tipRevisionId;
+        }
+        else if (oursRevisionId != expectedLatestRevisionId) {
+            // 최신이 아닌 revision을 부모로 하면 최신 revision의 변경이 최신 기록에서 빠지게 됨
+            System.err.println("Page Manager: Error merging revisions: neither " + oursRevisionId + " nor " + theirsRevisionId + " is the latest revision of page " + pageId);
+            return new MergeResult(REVISION_CONFLICT, 0, 0);
+        }
+
+        RevisionGraph graph = getRevisionGraph(pageId);
+        if (graph != null && !(graph.contains(oursRevisionId) && graph.contains(theirsRevisionId))) {
+            graph = refreshRevisionGraph(pageId);
+        }
+        if (graph == null) {
+            return null;
+        }
+        if (!graph.contains(oursRevisionId) || !graph.contains(theirsRevisionId)) {
+            System.err.println("Page Manager: Error merging revisions: revision " + oursRevisionId + " or " + theirsRevisionId + " does not belong to page " + pageId);
+            return null;
+        }
+
+        long baseRevisionId = graph.lowestCommonAncestor(oursRevisionId, theirsRevisionId);
+        if (graph.isAncestor(theirsRevisionId, oursRevisionId)) {
+            // theirs의 변경이 이미 ours에 포함되어 있음
+            return new MergeResult(oursRevisionId, baseRevisionId, 0);
+        }
+
+        ThreeWayMerge.Result merged;
+        try (Connection conn = connectionManager.getConnection()) {
+            byte[] baseContent = (baseRevisionId > 0) ? readRevisionContent(conn, baseRevisionId) : new byte[0];
+            byte[] oursContent = readRevisionContent(conn, oursRevisionId);
+            byte[] theirsContent = readRevisionContent(conn, theirsRevisionId);
+            merged = ThreeWayMerge.merge(baseContent, oursContent, theirsContent, "rev " + oursRevisionId, "rev " + theirsRevisionId);
+        }
+        catch (SQLException e) {
+            System.err.println("Page Manager: Error merging revisions: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+
+        long revisionId = insertRevision(pageId, oursRevisionId, expectedLatestRevisionId, bytesWriter(merged.content()), commitMessage);
+        if (revisionId == -1) {
+            return null;
+        }
+        return new MergeResult(revisionId, baseRevisionId, merged.conflictCount());
+    }
+
+    /**
+     * 현재 그룹의 모든 페이지의 최신 revision을 하나의 ZIP 파일로 저장
+     * 파일 내용은 병렬로 가져와 순서대로 스트리밍하므로, 그룹 전체 크기와 관계없이 메모리 사용량이 일정하다
+     * @param target 저장할 ZIP 파일 경로 (실패하면 만들어지지 않음)
+     * @return 저장한 페이지 수, 실패하거나 repository.engine=memory이면 -1
+     */
+    public int exportPages(Path target) {
+        return exportPages(target, null, Long.MAX_VALUE);
+    }
+
+    /**
+     * 현재 그룹의 모든 페이지를 asOf 시각의 내용으로 하나의 ZIP 파일로 저장 (그 시각에 없던 페이지는 제외)
+     * @param target 저장할 ZIP 파일 경로 (실패하면 만들어지지 않음)
+     * @param asOf 기준 시각
+     * @return 저장한 페이지 수, 실패하거나 repository.engine=memory이면 -1
+     */
+    public int exportPages(Path target, Timestamp asOf) {
+        return exportPages(target, asOf, Long.MAX_VALUE);
+    }
+
+    /**
+     * 현재 그룹의 모든 페이지를 revisionId가 생성된 시점의 내용으로 하나의 ZIP 파일로 저장
+     * revisionId의 페이지는 그 revision으로, 나머지 페이지는 그때까지 마지막으로 생성된 revision으로 저장된다
+     * @param target 저장할 ZIP 파일 경로 (실패하면 만들어지지 않음)
+     * @param revisionId 기준 revision (현재 그룹의 페이지에 속해야 함)
+     * @return 저장한 페이지 수, 실패하거나 repository.engine=memory이면 -1
+     */
+    public int exportPagesAsOfRevision(Path target, long revisionId) {
+        if (!requireDatabase("exporting pages")) {
+            return -1;
+        }
+        Revision revision;
+        try (Connection conn = connectionManager.getReadConnection()) {
+            revision = revisionManager.getRevision(conn, revisionId);
+            if (revision == null || searchPage(conn).stream().noneMatch(page -> page.pageId() == revision.pageId())) {
+                System.err.println("Page Manager: Error exporting pages: revision " + revisionId + " does not belong to group " + group.groupId());
+                return -1;
+            }
+        }
+        catch (SQLException e) {
+            System.err.println("Page Manager: Error exporting pages: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+        return exportPages(target, revision.createdAt(), revisionId);
+    }
+
+    private int exportPages(Path target, Timestamp asOf, long upToRevisionId) {
+        if (!requireDatabase("exporting pages")) {
+            return -1;
+        }
+        List<ZipExporter.Entry> entries = new ArrayList<>();
+
+        // 내보낼 revision 목록만 먼저 조회하고 연결을 반납 (내용은 ZipExporter가 파일마다 연결을 빌려 가져옴)
+        try (Connection conn = connectionManager.getReadConnection()) {
+            Map<Long, String> pageNames = new HashMap<>();
+            for (Page page : searchPage(conn)) {
+                pageNames.put(page.pageId(), page.pageName());
+            }
+
+            Set<String> usedNames = new HashSet<>();
+            for (Revision revision : revisionManager.getRevisionsAsOf(conn, group.groupId(), asOf, upToRevisionId)) {
+                String name = ZipExporter.entryName(pageNames.get(revision.pageId()), revision.pageId(), usedNames);
+                entries.add(new ZipExporter.Entry(name, revision.actualDataId(), revision.createdAt().getTime()));
+            }
+        }
+        catch (SQLException e) {
+            System.err.println("Page Manager: Error exporting pages: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+
+        try {
+            return new ZipExporter(connectionManager, fileDataManager).export(target, entries);
+        }
+        catch (SQLException | IOException e) {
+            System.err.println("Page Manager: Error exporting pages: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * 두 revision 내용의 줄 단위 차이를 반환 (Myers diff)
+     * 결과는 두 revision의 actual_data_id 쌍으로 캐시되므로, 같은 쌍을 다시 비교하면 DB 조회 한 번만으로 반환된다
+     * @param oldRevisionId 이전 revision
+     * @param newRevisionId 새 revision
+     * @return RevisionDiff, 실패 시 null
+     */
+    public RevisionDiff diffRevisions(long oldRevisionId, long newRevisionId) {
+        try {
+            Revision oldRevision = pages.findRevision(oldRevisionId);
+            Revision newRevision = pages.findRevision(newRevisionId);
+            if (oldRevision == null || newRevision == null) {
+                System.err.println("Page Manager: Error comparing revisions: revision " + oldRevisionId + " or " + newRevisionId + " not found");
+                return null;
+            }
+
+            DiffKey key = new DiffKey(oldRevision.actualDataId(), newRevision.actualDataId());
+            RevisionDiff diff = diffCache.get(key);
+            if (diff != null) {
+                return diff;
+            }
+
+            byte[] oldContent = readContent(oldRevision);
+            byte[] newContent = (key.newDataId() == key.oldDataId()) ? oldContent : readContent(newRevision);
+            Map<String, Integer> lineIds = new HashMap<>();
+            int[] oldLines = MyersDiff.toLineIds(MyersDiff.splitLines(oldContent), lineIds);
+            int[] newLines = MyersDiff.toLineIds(MyersDiff.splitLines(newContent), lineIds);
+
+            diff = new RevisionDiff(key.oldDataId(), key.newDataId(), oldLines.length, newLines.length,
+                    List.copyOf(MyersDiff.diff(oldLines, newLines)));
+            diffCache.put(key, diff);
+            return diff;
+        }
+        catch (SQLException e) {
+            System.err.println("Page Manager: Error comparing revisions: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private byte[] readContent(Revision revision) throws SQLException {
+        byte[] content = pages.readContent(revision.actualDataId());
+        if (content == null) {
+            throw new SQLException("File data not found for revision: " + revision.revisionId());
+        }
+        return content;
+    }
+
+    /**
+     * revision의 각 줄을 마지막으로 바꾼 revision과 작성자를 반환 (blame)
+     * 결과는 revision마다 revision_blame 테이블에 저장되며, 저장된 결과가 없으면 parent_revision_id를 따라
+     * 저장된 결과가 있는 조상까지 올라간 뒤, 거기서부터 부모와의 diff만 반영하며 내려온다
+     * 따라서 부모의 blame이 저장되어 있으면 새 revision은 부모와의 diff 한 번으로 계산된다
+     * @param revisionId blame할 revision_id
+     * @return 줄 순서대로 같은 revision이 이어지는 구간 목록, 실패하거나 repository.engine=memory이면 null
+     */
+    public List<BlameRange> blameRevision(long revisionId) {
+        if (!requireDatabase("computing blame")) {
+            return null;
+        }
+        try (Connection conn = connectionManager.getConnection()) {
+            Revision revision = revisionManager.getRevision(conn, revisionId);
+            if (revision == null) {
+                System.err.println("Page Manager: Error computing blame: revision " + revisionId + " not found");
+                return null;
+            }
+
+            long[] lineRevisionIds = blameManager.getBlame(conn, revisionId);
+            if (lineRevisionIds == null) {
+                lineRevisionIds = computeBlame(conn, revision);
+            }
+
+            // 구간마다 revision을 하나씩 정한 뒤, 구간에 나온 revision의 작성자만 조회 (페이지의 전체 이력은 읽지 않음)
+            List<int[]> runs = new ArrayList<>();
+            Set<Long> runRevisionIds = new HashSet<>();
+            int runStart = 0;
+            for (int i = 1; i <= lineRevisionIds.length; i++) {
+                if (i == lineRevisionIds.length || lineRevisionIds[i] != lineRevisionIds[runStart]) {
+                    runs.add(new int[] { runStart, i - runStart });
+                    runRevisionIds.add(lineRevisionIds[runStart]);
+                    runStart = i;
+                }
+            }
+            Map<Long, Long> authors = revisionManager.getRevisionAuthors(conn, runRevisionIds);
+
+            List<BlameRange> ranges = new ArrayList<>(runs.size());
+            for (int[] run : runs) {
+                long lineRevisionId = lineRevisionIds[run[0]];
+                ranges.add(new BlameRange(run[0], run[1], lineRevisionId, authors.getOrDefault(lineRevisionId, 0L)));
+            }
+            return ranges;
+        }
+        catch (SQLException e) {
+            System.err.println("Page Manager: Error computing blame: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * blame이 저장된 가장 가까운 조상(없으면 루트)부터 revision까지 차례로 blame을 계산하고 저장
+     */
+    private long[] computeBlame(Connection conn, Revision revision) throws SQLException {
+        // 1. 저장된 blame이 있는 조상을 만날 때까지 부모를 따라 올라감
+        Deque<Revision> chain = new ArrayDeque<>();
+        long[] blame = null;
+        Revision current = revision;
+        while (current != null) {
+            chain.push(current);
+            long parentRevisionId = current.parentRevisionId();
+            if (parentRevisionId == 0) {
+                break;
+            }
+            blame = blameManager.getBlame(conn, parentRevisionId);
+            if (blame != null) {
+                break;
+            }
+            current = revisionManager.getRevision(conn, parentRevisionId);
+        }
+
+        // 2. 위에서부터 내려오면서 부모와의 diff만 반영
+        String[] parentLines = null;
+        if (blame != null) {
+            parentLines = MyersDiff.splitLines(readRevisionContent(conn, chain.peek().parentRevisionId()));
+            if (parentLines.length != blame.length) {
+                throw new SQLException("Stored blame of revision " + chain.peek().parentRevisionId() + " does not match its content");
+            }
+        }
+
+        while (!chain.isEmpty()) {
+            Revision next = chain.pop();
+            String[] lines = MyersDiff.splitLines(readRevisionContent(conn, next.revisionId()));
+            long[] nextBlame = new long[lines.length];
+
+            if (blame == null) {
+                Arrays.fill(nextBlame, next.revisionId());    // 루트: 모든 줄이 이 revision에서 추가됨
+            }
+            else {
+                Map<String, Integer> lineIds = new HashMap<>();
+                int[] oldIds = MyersDiff.toLineIds(parentLines, lineIds);
+                int[] newIds = MyersDiff.toLineIds(lines, lineIds);
+                int oldLine = 0;
+                int newLine = 0;
+                for (DiffHunk hunk : MyersDiff.diff(oldIds, newIds)) {
+                    // 바뀌지 않은 줄은 부모의 blame을 그대로, 추가/변경된 줄은 이 revision
+                    int unchanged = hunk.oldStart() - oldLine;
+                    System.arraycopy(blame, oldLine, nextBlame, newLine, unchanged);
+                    Arrays.fill(nextBlame, hunk.newStart(), hunk.newStart() + hunk.newCount(), next.revisionId());
+                    oldLine = hunk.oldStart() + hunk.oldCount();
+                    newLine = hunk.newStart() + hunk.newCount();
+                }
+                System.arraycopy(blame, oldLine, nextBlame, newLine, blame.length - oldLine);
+            }
+
+            blameManager.insertBlame(conn, next.revisionId(), nextBlame);
+            blame = nextBlame;
+            parentLines = lines;
+        }
+        return blame;
+    }
+
+    private byte[] readRevisionContent(Connection conn, long revisionId) throws SQLException {
+        Revision revision = revisionManager.getRevision(conn, revisionId);
+        if (revision == null) {
+            throw new SQLException("Revision not found: " + revisionId);
+        }
+        byte[] content = fileDataManager.readContent(conn, revision.actualDataId());
+        if (content == null) {
+            throw new SQLException("File data not found for revision: " + revisionId);
+        }
+        return content;
     }
 
     /**
@@ -420,8 +1436,8 @@ public class PageManager {
      * @param commentContent 추가할 댓글 내용
      */
     public void insertComment(long pageId, String commentContent) throws SQLException {
-        try (Connection conn = connectionManager.getConnection()) {
-            commentManager.insertComment(conn, pageId, user.userId(), commentContent);
+        try {
+            comments.insertComment(pageId, user.userId(), commentContent);
         }
         catch (SQLException e) {
             System.err.println("Page Manager: Error inserting comment for page ID " + pageId + ": " + e.getMessage());
@@ -436,8 +1452,8 @@ public class PageManager {
      */
     public int deleteComment(long commentId) {
 
-        try (Connection conn = connectionManager.getConnection()) {
-            int affectedRows = commentManager.deleteComment(conn, commentId, user.userId());
+        try {
+            int affectedRows = comments.deleteComment(commentId, user.userId());
 
             if (affectedRows > 0) {
                 System.out.println("Page Manager: Comment ID " + commentId + " deleted successfully by user " + user.userId());
@@ -461,16 +1477,33 @@ public class PageManager {
      */
     public List<Comment> getComments(long pageId) {
 
-        List<Comment> comments = new ArrayList<>();
+        List<Comment> pageComments = new ArrayList<>();
 
-        try (Connection conn = connectionManager.getConnection()) {
-            comments = commentManager.getComments(conn, pageId);
+        try {
+            pageComments = comments.findComments(pageId);
         }
         catch (SQLException e) {
             System.err.println("Page Manager: Error getting comments for page ID " + pageId + ": " + e.getMessage());
             e.printStackTrace();
         }
-        return comments;
+        return pageComments;
+    }
+
+    /**
+     * 특정 페이지의 모든 댓글을 작성자와 관계없이 삭제 (페이지를 삭제하기 전에 호출)
+     * @param pageId 댓글을 삭제할 페이지의 ID
+     * @return 성공 시 true
+     */
+    public boolean deleteAllComments(long pageId) {
+        try {
+            comments.deleteAllComments(pageId);
+            return true;
+        }
+        catch (SQLException e) {
+            System.err.println("Page Manager: Error deleting comments for page ID " + pageId + ": " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
     }
 
     /**
@@ -479,28 +1512,112 @@ public class PageManager {
      * @return latest_revision_id, 검색 실패 시 -1
      */
     long getLatestRevisionId(long pageId) {
+        if (!connectionManager.usesDatabase()) {
+            return searchPage().stream()
+                    .filter(page -> page.pageId() == pageId)
+                    .mapToLong(Page::latestRevisionId)
+                    .findFirst()
+                    .orElse(-1);
+        }
+        try (Connection conn = connectionManager.getConnection()) {
+            return getLatestRevisionId(conn, pageId);
+        }
+        catch (SQLException e) {
+            System.err.println("Error searching latest revision id: " + e.getMessage());
+            return -1;
+        }
+    }
 
-        String sql = "SELECT latest_revision_id " +
-                "FROM pages " +
-                "WHERE page_id = ?";
-        ResultSet rs = null;
+    /**
+     * 주어진 연결 (트랜잭션)에서 page_id에 대한 페이지의 latest_revision_id를 반환
+     * @return latest_revision_id, revision이 없으면 0
+     * @throws SQLException 페이지가 없거나 오류 발생 시
+     */
+    private long getLatestRevisionId(Connection conn, long pageId) throws SQLException {
 
-        try (Connection conn = connectionManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(LATEST_REVISION_ID_SQL)) {
 
             pstmt.setLong(1, pageId);
-            rs = pstmt.executeQuery();
 
-            if (rs.next()) {
-                return rs.getLong("latest_revision_id");
-            }
-            else {
-                throw new SQLException("Page with ID " + pageId + " not found");
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong("latest_revision_id");
+                }
+                else {
+                    throw new SQLException("Page with ID " + pageId + " not found");
+                }
             }
         }
-        catch (SQLException e) {
-            System.err.println("Error searching latest revision id: " + e.getMessage());
-            return -1;
-        }
     }
-}
\ No newline at end of file
+
+    // --- 비동기 작업 메소드 ---
+    // ConnectionManager의 executor에서 실행하며, 결과와 실패 시 반환값은 동기 메소드와 같다
+    // executor 스레드 수가 connection pool 크기와 같으므로, 한꺼번에 많이 요청해도 connection을 기다리다 timeout 되지 않고 큐에서 기다린다
+    // 서로 관계없는 조회는 함께 요청한 뒤 CompletableFuture.allOf 등으로 모으면 병렬로 실행된다
+    // (예: 페이지를 열 때 getRevisionPageAsync, getCommentsAsync와 최신 revision의 미리보기, PageEditor)
+
+    public CompletableFuture<List<Page>> searchPageAsync() {
+        return AsyncTasks.supply(connectionManager.getExecutor(), () -> searchPage());
+    }
+
+    public CompletableFuture<Long> makePageAsync(String pageName, byte[] fileContent, String commitMessage) {
+        return AsyncTasks.supply(connectionManager.getExecutor(), () -> makePage(pageName, fileContent, commitMessage));
+    }
+
+    public CompletableFuture<Long> makePageAsync(String pageName, Path filePath, String commitMessage) {
+        return AsyncTasks.supply(connectionManager.getExecutor(), () -> makePage(pageName, filePath, commitMessage));
+    }
+
+    public CompletableFuture<Void> deletePageAsync(long pageId) {
+        return AsyncTasks.run(connectionManager.getExecutor(), () -> deletePage(pageId));
+    }
+
+    /**
+     * 리비젼 목록의 한 화면 분량, 실패하면 null 대신 예외로 완료됨
+     */
+    public CompletableFuture<List<Revision>> getRevisionPageAsync(long pageId, long afterRevisionId, int limit, boolean newestFirst) {
+        return AsyncTasks.supply(connectionManager.getExecutor(),
+                () -> pages.findRevisionPage(pageId, afterRevisionId, limit, newestFirst));
+    }
+
+    /**
+     * @return 새 revision_id, 다른 사용자가 먼저 커밋했으면 REVISION_CONFLICT, 실패 시 -1
+     */
+    public CompletableFuture<Long> insertRevisionAsync(long pageId, long parentRevisionId, byte[] content, String commitMessage) {
+        return AsyncTasks.supply(connectionManager.getExecutor(),
+                () -> insertRevision(pageId, parentRevisionId, content, commitMessage));
+    }
+
+    /**
+     * @return 새 revision_id, 다른 사용자가 먼저 커밋했으면 REVISION_CONFLICT, 실패 시 -1
+     */
+    public CompletableFuture<Long> insertRevisionAsync(long pageId, long parentRevisionId, Path filePath, String commitMessage) {
+        return AsyncTasks.supply(connectionManager.getExecutor(),
+                () -> insertRevision(pageId, parentRevisionId, filePath, commitMessage));
+    }
+
+    public CompletableFuture<MergeResult> mergeRevisionsAsync(long pageId, long oursRevisionId, long theirsRevisionId, String commitMessage) {
+        return AsyncTasks.supply(connectionManager.getExecutor(),
+                () -> mergeRevisions(pageId, oursRevisionId, theirsRevisionId, commitMessage));
+    }
+
+    public CompletableFuture<RevisionDiff> diffRevisionsAsync(long oldRevisionId, long newRevisionId) {
+        return AsyncTasks.supply(connectionManager.getExecutor(), () -> diffRevisions(oldRevisionId, newRevisionId));
+    }
+
+    public CompletableFuture<List<BlameRange>> blameRevisionAsync(long revisionId) {
+        return AsyncTasks.supply(connectionManager.getExecutor(), () -> blameRevision(revisionId));
+    }
+
+    public CompletableFuture<Void> insertCommentAsync(long pageId, String commentContent) {
+        return AsyncTasks.run(connectionManager.getExecutor(), () -> insertComment(pageId, commentContent));
+    }
+
+    public CompletableFuture<Integer> deleteCommentAsync(long commentId) {
+        return AsyncTasks.supply(connectionManager.getExecutor(), () -> deleteComment(commentId));
+    }
+
+    public CompletableFuture<List<Comment>> getCommentsAsync(long pageId) {
+        return AsyncTasks.supply(connectionManager.getExecutor(), () -> getComments(pageId));
+    }
+}
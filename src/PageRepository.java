@@ -0,0 +1,90 @@
+package teamproject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * pages, file_revisions, file_data 저장소 (페이지의 생성, revision 추가, 조회, 삭제)
+ * 같은 내용은 한 번만 저장하며 (content-addressed), revision 추가는 latest_revision_id에 대한 compare-and-set이다
+ * delta / chunk 저장, merge, blame, export 등은 MySQL 저장 형식에 맞춘 PageManager에서만 제공한다 (repository.engine=jdbc)
+ */
+public interface PageRepository {
+
+    List<Page> findPagesByGroup(long groupId) throws SQLException;
+
+    /**
+     * 페이지와 첫 revision을 생성
+     * @return 생성된 page_id
+     */
+    long createPage(long groupId, long userId, String pageName, byte[] content, String commitMessage) throws SQLException;
+
+    /**
+     * 파일 경로의 내용으로 페이지와 첫 revision을 생성 (기본 구현은 파일 전체를 읽어 createPage에 넘김)
+     * @return 생성된 page_id
+     */
+    default long createPage(long groupId, long userId, String pageName, Path file, String commitMessage) throws SQLException, IOException {
+        return createPage(groupId, userId, pageName, Files.readAllBytes(file), commitMessage);
+    }
+
+    /**
+     * parentRevisionId가 페이지의 latest_revision_id일 때만 revision을 추가하고 최신으로 함
+     * @param parentRevisionId 호출 시점의 latest_revision_id (revision이 없으면 0)
+     * @return 생성된 revision_id, 그 사이 최신 revision이 바뀌었으면 PageManager.REVISION_CONFLICT
+     */
+    long commitRevision(long pageId, long userId, long parentRevisionId, byte[] content, String commitMessage) throws SQLException;
+
+    /**
+     * 파일 경로의 내용으로 revision을 추가 (기본 구현은 파일 전체를 읽어 commitRevision에 넘김)
+     * @return 생성된 revision_id, 그 사이 최신 revision이 바뀌었으면 PageManager.REVISION_CONFLICT
+     */
+    default long commitRevision(long pageId, long userId, long parentRevisionId, Path file, String commitMessage) throws SQLException, IOException {
+        return commitRevision(pageId, userId, parentRevisionId, Files.readAllBytes(file), commitMessage);
+    }
+
+    /** @return 생성 순서의 revision 목록 */
+    List<Revision> findRevisions(long pageId) throws SQLException;
+
+    /**
+     * revision 목록의 한 화면 분량 (RevisionManager.getRevisionPage와 같은 keyset 방식)
+     * 기본 구현은 findRevisions의 전체 목록 (생성 순서)에서 잘라낸다
+     * @param afterRevisionId 이전 화면의 마지막 revision_id, 첫 화면이면 0
+     * @param newestFirst true면 최신 revision부터
+     * @return 최대 limit개의 revision
+     */
+    default List<Revision> findRevisionPage(long pageId, long afterRevisionId, int limit, boolean newestFirst) throws SQLException {
+        List<Revision> revisions = new ArrayList<>(findRevisions(pageId));
+        if (newestFirst) {
+            Collections.reverse(revisions);
+        }
+        int from = 0;
+        if (afterRevisionId > 0) {
+            from = -1;
+            for (int i = 0; i < revisions.size(); i++) {
+                if (revisions.get(i).revisionId() == afterRevisionId) {
+                    from = i + 1;
+                    break;
+                }
+            }
+            if (from < 0) {
+                throw new SQLException("Revision " + afterRevisionId + " is not a revision of page " + pageId);
+            }
+        }
+        return List.copyOf(revisions.subList(from, Math.min(revisions.size(), from + limit)));
+    }
+
+    /** @return revision, 없으면 null */
+    Revision findRevision(long revisionId) throws SQLException;
+
+    /** @return Revision.actualDataId의 내용, 없으면 null */
+    byte[] readContent(long actualDataId) throws SQLException;
+
+    /**
+     * 페이지와 모든 revision, 더 이상 참조되지 않는 내용을 삭제 (댓글은 CommentRepository.deleteAllComments로 따로 삭제)
+     */
+    void deletePage(long pageId) throws SQLException;
+}
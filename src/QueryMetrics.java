@@ -0,0 +1,410 @@
+package teamproject;
+
+import com.sun.net.httpserver.HttpServer;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * SQL 실행 시간과 connection pool 상태를 모으는 곳 (ConnectionManager가 하나 만들어 사용)
+ * ConnectionManager.getConnection이 돌려주는 connection은 instrument로 감싸져 있어, 모든 execute* 호출의 시간이
+ * SQL 형태(shapeOf)별 히스토그램에 기록된다. HikariCP는 MetricsTrackerFactory로 pool마다 상태와 connection 대기 시간을 넘겨준다
+ * 값은 JMX (teamproject:type=QueryMetrics)와, 설정한 경우 로컬 HTTP endpoint (http://127.0.0.1:port/metrics)로 볼 수 있다
+ * 스트리밍 ResultSet의 executeQuery 시간은 첫 행을 받을 때까지의 시간이다
+ */
+public class QueryMetrics implements QueryMetricsMXBean, MetricsTrackerFactory {
+
+    private static final String OBJECT_NAME = "teamproject:type=QueryMetrics";
+    // 기록할 최대 SQL 형태 수, 넘으면 OTHER_SHAPE로 합침 (동적으로 만든 SQL로 메모리가 계속 늘지 않도록)
+    private static final int MAX_SHAPES = 500;
+    private static final String OTHER_SHAPE = "(other)";
+    private static final int MAX_SHAPE_LENGTH = 300;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN \\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private final Map<String, LatencyHistogram> statements = new ConcurrentHashMap<>();
+    private final Map<String, PoolMetrics> pools = new ConcurrentHashMap<>();
+    private final Map<String, String> shapeCache = new ConcurrentHashMap<>();
+
+    private ObjectName registeredName;
+    private HttpServer httpServer;
+
+    /**
+     * HikariCP가 pool마다 호출 (HikariConfig.setMetricsTrackerFactory)
+     */
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        PoolMetrics metrics = new PoolMetrics(poolStats);
+        pools.put(poolName, metrics);
+        return metrics;
+    }
+
+    /**
+     * connection을 감싸, 이 connection으로 만든 Statement의 execute* 시간을 기록하도록 함
+     * 그 밖의 호출 (close, commit 등)은 그대로 전달된다
+     */
+    Connection instrument(Connection conn) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new ConnectionHandler(conn));
+    }
+
+    /**
+     * SQL을 형태별로 모을 수 있도록 정규화
+     * 공백을 하나로 합치고, 문자열과 숫자 상수는 ?로, 길이가 달라지는 IN (?, ?, ...) 목록은 IN (?...)로 바꾼다
+     */
+    static String shapeOf(String sql) {
+        if (sql == null) {
+            return OTHER_SHAPE;
+        }
+        String shape = WHITESPACE.matcher(sql).replaceAll(" ").trim();
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("IN (?...)");
+        return (shape.length() > MAX_SHAPE_LENGTH) ? shape.substring(0, MAX_SHAPE_LENGTH) + "..." : shape;
+    }
+
+    private String cachedShapeOf(String sql) {
+        if (sql == null) {
+            return OTHER_SHAPE;
+        }
+        String shape = shapeCache.get(sql);
+        if (shape == null) {
+            shape = shapeOf(sql);
+            if (shapeCache.size() < MAX_SHAPES * 4) {
+                shapeCache.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    private void record(String shape, long nanos) {
+        LatencyHistogram histogram = statements.get(shape);
+        if (histogram == null) {
+            String key = (statements.size() < MAX_SHAPES) ? shape : OTHER_SHAPE;
+            histogram = statements.computeIfAbsent(key, k -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * JMX에 teamproject:type=QueryMetrics로 등록
+     */
+    void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                registeredName = name;
+            }
+        }
+        catch (JMException e) {
+            System.err.println("Query Metrics: Error registering MBean: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 127.0.0.1:port/metrics에서 getReport 내용을 text로 제공 (로컬에서만 접근 가능)
+     * @throws IOException 포트를 열 수 없는 경우
+     */
+    void startHttpEndpoint(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = getReport().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        httpServer = server;
+        System.out.println("Query metrics available at http://127.0.0.1:" + server.getAddress().getPort() + "/metrics");
+    }
+
+    /**
+     * JMX 등록과 HTTP endpoint를 정리 (ConnectionManager.close에서 호출)
+     */
+    void close() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (registeredName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+            }
+            catch (JMException e) {
+                System.err.println("Query Metrics: Error unregistering MBean: " + e.getMessage());
+            }
+            registeredName = null;
+        }
+    }
+
+    @Override
+    public long getTotalStatements() {
+        long total = 0;
+        for (LatencyHistogram histogram : statements.values()) {
+            total += histogram.count();
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Long> getStatementCounts() {
+        return statementValues(LatencyHistogram::count);
+    }
+
+    @Override
+    public Map<String, Double> getStatementMeanMillis() {
+        return statementMillis(LatencyHistogram::meanNanos);
+    }
+
+    @Override
+    public Map<String, Double> getStatementP99Millis() {
+        return statementMillis(histogram -> histogram.percentileNanos(0.99));
+    }
+
+    @Override
+    public Map<String, Double> getStatementMaxMillis() {
+        return statementMillis(LatencyHistogram::maxNanos);
+    }
+
+    @Override
+    public Map<String, Integer> getActiveConnections() {
+        return poolValues(metrics -> metrics.stats.getActiveConnections());
+    }
+
+    @Override
+    public Map<String, Integer> getIdleConnections() {
+        return poolValues(metrics -> metrics.stats.getIdleConnections());
+    }
+
+    @Override
+    public Map<String, Integer> getPendingThreads() {
+        return poolValues(metrics -> metrics.stats.getPendingThreads());
+    }
+
+    @Override
+    public Map<String, Double> getAcquireP99Millis() {
+        Map<String, Double> values = new TreeMap<>();
+        pools.forEach((name, metrics) -> values.put(name, metrics.acquire.percentileNanos(0.99) / NANOS_PER_MILLI));
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getAcquireTimeouts() {
+        Map<String, Long> values = new TreeMap<>();
+        pools.forEach((name, metrics) -> values.put(name, metrics.timeouts.sum()));
+        return values;
+    }
+
+    /**
+     * pool 상태와, 전체 시간이 긴 순서의 SQL 형태별 실행 시간 (milliseconds)
+     */
+    @Override
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("# connection pools (acquire times in ms)\n");
+        new TreeMap<>(pools).forEach((name, metrics) -> report.append(String.format(
+                "pool=%s active=%d idle=%d total=%d pending=%d max=%d acquire_count=%d acquire_p50=%.3f acquire_p99=%.3f acquire_max=%.3f timeouts=%d%n",
+                name, metrics.stats.getActiveConnections(), metrics.stats.getIdleConnections(),
+                metrics.stats.getTotalConnections(), metrics.stats.getPendingThreads(), metrics.stats.getMaxConnections(),
+                metrics.acquire.count(), metrics.acquire.percentileNanos(0.5) / NANOS_PER_MILLI,
+                metrics.acquire.percentileNanos(0.99) / NANOS_PER_MILLI, metrics.acquire.maxNanos() / NANOS_PER_MILLI,
+                metrics.timeouts.sum())));
+
+        report.append("# statements by total time (ms): count mean p50 p95 p99 max total | sql\n");
+        List<Map.Entry<String, LatencyHistogram>> entries = new ArrayList<>(statements.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, LatencyHistogram> entry) -> entry.getValue().totalNanos()).reversed());
+        for (Map.Entry<String, LatencyHistogram> entry : entries) {
+            LatencyHistogram histogram = entry.getValue();
+            report.append(String.format("%d %.3f %.3f %.3f %.3f %.3f %.3f | %s%n",
+                    histogram.count(), histogram.meanNanos() / NANOS_PER_MILLI,
+                    histogram.percentileNanos(0.5) / NANOS_PER_MILLI, histogram.percentileNanos(0.95) / NANOS_PER_MILLI,
+                    histogram.percentileNanos(0.99) / NANOS_PER_MILLI, histogram.maxNanos() / NANOS_PER_MILLI,
+                    histogram.totalNanos() / NANOS_PER_MILLI, entry.getKey()));
+        }
+        return report.toString();
+    }
+
+    @Override
+    public void reset() {
+        statements.clear();
+        for (PoolMetrics metrics : pools.values()) {
+            metrics.acquire.reset();
+            metrics.timeouts.reset();
+        }
+    }
+
+    private Map<String, Long> statementValues(ToLongFunction<LatencyHistogram> value) {
+        Map<String, Long> values = new TreeMap<>();
+        statements.forEach((shape, histogram) -> values.put(shape, value.applyAsLong(histogram)));
+        return values;
+    }
+
+    private Map<String, Double> statementMillis(ToDoubleFunction<LatencyHistogram> nanos) {
+        Map<String, Double> values = new TreeMap<>();
+        statements.forEach((shape, histogram) -> values.put(shape, nanos.applyAsDouble(histogram) / NANOS_PER_MILLI));
+        return values;
+    }
+
+    private Map<String, Integer> poolValues(ToIntFunction<PoolMetrics> value) {
+        Map<String, Integer> values = new TreeMap<>();
+        pools.forEach((name, metrics) -> values.put(name, value.applyAsInt(metrics)));
+        return values;
+    }
+
+    /**
+     * HikariCP가 connection을 빌려줄 때마다 대기 시간을 넘겨주는 tracker
+     */
+    private static final class PoolMetrics implements IMetricsTracker {
+        private final PoolStats stats;
+        private final LatencyHistogram acquire = new LatencyHistogram();
+        private final LongAdder timeouts = new LongAdder();
+
+        private PoolMetrics(PoolStats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquire.record(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Connection 대리 객체: prepareStatement, prepareCall, createStatement가 돌려주는 Statement를 감쌈
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "QueryMetrics(" + target + ")";
+                default:
+                    break;
+            }
+
+            Object result = invokeTarget(target, method, args);
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return wrapStatement((Connection) proxy, (Statement) result, PreparedStatement.class, (String) args[0]);
+                case "prepareCall":
+                    return wrapStatement((Connection) proxy, (Statement) result, CallableStatement.class, (String) args[0]);
+                case "createStatement":
+                    return wrapStatement((Connection) proxy, (Statement) result, Statement.class, null);
+                default:
+                    return result;
+            }
+        }
+
+        private Object wrapStatement(Connection connectionProxy, Statement statement, Class<? extends Statement> type, String sql) {
+            return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { type },
+                    new StatementHandler(connectionProxy, statement, (sql != null) ? cachedShapeOf(sql) : null));
+        }
+    }
+
+    /**
+     * Statement 대리 객체: execute* 호출 시간을 SQL 형태별로 기록
+     * PreparedStatement는 prepare할 때의 SQL, Statement는 execute에 넘긴 SQL로 분류한다
+     */
+    private final class StatementHandler implements InvocationHandler {
+        private final Connection connectionProxy;
+        private final Statement target;
+        private final String preparedShape;
+
+        private StatementHandler(Connection connectionProxy, Statement target, String preparedShape) {
+            this.connectionProxy = connectionProxy;
+            this.target = target;
+            this.preparedShape = preparedShape;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    return connectionProxy;
+                default:
+                    break;
+            }
+            if (!name.startsWith("execute")) {
+                return invokeTarget(target, method, args);
+            }
+
+            String shape = (args != null && args.length > 0 && args[0] instanceof String sql)
+                    ? cachedShapeOf(sql)
+                    : (preparedShape != null) ? preparedShape : OTHER_SHAPE;
+            long start = System.nanoTime();
+            try {
+                return invokeTarget(target, method, args);
+            }
+            finally {
+                record(shape, System.nanoTime() - start);
+            }
+        }
+    }
+}
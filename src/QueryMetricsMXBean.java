@@ -0,0 +1,37 @@
+package teamproject;
+
+import java.util.Map;
+
+/**
+ * QueryMetrics의 JMX 인터페이스 (teamproject:type=QueryMetrics)
+ * 시간 값은 모두 milliseconds, SQL 형태별 값의 key는 QueryMetrics.shapeOf로 정규화한 SQL
+ */
+public interface QueryMetricsMXBean {
+
+    long getTotalStatements();
+
+    Map<String, Long> getStatementCounts();
+
+    Map<String, Double> getStatementMeanMillis();
+
+    Map<String, Double> getStatementP99Millis();
+
+    Map<String, Double> getStatementMaxMillis();
+
+    /** pool 이름 -> 사용 중인 connection 수 */
+    Map<String, Integer> getActiveConnections();
+
+    Map<String, Integer> getIdleConnections();
+
+    /** pool 이름 -> connection을 기다리는 스레드 수 */
+    Map<String, Integer> getPendingThreads();
+
+    Map<String, Double> getAcquireP99Millis();
+
+    Map<String, Long> getAcquireTimeouts();
+
+    /** 로컬 text endpoint와 같은 내용 */
+    String getReport();
+
+    void reset();
+}
@@ -0,0 +1,41 @@
+package teamproject;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * manager 쿼리의 실행 계획 확인 (application.properties의 DB)
+ * 스키마를 최신 버전으로 migration한 뒤 SchemaMigrator.PLAN_CHECKS의 쿼리를 EXPLAIN하여,
+ * 테이블 전체를 읽는 쿼리가 있으면 목록을 출력하고 종료 코드 1로 끝난다
+ * 빈 테이블에서는 optimizer 판단이 다를 수 있으므로 데이터가 있는 개발 DB에서 실행한다
+ */
+public class QueryPlanCheck {
+
+	public static void main(String[] args) {
+		ConnectionManager connectionManager = new ConnectionManager();
+		int fullScanCount;
+		try {
+			connectionManager.connect();
+			try (Connection conn = connectionManager.getConnection()) {
+				List<String> fullScans = new SchemaMigrator().findFullScans(conn);
+				for (String fullScan : fullScans) {
+					System.out.println("FULL SCAN " + fullScan);
+				}
+				fullScanCount = fullScans.size();
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			System.exit(2);
+			return;
+		} finally {
+			connectionManager.close();
+		}
+
+		if (fullScanCount > 0) {
+			System.out.println(fullScanCount + " query plan(s) read a whole table or index.");
+			System.exit(1);
+		}
+		System.out.println("All query plans use indexes.");
+	}
+}
@@ -1,5 +1,6 @@
 package teamproject;
 
+import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.GridLayout;
@@ -14,6 +15,8 @@ import javax.swing.border.EmptyBorder;
 
 public class Register extends JFrame{
 	private static final long serialVersionUID = 1L;
+	// 회원가입 (BCrypt 해시 + DB 저장)은 EDT가 아닌 스레드에서 실행
+	private final UiTasks tasks = new UiTasks(this);
 
 	public Register(User currentUser, UserManager userManager) {
 		
@@ -47,25 +50,26 @@ public class Register extends JFrame{
 			String id = txtID.getText().trim();  // trim을 이용하여 앞뒤 공백을 제거하여 문자열을 가져옴
 			String pw = new String(txtPass.getPassword());
 			
-			long stateUser = userManager.addUser(id, pw);
-			
 			if (id.isEmpty() || pw.isEmpty()) {
 				JOptionPane.showMessageDialog(this, "모든 항목을 입력해주세요.");
+				return;
 			}
-			else if (stateUser == -2) {  // 중복일 경우
-				JOptionPane.showMessageDialog(this, "중복된 아이디입니다."); // 중복된 아이디 넣어봐도 기타 오류로 취급->UserManager 수정
-				txtID.setText("");
-                txtPass.setText("");
-			}
-			else if(stateUser == -1) {  // 다른 오류 발생 시
-				JOptionPane.showMessageDialog(this, "오류 발생");
-				txtID.setText("");
-                txtPass.setText("");
-			}
-			else {
-				JOptionPane.showMessageDialog(this, "회원가입 성공!");
-				dispose();  // 로그인 창으로 돌아가기(창닫기)
-			}
+			tasks.run("회원가입", () -> userManager.addUser(id, pw), stateUser -> {
+				if (stateUser == -2) {  // 중복일 경우
+					JOptionPane.showMessageDialog(this, "중복된 아이디입니다."); // 중복된 아이디 넣어봐도 기타 오류로 취급->UserManager 수정
+					txtID.setText("");
+	                txtPass.setText("");
+				}
+				else if(stateUser == -1) {  // 다른 오류 발생 시
+					JOptionPane.showMessageDialog(this, "오류 발생");
+					txtID.setText("");
+	                txtPass.setText("");
+				}
+				else {
+					JOptionPane.showMessageDialog(this, "회원가입 성공!");
+					dispose();  // 로그인 창으로 돌아가기(창닫기)
+				}
+			}, btnRegister);
 		});
 		// '취소' 버튼
 		btnCancel.addActionListener(e -> {
@@ -73,12 +77,19 @@ public class Register extends JFrame{
 		});
 		
 		add(panel);
+		add(tasks.getStatusBar(), BorderLayout.SOUTH);  // 작업 중에만 보이는 상태 표시줄
 		
 		pack();
 		setLocationRelativeTo(null);
 		setVisible(true);
 	}
 	
+	@Override
+	public void dispose() {
+		tasks.cancelAll();  // 창을 닫으면 진행 중인 작업 취소
+		super.dispose();
+	}
+	
 	// 버튼 디자인 바꾸는 메서드
     public void changebtnColor(JButton button)
     {
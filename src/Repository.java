@@ -0,0 +1,26 @@
+package teamproject;
+
+import java.io.Closeable;
+import java.util.concurrent.Executor;
+
+/**
+ * 저장소 구현 (SPI), manager들은 이 interface를 통해 데이터를 읽고 쓴다
+ * JdbcRepository: MySQL (ConnectionManager의 pool 사용), 여러 사용자가 함께 쓰는 기본 구현
+ * InMemoryRepository: 메모리 (선택적으로 append-only journal 파일에 기록), 혼자 쓰는 로컬 모드와 benchmark용
+ * 모든 메소드는 여러 스레드에서 동시에 호출할 수 있어야 한다
+ */
+public interface Repository extends Closeable {
+
+    UserRepository users();
+
+    GroupRepository groups();
+
+    PageRepository pages();
+
+    CommentRepository comments();
+
+    /**
+     * manager의 비동기 메소드 (...Async)가 이 저장소의 작업을 실행할 executor
+     */
+    Executor executor();
+}
@@ -1,11 +1,11 @@
 package teamproject;
 
 import java.awt.Container;
-import java.sql.Connection;
-import java.sql.SQLException;
+import java.nio.file.Path;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.Callable;
 
 import javax.swing.JOptionPane;
 
@@ -19,7 +19,7 @@ public class RevisionController {
       this.page = page;
       this.pageManager = pageManager;
       this.connectionManager = connectionManager;
-      fileIo = new FileIo(pageManager);
+      fileIo = new FileIo(pageManager, connectionManager);
    }
    
    public void showAllRevisions(List<Revision> revisionList) {
@@ -27,15 +27,9 @@ public class RevisionController {
       
       //아래는 예시
       int index = 1;
-       RevisionManager revision = new RevisionManager();
        UserManager userManager = new UserManager(connectionManager);
        
-       try (Connection conn = connectionManager.getConnection()){
-           revisionList = revision.getRevisionsByPageId(conn, page.pageId());
-        } catch (SQLException e) {
-           System.err.printf("%d 페이지 불러오기 실패\n", page.pageId());
-           e.printStackTrace();
-        } 
+       revisionList = pageManager.getRevisionsByPageId(page.pageId());
        int commitNum = revisionList.size() - 1;
        Timestamp timestamp;
        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm");
@@ -61,7 +55,7 @@ public class RevisionController {
     * 리비젼 DB에 넣는 메서드
     * 
     * @param revisionList : parentId에 해당하는 revision 찾기 위함.
-    * @param parentId : 지정 해줄지 안해줄지 UI 정하기 나름
+    * @param parentId : 지정 해줄지 안해줄지 UI 정하기 나름 (최신 리비젼이 아니면 충돌로 처리되어 올라가지 않음)
     * @return parentId에 해당하는 revision 이 존재하면 true 아니면 false
     */
    public boolean insertRevision_con(Container con, List<Revision> revisionList, long parentId) {
@@ -90,32 +84,51 @@ public class RevisionController {
    }
    
    /**
-    * parent id 제외
+    * parent id 제외 (사용자가 보고 있던 최신 리비젼 위에 올림)
+    * 파일과 커밋 메시지는 지금 입력받고 (EDT), 업로드는 반환한 작업으로 EDT가 아닌 스레드에서 실행
+    * 업로드가 끝날 때까지 같은 RevisionController로 다른 파일을 고르면 안 됨 (FileIo에 고른 파일을 보관하므로)
+    * @param displayedLatestRevisionId 화면의 리비젼 목록에서 최신 리비젼 (없으면 0)
+    *        그 사이 다른 사용자가 리비젼을 올렸다면 덮어쓰지 않고 충돌로 처리됨
+    * @return 새 revision id (충돌 시 PageManager.REVISION_CONFLICT, 실패 시 -1)를 반환하는 작업, 취소하면 null
     */
-   public void insertRevNoparent(Container con) {
-      Long parentId = pageManager.getLatestRevisionId(page.pageId());
+   public Callable<Long> prepareInsertRevNoparent(Container con, long displayedLatestRevisionId) {
       fileIo.fileUpLoad();
-       if (fileIo.insertFileToRevision(con, page.pageId(), parentId)) {
-          JOptionPane.showMessageDialog(con, "리비젼 업로드 성공");
-       }
-       else {
-          return;
-       }
+      if (!fileIo.askRevisionCommitMessage(con)) {
+         return null;
+      }
+      return () -> fileIo.insertFileToRevision(page.pageId(), displayedLatestRevisionId);
    }
    
    /**
-    * DB에서 revision id 에 해당하는 파일데이터 불러와서
-     * 사용자가 지정한 파일제목으로 지정한 경로에 파일 저장 (이때 확장자는 page 확장자로 강제됨)
-    * @param revisionId 
+    * prepareInsertRevNoparent 작업의 결과를 알림 (EDT에서 호출)
+    * @return 업로드에 성공했으면 true
     */
-   public void downLoadRevision_con(Container con, long revisionId) {
-      try (Connection conn = connectionManager.getConnection()){
-         fileIo.fileDownLoad(conn, revisionId); //DB에서 파일내용 불러옴
-      } catch (SQLException e) {
-         JOptionPane.showMessageDialog(con, "파일 불러오기 실패");
-         return;
-      }
-      fileIo.selectDownloadPath(page.pageName());//파일탐색기에서 정한 경로에 파일 저장
+   public boolean showInsertRevisionResult(Container con, long revisionId) {
+      if (revisionId == PageManager.REVISION_CONFLICT) {
+         fileIo.showRevisionConflict(con);
+         return false;
+      }
+      if (revisionId == -1) {
+         return false;
+      }
+      JOptionPane.showMessageDialog(con, "리비젼 업로드 성공");
+      return true;
+   }
+   
+   /**
+    * 사용자가 지정한 파일제목과 경로를 먼저 고른 뒤 (이때 확장자는 page 확장자로 강제됨)
+     * DB에서 revision id 에 해당하는 파일데이터를 그 경로에 바로 스트리밍하여 저장
+     * connection은 전송하는 동안에만 빌리고, 전송이 끝나면 바로 반납함
+    * 저장 경로는 지금 고르고 (EDT), 전송은 반환한 작업으로 EDT가 아닌 스레드에서 실행
+    * @param revisionId
+    * @return 저장에 성공하면 true를 반환하는 작업 (connection을 빌리지 못하면 SQLException), 취소하면 null
+    */
+   public Callable<Boolean> prepareDownLoadRevision_con(long revisionId) {
+      Path target = fileIo.selectDownloadPath(page.pageName());//파일탐색기에서 저장할 경로 선택
+      if (target == null) {
+         return null;
+      }
+      return () -> fileIo.fileDownLoad(revisionId, target); //DB에서 파일내용을 바로 파일로 저장
    }
    
    /**
@@ -124,15 +137,7 @@ public class RevisionController {
     * @return 읽어온 파일내용을 저장한 String 반환
     */
    public String showRevisionContent_con(long revisionId) {
-      String content = null;
-      try(Connection conn = connectionManager.getConnection()){ //파일용량이 커서 다운로드에 시간이 오래걸릴 경우
-         fileIo.fileDownLoad(conn, revisionId);           //connection 누수 경고 뜰수 있음.
-         content = fileIo.showFileContent();
-      } catch (SQLException e) {
-         System.out.println("파일 읽기 실패.");
-         e.printStackTrace();
-         return null;
-      }
+      String content = fileIo.showFileContent(revisionId);
       if (content == null) {
          System.out.println("파일이 비어있습니다.");
          return null;
@@ -141,6 +146,121 @@ public class RevisionController {
          return content;
       }
    }
+   /**
+    * 선택한 revision 의 내용을 줄 단위로 나누어 보여주는 미리보기 모델을 연다 (큰 파일도 보이는 부분만 디코딩)
+    * 사용이 끝나면 close 해야 함
+    * @param revisionId
+    * @return 미리보기 모델, 읽기 실패 시 null
+    */
+   public TextPreview showRevisionPreview_con(long revisionId) {
+      TextPreview preview = fileIo.openTextPreview(revisionId);
+      if (preview == null) {
+         System.out.println("미리보기를 열 수 없습니다.");
+      }
+      return preview;
+   }
+   /**
+    * 두 revision 의 차이를 좌우로 비교하는 표 모델을 연다 (diff 결과는 캐시되어 같은 쌍은 다시 계산하지 않음)
+    * 사용이 끝나면 close 해야 함
+    * @param oldRevisionId 이전 revision
+    * @param newRevisionId 새 revision
+    * @return 비교 표 모델, 실패 시 null
+    */
+   public SideBySideDiffModel showRevisionDiff_con(long oldRevisionId, long newRevisionId) {
+      RevisionDiff diff = pageManager.diffRevisions(oldRevisionId, newRevisionId);
+      if (diff == null) {
+         System.out.println("리비젼 비교 실패.");
+         return null;
+      }
+      TextPreview oldPreview = fileIo.openTextPreview(oldRevisionId);
+      TextPreview newPreview = fileIo.openTextPreview(newRevisionId);
+      if (oldPreview == null || newPreview == null) {
+         if (oldPreview != null) {
+            oldPreview.close();
+         }
+         if (newPreview != null) {
+            newPreview.close();
+         }
+         return null;
+      }
+      return new SideBySideDiffModel(diff, oldRevisionId, newRevisionId, oldPreview, newPreview);
+   }
+   /**
+    * 선택한 revision 의 각 줄을 마지막으로 수정한 리비젼과 작성자 (blame)
+    * 한 번 계산한 결과는 DB에 저장되므로, 새 리비젼은 부모와의 차이만 계산함
+    * @param revisionId
+    * @return 줄 순서대로 같은 리비젼이 이어지는 구간 목록, 실패 시 null
+    */
+   public List<BlameRange> getBlame_con(long revisionId) {
+      List<BlameRange> blame = pageManager.blameRevision(revisionId);
+      if (blame == null) {
+         System.out.println("blame 계산 실패.");
+      }
+      return blame;
+   }
+   /**
+    * 선택한 revision 의 blame 을 내용과 함께 보여주는 표 모델을 연다 (BlameViewer 에서 백그라운드로 호출)
+    * 사용이 끝나면 close 해야 함
+    * @param revisionId
+    * @return blame 표 모델, 실패 시 null
+    */
+   public BlameTableModel showRevisionBlame_con(long revisionId) {
+      List<BlameRange> blame = getBlame_con(revisionId);
+      if (blame == null) {
+         return null;
+      }
+      // 구간에 나온 작성자만 이름을 찾음 (탈퇴한 사용자는 comments 와 같이 표시)
+      UserManager userManager = new UserManager(connectionManager);
+      Map<Long, String> authorNames = new HashMap<>();
+      for (BlameRange range : blame) {
+         authorNames.computeIfAbsent(range.committedByUserId(), userId -> {
+            User user = userManager.findUserNameByUserId(userId);
+            return (user != null) ? user.username() : "탈퇴한 사용자";
+         });
+      }
+      TextPreview preview = showRevisionPreview_con(revisionId);
+      if (preview == null) {
+         return null;
+      }
+      return new BlameTableModel(revisionId, blame, authorNames, preview);
+   }
+   /**
+    * 두 revision 을 공통 조상 기준으로 합쳐 새 revision 으로 저장 (새 revision 의 부모는 최신 revision)
+    * 양쪽이 다르게 고친 부분은 충돌 표시(<<<<<<< ======= >>>>>>>)와 함께 저장되므로 내려받아 직접 정리해야 함
+    * DB 작업만 하므로 EDT 가 아닌 스레드에서 호출하고, 결과는 showMergeResult 로 보여줌
+    * @param oursId 합칠 대상 revision (최신 revision)
+    * @param theirsId 합쳐 넣을 revision
+    * @return MergeResult, 실패 시 null
+    */
+   public MergeResult mergeRevisions_con(long oursId, long theirsId) {
+      String message = "Merge rev " + theirsId + " into rev " + oursId;
+      return pageManager.mergeRevisions(page.pageId(), oursId, theirsId, message);
+   }
+   /**
+    * mergeRevisions_con 의 결과를 알림
+    * @return 새 revision 이 생겼으면 true (리비젼 목록을 다시 불러와야 함)
+    */
+   public boolean showMergeResult(Container con, long oursId, MergeResult result) {
+      if (result == null) {
+         JOptionPane.showMessageDialog(con, "리비젼 병합 실패");
+         return false;
+      }
+      if (result.revisionId() == PageManager.REVISION_CONFLICT) {
+         JOptionPane.showMessageDialog(con, "병합하는 동안 다른 사용자가 리비젼을 올렸습니다.\n최신 리비젼을 확인한 뒤 다시 병합해주세요.", "리비젼 충돌", JOptionPane.WARNING_MESSAGE);
+         return false;
+      }
+      if (result.revisionId() == oursId) {
+         JOptionPane.showMessageDialog(con, "이미 병합된 리비젼입니다.");
+         return false;
+      }
+      if (result.conflictCount() > 0) {
+         JOptionPane.showMessageDialog(con, String.format("병합 완료 (rev ID: %d), 충돌 %d곳을 확인하세요.", result.revisionId(), result.conflictCount()));
+      }
+      else {
+         JOptionPane.showMessageDialog(con, String.format("병합 완료 (rev ID: %d)", result.revisionId()));
+      }
+      return true;
+   }
    Page getPage() {
       return page;
    }
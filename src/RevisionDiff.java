@@ -0,0 +1,35 @@
+package teamproject;
+
+import java.util.List;
+
+/**
+ * 두 revision 내용의 줄 단위 차이
+ * revision과 file_data는 바뀌지 않으므로 같은 (oldDataId, newDataId) 쌍의 결과는 항상 같다
+ * @param oldDataId 이전 내용의 actual_data_id
+ * @param newDataId 새 내용의 actual_data_id
+ * @param oldLineCount 이전 내용의 줄 수
+ * @param newLineCount 새 내용의 줄 수
+ * @param hunks 변경 구간 목록 (위치 순서)
+ */
+public record RevisionDiff(long oldDataId,
+                           long newDataId,
+                           int oldLineCount,
+                           int newLineCount,
+                           List<DiffHunk> hunks) {
+
+    public int addedLines() {
+        int count = 0;
+        for (DiffHunk hunk : hunks) {
+            count += hunk.newCount();
+        }
+        return count;
+    }
+
+    public int removedLines() {
+        int count = 0;
+        for (DiffHunk hunk : hunks) {
+            count += hunk.oldCount();
+        }
+        return count;
+    }
+}
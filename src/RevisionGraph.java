@@ -0,0 +1,220 @@
+package teamproject;
+
+import java.util.Arrays;
+
+/**
+ * 한 페이지의 revision 그래프 (parent_revision_id로 이어진 트리, 부모가 없는 revision이 여러 개면 forest)
+ * revision_id는 자동 증가이고 부모는 항상 자식보다 먼저 생성되므로, revision_id 순서가 곧 위상 정렬 순서이다
+ * 모든 정보는 revision_id 순으로 쌓인 primitive 배열에 저장하며, revision_id -> 위치는 이진 탐색으로 찾는다
+ * 각 revision은 부모 외에 jump 포인터 하나를 가지며 (skew-binary jump pointer), 이를 이용해
+ * 특정 깊이의 조상 찾기, isAncestor, 공통 조상(LCA)을 O(log n)에 계산한다
+ */
+final class RevisionGraph {
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final long pageId;
+    private int size = 0;
+    private long[] revisionIds = new long[INITIAL_CAPACITY];
+    private int[] parent = new int[INITIAL_CAPACITY];
+    private int[] depth = new int[INITIAL_CAPACITY];
+    private int[] jump = new int[INITIAL_CAPACITY];
+    // 자식 목록 (첫 자식 + 다음 형제 연결 리스트)
+    private int[] firstChild = new int[INITIAL_CAPACITY];
+    private int[] nextSibling = new int[INITIAL_CAPACITY];
+
+    RevisionGraph(long pageId) {
+        this.pageId = pageId;
+    }
+
+    long getPageId() {
+        return pageId;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized boolean contains(long revisionId) {
+        return indexOf(revisionId) != NONE;
+    }
+
+    /**
+     * revision을 그래프에 추가 (revision_id 순서대로 추가해야 함)
+     * @param revisionId 추가할 revision_id
+     * @param parentRevisionId 부모 revision_id, 없거나 이 페이지에 없으면 0 (루트가 됨)
+     * @throws IllegalArgumentException 이미 있는 revision보다 작은 revision_id인 경우 (다시 불러와야 함)
+     */
+    synchronized void add(long revisionId, long parentRevisionId) {
+        if (size > 0 && revisionId <= revisionIds[size - 1]) {
+            if (indexOf(revisionId) != NONE) {
+                return;
+            }
+            throw new IllegalArgumentException("Revision " + revisionId + " is older than the latest revision in the graph of page " + pageId);
+        }
+        if (size == revisionIds.length) {
+            grow();
+        }
+
+        int node = size++;
+        int parentNode = (parentRevisionId > 0) ? indexOf(parentRevisionId) : NONE;
+        revisionIds[node] = revisionId;
+        parent[node] = parentNode;
+        firstChild[node] = NONE;
+
+        if (parentNode == NONE) {
+            depth[node] = 0;
+            jump[node] = node;
+            nextSibling[node] = NONE;
+        }
+        else {
+            depth[node] = depth[parentNode] + 1;
+            // 부모의 jump 두 개가 같은 길이면 합쳐서 한 단계 긴 jump, 아니면 부모를 가리킴
+            int parentJump = jump[parentNode];
+            if (depth[parentNode] - depth[parentJump] == depth[parentJump] - depth[jump[parentJump]]) {
+                jump[node] = jump[parentJump];
+            }
+            else {
+                jump[node] = parentNode;
+            }
+            nextSibling[node] = firstChild[parentNode];
+            firstChild[parentNode] = node;
+        }
+    }
+
+    /**
+     * ancestorId가 revisionId의 조상인지 검사 (git merge-base --is-ancestor와 같이 자기 자신도 포함)
+     * @return 조상이면 true, 둘 중 하나라도 그래프에 없으면 false
+     */
+    synchronized boolean isAncestor(long ancestorId, long revisionId) {
+        int ancestor = indexOf(ancestorId);
+        int node = indexOf(revisionId);
+        if (ancestor == NONE || node == NONE || depth[ancestor] > depth[node]) {
+            return false;
+        }
+        return ancestorAtDepth(node, depth[ancestor]) == ancestor;
+    }
+
+    /**
+     * 두 revision의 가장 가까운 공통 조상 (merge base)
+     * @return 공통 조상의 revision_id, 공통 조상이 없거나 그래프에 없는 revision이면 0
+     */
+    synchronized long lowestCommonAncestor(long firstId, long secondId) {
+        int a = indexOf(firstId);
+        int b = indexOf(secondId);
+        if (a == NONE || b == NONE) {
+            return 0;
+        }
+
+        // 같은 깊이로 맞춘 뒤, 같은 깊이의 노드는 jump도 같은 깊이를 가리키므로 함께 올라간다
+        if (depth[a] > depth[b]) {
+            a = ancestorAtDepth(a, depth[b]);
+        }
+        else if (depth[b] > depth[a]) {
+            b = ancestorAtDepth(b, depth[a]);
+        }
+
+        while (a != b) {
+            if (parent[a] == NONE) {
+                return 0; // 서로 다른 루트
+            }
+            if (jump[a] != jump[b]) {
+                a = jump[a];
+                b = jump[b];
+            }
+            else {
+                a = parent[a];
+                b = parent[b];
+            }
+        }
+        return revisionIds[a];
+    }
+
+    /**
+     * revision의 조상 목록 (부모부터 루트 방향으로, 자기 자신은 제외)
+     * @return 조상 revision_id 배열, 그래프에 없으면 빈 배열
+     */
+    synchronized long[] ancestors(long revisionId) {
+        int node = indexOf(revisionId);
+        if (node == NONE) {
+            return new long[0];
+        }
+
+        long[] result = new long[depth[node]];
+        int count = 0;
+        for (int current = parent[node]; current != NONE; current = parent[current]) {
+            result[count++] = revisionIds[current];
+        }
+        return result;
+    }
+
+    /**
+     * revision의 모든 자손 (자기 자신은 제외, revision_id 오름차순)
+     * @return 자손 revision_id 배열, 그래프에 없으면 빈 배열
+     */
+    synchronized long[] descendants(long revisionId) {
+        int node = indexOf(revisionId);
+        if (node == NONE) {
+            return new long[0];
+        }
+
+        long[] result = new long[INITIAL_CAPACITY];
+        int count = 0;
+        int[] stack = new int[INITIAL_CAPACITY];
+        int top = 0;
+        stack[top++] = node;
+
+        while (top > 0) {
+            int current = stack[--top];
+            for (int child = firstChild[current]; child != NONE; child = nextSibling[child]) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, result.length * 2);
+                }
+                result[count++] = revisionIds[child];
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = child;
+            }
+        }
+
+        result = Arrays.copyOf(result, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * revision의 부모
+     * @return 부모 revision_id, 루트이거나 그래프에 없으면 0
+     */
+    synchronized long parentOf(long revisionId) {
+        int node = indexOf(revisionId);
+        return (node == NONE || parent[node] == NONE) ? 0 : revisionIds[parent[node]];
+    }
+
+    /**
+     * node의 조상 중 깊이가 targetDepth인 노드 (jump가 목표를 넘지 않으면 jump, 넘으면 부모로 이동)
+     */
+    private int ancestorAtDepth(int node, int targetDepth) {
+        while (depth[node] > targetDepth) {
+            node = (depth[jump[node]] >= targetDepth) ? jump[node] : parent[node];
+        }
+        return node;
+    }
+
+    private int indexOf(long revisionId) {
+        int index = Arrays.binarySearch(revisionIds, 0, size, revisionId);
+        return (index >= 0) ? index : NONE;
+    }
+
+    private void grow() {
+        int capacity = revisionIds.length * 2;
+        revisionIds = Arrays.copyOf(revisionIds, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        depth = Arrays.copyOf(depth, capacity);
+        jump = Arrays.copyOf(jump, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+    }
+}
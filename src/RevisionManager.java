@@ -2,10 +2,48 @@ package teamproject;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 public class RevisionManager {
 
+    // 조회할 컬럼을 명시 (SELECT * 대신, 컬럼이 추가되어도 필요한 것만 읽음)
+    private static final String REVISION_COLUMNS =
+            "revision_id, page_id, actual_data_id, committed_by_user_id, parent_revision_id, commit_message, created_at";
+    // pages와 join할 때 쓰는 같은 컬럼 (file_revisions 별칭 r)
+    private static final String REVISION_COLUMNS_R = "r." + REVISION_COLUMNS.replace(", ", ", r.");
+
+    // 실행 계획을 SchemaMigrator.verifyQueryPlans에서 EXPLAIN으로 확인하는 쿼리
+    static final String REVISION_SQL = "SELECT " + REVISION_COLUMNS + " " +
+            "FROM file_revisions " +
+            "WHERE revision_id = ?";
+    static final String REVISIONS_BY_PAGE_SQL = "SELECT " + REVISION_COLUMNS + " " +
+            "FROM file_revisions " +
+            "WHERE page_id = ? " +
+            "ORDER BY created_at, revision_id";
+    static final String REVISION_GRAPH_SQL = "SELECT revision_id, parent_revision_id " +
+            "FROM file_revisions " +
+            "WHERE page_id = ? " +
+            "ORDER BY revision_id";
+    static final String LATEST_REVISIONS_SQL = "SELECT " + REVISION_COLUMNS_R + " " +
+            "FROM pages p JOIN file_revisions r ON r.revision_id = p.latest_revision_id " +
+            "WHERE p.group_id = ? " +
+            "ORDER BY p.page_id";
+    static final String REVISIONS_AS_OF_SQL = "SELECT " + REVISION_COLUMNS_R + " " +
+            "FROM pages p JOIN file_revisions r ON r.revision_id = (" +
+            "SELECT r2.revision_id FROM file_revisions r2 " +
+            "WHERE r2.page_id = p.page_id AND (r2.created_at < ? OR (r2.created_at = ? AND r2.revision_id <= ?)) " +
+            "ORDER BY r2.created_at DESC, r2.revision_id DESC LIMIT 1) " +
+            "WHERE p.group_id = ? " +
+            "ORDER BY p.page_id";
+
+    // revision_id IN (...) 조회 한 번에 넣을 최대 개수
+    private static final int AUTHOR_LOOKUP_BATCH = 500;
+
     RevisionManager() {}
 
     /**
@@ -64,6 +102,51 @@ public class RevisionManager {
         }
     }
 
+    /**
+     * 여러 페이지의 첫 revision을 한 번의 batch로 삽입 (bulk import용, parent_revision_id = null)
+     * @param pageIds revision이 속할 page_id 목록
+     * @param committedByUserId revision을 생성한 user_id
+     * @param commitMessage 모든 revision에 공통인 commit message
+     * @param actualDataIds pageIds와 같은 순서의 actual_data_id 목록
+     * @return pageIds와 같은 순서의 revision_id 목록
+     * @throws SQLException 오류 발생 시 롤백을 유도할 Exception
+     */
+    public long[] insertRevisions(Connection conn,
+                                  long[] pageIds,
+                                  long committedByUserId,
+                                  String commitMessage,
+                                  long[] actualDataIds)
+            throws SQLException {
+
+        String sql = "INSERT INTO file_revisions " +
+                "(page_id, committed_by_user_id, parent_revision_id, commit_message, actual_data_id) " +
+                "VALUES (?, ?, NULL, ?, ?)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            for (int i = 0; i < pageIds.length; i++) {
+                pstmt.setLong(1, pageIds[i]);
+                pstmt.setLong(2, committedByUserId);
+                pstmt.setString(3, commitMessage);
+                pstmt.setLong(4, actualDataIds[i]);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+
+            long[] revisionIds = new long[pageIds.length];
+            int count = 0;
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                while (generatedKeys.next() && count < revisionIds.length) {
+                    revisionIds[count++] = generatedKeys.getLong(1);
+                }
+            }
+            if (count != revisionIds.length) {
+                throw new SQLException("Inserting revisions failed, expected " + revisionIds.length + " IDs but obtained " + count + ".");
+            }
+            return revisionIds;
+        }
+    }
+
     /**
      * file_revisions 테이블에서 revision_id에 해당하는 데이터를 삭제
      * 부모 revision도 삭제할 수 있으므로, 이 메소드를 호출하는 메소드에서 판단하여 처리할 것
@@ -91,32 +174,14 @@ public class RevisionManager {
      */
     public Revision getRevision(Connection conn, long revisionId) throws SQLException {
 
-        String sql = "SELECT * " +
-                "FROM file_revisions " +
-                "WHERE revision_id = ?";
-
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(REVISION_SQL)) {
 
             pstmt.setLong(1, revisionId);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                long pageId = rs.getLong("page_id");
-                long actualDataId = rs.getLong("actual_data_id");
-                long committedByUserId = rs.getLong("committed_by_user_id");
-                Long parentRevisionId = rs.getLong("parent_revision_id");
-                String commitMessage = rs.getString("commit_message");
-                Timestamp createdAt = rs.getTimestamp("created_at");
-
-                return new Revision(
-                        revisionId,
-                        pageId,
-                        actualDataId,
-                        committedByUserId,
-                        parentRevisionId,
-                        commitMessage,
-                        createdAt);
 
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return toRevision(rs);
+                }
             }
         }
         catch (SQLException e) {
@@ -127,43 +192,185 @@ public class RevisionManager {
     }
 
     /**
-     * page_id에 해당하는 페이지에 속하는 모든 revision을 반환
+     * page_id에 해당하는 페이지에 속하는 모든 revision을 생성 순서 (created_at, revision_id)로 반환
      * PageManager에서 이 메소드를 호출
+     * 기록이 많은 페이지의 목록 화면은 getRevisionPage로 나누어 조회할 것
      * @param pageId 검색할 페이지의 ID
      * @return List 객체로 Revision들을 반환
      * @throws SQLException 예외 발생 시, 호출한 PageManager에서 처리
      */
     public List<Revision> getRevisionsByPageId(Connection conn, long pageId) throws SQLException {
 
-        String sql = "SELECT * " +
-                "FROM file_revisions " +
-                "WHERE page_id = ?";
         List<Revision> revisionList = new ArrayList<>();
 
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(REVISIONS_BY_PAGE_SQL)) {
 
             pstmt.setLong(1, pageId);
-            ResultSet rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                long revisionId = rs.getLong("revision_id");
-                long actualDataId = rs.getLong("actual_data_id");
-                long committedByUserId = rs.getLong("committed_by_user_id");
-                Long parentRevisionId = rs.getLong("parent_revision_id");
-                String commitMessage = rs.getString("commit_message");
-                Timestamp createdAt = rs.getTimestamp("created_at");
-
-                revisionList.add(new Revision(
-                        revisionId,
-                        pageId,
-                        actualDataId,
-                        committedByUserId,
-                        parentRevisionId,
-                        commitMessage,
-                        createdAt)
-                );
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    revisionList.add(toRevision(rs));
+                }
+            }
+        }
+        return revisionList;
+    }
+
+    /**
+     * page_id에 해당하는 페이지의 revision을 (created_at, revision_id) 순서로 limit개씩 나누어 반환 (keyset pagination)
+     * OFFSET 대신 이전 목록의 마지막 revision 다음부터 조회하므로, (page_id, created_at, revision_id) 인덱스에서
+     * 필요한 행만 읽고 기록이 얼마나 쌓였는지와 관계없이 같은 비용이 든다
+     * @param pageId 검색할 페이지의 ID
+     * @param afterRevisionId 이전 목록의 마지막 revision_id, 처음부터 조회하면 0
+     * @param limit 최대 개수
+     * @param newestFirst true면 최신 revision부터 (이때 afterRevisionId보다 오래된 것을 조회)
+     * @return List 객체로 Revision들을 반환, 더 없으면 빈 목록
+     * @throws SQLException 예외 발생 시, 호출한 PageManager에서 처리
+     */
+    public List<Revision> getRevisionPage(Connection conn, long pageId, long afterRevisionId, int limit, boolean newestFirst) throws SQLException {
+
+        Revision after = (afterRevisionId > 0) ? getRevision(conn, afterRevisionId) : null;
+        if (afterRevisionId > 0 && (after == null || after.pageId() != pageId)) {
+            throw new SQLException("Revision " + afterRevisionId + " is not a revision of page " + pageId);
+        }
+
+        List<Revision> revisionList = new ArrayList<>();
+
+        try (PreparedStatement pstmt = conn.prepareStatement(revisionPageSql(after != null, newestFirst))) {
+
+            int index = 1;
+            pstmt.setLong(index++, pageId);
+            if (after != null) {
+                pstmt.setTimestamp(index++, after.createdAt());
+                pstmt.setTimestamp(index++, after.createdAt());
+                pstmt.setLong(index++, after.revisionId());
+            }
+            pstmt.setInt(index, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    revisionList.add(toRevision(rs));
+                }
+            }
+        }
+        return revisionList;
+    }
+
+    /**
+     * 그룹에 속한 각 페이지의 특정 시점 revision을 page_id 순으로 반환 (내보내기용)
+     * asOf가 null이면 pages.latest_revision_id를, 아니면 (created_at, revision_id)가 (asOf, upToRevisionId) 이하인
+     * 가장 마지막 revision을 페이지마다 (page_id, created_at, revision_id) 인덱스로 하나씩 찾는다
+     * 그 시점에 revision이 없던 페이지는 결과에 포함되지 않는다
+     * @param groupId 그룹의 ID
+     * @param asOf 기준 시각, null이면 최신
+     * @param upToRevisionId asOf와 같은 시각의 revision 중 포함할 마지막 revision_id (시각만 기준이면 Long.MAX_VALUE)
+     * @return List 객체로 Revision들을 반환
+     * @throws SQLException 예외 발생 시, 호출한 PageManager에서 처리
+     */
+    public List<Revision> getRevisionsAsOf(Connection conn, long groupId, Timestamp asOf, long upToRevisionId) throws SQLException {
+
+        List<Revision> revisionList = new ArrayList<>();
+
+        try (PreparedStatement pstmt = conn.prepareStatement((asOf == null) ? LATEST_REVISIONS_SQL : REVISIONS_AS_OF_SQL)) {
+
+            int index = 1;
+            if (asOf != null) {
+                pstmt.setTimestamp(index++, asOf);
+                pstmt.setTimestamp(index++, asOf);
+                pstmt.setLong(index++, upToRevisionId);
+            }
+            pstmt.setLong(index, groupId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    revisionList.add(toRevision(rs));
+                }
             }
         }
         return revisionList;
     }
+
+    /**
+     * 여러 revision의 작성자만 한 번에 조회 (blame 구간의 작성자 표시용, AUTHOR_LOOKUP_BATCH개씩 IN 조회)
+     * @param revisionIds 조회할 revision_id 목록 (중복 가능)
+     * @return 존재하는 것만 revision_id -> committed_by_user_id
+     * @throws SQLException 예외 발생 시, 호출한 PageManager에서 처리
+     */
+    public Map<Long, Long> getRevisionAuthors(Connection conn, Collection<Long> revisionIds) throws SQLException {
+        Map<Long, Long> authors = new HashMap<>();
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(revisionIds));
+
+        for (int from = 0; from < distinct.size(); from += AUTHOR_LOOKUP_BATCH) {
+            List<Long> part = distinct.subList(from, Math.min(from + AUTHOR_LOOKUP_BATCH, distinct.size()));
+            try (PreparedStatement pstmt = conn.prepareStatement(revisionAuthorsSql(part.size()))) {
+                for (int i = 0; i < part.size(); i++) {
+                    pstmt.setLong(i + 1, part.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        authors.put(rs.getLong("revision_id"), rs.getLong("committed_by_user_id"));
+                    }
+                }
+            }
+        }
+        return authors;
+    }
+
+    /**
+     * getRevisionAuthors의 쿼리 (revision_id count개)
+     */
+    static String revisionAuthorsSql(int count) {
+        return "SELECT revision_id, committed_by_user_id " +
+                "FROM file_revisions " +
+                "WHERE revision_id IN (" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+
+    /**
+     * getRevisionPage의 쿼리 (이전 목록의 마지막 revision이 있으면 그 다음부터)
+     */
+    static String revisionPageSql(boolean hasAfter, boolean newestFirst) {
+        String order = newestFirst ? "DESC" : "ASC";
+        String compare = newestFirst ? "<" : ">";
+        return "SELECT " + REVISION_COLUMNS + " " +
+                "FROM file_revisions " +
+                "WHERE page_id = ? " +
+                (hasAfter ? "AND (created_at " + compare + " ? OR (created_at = ? AND revision_id " + compare + " ?)) " : "") +
+                "ORDER BY created_at " + order + ", revision_id " + order + " " +
+                "LIMIT ?";
+    }
+
+    private static Revision toRevision(ResultSet rs) throws SQLException {
+        return new Revision(
+                rs.getLong("revision_id"),
+                rs.getLong("page_id"),
+                rs.getLong("actual_data_id"),
+                rs.getLong("committed_by_user_id"),
+                rs.getLong("parent_revision_id"),   // NULL이면 0
+                rs.getString("commit_message"),
+                rs.getTimestamp("created_at"));
+    }
+
+    /**
+     * page_id에 해당하는 페이지의 revision 그래프를 생성 (revision_id와 parent_revision_id만 조회)
+     * @param pageId 그래프를 만들 페이지의 ID
+     * @return revision_id 순으로 추가된 RevisionGraph
+     * @throws SQLException 예외 발생 시, 호출한 PageManager에서 처리
+     */
+    public RevisionGraph loadRevisionGraph(Connection conn, long pageId) throws SQLException {
+
+        RevisionGraph graph = new RevisionGraph(pageId);
+
+        try (PreparedStatement pstmt = conn.prepareStatement(REVISION_GRAPH_SQL)) {
+
+            pstmt.setLong(1, pageId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    // parent_revision_id가 NULL이면 getLong은 0을 반환 (루트)
+                    graph.add(rs.getLong("revision_id"), rs.getLong("parent_revision_id"));
+                }
+            }
+        }
+        return graph;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,492 @@
+package teamproject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 스키마 버전 관리 (ConnectionManager.connect에서 실행)
+ * schema_migrations 테이블에 적용한 버전을 기록하고, 아직 적용하지 않은 migration을 버전 순서대로 적용한다
+ * 각 단계는 information_schema로 이미 있는지 확인한 뒤 실행하므로, make_tables.sql로 만든 최신 스키마에서도,
+ * 이전 버전의 스키마에서도, 중간에 실패한 뒤 다시 실행해도 같은 결과가 된다
+ * 여러 클라이언트가 동시에 시작해도 GET_LOCK으로 한 곳에서만 실행한다
+ *
+ * 스키마를 바꿀 때는 make_tables.sql과 함께 MIGRATIONS 끝에 새 버전을 추가하고,
+ * 새 쿼리는 manager에 ..._SQL 상수로 만들어 PLAN_CHECKS에도 추가한다 (QueryPlanCheck로 확인)
+ */
+final class SchemaMigrator {
+
+    private static final String LOCK_NAME = "teamproject.schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+    // checksum을 채울 때 한 번에 읽는 file_data 행 수
+    private static final int BACKFILL_BATCH = 200;
+
+    /** 버전 하나에 속한 단계들, 모든 단계가 성공해야 schema_migrations에 기록 */
+    private record Migration(int version, String description, List<Step> steps) {}
+
+    /** 이미 적용되어 있으면 아무것도 하지 않는 DDL 한 단계 */
+    @FunctionalInterface
+    private interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    /** EXPLAIN으로 실행 계획을 확인할 manager 쿼리 (name은 쿼리를 실행하는 메서드) */
+    private record PlanCheck(String name, String sql, Object... parameters) {}
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "file_data content-addressed by checksum", List.of(
+                    // 이전 버전은 올릴 때마다 새 행을 만들었으므로, unique key를 만들기 전에 같은 내용의 행을 하나로 합친다
+                    deduplicateFileData(),
+                    createIndex("file_data", "uq_file_data_checksum", true, "checksum"))),
+            new Migration(2, "file_data delta storage", List.of(
+                    addColumn("file_data", "storage_type", "varchar(10) default 'FULL' not null"),
+                    addColumn("file_data", "base_data_id", "bigint unsigned"),
+                    addColumn("file_data", "chain_depth", "int default 0 not null"),
+                    addColumn("file_data", "content_size", "bigint"),
+                    addForeignKey("file_data", "fk_file_data_base",
+                            "foreign key (base_data_id) references file_data (actual_data_id)"))),
+            new Migration(3, "file_data content as longblob", List.of(
+                    modifyColumn("file_data", "content", "longblob", true))),
+            new Migration(4, "content-defined chunks", List.of(
+                    createTable("create table if not exists file_chunks (" +
+                            "chunk_hash varchar(64) primary key, " +
+                            "content mediumblob, " +
+                            "chunk_size int not null, " +
+                            "blob_location varchar(64), " +
+                            "created_at timestamp default current_timestamp not null)"),
+                    createTable("create table if not exists file_data_chunks (" +
+                            "actual_data_id bigint unsigned not null, " +
+                            "chunk_index int not null, " +
+                            "chunk_hash varchar(64) not null, " +
+                            "chunk_offset bigint not null, " +
+                            "chunk_size int not null, " +
+                            "primary key (actual_data_id, chunk_index), " +
+                            "key idx_file_data_chunks_hash (chunk_hash), " +
+                            "foreign key (actual_data_id) references file_data (actual_data_id) on delete cascade, " +
+                            "foreign key (chunk_hash) references file_chunks (chunk_hash))"))),
+            new Migration(5, "blob store locations", List.of(
+                    addColumn("file_data", "blob_location", "varchar(64)"),
+                    addColumn("file_chunks", "blob_location", "varchar(64)"),
+                    modifyColumn("file_chunks", "content", "mediumblob", true))),
+            new Migration(6, "chunk manifest offset index", List.of(
+                    createIndex("file_data_chunks", "idx_file_data_chunks_offset", false, "actual_data_id", "chunk_offset"))),
+            new Migration(7, "revision blame", List.of(
+                    createTable("create table if not exists revision_blame (" +
+                            "revision_id bigint unsigned primary key, " +
+                            "line_count int not null, " +
+                            "blame mediumblob not null, " +
+                            "created_at timestamp default current_timestamp not null, " +
+                            "foreign key (revision_id) references file_revisions (revision_id) on delete cascade)"))),
+            new Migration(8, "file_revisions page indexes", List.of(
+                    createIndex("file_revisions", "idx_file_revisions_page_revision", false, "page_id", "revision_id"),
+                    createIndex("file_revisions", "idx_file_revisions_page_created", false, "page_id", "created_at", "revision_id"))),
+            new Migration(9, "indexes for manager queries", List.of(
+                    // searchGroup (user_id -> group_id, user_role)와 가입 여부 확인을 index만으로 처리
+                    createIndex("group_membership", "idx_group_membership_user", false, "user_id", "group_id", "user_role"),
+                    createIndex("group_membership", "idx_group_membership_group", false, "group_id"),
+                    // 페이지 목록, 그룹의 최신 revision join (page_id 순서, latest_revision_id까지 index에서 읽음)
+                    createIndex("pages", "idx_pages_group", false, "group_id", "page_id", "latest_revision_id"),
+                    // 댓글 목록 (page_id, created_at 순서)과 페이지의 댓글 삭제
+                    createIndex("comments", "idx_comments_page_created", false, "page_id", "created_at"),
+                    // file_data 삭제 전 참조 확인
+                    createIndex("file_revisions", "idx_file_revisions_data", false, "actual_data_id")))
+    );
+
+    private static final Timestamp SAMPLE_TIMESTAMP = Timestamp.valueOf("2000-01-01 00:00:00");
+    // checksum 등 IN 목록 쿼리는 두 개짜리로 확인
+    private static final int SAMPLE_IN_LIST_SIZE = 2;
+
+    // manager가 실제로 실행하는 SQL (각 클래스의 ..._SQL 상수)
+    // 삽입과 UserManager.getAllUsers (전체 목록이 목적)는 제외
+    private static final List<PlanCheck> PLAN_CHECKS = List.of(
+            new PlanCheck("JdbcRepository.findMembershipsByUser", JdbcRepository.MEMBERSHIPS_BY_USER_SQL, 0L),
+            new PlanCheck("JdbcRepository.insertMembership", JdbcRepository.MEMBERSHIP_COUNT_SQL, 0L, 0L),
+            new PlanCheck("JdbcRepository.findGroup", JdbcRepository.GROUP_SQL, 0L),
+            new PlanCheck("JdbcRepository.findGroupByJoinKey", JdbcRepository.GROUP_BY_JOIN_KEY_SQL, ""),
+            new PlanCheck("JdbcRepository.deleteGroup (membership)", JdbcRepository.DELETE_GROUP_MEMBERSHIPS_SQL, 0L),
+            new PlanCheck("JdbcRepository.deleteGroup", JdbcRepository.DELETE_GROUP_SQL, 0L),
+            new PlanCheck("JdbcRepository.findUserByName", JdbcRepository.USER_BY_NAME_SQL, ""),
+            new PlanCheck("JdbcRepository.findUserById", JdbcRepository.USER_BY_ID_SQL, 0L),
+            new PlanCheck("JdbcRepository.findPasswordHash", JdbcRepository.PASSWORD_HASH_SQL, ""),
+            new PlanCheck("CommentManager.deleteComment (owner)", CommentManager.COMMENT_OWNER_SQL, 0L),
+            new PlanCheck("CommentManager.deleteComment", CommentManager.DELETE_COMMENT_SQL, 0L, 0L),
+            new PlanCheck("CommentManager.getComments", CommentManager.COMMENTS_SQL, 0L),
+            new PlanCheck("CommentManager.deleteAllComments", CommentManager.DELETE_PAGE_COMMENTS_SQL, 0L),
+            new PlanCheck("PageManager.searchPage", PageManager.SEARCH_PAGE_SQL, 0L),
+            new PlanCheck("PageManager.getLatestChecksums", PageManager.LATEST_CHECKSUMS_SQL, 0L),
+            new PlanCheck("PageManager.compareAndSetLatestRevision", PageManager.COMPARE_AND_SET_LATEST_REVISION_SQL, 0L, 0L, 0L),
+            new PlanCheck("PageManager.deletePageRecord", PageManager.DELETE_PAGE_SQL, 0L),
+            new PlanCheck("PageManager.getLatestRevisionId", PageManager.LATEST_REVISION_ID_SQL, 0L),
+            new PlanCheck("RevisionManager.getRevision", RevisionManager.REVISION_SQL, 0L),
+            new PlanCheck("RevisionManager.getRevisionsByPageId", RevisionManager.REVISIONS_BY_PAGE_SQL, 0L),
+            new PlanCheck("RevisionManager.getRevisionPage (first)",
+                    RevisionManager.revisionPageSql(false, true), 0L, 50),
+            new PlanCheck("RevisionManager.getRevisionPage (newest first)",
+                    RevisionManager.revisionPageSql(true, true), 0L, SAMPLE_TIMESTAMP, SAMPLE_TIMESTAMP, 0L, 50),
+            new PlanCheck("RevisionManager.getRevisionPage (oldest first)",
+                    RevisionManager.revisionPageSql(true, false), 0L, SAMPLE_TIMESTAMP, SAMPLE_TIMESTAMP, 0L, 50),
+            new PlanCheck("RevisionManager.getRevisionsAsOf (latest)", RevisionManager.LATEST_REVISIONS_SQL, 0L),
+            new PlanCheck("RevisionManager.getRevisionsAsOf",
+                    RevisionManager.REVISIONS_AS_OF_SQL, SAMPLE_TIMESTAMP, SAMPLE_TIMESTAMP, 0L, 0L),
+            new PlanCheck("RevisionManager.loadRevisionGraph", RevisionManager.REVISION_GRAPH_SQL, 0L),
+            new PlanCheck("RevisionManager.getRevisionAuthors",
+                    RevisionManager.revisionAuthorsSql(SAMPLE_IN_LIST_SIZE), 0L, 1L),
+            new PlanCheck("FileDataManager.findFileDataIdByChecksum", FileDataManager.FILE_DATA_ID_BY_CHECKSUM_SQL, ""),
+            new PlanCheck("FileDataManager.findFileDataIdsByChecksums",
+                    FileDataManager.fileDataIdsByChecksumsSql(SAMPLE_IN_LIST_SIZE), "", "0"),
+            new PlanCheck("FileDataManager.loadContent", FileDataManager.LOAD_CONTENT_SQL, 0L),
+            new PlanCheck("FileDataManager.streamContentTo", FileDataManager.STREAM_CONTENT_SQL, 0L),
+            new PlanCheck("FileDataManager.getDeltaBaseDepth", FileDataManager.DELTA_BASE_SQL, 0L),
+            new PlanCheck("FileDataManager.deleteFileDataIfUnreferenced", FileDataManager.BASE_DATA_ID_SQL, 0L),
+            new PlanCheck("FileDataManager.isReferenced", FileDataManager.IS_REFERENCED_SQL, 0L, 0L),
+            new PlanCheck("FileDataManager.getFileData", FileDataManager.FILE_DATA_SQL, 0L),
+            new PlanCheck("FileDataManager.readRange", FileDataManager.READ_RANGE_SQL, 1L, 1, 0L),
+            new PlanCheck("FileChunkManager.findExistingChunks",
+                    FileChunkManager.existingChunksSql(SAMPLE_IN_LIST_SIZE), "", "0"),
+            new PlanCheck("FileChunkManager.getManifest", FileChunkManager.MANIFEST_SQL, 0L),
+            new PlanCheck("FileChunkManager.getManifestRange", FileChunkManager.MANIFEST_RANGE_SQL, 0L, 0L, 0L, 0L),
+            new PlanCheck("FileChunkManager.getChunkContent", FileChunkManager.CHUNK_CONTENT_SQL, ""),
+            new PlanCheck("FileChunkManager.deleteManifest", FileChunkManager.DELETE_MANIFEST_SQL, 0L),
+            new PlanCheck("FileChunkManager.deleteUnreferencedChunks",
+                    FileChunkManager.deleteUnreferencedChunksSql(SAMPLE_IN_LIST_SIZE), "", "0"),
+            new PlanCheck("BlameManager.getBlame", BlameManager.BLAME_SQL, 0L)
+    );
+
+    SchemaMigrator() {}
+
+    /**
+     * 아직 적용하지 않은 migration을 버전 순서대로 적용
+     * @param conn primary DB connection (auto-commit, DDL은 MySQL에서 트랜잭션으로 묶이지 않음)
+     * @return 이번에 적용한 migration 수
+     * @throws SQLException 기본 테이블이 없거나 (make_tables.sql을 먼저 실행해야 함), migration 실패 시
+     */
+    int migrate(Connection conn) throws SQLException {
+        acquireLock(conn);
+        try {
+            if (!tableExists(conn, "users")) {
+                throw new SQLException("Schema Migrator: Base tables not found, run sql/make_tables.sql first.");
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("create table if not exists schema_migrations (" +
+                        "version int primary key, " +
+                        "description varchar(255) not null, " +
+                        "execution_millis bigint not null, " +
+                        "applied_at timestamp default current_timestamp not null)");
+            }
+
+            Set<Integer> applied = getAppliedVersions(conn);
+            int latest = MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+            if (applied.stream().anyMatch(version -> version > latest)) {
+                System.err.println("Schema Migrator: Database schema is newer than this client (V" + latest + "), consider updating.");
+            }
+
+            int count = 0;
+            for (Migration migration : MIGRATIONS) {
+                if (applied.contains(migration.version())) {
+                    continue;
+                }
+                long startNanos = System.nanoTime();
+                for (Step step : migration.steps()) {
+                    step.apply(conn);
+                }
+                long millis = (System.nanoTime() - startNanos) / 1_000_000;
+                recordVersion(conn, migration, millis);
+                System.out.println("Schema Migrator: Applied V" + migration.version() + " " + migration.description() + " (" + millis + " ms)");
+                count++;
+            }
+            if (count == 0) {
+                System.out.println("Schema Migrator: Schema is up to date (V" + latest + ").");
+            }
+            return count;
+        }
+        finally {
+            releaseLock(conn);
+        }
+    }
+
+    /**
+     * PLAN_CHECKS의 쿼리를 EXPLAIN하여, 테이블 전체 또는 index 전체를 읽는 (type ALL / index) 쿼리 목록을 반환
+     * 통계가 없는 빈 테이블에서는 optimizer가 다르게 판단할 수 있으므로 실제와 비슷한 데이터가 있는 DB에서 실행한다
+     * @return "쿼리 이름: 테이블 (type)" 목록, 모두 index를 사용하면 빈 목록
+     */
+    List<String> findFullScans(Connection conn) throws SQLException {
+        List<String> fullScans = new ArrayList<>();
+        for (PlanCheck check : PLAN_CHECKS) {
+            try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + check.sql())) {
+                for (int i = 0; i < check.parameters().length; i++) {
+                    pstmt.setObject(i + 1, check.parameters()[i]);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        String table = rs.getString("table");
+                        String type = rs.getString("type");
+                        // <derivedN>, <subqueryN> 등 임시 결과는 제외
+                        if (table != null && !table.startsWith("<") && ("ALL".equals(type) || "index".equals(type))) {
+                            fullScans.add(check.name() + ": " + table + " (" + type + ")");
+                        }
+                    }
+                }
+            }
+        }
+        return fullScans;
+    }
+
+    /**
+     * findFullScans와 같지만, 전체를 읽는 쿼리가 있으면 실패
+     * @throws SQLException 전체를 읽는 쿼리가 있으면 그 목록과 함께
+     */
+    void verifyQueryPlans(Connection conn) throws SQLException {
+        List<String> fullScans = findFullScans(conn);
+        if (!fullScans.isEmpty()) {
+            throw new SQLException("Schema Migrator: Full scans in query plans: " + String.join(", ", fullScans));
+        }
+        System.out.println("Schema Migrator: " + PLAN_CHECKS.size() + " query plans use indexes.");
+    }
+
+    /**
+     * 같은 checksum의 file_data 행을 가장 작은 actual_data_id 하나로 합친다 (uq_file_data_checksum을 만들기 전)
+     * 1. checksum이 없는 행은 content로 계산해 채운다 (이전 버전은 content 컬럼에만 저장)
+     * 2. 중복 행을 참조하는 file_revisions.actual_data_id, file_data.base_data_id를 남길 행으로 바꾼다
+     * 3. 더 이상 참조되지 않는 중복 행을 삭제한다
+     * unique key가 이미 있으면 중복이 있을 수 없으므로 아무것도 하지 않는다
+     */
+    private static Step deduplicateFileData() {
+        return conn -> {
+            if (indexExists(conn, "file_data", "uq_file_data_checksum")) {
+                return;
+            }
+            backfillChecksums(conn);
+
+            execute(conn, "create temporary table if not exists file_data_duplicates (" +
+                    "actual_data_id bigint unsigned primary key, " +
+                    "keep_id bigint unsigned not null)");
+            boolean autoCommit = conn.getAutoCommit();
+            try {
+                conn.setAutoCommit(false);
+                execute(conn, "delete from file_data_duplicates");
+                execute(conn, "insert into file_data_duplicates (actual_data_id, keep_id) " +
+                        "select d.actual_data_id, k.keep_id " +
+                        "from file_data d " +
+                        "join (select checksum, min(actual_data_id) as keep_id from file_data " +
+                        "where checksum is not null group by checksum having count(*) > 1) k on k.checksum = d.checksum " +
+                        "where d.actual_data_id <> k.keep_id");
+                execute(conn, "update file_revisions r " +
+                        "join file_data_duplicates m on m.actual_data_id = r.actual_data_id " +
+                        "set r.actual_data_id = m.keep_id");
+                if (columnExists(conn, "file_data", "base_data_id")) {
+                    execute(conn, "update file_data f " +
+                            "join file_data_duplicates m on m.actual_data_id = f.base_data_id " +
+                            "set f.base_data_id = m.keep_id");
+                }
+                int deleted;
+                try (Statement stmt = conn.createStatement()) {
+                    deleted = stmt.executeUpdate("delete d from file_data d " +
+                            "join file_data_duplicates m on m.actual_data_id = d.actual_data_id");
+                }
+                conn.commit();
+                if (deleted > 0) {
+                    System.out.println("Schema Migrator: Merged " + deleted + " duplicate file_data row(s).");
+                }
+            }
+            catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            finally {
+                conn.setAutoCommit(autoCommit);
+                execute(conn, "drop temporary table if exists file_data_duplicates");
+            }
+        };
+    }
+
+    /**
+     * checksum이 NULL인 file_data 행의 checksum을 content의 SHA-256으로 채운다 (BACKFILL_BATCH 행씩)
+     * content가 NULL인 행은 빈 내용으로 본다
+     */
+    private static void backfillChecksums(Connection conn) throws SQLException {
+        String selectSql = "SELECT actual_data_id, content " +
+                "FROM file_data " +
+                "WHERE checksum IS NULL AND actual_data_id > ? " +
+                "ORDER BY actual_data_id " +
+                "LIMIT " + BACKFILL_BATCH;
+        String updateSql = "UPDATE file_data " +
+                "SET checksum = ? " +
+                "WHERE actual_data_id = ?";
+
+        long lastId = 0;
+        int count = 0;
+        try (PreparedStatement select = conn.prepareStatement(selectSql);
+             PreparedStatement update = conn.prepareStatement(updateSql)) {
+            while (true) {
+                int rows = 0;
+                select.setLong(1, lastId);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        lastId = rs.getLong("actual_data_id");
+                        byte[] content = rs.getBytes("content");
+                        update.setString(1, FileDataManager.toHexString(
+                                FileDataManager.newSha256Digest().digest((content != null) ? content : new byte[0])));
+                        update.setLong(2, lastId);
+                        update.addBatch();
+                        rows++;
+                    }
+                }
+                if (rows == 0) {
+                    break;
+                }
+                update.executeBatch();
+                count += rows;
+            }
+        }
+        if (count > 0) {
+            System.out.println("Schema Migrator: Filled checksum of " + count + " file_data row(s).");
+        }
+    }
+
+    private static void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Schema Migrator: Timed out waiting for migration lock.");
+                }
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.executeQuery().close();
+        }
+        catch (SQLException e) {
+            // connection을 닫으면 lock도 풀리므로 실행은 계속
+            System.err.println("Schema Migrator: Error releasing migration lock: " + e.getMessage());
+        }
+    }
+
+    private static Set<Integer> getAppliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM schema_migrations")) {
+            while (rs.next()) {
+                versions.add(rs.getInt("version"));
+            }
+        }
+        return versions;
+    }
+
+    private static void recordVersion(Connection conn, Migration migration, long millis) throws SQLException {
+        String sql = "INSERT INTO schema_migrations (version, description, execution_millis) " +
+                "VALUES (?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, migration.version());
+            pstmt.setString(2, migration.description());
+            pstmt.setLong(3, millis);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static Step createTable(String ddl) {
+        return conn -> execute(conn, ddl);
+    }
+
+    private static Step addColumn(String table, String column, String definition) {
+        return conn -> {
+            if (!columnExists(conn, table, column)) {
+                execute(conn, "alter table " + table + " add column " + column + " " + definition);
+            }
+        };
+    }
+
+    /**
+     * 컬럼의 타입 또는 NULL 허용 여부가 다를 때만 변경 (큰 테이블의 불필요한 재작성 방지)
+     */
+    private static Step modifyColumn(String table, String column, String dataType, boolean nullable) {
+        return conn -> {
+            String sql = "SELECT data_type, is_nullable " +
+                    "FROM information_schema.columns " +
+                    "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, table);
+                pstmt.setString(2, column);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("Schema Migrator: Column " + table + "." + column + " not found.");
+                    }
+                    if (dataType.equalsIgnoreCase(rs.getString(1)) && nullable == "YES".equalsIgnoreCase(rs.getString(2))) {
+                        return;
+                    }
+                }
+            }
+            execute(conn, "alter table " + table + " modify column " + column + " " + dataType + (nullable ? "" : " not null"));
+        };
+    }
+
+    private static Step createIndex(String table, String index, boolean unique, String... columns) {
+        return conn -> {
+            if (!indexExists(conn, table, index)) {
+                execute(conn, "create " + (unique ? "unique " : "") + "index " + index +
+                        " on " + table + " (" + String.join(", ", columns) + ")");
+            }
+        };
+    }
+
+    private static Step addForeignKey(String table, String constraint, String definition) {
+        return conn -> {
+            String sql = "SELECT 1 " +
+                    "FROM information_schema.table_constraints " +
+                    "WHERE table_schema = DATABASE() AND table_name = ? AND constraint_name = ? AND constraint_type = 'FOREIGN KEY'";
+            if (!exists(conn, sql, table, constraint)) {
+                execute(conn, "alter table " + table + " add constraint " + constraint + " " + definition);
+            }
+        };
+    }
+
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        String sql = "SELECT 1 " +
+                "FROM information_schema.tables " +
+                "WHERE table_schema = DATABASE() AND table_name = ?";
+        return exists(conn, sql, table);
+    }
+
+    private static boolean indexExists(Connection conn, String table, String index) throws SQLException {
+        String sql = "SELECT 1 " +
+                "FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ? " +
+                "LIMIT 1";
+        return exists(conn, sql, table, index);
+    }
+
+    private static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        String sql = "SELECT 1 " +
+                "FROM information_schema.columns " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?";
+        return exists(conn, sql, table, column);
+    }
+
+    private static boolean exists(Connection conn, String sql, String... parameters) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                pstmt.setString(i + 1, parameters[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static void execute(Connection conn, String ddl) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(ddl);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package teamproject;
+
+import java.io.Closeable;
+import java.util.List;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * 두 revision을 좌우로 나란히 보여주는 diff 표 모델 (열: 이전 줄 번호, 이전 내용, 새 줄 번호, 새 내용)
+ * 행 목록을 미리 만들지 않고, 변경 구간마다 시작 행 번호만 저장해 두고 행 번호 -> 줄 번호를 이진 탐색으로 계산한다
+ * 줄 내용은 두 TextPreview에서 JTable이 그리는 행에 대해서만 디코딩하므로, 파일 크기와 관계없이 보이는 부분만 처리한다
+ * TextPreview가 줄 블록을 읽어 오면 표를 다시 그린다
+ */
+final class SideBySideDiffModel extends AbstractTableModel implements Closeable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int OLD_LINE_COLUMN = 0;
+    static final int OLD_TEXT_COLUMN = 1;
+    static final int NEW_LINE_COLUMN = 2;
+    static final int NEW_TEXT_COLUMN = 3;
+
+    enum RowType { SAME, CHANGED, REMOVED, ADDED }
+
+    private final transient RevisionDiff diff;
+    private final transient List<DiffHunk> hunks;
+    private final transient TextPreview oldPreview;
+    private final transient TextPreview newPreview;
+    private final String[] columnNames;
+    // hunkRows[h] = h번째 변경 구간이 시작되는 행
+    private final int[] hunkRows;
+    private final int rowCount;
+
+    SideBySideDiffModel(RevisionDiff diff, long oldRevisionId, long newRevisionId, TextPreview oldPreview, TextPreview newPreview) {
+        this.diff = diff;
+        this.hunks = diff.hunks();
+        this.oldPreview = oldPreview;
+        this.newPreview = newPreview;
+        this.columnNames = new String[] { "", "rev " + oldRevisionId, "", "rev " + newRevisionId };
+
+        hunkRows = new int[hunks.size()];
+        int row = 0;
+        int oldEnd = 0;
+        for (int h = 0; h < hunks.size(); h++) {
+            DiffHunk hunk = hunks.get(h);
+            row += hunk.oldStart() - oldEnd;   // 앞의 같은 줄들
+            hunkRows[h] = row;
+            row += rowsOf(hunk);
+            oldEnd = hunk.oldStart() + hunk.oldCount();
+        }
+        rowCount = row + (diff.oldLineCount() - oldEnd);
+
+        ListDataListener repaint = new ListDataListener() {
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                if (rowCount > 0) {
+                    fireTableRowsUpdated(0, rowCount - 1);
+                }
+            }
+
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+            }
+        };
+        oldPreview.addListDataListener(repaint);
+        newPreview.addListDataListener(repaint);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case OLD_LINE_COLUMN: {
+                int line = oldLineAt(row);
+                return (line >= 0) ? String.valueOf(line + 1) : "";
+            }
+            case OLD_TEXT_COLUMN:
+                return lineText(oldPreview, oldLineAt(row));
+            case NEW_LINE_COLUMN: {
+                int line = newLineAt(row);
+                return (line >= 0) ? String.valueOf(line + 1) : "";
+            }
+            default:
+                return lineText(newPreview, newLineAt(row));
+        }
+    }
+
+    /**
+     * 행의 종류 (렌더러의 배경색 결정용)
+     */
+    RowType getRowType(int row) {
+        int h = hunkAt(row);
+        if (h < 0 || row >= hunkRows[h] + rowsOf(hunks.get(h))) {
+            return RowType.SAME;
+        }
+        boolean hasOld = oldLineAt(row) >= 0;
+        boolean hasNew = newLineAt(row) >= 0;
+        if (hasOld && hasNew) {
+            return RowType.CHANGED;
+        }
+        return hasOld ? RowType.REMOVED : RowType.ADDED;
+    }
+
+    /**
+     * 행에 해당하는 이전 내용의 줄 (0부터), 해당 줄이 없으면 -1
+     */
+    int oldLineAt(int row) {
+        int h = hunkAt(row);
+        if (h < 0) {
+            return row;
+        }
+        DiffHunk hunk = hunks.get(h);
+        int offset = row - hunkRows[h];
+        if (offset < rowsOf(hunk)) {
+            return (offset < hunk.oldCount()) ? hunk.oldStart() + offset : -1;
+        }
+        return hunk.oldStart() + hunk.oldCount() + (offset - rowsOf(hunk));
+    }
+
+    /**
+     * 행에 해당하는 새 내용의 줄 (0부터), 해당 줄이 없으면 -1
+     */
+    int newLineAt(int row) {
+        int h = hunkAt(row);
+        if (h < 0) {
+            return row;
+        }
+        DiffHunk hunk = hunks.get(h);
+        int offset = row - hunkRows[h];
+        if (offset < rowsOf(hunk)) {
+            return (offset < hunk.newCount()) ? hunk.newStart() + offset : -1;
+        }
+        return hunk.newStart() + hunk.newCount() + (offset - rowsOf(hunk));
+    }
+
+    /**
+     * row 다음에 시작하는 변경 구간의 첫 행, 없으면 -1
+     */
+    int nextChangeRow(int row) {
+        int h = hunkAt(row) + 1;
+        return (h < hunkRows.length) ? hunkRows[h] : -1;
+    }
+
+    /**
+     * row 이전에 시작하는 변경 구간의 첫 행, 없으면 -1
+     */
+    int previousChangeRow(int row) {
+        int h = hunkAt(row);
+        if (h >= 0 && hunkRows[h] == row) {
+            h--;
+        }
+        return (h >= 0) ? hunkRows[h] : -1;
+    }
+
+    RevisionDiff getDiff() {
+        return diff;
+    }
+
+    /**
+     * 두 미리보기가 읽어 둔 블록을 버림
+     */
+    @Override
+    public void close() {
+        oldPreview.close();
+        newPreview.close();
+    }
+
+    /**
+     * row 위치나 그 이전에 시작하는 마지막 변경 구간의 번호, 없으면 -1
+     */
+    private int hunkAt(int row) {
+        int low = 0;
+        int high = hunkRows.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (hunkRows[mid] <= row) {
+                low = mid + 1;
+            }
+            else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private static int rowsOf(DiffHunk hunk) {
+        return Math.max(hunk.oldCount(), hunk.newCount());
+    }
+
+    private static String lineText(TextPreview preview, int line) {
+        // 줄이 너무 많아 미리보기가 앞부분만 index한 경우 그 뒤의 줄은 비워 둠
+        return (line >= 0 && line < preview.getSize()) ? preview.getLine(line) : "";
+    }
+}
@@ -11,6 +11,7 @@ public class StarterClass {
 		} catch (SQLException e) {
 			e.printStackTrace();
 			System.out.println("fail to connection.");
+			return; // 저장소가 없으면 로그인부터 할 수 없음
 		}
 		UserManager userManager = new UserManager(connectionManager);
         new LogIn(userManager, connectionManager);
@@ -0,0 +1,350 @@
+package teamproject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.swing.AbstractListModel;
+import javax.swing.SwingUtilities;
+
+/**
+ * 큰 파일의 미리보기용 텍스트 모델
+ * 파일 내용을 한 번 훑으며 줄 BLOCK_LINES개 (또는 BLOCK_BYTES)마다 블록의 시작 위치만 기록한 sparse index를 만들고, 내용은 보관하지 않는다
+ * JList는 화면에 보이는 줄에 대해서만 getElementAt을 호출하므로, 그 줄이 속한 블록만 readRange로 읽어 블록 안에서 줄을 찾는다
+ * 읽지 않은 블록의 줄은 LOADING_LINE으로 표시하고, 블록을 읽으면 (executor) EDT에서 그 줄들의 변경을 알린다
+ * 최근에 읽은 블록 MAX_CACHED_BLOCKS개만 메모리에 두므로, 파일 크기와 관계없이 스크롤과 줄 이동의 비용은 일정하다
+ */
+final class TextPreview extends AbstractListModel<String> implements Closeable {
+
+    private static final long serialVersionUID = 1L;
+
+    // 한 줄에서 표시할 최대 글자 수 (한 줄짜리 거대한 파일도 일정한 비용으로 그리도록)
+    static final int MAX_LINE_CHARS = 1000;
+    private static final int MAX_BYTES_PER_CHAR = 4; // UTF-8
+    private static final int MAX_LINE_BYTES = MAX_LINE_CHARS * MAX_BYTES_PER_CHAR;
+    // 블록 하나의 최대 줄 수와, 블록의 줄들이 시작하는 범위 (긴 줄이 많은 파일도 블록 하나를 읽는 양이 일정하도록)
+    static final int BLOCK_LINES = 1024;
+    static final int BLOCK_BYTES = 64 * 1024;
+    private static final int MAX_CACHED_BLOCKS = 16;
+    private static final String TAB_SPACES = "    ";
+    private static final String LOADING_LINE = "…";
+
+    /**
+     * 내용의 [offset, offset + length) 구간을 읽음 (FileDataManager.readRange)
+     */
+    @FunctionalInterface
+    interface RangeReader {
+        byte[] read(long offset, int length) throws SQLException;
+    }
+
+    /** 읽은 블록, lineStarts[i] = 블록 안 i번째 줄의 시작 위치, lineStarts[줄 수] = 읽은 내용의 끝 */
+    private record Block(byte[] content, int[] lineStarts) {}
+
+    private final transient RangeReader reader;
+    private final transient Executor executor;
+    // blockOffsets[b], blockFirstLines[b] = b번째 블록의 시작 위치와 첫 줄, 마지막 원소는 내용의 끝과 전체 줄 수
+    private final long[] blockOffsets;
+    private final int[] blockFirstLines;
+    private final int blockCount;
+    private final int lineCount;
+    private final int longestLineLength;
+    private final boolean truncated;
+    private final String lineNumberFormat;
+
+    // EDT에서만 사용
+    private final transient Map<Integer, Block> blocks = new LinkedHashMap<>(MAX_CACHED_BLOCKS, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Block> eldest) {
+            return size() > MAX_CACHED_BLOCKS;
+        }
+    };
+    private final transient Set<Integer> loadingBlocks = new HashSet<>();
+    private volatile boolean closed = false;
+
+    private TextPreview(RangeReader reader, Executor executor, LineIndexer index) {
+        this.reader = reader;
+        this.executor = executor;
+        this.blockOffsets = index.blockOffsets;
+        this.blockFirstLines = index.blockFirstLines;
+        this.blockCount = index.blockCount;
+        this.lineCount = index.lineCount;
+        this.longestLineLength = (int) Math.min(index.longestLineLength, MAX_LINE_CHARS);
+        this.truncated = index.truncated;
+        this.lineNumberFormat = "%" + Math.max(4, String.valueOf(lineCount).length()) + "d  %s";
+    }
+
+    /**
+     * 내용을 한 번 훑어 블록 index를 만든다 (백그라운드 스레드에서 호출할 것)
+     * @param content index에 쓸 내용을 받을 channel을 넘겨받아 처음부터 끝까지 기록하는 작업 (FileDataManager.writeContentTo)
+     * @param reader 블록을 읽을 때 사용
+     * @param executor 블록을 읽을 스레드 (EDT가 아닌 곳)
+     * @return 미리보기 모델, content가 false를 반환하면 (내용이 없음) null
+     * @throws SQLException 내용을 읽는 중 오류
+     * @throws IOException 내용을 읽는 중 오류
+     */
+    static TextPreview open(ContentWriter content, RangeReader reader, Executor executor) throws SQLException, IOException {
+        LineIndexer index = new LineIndexer();
+        if (!content.writeTo(index)) {
+            return null;
+        }
+        index.finish();
+        return new TextPreview(reader, executor, index);
+    }
+
+    /**
+     * 이미 메모리에 있는 내용으로 미리보기를 만든다 (repository.engine=memory, 블록은 배열에서 복사)
+     * @param content 파일 내용 전체
+     * @param executor 블록을 읽을 스레드 (EDT가 아닌 곳)
+     */
+    static TextPreview of(byte[] content, Executor executor) throws SQLException, IOException {
+        return open(out -> {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            return true;
+        }, (offset, length) -> Arrays.copyOfRange(content, (int) offset, (int) Math.min(content.length, offset + length)), executor);
+    }
+
+    /**
+     * 내용 전체를 channel에 기록
+     */
+    @FunctionalInterface
+    interface ContentWriter {
+        /** @return 기록했으면 true, 내용이 없으면 false */
+        boolean writeTo(WritableByteChannel out) throws SQLException, IOException;
+    }
+
+    @Override
+    public int getSize() {
+        return lineCount;
+    }
+
+    /**
+     * index번째 줄을 줄 번호와 함께 반환
+     */
+    @Override
+    public String getElementAt(int index) {
+        return String.format(lineNumberFormat, index + 1, getLine(index));
+    }
+
+    /**
+     * index번째 줄의 내용 (줄바꿈 제외, MAX_LINE_CHARS를 넘는 부분은 생략), EDT에서 호출
+     * 줄이 속한 블록을 아직 읽지 않았으면 읽기를 시작하고 LOADING_LINE을 반환한다
+     */
+    String getLine(int index) {
+        int b = blockOf(index);
+        Block block = blocks.get(b);
+        if (block == null) {
+            loadBlock(b);
+            return LOADING_LINE;
+        }
+
+        int line = index - blockFirstLines[b];
+        int start = block.lineStarts()[line];
+        int end = block.lineStarts()[line + 1];
+        // 읽은 범위에서 줄이 잘렸으면 (블록 끝의 긴 줄) 끝의 바이트는 줄바꿈이 아님
+        boolean cut = (line + 1 == block.lineStarts().length - 1) && blockOffsets[b] + end < blockOffsets[b + 1];
+        if (!cut && end > start && block.content()[end - 1] == '\n') {
+            end--;
+        }
+        if (!cut && end > start && block.content()[end - 1] == '\r') {
+            end--;
+        }
+
+        int length = Math.min(end - start, MAX_LINE_BYTES);
+        String text = new String(block.content(), start, length, StandardCharsets.UTF_8).replace("\t", TAB_SPACES);
+        if (text.length() > MAX_LINE_CHARS || length < end - start || cut) {
+            text = text.substring(0, Math.min(text.length(), MAX_LINE_CHARS)) + " …";
+        }
+        return text;
+    }
+
+    /**
+     * 가장 긴 줄의 길이 (MAX_LINE_CHARS 이하, 목록의 고정 너비 계산용)
+     */
+    int getLongestLineLength() {
+        return longestLineLength;
+    }
+
+    /**
+     * 줄이 너무 많아 앞부분만 미리보기 하는 경우 true
+     */
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * 읽어 둔 블록을 버리고, 이후에 끝나는 블록 읽기는 반영하지 않음
+     */
+    @Override
+    public void close() {
+        closed = true;
+        blocks.clear();
+    }
+
+    /**
+     * line이 속한 블록 (blockFirstLines에서 이진 탐색)
+     */
+    private int blockOf(int line) {
+        int b = Arrays.binarySearch(blockFirstLines, 0, blockCount, line);
+        return (b >= 0) ? b : -b - 2;
+    }
+
+    /**
+     * b번째 블록을 executor에서 읽고, EDT에서 캐시에 넣은 뒤 블록의 줄들이 바뀌었음을 알림
+     * 블록의 줄은 모두 처음 BLOCK_BYTES 안에서 시작하므로, 그 뒤로 MAX_LINE_BYTES까지만 읽으면 모든 줄의 표시할 부분이 들어 있다
+     */
+    private void loadBlock(int b) {
+        if (closed || !loadingBlocks.add(b)) {
+            return;
+        }
+        long offset = blockOffsets[b];
+        int length = (int) Math.min(blockOffsets[b + 1] - offset, BLOCK_BYTES + MAX_LINE_BYTES + 1L);
+        int lines = blockFirstLines[b + 1] - blockFirstLines[b];
+        try {
+            executor.execute(() -> {
+                Block block = null;
+                if (!closed) {
+                    try {
+                        byte[] content = reader.read(offset, length);
+                        block = (content != null) ? new Block(content, findLineStarts(content, lines)) : null;
+                    }
+                    catch (SQLException | RuntimeException e) {
+                        System.err.println("Text Preview: Error reading lines at offset " + offset + ": " + e.getMessage());
+                    }
+                }
+                Block loaded = block;
+                SwingUtilities.invokeLater(() -> {
+                    loadingBlocks.remove(b);
+                    if (closed || loaded == null) {
+                        return;
+                    }
+                    blocks.put(b, loaded);
+                    fireContentsChanged(this, blockFirstLines[b], blockFirstLines[b + 1] - 1);
+                });
+            });
+        }
+        catch (RejectedExecutionException e) {
+            loadingBlocks.remove(b);
+        }
+    }
+
+    /**
+     * 블록 내용에서 lines개 줄의 시작 위치를 찾음 (내용이 잘렸으면 찾지 못한 줄은 끝 위치에서 시작하는 빈 줄)
+     */
+    private static int[] findLineStarts(byte[] content, int lines) {
+        int[] lineStarts = new int[lines + 1];
+        int line = 1;
+        for (int i = 0; i < content.length && line < lines; i++) {
+            if (content[i] == '\n') {
+                lineStarts[line++] = i + 1;
+            }
+        }
+        while (line <= lines) {
+            lineStarts[line++] = content.length;
+        }
+        return lineStarts;
+    }
+
+    /**
+     * 내용을 받으며 블록의 시작 위치를 기록하는 channel (받은 내용은 보관하지 않음)
+     * 줄 BLOCK_LINES개가 찼거나 블록 시작에서 BLOCK_BYTES 이상 지난 줄에서 새 블록을 시작한다
+     */
+    private static final class LineIndexer implements WritableByteChannel {
+
+        // 줄 번호는 int이므로 그보다 많은 줄은 미리보기 하지 않음
+        private static final int MAX_LINES = Integer.MAX_VALUE - 1;
+
+        private long[] blockOffsets = new long[64];
+        private int[] blockFirstLines = new int[64];
+        private int blockCount = 1;
+        private long position = 0;
+        private long lineStart = 0;
+        private int lineCount = 0;
+        private long longestLineLength = 0;
+        private boolean truncated = false;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int read = src.remaining();
+            if (truncated) {
+                src.position(src.limit());
+                return read;
+            }
+            while (src.hasRemaining()) {
+                byte value = src.get();
+                position++;
+                if (value == '\n') {
+                    endLine(position);
+                    if (truncated) {
+                        src.position(src.limit());
+                        break;
+                    }
+                }
+            }
+            return read;
+        }
+
+        /**
+         * 줄 하나를 끝내고, 다음 줄이 새 블록을 시작해야 하면 기록
+         */
+        private void endLine(long nextLineStart) {
+            longestLineLength = Math.max(longestLineLength, nextLineStart - lineStart - 1);
+            lineCount++;
+            lineStart = nextLineStart;
+            if (lineCount == MAX_LINES) {
+                truncated = true;
+                return;
+            }
+            int b = blockCount - 1;
+            if (lineCount - blockFirstLines[b] >= BLOCK_LINES || nextLineStart - blockOffsets[b] >= BLOCK_BYTES) {
+                if (blockCount + 1 >= blockOffsets.length) {
+                    blockOffsets = Arrays.copyOf(blockOffsets, blockOffsets.length * 2);
+                    blockFirstLines = Arrays.copyOf(blockFirstLines, blockFirstLines.length * 2);
+                }
+                blockOffsets[blockCount] = nextLineStart;
+                blockFirstLines[blockCount] = lineCount;
+                blockCount++;
+            }
+        }
+
+        /**
+         * 마지막 줄 (줄바꿈으로 끝나지 않는 경우)을 세고, 끝 위치와 전체 줄 수를 마지막 원소로 기록
+         */
+        void finish() {
+            if (!truncated && lineStart < position) {
+                longestLineLength = Math.max(longestLineLength, position - lineStart);
+                lineCount++;
+                lineStart = position;
+            }
+            // 줄바꿈으로 끝나 비어 있는 마지막 블록은 끝 표시로 사용
+            if (blockCount > 1 && blockFirstLines[blockCount - 1] == lineCount) {
+                blockCount--;
+            }
+            blockOffsets[blockCount] = lineStart;
+            blockFirstLines[blockCount] = lineCount;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
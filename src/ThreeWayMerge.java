@@ -0,0 +1,167 @@
+package teamproject;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 공통 조상(base)과 두 revision(ours, theirs)의 내용을 줄 단위로 합치는 3-way merge (diff3 방식)
+ * base -> ours, base -> theirs를 각각 MyersDiff로 비교한 뒤, 세 내용 모두에서 같은 줄을 기준점으로 구간을 나눈다
+ * 한쪽만 바꾼 구간은 바뀐 쪽을 사용하고, 양쪽이 다르게 바꾼 구간은 git과 같은 충돌 표시(<<<<<<< ======= >>>>>>>)로 둘 다 남긴다
+ * 줄은 ISO-8859-1로 읽어 바이트와 1:1로 대응시키므로, 인코딩과 줄바꿈 문자(\r\n 등)가 바뀌지 않고 그대로 보존된다
+ * 필요한 메모리는 세 내용의 크기에 비례한다 (diff 표를 만들지 않음)
+ */
+final class ThreeWayMerge {
+
+    static final String CONFLICT_START = "<<<<<<< ";
+    static final String CONFLICT_SEPARATOR = "=======";
+    static final String CONFLICT_END = ">>>>>>> ";
+
+    /**
+     * merge 결과
+     * @param content 합쳐진 내용 (충돌 구간은 충돌 표시 포함)
+     * @param conflictCount 충돌 구간의 개수, 0이면 자동으로 합쳐짐
+     */
+    record Result(byte[] content, int conflictCount) {
+    }
+
+    private final String[] baseLines;
+    private final String[] oursLines;
+    private final String[] theirsLines;
+    private final int[] base;
+    private final int[] ours;
+    private final int[] theirs;
+    private final String oursLabel;
+    private final String theirsLabel;
+    private final ByteArrayOutputStream out;
+    private int conflictCount = 0;
+
+    private ThreeWayMerge(byte[] baseContent, byte[] oursContent, byte[] theirsContent, String oursLabel, String theirsLabel) {
+        this.baseLines = MyersDiff.splitLines(baseContent);
+        this.oursLines = MyersDiff.splitLines(oursContent);
+        this.theirsLines = MyersDiff.splitLines(theirsContent);
+
+        // 같은 내용의 줄은 같은 ID를 갖도록 세 내용의 줄을 함께 번호 매김
+        Map<String, Integer> lineIds = new HashMap<>();
+        this.base = MyersDiff.toLineIds(baseLines, lineIds);
+        this.ours = MyersDiff.toLineIds(oursLines, lineIds);
+        this.theirs = MyersDiff.toLineIds(theirsLines, lineIds);
+
+        this.oursLabel = oursLabel;
+        this.theirsLabel = theirsLabel;
+        this.out = new ByteArrayOutputStream(Math.max(oursContent.length, theirsContent.length));
+    }
+
+    /**
+     * 세 내용을 합침
+     * @param baseContent 공통 조상의 내용, 공통 조상이 없으면 빈 배열
+     * @param oursContent 합칠 대상 revision의 내용
+     * @param theirsContent 합쳐 넣을 revision의 내용
+     * @param oursLabel 충돌 표시에서 ours 쪽에 붙일 이름 (예: "rev 12")
+     * @param theirsLabel 충돌 표시에서 theirs 쪽에 붙일 이름
+     * @return 합쳐진 내용과 충돌 개수
+     */
+    static Result merge(byte[] baseContent, byte[] oursContent, byte[] theirsContent, String oursLabel, String theirsLabel) {
+        ThreeWayMerge merge = new ThreeWayMerge(baseContent, oursContent, theirsContent, oursLabel, theirsLabel);
+        merge.run();
+        return new Result(merge.out.toByteArray(), merge.conflictCount);
+    }
+
+    private void run() {
+        int[] baseToOurs = MyersDiff.match(base, ours);
+        int[] baseToTheirs = MyersDiff.match(base, theirs);
+
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < base.length || j < ours.length || k < theirs.length) {
+            // 세 내용이 모두 같은 줄이 이어지는 구간
+            while (i < base.length && baseToOurs[i] == j && baseToTheirs[i] == k) {
+                write(baseLines[i]);
+                i++;
+                j++;
+                k++;
+            }
+
+            // 다음 기준점: 양쪽 모두에 남아 있는 base 줄
+            int nextBase = i;
+            while (nextBase < base.length && (baseToOurs[nextBase] == MyersDiff.NO_MATCH || baseToTheirs[nextBase] == MyersDiff.NO_MATCH)) {
+                nextBase++;
+            }
+            int nextOurs = (nextBase < base.length) ? baseToOurs[nextBase] : ours.length;
+            int nextTheirs = (nextBase < base.length) ? baseToTheirs[nextBase] : theirs.length;
+
+            mergeHunk(i, nextBase, j, nextOurs, k, nextTheirs);
+            i = nextBase;
+            j = nextOurs;
+            k = nextTheirs;
+        }
+    }
+
+    /**
+     * 기준점 사이의 한 구간을 합침
+     */
+    private void mergeHunk(int baseStart, int baseEnd, int oursStart, int oursEnd, int theirsStart, int theirsEnd) {
+        if (sameLines(base, baseStart, baseEnd, ours, oursStart, oursEnd)) {
+            writeLines(theirsLines, theirsStart, theirsEnd);    // theirs만 바꿈
+        }
+        else if (sameLines(base, baseStart, baseEnd, theirs, theirsStart, theirsEnd)
+                || sameLines(ours, oursStart, oursEnd, theirs, theirsStart, theirsEnd)) {
+            writeLines(oursLines, oursStart, oursEnd);          // ours만 바꿨거나 양쪽이 똑같이 바꿈
+        }
+        else {
+            // 양쪽이 다르게 바꿈: 양쪽에 공통인 앞뒤 줄은 충돌 구간 밖으로 빼서 충돌을 최소화
+            while (oursStart < oursEnd && theirsStart < theirsEnd && ours[oursStart] == theirs[theirsStart]) {
+                write(oursLines[oursStart]);
+                oursStart++;
+                theirsStart++;
+            }
+            int commonSuffix = 0;
+            while (oursStart < oursEnd - commonSuffix && theirsStart < theirsEnd - commonSuffix
+                    && ours[oursEnd - commonSuffix - 1] == theirs[theirsEnd - commonSuffix - 1]) {
+                commonSuffix++;
+            }
+
+            conflictCount++;
+            write(CONFLICT_START + oursLabel + "\n");
+            writeSide(oursLines, oursStart, oursEnd - commonSuffix);
+            write(CONFLICT_SEPARATOR + "\n");
+            writeSide(theirsLines, theirsStart, theirsEnd - commonSuffix);
+            write(CONFLICT_END + theirsLabel + "\n");
+            writeLines(oursLines, oursEnd - commonSuffix, oursEnd);
+        }
+    }
+
+    /**
+     * 충돌 구간의 한쪽 내용을 기록 (마지막 줄에 줄바꿈이 없으면 충돌 표시가 같은 줄에 붙지 않도록 추가)
+     */
+    private void writeSide(String[] lines, int start, int end) {
+        writeLines(lines, start, end);
+        if (end > start && !lines[end - 1].endsWith("\n")) {
+            write("\n");
+        }
+    }
+
+    private void writeLines(String[] lines, int start, int end) {
+        for (int i = start; i < end; i++) {
+            write(lines[i]);
+        }
+    }
+
+    private void write(String line) {
+        out.writeBytes(line.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static boolean sameLines(int[] a, int aStart, int aEnd, int[] b, int bStart, int bEnd) {
+        if (aEnd - aStart != bEnd - bStart) {
+            return false;
+        }
+        for (int i = 0; i < aEnd - aStart; i++) {
+            if (a[aStart + i] != b[bStart + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
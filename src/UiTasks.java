@@ -0,0 +1,287 @@
+package teamproject;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import javax.swing.BorderFactory;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+/**
+ * 창에서 호출하는 DB 작업 (controller, manager 메소드)을 EDT가 아닌 스레드에서 실행 (SwingWorker)
+ * 창마다 하나씩 만들어 사용하며, 작업 시작과 콜백은 모두 EDT에서 일어난다
+ * 작업 중에는 상태 표시줄 (getStatusBar)에 진행 상황을 보여주고, 넘겨받은 버튼은 끝날 때까지 비활성화한다
+ * 진행 상황과 목록 항목은 작업 스레드에서 여러 번 알려도 모아서 한 번에 화면에 반영한다
+ * 창을 닫으면 (cancelAll) 진행 중인 작업을 취소하고, 그 뒤에 끝난 작업의 결과는 화면에 반영하지 않는다
+ */
+final class UiTasks {
+
+	/**
+	 * 진행 상황을 알리는 작업
+	 */
+	@FunctionalInterface
+	interface Task<T> {
+		T run(Progress progress) throws Exception;
+	}
+
+	/**
+	 * 목록의 항목 하나에 대한 작업 (forEach)
+	 */
+	@FunctionalInterface
+	interface ItemTask<S, V> {
+		V run(int index, S item) throws Exception;
+	}
+
+	/**
+	 * 작업 스레드에서 진행 상황을 알리거나 취소 여부를 확인
+	 */
+	interface Progress {
+		/**
+		 * @param total 전체 개수, 모르면 0
+		 * @param message 상태 표시줄에 보여줄 문장, null이면 작업 이름
+		 */
+		void update(int completed, int total, String message);
+
+		boolean isCancelled();
+	}
+
+	private final JFrame owner;
+	private final JPanel statusBar;
+	private final JLabel statusLabel;
+	private final JProgressBar progressBar;
+	// 진행 중인 작업, 상태 표시줄에는 가장 나중에 시작한 작업을 보여준다 (EDT에서만 사용)
+	private final List<Worker<?, ?>> running = new ArrayList<>();
+	private boolean closed = false;
+
+	UiTasks(JFrame owner) {
+		this.owner = owner;
+		statusLabel = new JLabel(" ");
+		progressBar = new JProgressBar();
+		progressBar.setPreferredSize(new Dimension(150, 16));
+		progressBar.setStringPainted(true);
+
+		statusBar = new JPanel(new BorderLayout(10, 0));
+		statusBar.setBorder(BorderFactory.createEmptyBorder(2, 10, 2, 10));
+		statusBar.add(statusLabel, BorderLayout.CENTER);
+		statusBar.add(progressBar, BorderLayout.EAST);
+		statusBar.setVisible(false);
+	}
+
+	/**
+	 * 작업 중에만 보이는 상태 표시줄 (작업 이름 + 진행 막대)
+	 */
+	JComponent getStatusBar() {
+		return statusBar;
+	}
+
+	/**
+	 * 작업을 실행하고, 성공하면 결과를 EDT에서 onDone에 넘긴다 (예외가 나면 오류 대화상자)
+	 * @param title 상태 표시줄과 오류 메시지에 쓰는 작업 이름 (예: "페이지 삭제")
+	 * @param disabled 작업이 끝날 때까지 비활성화할 버튼 (두 번 눌러 같은 작업이 겹치지 않도록)
+	 */
+	<T> Future<T> run(String title, Callable<T> work, Consumer<T> onDone, JComponent... disabled) {
+		return runWithProgress(title, progress -> work.call(), onDone, disabled);
+	}
+
+	/**
+	 * run과 같지만, 작업 중에 Progress로 진행 상황을 알릴 수 있다
+	 */
+	<T> Future<T> runWithProgress(String title, Task<T> work, Consumer<T> onDone, JComponent... disabled) {
+		return start(new Worker<T, Void>(title, null, disabled) {
+			@Override
+			protected T doInBackground() throws Exception {
+				return work.run(this);
+			}
+
+			@Override
+			void succeeded(T result) {
+				onDone.accept(result);
+			}
+		});
+	}
+
+	/**
+	 * 목록을 불러온 뒤 항목마다 item을 실행하고, 결과를 모아서 onBatch로 화면에 추가 (항목마다 DB 조회가 필요한 목록용)
+	 * 목록이 길어도 처음 몇 항목부터 바로 보이고, 화면은 항목마다가 아니라 묶음마다 갱신된다
+	 * @param source 목록을 불러오는 작업, null을 반환하면 실패로 처리
+	 * @param onBatch 항목 순서대로 한 번 이상 호출 (EDT)
+	 * @param onDone 모든 항목을 반영한 뒤 호출, 필요 없으면 null
+	 * @return 목록을 다시 불러오기 전에 이전 작업을 취소할 때 사용 (취소하면 남은 항목은 반영하지 않음)
+	 */
+	<S, V> Future<Void> forEach(String title, Callable<List<S>> source, ItemTask<S, V> item, Consumer<List<V>> onBatch, Runnable onDone) {
+		return start(new Worker<Void, V>(title, onBatch) {
+			@Override
+			protected Void doInBackground() throws Exception {
+				List<S> items = source.call();
+				if (items == null) {
+					throw new IllegalStateException("목록을 불러오지 못했습니다.");
+				}
+				update(0, items.size(), null);
+				for (int i = 0; i < items.size() && !isCancelled(); i++) {
+					emit(item.run(i, items.get(i)));
+					update(i + 1, items.size(), null);
+				}
+				return null;
+			}
+
+			@Override
+			void succeeded(Void result) {
+				if (onDone != null) {
+					onDone.run();
+				}
+			}
+		});
+	}
+
+	/**
+	 * 진행 중인 작업을 모두 취소 (창의 dispose에서 호출)
+	 * 취소된 작업과 이후에 끝나는 작업의 결과는 화면에 반영하지 않는다
+	 */
+	void cancelAll() {
+		closed = true;
+		for (Worker<?, ?> worker : new ArrayList<>(running)) {
+			worker.cancel(true);
+		}
+		running.clear();
+		updateStatusBar();
+	}
+
+	private <T> Future<T> start(Worker<T, ?> worker) {
+		if (closed) {
+			worker.cancel(false);
+			return worker;
+		}
+		running.add(worker);
+		worker.setButtonsEnabled(false);
+		updateStatusBar();
+		worker.execute();
+		return worker;
+	}
+
+	private void updateStatusBar() {
+		if (closed || running.isEmpty()) {
+			statusBar.setVisible(false);
+			return;
+		}
+		Worker<?, ?> worker = running.get(running.size() - 1);
+		String message = worker.message;
+		statusLabel.setText((message != null) ? message : worker.title + " 중...");
+		int total = worker.total;
+		if (total > 0) {
+			progressBar.setIndeterminate(false);
+			progressBar.setMaximum(total);
+			progressBar.setValue(worker.completed);
+			progressBar.setString(worker.completed + " / " + total);
+		}
+		else {
+			progressBar.setIndeterminate(true);
+			progressBar.setString("");
+		}
+		statusBar.setVisible(true);
+	}
+
+	private abstract class Worker<T, V> extends SwingWorker<T, Void> implements Progress {
+		private final String title;
+		private final Consumer<List<V>> onBatch;
+		private final JComponent[] buttons;
+		// 작업 스레드에서 쌓고 EDT에서 한꺼번에 가져감
+		private final List<V> pendingItems = new ArrayList<>();
+		private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+		private volatile int completed;
+		private volatile int total;
+		private volatile String message;
+
+		Worker(String title, Consumer<List<V>> onBatch, JComponent... buttons) {
+			this.title = title;
+			this.onBatch = onBatch;
+			this.buttons = buttons;
+		}
+
+		abstract void succeeded(T result);
+
+		@Override
+		public void update(int completed, int total, String message) {
+			this.completed = completed;
+			this.total = total;
+			this.message = message;
+			scheduleRefresh();
+		}
+
+		void emit(V item) {
+			synchronized (pendingItems) {
+				pendingItems.add(item);
+			}
+			scheduleRefresh();
+		}
+
+		// 이미 예약된 갱신이 있으면 그 갱신에서 함께 반영
+		private void scheduleRefresh() {
+			if (refreshScheduled.compareAndSet(false, true)) {
+				SwingUtilities.invokeLater(this::refresh);
+			}
+		}
+
+		private void refresh() {
+			refreshScheduled.set(false);
+			if (closed || isCancelled()) {
+				return;
+			}
+			List<V> batch;
+			synchronized (pendingItems) {
+				batch = new ArrayList<>(pendingItems);
+				pendingItems.clear();
+			}
+			if (!batch.isEmpty()) {
+				onBatch.accept(batch);
+			}
+			updateStatusBar();
+		}
+
+		void setButtonsEnabled(boolean enabled) {
+			for (JComponent button : buttons) {
+				button.setEnabled(enabled);
+			}
+		}
+
+		@Override
+		protected final void done() {
+			running.remove(this);
+			setButtonsEnabled(true);
+			updateStatusBar();
+			if (closed || isCancelled()) {
+				return;
+			}
+			// 아직 반영하지 않은 항목을 먼저 반영
+			refresh();
+
+			T result;
+			try {
+				result = get();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				cause.printStackTrace();
+				JOptionPane.showMessageDialog(owner, title + " 중 오류 발생:\n" + cause.getMessage(), "오류", JOptionPane.ERROR_MESSAGE);
+				return;
+			}
+			succeeded(result);
+		}
+	}
+}
@@ -2,20 +2,30 @@ package teamproject;
 
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
-import java.sql.*;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class UserManager {
 
-    private final ConnectionManager connectionManager;
+    private final Repository repository;
+    private final UserRepository users;
     private static final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     public UserManager(ConnectionManager connectionManager) {
-        if (connectionManager == null) {
-            throw new IllegalArgumentException("ConnectionManager cannot be null.");
+        this(connectionManager.getRepository());
+    }
+
+    /**
+     * @param repository 사용자를 저장할 저장소 (JdbcRepository 또는 InMemoryRepository)
+     */
+    public UserManager(Repository repository) {
+        if (repository == null) {
+            throw new IllegalArgumentException("Repository cannot be null.");
         }
-        this.connectionManager = connectionManager;
+        this.repository = repository;
+        this.users = repository.users();
     }
 
     /**
@@ -50,33 +60,10 @@ public class UserManager {
         // 해싱된 비밀번호로 사용
         String passwordHash = hashPassword(password);
 
-        String sql = "INSERT INTO users " +
-                "(user_name, password_hash, created_at) " +
-                "VALUES (?, ?, ?)";
-
-        try (Connection conn = connectionManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            pstmt.setString(1, username);
-            pstmt.setString(2, passwordHash);
-            pstmt.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
-
-            int affectedRows = pstmt.executeUpdate();
-
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        long generatedId = generatedKeys.getLong(1);
-                        System.out.println("User inserted successfully: " + username + " (ID: " + generatedId + ")");
-                        return generatedId;
-                    } else {
-                        throw new SQLException("Inserting user failed for " + username + ", no ID obtained.");
-                    }
-                }
-            } else {
-                throw new SQLException("Inserting user failed for " + username + ", no rows affected.");
-            }
-
+        try {
+            long generatedId = users.insertUser(username, passwordHash);
+            System.out.println("User inserted successfully: " + username + " (ID: " + generatedId + ")");
+            return generatedId;
         }
         catch (SQLException e) {
             System.err.println("User Manager: Error adding user: " + e.getMessage());
@@ -91,28 +78,14 @@ public class UserManager {
      * @return 찾은 사용자 정보 객체 (User), 없으면 null
      */
     public User findUserByUsername(String username) {
-        String sql = "SELECT user_id, user_name, created_at " +
-                "FROM users " +
-                "WHERE user_name = ?";
-        ResultSet rs = null;
-
-        try (Connection conn = connectionManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, username);
-            rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                long userId = rs.getLong("user_id");
-                String foundUsername = rs.getString("user_name");
-                Timestamp createdAt = rs.getTimestamp("created_at");
-
-                return new User(userId, foundUsername, createdAt);
-            } else {
+        try {
+            User user = users.findUserByName(username);
+            if (user == null) {
                 System.out.println("No user found with username: " + username);
             }
-
-        } catch (SQLException e) {
+            return user;
+        }
+        catch (SQLException e) {
             System.err.println("User Manager: Error searching user: " + e.getMessage());
             e.printStackTrace();
         }
@@ -124,32 +97,18 @@ public class UserManager {
      * @return 찾은 사용자 정보 객체 (User), 없으면 null
      */
     public User findUserNameByUserId(long userId) {
-    	 String sql = "SELECT user_id, user_name, created_at " +
-                 "FROM users " +
-                 "WHERE user_id = ?";
-    	 ResultSet rs = null;
-    	 
-    	 try (Connection conn = connectionManager.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-             pstmt.setLong(1, userId);
-             rs = pstmt.executeQuery();
-             
-             if (rs.next()) {
-                 long foundUserId = rs.getLong("user_id");
-                 String username = rs.getString("user_name");
-                 Timestamp createdAt = rs.getTimestamp("created_at");
-
-                 return new User(foundUserId, username, createdAt);
-             } else {
-                 System.out.println("No user found with userId: " + userId);
-                 return null;
-             }
-    	 } catch (SQLException e) {
-             System.err.println("Error searching user: " + e.getMessage());
-             e.printStackTrace();
-             return null;
-         }
+        try {
+            User user = users.findUserById(userId);
+            if (user == null) {
+                System.out.println("No user found with userId: " + userId);
+            }
+            return user;
+        }
+        catch (SQLException e) {
+            System.err.println("Error searching user: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
     }
 
     /**
@@ -158,20 +117,12 @@ public class UserManager {
      * @return 삭제된 행의 수
      */
     public int deleteUser(long userId) {
-        String sql = "DELETE " +
-                "FROM users " +
-                "WHERE user_id = ?";
-
-        try (Connection conn = connectionManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setLong(1, userId);
-
-            int affectedRows = pstmt.executeUpdate();
+        try {
+            int affectedRows = users.deleteUser(userId);
             System.out.println(affectedRows + " row(s) deleted.");
             return affectedRows;
-
-        } catch (SQLException e) {
+        }
+        catch (SQLException e) {
             System.err.println("User Manager: Error deleting user: " + e.getMessage());
             e.printStackTrace();
         }
@@ -184,63 +135,15 @@ public class UserManager {
      * @return 모든 사용자 목록
      */
     public List<User> getAllUsers() {
-        String sql = "SELECT user_id, user_name, created_at FROM users";
-        List<User> userList = new ArrayList<>();
-        ResultSet rs = null;
-
-        try (Connection conn = connectionManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                long userId = rs.getLong("user_id");
-                String username = rs.getString("user_name");
-                Timestamp createdAt = rs.getTimestamp("created_at");
-
-                userList.add(new User(userId, username, createdAt));
-            }
-
-        } catch (SQLException e) {
-            System.err.println("User Manager: Error getting all users: " + e.getMessage());
-            e.printStackTrace();
-        }
-
-        return userList;
-    }
-
-    /**
-     * 사용자 이름으로 사용자의 인증 정보를 포함하여 검색
-     * 인증 목적으로만 사용하며, 비밀번호 해시 값을 포함하여 반환
-     * @param username 검색할 사용자 이름
-     * @return 인증에 필요한 사용자 정보 (user_id, user_name, password_hash), 없으면 null
-     */
-    private AuthenticationUser getUserForAuthentication(String username) {
-        String sql = "SELECT user_id, user_name, password_hash " +
-                "FROM users " +
-                "WHERE user_name = ?";
-        ResultSet rs = null;
-
-        try (Connection conn = connectionManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, username);
-            rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                long userId = rs.getLong("user_id");
-                String foundUsername = rs.getString("user_name");
-                String passwordHash = rs.getString("password_hash");
-
-                return new AuthenticationUser(userId, foundUsername, passwordHash);
-            }
+        try {
+            return users.findAllUsers();
         }
         catch (SQLException e) {
-            System.err.println("User Manager: Error retrieving user for authentication: " + e.getMessage());
+            System.err.println("User Manager: Error getting all users: " + e.getMessage());
             e.printStackTrace();
         }
 
-        return null;
+        return new ArrayList<>();
     }
 
     /**
@@ -250,16 +153,25 @@ public class UserManager {
      * @return 인증에 성공하면 해당 User를 반환, 실패하면 null 반환
      */
     public User login(String username, String plainPassword) {
-        AuthenticationUser userForAuth = getUserForAuthentication(username);
+        String passwordHash;
+        try {
+            // 인증 목적으로만 비밀번호 해시 값을 조회
+            passwordHash = users.findPasswordHash(username);
+        }
+        catch (SQLException e) {
+            System.err.println("User Manager: Error retrieving user for authentication: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
 
-        if (userForAuth == null) {
+        if (passwordHash == null) {
             System.out.println("Authentication failed: User '" + username + "' not found");
             return null;
         }
 
         // 비밀번호 평문과, 인증 정보에 있는 해싱된 정보를 비교
-        if (checkPassword(plainPassword, userForAuth.passwordHash())) {
-            return findUserByUsername(userForAuth.username());
+        if (checkPassword(plainPassword, passwordHash)) {
+            return findUserByUsername(username);
         }
         else {
             System.out.println("Authentication failed: Invalid password for User '" + username + "'");
@@ -267,6 +179,34 @@ public class UserManager {
         }
     }
 
-    // 인증 목적으로만 사용될 내부 클래스
-        private record AuthenticationUser(long userId, String username, String passwordHash) {}
-}
\ No newline at end of file
+    // --- 비동기 작업 메소드 ---
+    // 저장소의 executor (MySQL이면 connection pool 크기의 스레드)에서 실행하며, 결과와 실패 시 반환값은 동기 메소드와 같다
+    // UI에서는 결과를 SwingUtilities.invokeLater 등으로 EDT에서 반영해야 한다
+
+    public CompletableFuture<Long> addUserAsync(String username, String password) {
+        return AsyncTasks.supply(repository.executor(), () -> addUser(username, password));
+    }
+
+    public CompletableFuture<User> findUserByUsernameAsync(String username) {
+        return AsyncTasks.supply(repository.executor(), () -> findUserByUsername(username));
+    }
+
+    public CompletableFuture<User> findUserNameByUserIdAsync(long userId) {
+        return AsyncTasks.supply(repository.executor(), () -> findUserNameByUserId(userId));
+    }
+
+    public CompletableFuture<Integer> deleteUserAsync(long userId) {
+        return AsyncTasks.supply(repository.executor(), () -> deleteUser(userId));
+    }
+
+    public CompletableFuture<List<User>> getAllUsersAsync() {
+        return AsyncTasks.supply(repository.executor(), this::getAllUsers);
+    }
+
+    /**
+     * 비밀번호 해시 비교 (BCrypt)도 executor에서 하므로 UI 스레드를 막지 않는다
+     */
+    public CompletableFuture<User> loginAsync(String username, String plainPassword) {
+        return AsyncTasks.supply(repository.executor(), () -> login(username, plainPassword));
+    }
+}
@@ -0,0 +1,35 @@
+package teamproject;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * users 저장소
+ * 오류는 SQLException으로 전달하고, 처리 (출력, 반환값)는 UserManager에서 한다
+ */
+public interface UserRepository {
+
+    /**
+     * @param passwordHash 해싱된 비밀번호
+     * @return 생성된 user_id
+     * @throws java.sql.SQLIntegrityConstraintViolationException 같은 이름의 사용자가 있을 때 (메시지에 "Duplicate entry" 포함)
+     */
+    long insertUser(String username, String passwordHash) throws SQLException;
+
+    /** @return 사용자, 없으면 null */
+    User findUserByName(String username) throws SQLException;
+
+    /** @return 사용자, 없으면 null */
+    User findUserById(long userId) throws SQLException;
+
+    /**
+     * 인증 목적으로만 사용
+     * @return 해싱된 비밀번호, 사용자가 없으면 null
+     */
+    String findPasswordHash(String username) throws SQLException;
+
+    /** @return 삭제된 사용자 수 */
+    int deleteUser(long userId) throws SQLException;
+
+    List<User> findAllUsers() throws SQLException;
+}
@@ -0,0 +1,99 @@
+package teamproject;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * primary connection에서 쓰기가 일어났음을 알려주는 Connection 대리 객체 (read-your-writes용)
+ * commit, 그리고 executeUpdate / executeBatch / execute 호출 시 onWrite를 실행한다
+ * (execute는 SELECT일 수도 있지만 구분하지 않고 쓰기로 본다, 잘못 판단해도 primary에서 읽을 뿐이므로)
+ */
+final class WriteTrackingConnection {
+
+    private static final Set<String> WRITE_METHODS = Set.of(
+            "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch", "execute");
+
+    private WriteTrackingConnection() {}
+
+    /**
+     * @param onWrite 쓰기가 일어날 때마다 호출 (여러 스레드에서 호출될 수 있음)
+     */
+    static Connection wrap(Connection conn, Runnable onWrite) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new ConnectionHandler(conn, onWrite));
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final Runnable onWrite;
+
+        private ConnectionHandler(Connection target, Runnable onWrite) {
+            this.target = target;
+            this.onWrite = onWrite;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            Object result = invokeTarget(target, method, args);
+            switch (method.getName()) {
+                case "commit":
+                    onWrite.run();
+                    return result;
+                case "prepareStatement":
+                    return wrapStatement((Connection) proxy, (Statement) result, PreparedStatement.class);
+                case "prepareCall":
+                    return wrapStatement((Connection) proxy, (Statement) result, CallableStatement.class);
+                case "createStatement":
+                    return wrapStatement((Connection) proxy, (Statement) result, Statement.class);
+                default:
+                    return result;
+            }
+        }
+
+        private Object wrapStatement(Connection connectionProxy, Statement statement, Class<? extends Statement> type) {
+            return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { type },
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "getConnection":
+                                return connectionProxy;
+                            default:
+                                break;
+                        }
+                        Object result = invokeTarget(statement, method, args);
+                        if (WRITE_METHODS.contains(method.getName())) {
+                            onWrite.run();
+                        }
+                        return result;
+                    });
+        }
+    }
+}
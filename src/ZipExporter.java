@@ -0,0 +1,214 @@
+package teamproject;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 여러 file_data를 하나의 ZIP 파일로 스트리밍 저장
+ * 파일 내용은 PARALLEL_EXPORT_FETCHES개의 connection으로 최대 EXPORT_FETCH_WINDOW개까지 미리 임시 파일로 받아 두고,
+ * ZIP에는 순서대로 고정 크기 버퍼로 복사하므로 내보내는 전체 크기와 관계없이 메모리 사용량이 일정하다
+ * (임시 디스크 사용량은 EXPORT_FETCH_WINDOW개 파일 크기까지)
+ */
+final class ZipExporter {
+
+    // 동시에 내용을 가져올 connection 수와, 미리 받아 둘 최대 파일 수
+    private static final int PARALLEL_EXPORT_FETCHES = 4;
+    private static final int EXPORT_FETCH_WINDOW = 8;
+    // 중단 시 진행 중인 전송이 끝나기를 기다리는 최대 시간 (이후 임시 파일 삭제)
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    /**
+     * ZIP에 넣을 파일 하나
+     * @param name ZIP 안의 파일 이름 (entryName으로 만든 이름)
+     * @param actualDataId 내용이 저장된 file_data의 actual_data_id
+     * @param lastModified 파일의 수정 시각 (epoch milliseconds)
+     */
+    record Entry(String name, long actualDataId, long lastModified) {
+    }
+
+    private final ConnectionManager connectionManager;
+    private final FileDataManager fileDataManager;
+
+    ZipExporter(ConnectionManager connectionManager, FileDataManager fileDataManager) {
+        this.connectionManager = connectionManager;
+        this.fileDataManager = fileDataManager;
+    }
+
+    /**
+     * entries를 순서대로 target에 ZIP으로 저장
+     * 같은 폴더의 임시 파일에 쓴 뒤 완료되면 target으로 옮기므로, 실패하면 target은 바뀌지 않는다
+     * @return 저장한 파일 수
+     * @throws SQLException file_data 조회 중 오류가 발생하거나 내용이 없는 경우
+     * @throws IOException 파일 기록 중 오류 발생 시
+     */
+    int export(Path target, List<Entry> entries) throws SQLException, IOException {
+        Path absoluteTarget = target.toAbsolutePath();
+        Path partial = absoluteTarget.resolveSibling(absoluteTarget.getFileName() + ".part");
+        Path spoolDir = Files.createTempDirectory("page-export");
+
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLEL_EXPORT_FETCHES, runnable -> {
+            Thread thread = new Thread(runnable, "zip-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        boolean exported = false;
+        try {
+            int written;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial));
+                 ZipOutputStream zip = new ZipOutputStream(out)) {
+                written = writeEntries(zip, entries, spoolDir, executor);
+            }
+            Files.move(partial, absoluteTarget, StandardCopyOption.REPLACE_EXISTING);
+            exported = true;
+            return written;
+        }
+        finally {
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            deleteSpool(spoolDir);
+            if (!exported) {
+                Files.deleteIfExists(partial);
+            }
+        }
+    }
+
+    /**
+     * 최대 EXPORT_FETCH_WINDOW개의 파일을 미리 받아 두면서, 받은 순서가 아니라 entries 순서대로 ZIP에 기록
+     * @return 기록한 파일 수
+     */
+    private int writeEntries(ZipOutputStream zip, List<Entry> entries, Path spoolDir, ExecutorService executor)
+            throws SQLException, IOException {
+        try {
+            Deque<Future<Path>> window = new ArrayDeque<>();
+            int nextToFetch = 0;
+            while (nextToFetch < entries.size() && window.size() < EXPORT_FETCH_WINDOW) {
+                window.add(executor.submit(fetchTask(spoolDir, entries.get(nextToFetch++))));
+            }
+
+            int written = 0;
+            while (!window.isEmpty()) {
+                Path spool = window.poll().get();
+                if (nextToFetch < entries.size()) {
+                    window.add(executor.submit(fetchTask(spoolDir, entries.get(nextToFetch++))));
+                }
+
+                Entry entry = entries.get(written++);
+                ZipEntry zipEntry = new ZipEntry(entry.name());
+                zipEntry.setTime(entry.lastModified());
+                zip.putNextEntry(zipEntry);
+                Files.copy(spool, zip);
+                zip.closeEntry();
+                Files.delete(spool);
+            }
+            zip.finish();
+            return written;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted.", e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new SQLException("Error fetching file data for export: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * file_data 하나의 내용을 임시 파일로 받는 작업 (connection은 받는 동안에만 빌림)
+     */
+    private Callable<Path> fetchTask(Path spoolDir, Entry entry) {
+        return () -> {
+            Path spool = Files.createTempFile(spoolDir, "data-", ".tmp");
+            try (Connection conn = connectionManager.getReadConnection();
+                 FileChannel channel = FileChannel.open(spool, StandardOpenOption.WRITE)) {
+                if (fileDataManager.writeContentTo(conn, entry.actualDataId(), channel) == -1) {
+                    throw new SQLException("file_data " + entry.actualDataId() + " for " + entry.name() + " not found.");
+                }
+            }
+            catch (SQLException | IOException | RuntimeException e) {
+                Files.deleteIfExists(spool);
+                throw e;
+            }
+            return spool;
+        };
+    }
+
+    private static void deleteSpool(Path spoolDir) {
+        try (DirectoryStream<Path> spools = Files.newDirectoryStream(spoolDir)) {
+            for (Path spool : spools) {
+                Files.deleteIfExists(spool);
+            }
+            Files.deleteIfExists(spoolDir);
+        }
+        catch (IOException e) {
+            System.err.println("Zip Exporter: Error deleting temporary files in " + spoolDir + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * 페이지 이름을 ZIP 안의 파일 이름으로 변환
+     * 폴더 가져오기로 만든 페이지 이름의 '/'는 ZIP 안의 폴더로 유지하되, 빈 이름과 ".", ".." 부분은 버리고
+     * 그 밖에 파일 이름에 쓸 수 없는 문자는 '_'로 바꾼다 (압축을 풀 때 다른 폴더에 쓰지 않도록)
+     * 이미 쓰인 이름이면 확장자 앞에 " (2)", " (3)" ...을 붙인다
+     * @param usedNames 지금까지 쓰인 이름 (대소문자 무시), 반환한 이름이 추가됨
+     */
+    static String entryName(String pageName, long pageId, Set<String> usedNames) {
+        StringBuilder path = new StringBuilder();
+        for (String segment : (pageName == null) ? new String[0] : pageName.split("/")) {
+            segment = segment.replaceAll("[\\\\:*?\"<>|\\p{Cntrl}]", "_").trim();
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..")) {
+                continue;
+            }
+            if (path.length() > 0) {
+                path.append('/');
+            }
+            path.append(segment);
+        }
+        String name = (path.length() > 0) ? path.toString() : "page-" + pageId;
+
+        int dot = name.lastIndexOf('.');
+        if (dot <= name.lastIndexOf('/') + 1) {
+            dot = -1;
+        }
+        String base = (dot > 0) ? name.substring(0, dot) : name;
+        String extension = (dot > 0) ? name.substring(dot) : "";
+        String candidate = name;
+        for (int copy = 2; !usedNames.add(candidate.toLowerCase()); copy++) {
+            candidate = base + " (" + copy + ")" + extension;
+        }
+        return candidate;
+    }
+}
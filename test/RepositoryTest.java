@@ -0,0 +1,309 @@
+package teamproject;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Repository 구현 검사
+ * 1. repository.engine (application.properties)으로 연 저장소에서 사용자, 그룹, 페이지, 댓글 작업의 결과를 확인
+ *    (중복 이름, 같은 membership, 오래된 부모의 commit, 동시 commit, 같은 내용의 공유, 작성자가 아닌 댓글 삭제)
+ *    같은 저장소로 만든 PageManager (UI가 쓰는 경로)의 페이지 생성, commit, 목록, 비교, 내용, 댓글, 삭제도 확인
+ *    (merge, blame, export 등 MySQL 저장 형식이 필요한 기능은 repository.engine=memory이면 실패를 반환하는지만 확인)
+ * 2. 임시 journal 파일로 연 InMemoryRepository에 같은 작업을 한 뒤 다시 열어 상태가 같은지 확인하고,
+ *    마지막 frame을 중간에서 자른 journal은 그 frame만 버리고 복원되며 이후의 쓰기도 남는지 확인
+ * 만든 데이터는 끝나면 삭제하며, 실패하면 종료 코드 1
+ *
+ * 실행: javac -encoding UTF-8 -d out -cp "lib/*" src/*.java test/RepositoryTest.java
+ *       java -cp "out:resources:lib/*" teamproject.RepositoryTest [동시 commit 스레드 수]
+ *       (repository.engine=jdbc이면 MySQL이 필요하고, memory이면 DB 없이 실행된다)
+ */
+public class RepositoryTest {
+
+    private static final int DEFAULT_THREADS = 8;
+
+    // exercise에서 만든 데이터의 ID
+    private record Fixture(long ownerId, long memberId, long groupId, long pageId, long commentId) {}
+
+    public static void main(String[] args) throws Exception {
+        int threads = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_THREADS;
+        List<String> failures = new ArrayList<>();
+
+        ConnectionManager connectionManager = new ConnectionManager();
+        String engine = connectionManager.getRepositoryEngine();
+        connectionManager.connect();
+        try {
+            Repository repository = connectionManager.getRepository();
+            Fixture fixture = exercise(repository, "repository-test-" + System.currentTimeMillis(), threads, failures);
+            cleanUp(repository, fixture);
+            checkPageManager(connectionManager, "page-manager-test-" + System.currentTimeMillis(), failures);
+        }
+        finally {
+            connectionManager.close();
+        }
+
+        checkJournalReplay(threads, failures);
+
+        if (!failures.isEmpty()) {
+            failures.forEach(failure -> System.out.println("FAIL " + failure));
+            System.exit(1);
+        }
+        System.out.println("OK repository.engine=" + engine + ", journal replay and torn tail recovery.");
+    }
+
+    /**
+     * 사용자 두 명, 그룹, 페이지 (revision 여러 개), 댓글을 만들며 각 작업의 결과를 확인
+     */
+    private static Fixture exercise(Repository repository, String name, int threads, List<String> failures) throws Exception {
+        UserRepository users = repository.users();
+        long ownerId = users.insertUser(name, "hash-" + name);
+        long memberId = users.insertUser(name + "-member", "hash-" + name + "-member");
+        try {
+            users.insertUser(name, "other");
+            failures.add("duplicate user name was accepted");
+        }
+        catch (SQLIntegrityConstraintViolationException e) {
+            // 예상한 결과
+        }
+        check(failures, name.equals(users.findUserById(ownerId).username()), "findUserById returned a different user");
+        check(failures, users.findUserByName(name).userId() == ownerId, "findUserByName returned a different user");
+        check(failures, ("hash-" + name).equals(users.findPasswordHash(name)), "findPasswordHash returned a different hash");
+
+        GroupRepository groups = repository.groups();
+        long groupId = groups.insertGroup(name, name, ownerId);
+        check(failures, groups.insertMembership(groupId, ownerId, "admin"), "first membership was not inserted");
+        check(failures, !groups.insertMembership(groupId, ownerId, "admin"), "duplicate membership was inserted");
+        check(failures, groups.insertMembership(groupId, memberId, "user"), "member membership was not inserted");
+        check(failures, groups.findGroupByJoinKey(name).groupId() == groupId, "findGroupByJoinKey returned a different group");
+        check(failures, groups.findMembershipsByUser(memberId).size() == 1, "member should have one membership");
+
+        PageRepository pages = repository.pages();
+        byte[] first = content(name, 0);
+        long pageId = pages.createPage(groupId, ownerId, name + ".txt", first, "initial");
+        long parentId = latestRevisionId(pages, groupId, pageId);
+        long secondId = pages.commitRevision(pageId, memberId, parentId, content(name, 1), "second");
+        check(failures, secondId > 0, "commit on the latest revision failed: " + secondId);
+        check(failures, pages.commitRevision(pageId, memberId, parentId, content(name, 2), "stale") == PageManager.REVISION_CONFLICT,
+                "commit on a stale parent was not rejected");
+
+        int winners = 0;
+        for (long result : commitConcurrently(pages, pageId, memberId, secondId, name, threads)) {
+            if (result > 0) {
+                winners++;
+            }
+            else if (result != PageManager.REVISION_CONFLICT) {
+                failures.add("concurrent commit returned " + result);
+            }
+        }
+        check(failures, winners == 1, winners + " concurrent commits won on the same parent");
+
+        // 첫 revision과 같은 내용은 새로 저장하지 않고 공유
+        long revertId = pages.commitRevision(pageId, ownerId, latestRevisionId(pages, groupId, pageId), first, "revert");
+        Revision initial = pages.findRevisions(pageId).get(0);
+        Revision revert = pages.findRevision(revertId);
+        check(failures, revert != null && revert.actualDataId() == initial.actualDataId(), "identical content was not shared");
+        check(failures, Arrays.equals(first, pages.readContent(initial.actualDataId())), "readContent returned different content");
+        check(failures, pages.findRevisions(pageId).size() == 4, "page should have 4 revisions");
+
+        // 최신부터 나누어 조회하면 생성 순서의 역순으로 이어지고, 오래된 것부터 조회하면 그 다음부터
+        List<Revision> all = pages.findRevisions(pageId);
+        List<Revision> newest = pages.findRevisionPage(pageId, 0, 3, true);
+        List<Revision> rest = pages.findRevisionPage(pageId, newest.get(newest.size() - 1).revisionId(), 3, true);
+        List<Revision> oldest = pages.findRevisionPage(pageId, all.get(0).revisionId(), 2, false);
+        check(failures, newest.size() == 3 && newest.get(0).revisionId() == all.get(3).revisionId()
+                && newest.get(2).revisionId() == all.get(1).revisionId(), "findRevisionPage newest first returned " + newest);
+        check(failures, rest.size() == 1 && rest.get(0).revisionId() == all.get(0).revisionId(), "findRevisionPage after the first page returned " + rest);
+        check(failures, oldest.size() == 2 && oldest.get(0).revisionId() == all.get(1).revisionId()
+                && oldest.get(1).revisionId() == all.get(2).revisionId(), "findRevisionPage oldest first returned " + oldest);
+
+        CommentRepository comments = repository.comments();
+        comments.insertComment(pageId, memberId, "comment by " + name);
+        List<Comment> pageComments = comments.findComments(pageId);
+        check(failures, pageComments.size() == 1, "page should have one comment");
+        long commentId = pageComments.get(0).commentId();
+        check(failures, (name + "-member").equals(pageComments.get(0).userName()), "comment has a different author name");
+        check(failures, comments.deleteComment(commentId, ownerId) == 0, "comment was deleted by a user who did not write it");
+
+        return new Fixture(ownerId, memberId, groupId, pageId, commentId);
+    }
+
+    /**
+     * connect()로 연 저장소를 쓰는 PageManager로 UI의 페이지 작업을 수행하고 저장소에서 결과를 확인
+     */
+    private static void checkPageManager(ConnectionManager connectionManager, String name, List<String> failures) throws Exception {
+        Repository repository = connectionManager.getRepository();
+        long userId = repository.users().insertUser(name, "hash-" + name);
+        long groupId = repository.groups().insertGroup(name, name, userId);
+        PageManager pageManager = new PageManager(connectionManager, repository.users().findUserById(userId), repository.groups().findGroup(groupId));
+
+        long pageId = pageManager.makePage(name + ".txt", content(name, 0), "initial");
+        check(failures, pageId > 0, "PageManager.makePage failed: " + pageId);
+        long firstId = latestRevisionId(repository.pages(), groupId, pageId);
+        long secondId = pageManager.insertRevision(pageId, firstId, content(name, 1), "second");
+        check(failures, secondId > 0, "PageManager.insertRevision failed: " + secondId);
+        check(failures, pageManager.insertRevision(pageId, firstId, content(name, 2), "stale") == PageManager.REVISION_CONFLICT,
+                "PageManager.insertRevision on a stale parent was not rejected");
+
+        check(failures, pageManager.searchPage().stream().anyMatch(page -> page.pageId() == pageId), "PageManager.searchPage is missing the page");
+        List<Revision> revisions = pageManager.getRevisionPageAsync(pageId, 0, 10, true).get();
+        check(failures, revisions.size() == 2 && revisions.get(0).revisionId() == secondId, "PageManager.getRevisionPageAsync returned " + revisions);
+        check(failures, Arrays.equals(content(name, 1), pageManager.readRevisionContent(secondId)), "PageManager.readRevisionContent returned different content");
+        RevisionDiff diff = pageManager.diffRevisions(firstId, secondId);
+        check(failures, diff != null && diff.hunks().size() == 1, "PageManager.diffRevisions returned " + diff);
+
+        pageManager.insertComment(pageId, "comment by " + name);
+        check(failures, pageManager.getComments(pageId).size() == 1, "PageManager.getComments should return one comment");
+        check(failures, (pageManager.blameRevision(secondId) != null) == connectionManager.usesDatabase(),
+                "PageManager.blameRevision should only work with repository.engine=jdbc");
+
+        check(failures, pageManager.deleteAllComments(pageId), "PageManager.deleteAllComments failed");
+        pageManager.deletePage(pageId);
+        check(failures, pageManager.searchPage().isEmpty(), "PageManager.deletePage left the page");
+        check(failures, repository.comments().findComments(pageId).isEmpty(), "PageManager.deleteAllComments left a comment");
+
+        repository.groups().deleteGroup(groupId);
+        repository.users().deleteUser(userId);
+    }
+
+    /**
+     * threads개의 스레드가 같은 부모로 동시에 commitRevision을 호출
+     */
+    private static List<Long> commitConcurrently(PageRepository pages, long pageId, long userId, long parentId,
+                                                 String name, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                byte[] content = content(name, 10 + thread);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return pages.commitRevision(pageId, userId, parentId, content, "concurrent");
+                }));
+            }
+            start.countDown();
+
+            List<Long> results = new ArrayList<>();
+            for (Future<Long> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void cleanUp(Repository repository, Fixture fixture) throws SQLException {
+        repository.comments().deleteAllComments(fixture.pageId());
+        repository.pages().deletePage(fixture.pageId());
+        repository.groups().deleteGroup(fixture.groupId());
+        repository.users().deleteUser(fixture.memberId());
+        repository.users().deleteUser(fixture.ownerId());
+    }
+
+    /**
+     * 임시 journal 파일로 InMemoryRepository를 열어 다시 열었을 때의 복원을 확인
+     */
+    private static void checkJournalReplay(int threads, List<String> failures) throws Exception {
+        Path journalFile = Files.createTempFile("repository-test-", ".journal");
+        try {
+            Fixture fixture;
+            String before;
+            try (InMemoryRepository repository = InMemoryRepository.open(journalFile)) {
+                fixture = exercise(repository, "journal", threads, failures);
+                before = snapshot(repository, fixture);
+            }
+
+            // 다시 열면 같은 상태
+            long validLength;
+            try (InMemoryRepository repository = InMemoryRepository.open(journalFile)) {
+                check(failures, before.equals(snapshot(repository, fixture)), "replayed state differs:\n" + before + "\n---\n" + snapshot(repository, fixture));
+                validLength = Files.size(journalFile);
+                repository.comments().insertComment(fixture.pageId(), fixture.ownerId(), "torn");
+            }
+
+            // 마지막 frame (위의 댓글)이 기록 중에 잘린 경우: 그 frame만 버리고, 이후의 쓰기는 그 자리에 기록
+            long tornLength = validLength + (Files.size(journalFile) - validLength) / 2;
+            try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                channel.truncate(tornLength);
+            }
+            try (InMemoryRepository repository = InMemoryRepository.open(journalFile)) {
+                check(failures, Files.size(journalFile) == validLength, "torn journal frame was not truncated");
+                check(failures, before.equals(snapshot(repository, fixture)), "state after a torn frame differs");
+                repository.comments().insertComment(fixture.pageId(), fixture.ownerId(), "after torn");
+            }
+            try (InMemoryRepository repository = InMemoryRepository.open(journalFile)) {
+                List<Comment> pageComments = repository.comments().findComments(fixture.pageId());
+                check(failures, pageComments.size() == 2 && "after torn".equals(pageComments.get(1).commentData()),
+                        "write after a torn frame was not replayed");
+
+                // 삭제도 재생되며, 더 이상 참조되지 않는 내용은 남지 않음
+                List<Revision> revisions = repository.pages().findRevisions(fixture.pageId());
+                cleanUp(repository, fixture);
+                try (InMemoryRepository reopened = InMemoryRepository.open(journalFile)) {
+                    check(failures, reopened.pages().findRevisions(fixture.pageId()).isEmpty(), "deleted page has revisions after replay");
+                    for (Revision revision : revisions) {
+                        check(failures, reopened.pages().readContent(revision.actualDataId()) == null,
+                                "content " + revision.actualDataId() + " of a deleted page is still stored after replay");
+                    }
+                    check(failures, reopened.users().findAllUsers().isEmpty(), "deleted users are present after replay");
+                    check(failures, reopened.groups().findGroup(fixture.groupId()) == null, "deleted group is present after replay");
+                }
+            }
+        }
+        finally {
+            Files.deleteIfExists(journalFile);
+        }
+    }
+
+    /**
+     * fixture의 사용자, 그룹, membership, 페이지, revision, 내용, 댓글을 비교할 수 있는 문자열로
+     */
+    private static String snapshot(Repository repository, Fixture fixture) throws SQLException {
+        StringBuilder state = new StringBuilder();
+        for (long userId : new long[] {fixture.ownerId(), fixture.memberId()}) {
+            User user = repository.users().findUserById(userId);
+            state.append(user).append(' ').append(repository.users().findPasswordHash(user.username())).append('\n');
+            state.append(repository.groups().findMembershipsByUser(userId)).append('\n');
+        }
+        state.append(repository.groups().findGroup(fixture.groupId())).append('\n');
+        state.append(repository.pages().findPagesByGroup(fixture.groupId())).append('\n');
+        for (Revision revision : repository.pages().findRevisions(fixture.pageId())) {
+            byte[] content = repository.pages().readContent(revision.actualDataId());
+            state.append(revision).append(' ').append(new String(content, StandardCharsets.UTF_8).hashCode()).append('\n');
+        }
+        state.append(repository.comments().findComments(fixture.pageId())).append('\n');
+        return state.toString();
+    }
+
+    private static long latestRevisionId(PageRepository pages, long groupId, long pageId) throws SQLException {
+        for (Page page : pages.findPagesByGroup(groupId)) {
+            if (page.pageId() == pageId) {
+                return page.latestRevisionId();
+            }
+        }
+        throw new SQLException("Page with ID " + pageId + " not found.");
+    }
+
+    private static byte[] content(String name, int version) {
+        return (name + " version " + version + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void check(List<String> failures, boolean condition, String message) {
+        if (!condition) {
+            failures.add(message);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package teamproject;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * PageManager.insertRevision의 compare-and-set 검사 (application.properties의 DB 사용)
+ * 한 페이지에 여러 스레드가 같은 부모로 동시에 revision을 올리는 것을 ROUNDS번 반복한 뒤 확인한다
+ * 1. 부모마다 성공한 revision은 정확히 하나이고, 나머지는 REVISION_CONFLICT
+ * 2. 실패한 revision의 file_data가 남아 있지 않음 (롤백됨)
+ * 3. latest_revision_id에서 parent_revision_id를 따라가면 페이지의 모든 revision을 한 줄로 지나 첫 revision에 도달
+ * 4. FileEditor처럼 화면에 보이던 최신 revision을 부모로 올릴 때, 목록을 불러온 뒤 다른 사용자가 먼저 올렸다면
+ *    (오래된 화면) 덮어쓰지 않고 REVISION_CONFLICT이며 내용도 남지 않음
+ * 만든 사용자, 그룹, 페이지는 끝나면 삭제하며, 실패하면 종료 코드 1
+ *
+ * 실행: javac -encoding UTF-8 -d out -cp "lib/*" src/*.java test/RevisionConcurrencyTest.java
+ *       java -cp "out:resources:lib/*" teamproject.RevisionConcurrencyTest [스레드 수] [반복 횟수]
+ */
+public class RevisionConcurrencyTest {
+
+    private static final int DEFAULT_THREADS = 16;
+    private static final int DEFAULT_ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int threads = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_THREADS;
+        int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+
+        ConnectionManager connectionManager = new ConnectionManager();
+        connectionManager.connect();
+
+        String name = "concurrency-test-" + System.currentTimeMillis();
+        UserManager userManager = new UserManager(connectionManager);
+        long userId = userManager.addUser(name, name);
+        if (userId < 0) {
+            throw new IllegalStateException("Creating test user failed.");
+        }
+        User user = new User(userId, name, null);
+        GroupManager groupManager = new GroupManager(connectionManager, user);
+        long groupId = groupManager.makeGroup(name);
+        if (groupId < 0) {
+            throw new IllegalStateException("Creating test group failed.");
+        }
+        PageManager pageManager = new PageManager(connectionManager, user, groupManager.selectGroup(groupId));
+
+        List<String> failures = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long pageId = -1;
+        try {
+            pageId = pageManager.makePage(name + ".txt", content(0, 0), "initial");
+            if (pageId < 0) {
+                throw new IllegalStateException("Creating test page failed.");
+            }
+
+            List<String> losingChecksums = new ArrayList<>();
+            for (int round = 1; round <= rounds; round++) {
+                long parentRevisionId = pageManager.getLatestRevisionId(pageId);
+                List<Long> results = hammer(pool, pageManager, pageId, parentRevisionId, round, threads);
+
+                int winners = 0;
+                for (int thread = 0; thread < threads; thread++) {
+                    long result = results.get(thread);
+                    if (result > 0) {
+                        winners++;
+                    }
+                    else if (result == PageManager.REVISION_CONFLICT) {
+                        losingChecksums.add(FileDataManager.toHexString(
+                                FileDataManager.newSha256Digest().digest(content(round, thread))));
+                    }
+                    else {
+                        failures.add("round " + round + ", thread " + thread + ": insertRevision returned " + result);
+                    }
+                }
+                if (winners != 1) {
+                    failures.add("round " + round + ": " + winners + " revisions won on parent " + parentRevisionId);
+                }
+            }
+
+            checkStaleView(pageManager, new PageController(pageManager, connectionManager, user, groupManager.selectGroup(groupId)),
+                    pageId, rounds + 1, losingChecksums, failures);
+
+            try (Connection conn = connectionManager.getConnection()) {
+                int orphaned = countFileData(conn, losingChecksums);
+                if (orphaned > 0) {
+                    failures.add(orphaned + " file_data row(s) left by conflicting revisions");
+                }
+                checkLinearHistory(conn, pageId, rounds + 2, failures);
+            }
+        }
+        finally {
+            pool.shutdownNow();
+            if (pageId > 0) {
+                pageManager.deletePage(pageId);
+            }
+            groupManager.deleteGroup(groupId);
+            userManager.deleteUser(userId);
+            connectionManager.close();
+        }
+
+        if (!failures.isEmpty()) {
+            failures.forEach(failure -> System.out.println("FAIL " + failure));
+            System.exit(1);
+        }
+        System.out.println("OK " + rounds + " rounds x " + threads + " threads, one winner per parent, stale view rejected, linear history.");
+    }
+
+    /**
+     * threads개의 스레드가 같은 부모로 동시에 insertRevision을 호출하고 스레드 순서대로 결과를 반환
+     */
+    private static List<Long> hammer(ExecutorService pool, PageManager pageManager, long pageId,
+                                     long parentRevisionId, int round, int threads) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            byte[] content = content(round, thread);
+            futures.add(pool.submit(() -> {
+                start.await();
+                return pageManager.insertRevision(pageId, parentRevisionId, content, "round " + round);
+            }));
+        }
+        start.countDown();
+
+        List<Long> results = new ArrayList<>();
+        for (Future<Long> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    /**
+     * 리비젼 목록을 불러온 뒤 다른 사용자가 먼저 올리고, 불러온 목록의 최신 revision을 부모로 올림 (FileEditor의 업로드)
+     * 오래된 화면에서 올린 revision은 REVISION_CONFLICT이고, 먼저 올린 revision이 최신으로 남아야 한다
+     * @param round 내용을 구분할 번호 (hammer의 round와 겹치지 않게)
+     */
+    private static void checkStaleView(PageManager pageManager, PageController pageController, long pageId, int round,
+                                       List<String> losingChecksums, List<String> failures) {
+        List<Revision> displayed = pageController.getRevisionPage_con(pageId, 0, FileEditor.REVISION_PAGE_SIZE, true);
+        if (displayed == null || displayed.isEmpty()) {
+            failures.add("stale view: revision list could not be loaded");
+            return;
+        }
+        long displayedLatestRevisionId = displayed.get(0).revisionId();
+
+        long newerRevisionId = pageManager.insertRevision(pageId, pageManager.getLatestRevisionId(pageId), content(round, 0), "newer");
+        if (newerRevisionId <= 0) {
+            failures.add("stale view: insertRevision on the latest revision returned " + newerRevisionId);
+            return;
+        }
+
+        long staleResult = pageManager.insertRevision(pageId, displayedLatestRevisionId, content(round, 1), "stale view");
+        if (staleResult != PageManager.REVISION_CONFLICT) {
+            failures.add("stale view: insertRevision on displayed revision " + displayedLatestRevisionId + " returned " + staleResult);
+        }
+        else {
+            losingChecksums.add(FileDataManager.toHexString(FileDataManager.newSha256Digest().digest(content(round, 1))));
+        }
+        long latestRevisionId = pageManager.getLatestRevisionId(pageId);
+        if (latestRevisionId != newerRevisionId) {
+            failures.add("stale view: latest revision is " + latestRevisionId + ", expected " + newerRevisionId);
+        }
+    }
+
+    /**
+     * 스레드마다 다른 내용 (같은 내용이면 file_data가 공유되어 남은 행을 구분할 수 없음)
+     */
+    private static byte[] content(int round, int thread) {
+        StringBuilder content = new StringBuilder();
+        for (int line = 0; line < 100; line++) {
+            content.append("line ").append(line).append('\n');
+        }
+        content.append("round ").append(round).append(", thread ").append(thread).append('\n');
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int countFileData(Connection conn, List<String> checksums) throws SQLException {
+        if (checksums.isEmpty()) {
+            return 0;
+        }
+        String sql = "SELECT COUNT(*) " +
+                "FROM file_data " +
+                "WHERE checksum IN (" + String.join(", ", Collections.nCopies(checksums.size(), "?")) + ")";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < checksums.size(); i++) {
+                pstmt.setString(i + 1, checksums.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * latest_revision_id부터 parent_revision_id를 따라가며, 페이지의 revision을 모두 한 번씩 지나 첫 revision에서 끝나는지 확인
+     */
+    private static void checkLinearHistory(Connection conn, long pageId, int expectedCount, List<String> failures) throws SQLException {
+        RevisionManager revisionManager = new RevisionManager();
+        List<Revision> revisions = revisionManager.getRevisionsByPageId(conn, pageId);
+        if (revisions.size() != expectedCount) {
+            failures.add("page has " + revisions.size() + " revisions, expected " + expectedCount);
+        }
+
+        long revisionId;
+        String sql = "SELECT latest_revision_id FROM pages WHERE page_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, pageId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                revisionId = rs.getLong(1);
+            }
+        }
+
+        Set<Long> visited = new HashSet<>();
+        while (revisionId > 0) {
+            if (!visited.add(revisionId)) {
+                failures.add("parent chain has a cycle at revision " + revisionId);
+                return;
+            }
+            Revision revision = revisionManager.getRevision(conn, revisionId);
+            if (revision == null || revision.pageId() != pageId) {
+                failures.add("parent chain leaves page " + pageId + " at revision " + revisionId);
+                return;
+            }
+            revisionId = revision.parentRevisionId();
+        }
+        if (visited.size() != revisions.size()) {
+            failures.add("parent chain from latest covers " + visited.size() + " of " + revisions.size() + " revisions");
+        }
+    }
+}